@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Time from JVM launch until /actuator/health/readiness reports UP, for the plain jar,
+# the jar with a CDS archive, and the AOT-processed jar with a CDS archive.
+#
+#   ./mvnw -Paot package -DskipTests && scripts/measure-startup.sh
+#
+# Needs the same database and node as a normal start; extra arguments go to every run.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+jar=$(ls target/medichain-*.jar | grep -v plain | head -1)
+work=target/startup
+readiness=http://127.0.0.1:8082/actuator/health/readiness
+
+rm -rf "$work"
+java -Djarmode=tools -jar "$jar" extract --destination "$work" >/dev/null
+app="$work/$(basename "$jar")"
+
+# Training run: start the context, then exit and dump the loaded classes.
+java -XX:ArchiveClassesAtExit="$work/app.jsa" -Dspring.context.exit=onRefresh -jar "$app" "$@" >/dev/null
+java -XX:ArchiveClassesAtExit="$work/app-aot.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+    -jar "$app" "$@" >/dev/null
+
+measure() {
+    local name=$1
+    shift
+    local started pid
+    started=$(date +%s%N)
+    java "$@" >"$work/$name.log" 2>&1 &
+    pid=$!
+    until curl -sf "$readiness" >/dev/null; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$name: exited before ready, see $work/$name.log" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    printf '%-8s %6d ms\n' "$name" $(( ($(date +%s%N) - started) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+measure plain -jar "$app" "$@"
+measure cds -XX:SharedArchiveFile="$work/app.jsa" -jar "$app" "$@"
+measure aot -XX:SharedArchiveFile="$work/app-aot.jsa" -Dspring.aot.enabled=true -jar "$app" "$@"
@@ -1,8 +1,14 @@
 package com.example.medichain.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
@@ -30,6 +36,28 @@ public class BlockchainProperties {
     @NotNull
     private TxReceipt txReceipt;
 
+    @NotNull
+    private Indexer indexer = new Indexer();
+
+    @NotNull
+    private Nonce nonce = new Nonce();
+
+    @NotNull
+    private Submission submission = new Submission();
+
+    @NotNull
+    private Fees fees = new Fees();
+
+    @NotNull
+    private Reads reads = new Reads();
+
+    @NotNull
+    private Transport transport = new Transport();
+
+    // Extra role-assigned accounts; writes are spread across these and the wallet key.
+    @Valid
+    private List<Signer> signers = new ArrayList<>();
+
     public String getRpcUrl() {
         return rpcUrl;
     }
@@ -78,10 +106,69 @@ public class BlockchainProperties {
         this.txReceipt = txReceipt;
     }
 
+    public Indexer getIndexer() {
+        return indexer;
+    }
+
+    public void setIndexer(Indexer indexer) {
+        this.indexer = indexer;
+    }
+
+    public Nonce getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(Nonce nonce) {
+        this.nonce = nonce;
+    }
+
+    public Submission getSubmission() {
+        return submission;
+    }
+
+    public void setSubmission(Submission submission) {
+        this.submission = submission;
+    }
+
+    public Fees getFees() {
+        return fees;
+    }
+
+    public void setFees(Fees fees) {
+        this.fees = fees;
+    }
+
+    public List<Signer> getSigners() {
+        return signers;
+    }
+
+    public void setSigners(List<Signer> signers) {
+        this.signers = signers;
+    }
+
+    public Reads getReads() {
+        return reads;
+    }
+
+    public void setReads(Reads reads) {
+        this.reads = reads;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
     public static class SupplyChain {
         @NotBlank
         private String contractAddress;
 
+        // Pooled account that creates batches for users whose own wallet is not a pooled manufacturer.
+        private String manufacturerAddress;
+
         public String getContractAddress() {
             return contractAddress;
         }
@@ -89,6 +176,14 @@ public class BlockchainProperties {
         public void setContractAddress(String contractAddress) {
             this.contractAddress = contractAddress;
         }
+
+        public String getManufacturerAddress() {
+            return manufacturerAddress;
+        }
+
+        public void setManufacturerAddress(String manufacturerAddress) {
+            this.manufacturerAddress = manufacturerAddress;
+        }
     }
 
     public static class TxReceipt {
@@ -114,4 +209,365 @@ public class BlockchainProperties {
             this.maxAttempts = maxAttempts;
         }
     }
+
+    public static class Indexer {
+        private boolean enabled = true;
+
+        @NotNull
+        private BigInteger startBlock = BigInteger.ZERO;
+
+        @NotNull
+        private Integer chunkSize = 2000;
+
+        @NotNull
+        private Integer pollIntervalMs = 5000;
+
+        // Blocks the indexer stays behind the head, so logs a reorg could drop are never stored.
+        @NotNull
+        @Min(0)
+        private Integer confirmations = 12;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public BigInteger getStartBlock() {
+            return startBlock;
+        }
+
+        public void setStartBlock(BigInteger startBlock) {
+            this.startBlock = startBlock;
+        }
+
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Integer getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(Integer pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public Integer getConfirmations() {
+            return confirmations;
+        }
+
+        public void setConfirmations(Integer confirmations) {
+            this.confirmations = confirmations;
+        }
+    }
+
+    public static class Nonce {
+        public enum Mode {
+            // Ask the node for every transaction; only safe with one sender at a time.
+            NODE,
+            // Hand out nonces in-process; safe for one instance.
+            LOCAL,
+            // Lease nonce ranges from PostgreSQL; safe for several instances sharing a key.
+            POSTGRES
+        }
+
+        @NotNull
+        private Mode mode = Mode.NODE;
+
+        // Above 1, nonces an idle instance holds are filled as gaps once they stall its peers.
+        @NotNull
+        @Min(1)
+        private Integer leaseSize = 1;
+
+        // Blocks the chain's pending nonce may sit below sent transactions before the gap is filled.
+        @NotNull
+        private Integer stallBlocks = 5;
+
+        // The same bound in time, for chains that only mine when a transaction arrives.
+        @NotNull
+        @Min(1)
+        private Long stallMs = 60_000L;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Integer getLeaseSize() {
+            return leaseSize;
+        }
+
+        public void setLeaseSize(Integer leaseSize) {
+            this.leaseSize = leaseSize;
+        }
+
+        public Integer getStallBlocks() {
+            return stallBlocks;
+        }
+
+        public void setStallBlocks(Integer stallBlocks) {
+            this.stallBlocks = stallBlocks;
+        }
+
+        public Long getStallMs() {
+            return stallMs;
+        }
+
+        public void setStallMs(Long stallMs) {
+            this.stallMs = stallMs;
+        }
+    }
+
+    public static class Signer {
+        @NotBlank
+        private String privateKey;
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+    }
+
+    public static class Submission {
+        @NotNull
+        private Integer workers = 4;
+
+        // Per priority class; submissions beyond it are rejected with 429.
+        @NotNull
+        private Integer queueCapacity = 500;
+
+        // Fair-share weight per tenant (username or client address); unlisted tenants weigh 1.
+        @NotNull
+        private Map<String, Integer> tenantWeights = new HashMap<>();
+
+        public Integer getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(Integer workers) {
+            this.workers = workers;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Map<String, Integer> getTenantWeights() {
+            return tenantWeights;
+        }
+
+        public void setTenantWeights(Map<String, Integer> tenantWeights) {
+            this.tenantWeights = tenantWeights;
+        }
+    }
+
+    public static class Fees {
+        public enum Mode {
+            // EIP-1559 fees from eth_feeHistory, falling back to eth_gasPrice on older chains.
+            AUTO,
+            // eth_gasPrice only.
+            LEGACY,
+            // The configured gas-price and gas-limit, as before.
+            STATIC
+        }
+
+        @NotNull
+        private Mode mode = Mode.AUTO;
+
+        @NotNull
+        private Integer sampleBlocks = 10;
+
+        @NotNull
+        private Double priorityPercentile = 50.0;
+
+        @NotNull
+        private Long cacheMs = 5000L;
+
+        // Fee cap = next base fee * multiplier + priority fee, to ride out rising base fees.
+        @NotNull
+        private Integer baseFeeMultiplier = 2;
+
+        @NotNull
+        private Integer gasHeadroomPercent = 20;
+
+        @NotNull
+        private Long replaceAfterMs = 15000L;
+
+        // Nodes reject replacements that raise fees by less than 10%.
+        @NotNull
+        @Min(10)
+        private Integer bumpPercent = 15;
+
+        // Optional ceiling in wei per gas; replacements stop once they would exceed it.
+        private BigInteger maxGasPrice;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Integer getSampleBlocks() {
+            return sampleBlocks;
+        }
+
+        public void setSampleBlocks(Integer sampleBlocks) {
+            this.sampleBlocks = sampleBlocks;
+        }
+
+        public Double getPriorityPercentile() {
+            return priorityPercentile;
+        }
+
+        public void setPriorityPercentile(Double priorityPercentile) {
+            this.priorityPercentile = priorityPercentile;
+        }
+
+        public Long getCacheMs() {
+            return cacheMs;
+        }
+
+        public void setCacheMs(Long cacheMs) {
+            this.cacheMs = cacheMs;
+        }
+
+        public Integer getBaseFeeMultiplier() {
+            return baseFeeMultiplier;
+        }
+
+        public void setBaseFeeMultiplier(Integer baseFeeMultiplier) {
+            this.baseFeeMultiplier = baseFeeMultiplier;
+        }
+
+        public Integer getGasHeadroomPercent() {
+            return gasHeadroomPercent;
+        }
+
+        public void setGasHeadroomPercent(Integer gasHeadroomPercent) {
+            this.gasHeadroomPercent = gasHeadroomPercent;
+        }
+
+        public Long getReplaceAfterMs() {
+            return replaceAfterMs;
+        }
+
+        public void setReplaceAfterMs(Long replaceAfterMs) {
+            this.replaceAfterMs = replaceAfterMs;
+        }
+
+        public Integer getBumpPercent() {
+            return bumpPercent;
+        }
+
+        public void setBumpPercent(Integer bumpPercent) {
+            this.bumpPercent = bumpPercent;
+        }
+
+        public BigInteger getMaxGasPrice() {
+            return maxGasPrice;
+        }
+
+        public void setMaxGasPrice(BigInteger maxGasPrice) {
+            this.maxGasPrice = maxGasPrice;
+        }
+    }
+
+    public static class Reads {
+        // eth_calls per JSON-RPC batch request when a read session aggregates calls.
+        @NotNull
+        @Min(1)
+        private Integer batchSize = 100;
+
+        // Depth used for the "safe" level on nodes that do not know the safe block tag.
+        @NotNull
+        private Integer safeFallbackConfirmations = 12;
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Integer getSafeFallbackConfirmations() {
+            return safeFallbackConfirmations;
+        }
+
+        public void setSafeFallbackConfirmations(Integer safeFallbackConfirmations) {
+            this.safeFallbackConfirmations = safeFallbackConfirmations;
+        }
+    }
+
+    public static class Transport {
+        public enum Mode {
+            // A request per call; events are found by polling.
+            HTTP,
+            // One persistent connection to wsUrl, with newHeads and logs pushed by the node.
+            WEBSOCKET
+        }
+
+        @NotNull
+        private Mode mode = Mode.HTTP;
+
+        // Required for WEBSOCKET, e.g. ws://127.0.0.1:8546.
+        private String wsUrl;
+
+        @NotNull
+        private Long reconnectInitialMs = 500L;
+
+        @NotNull
+        private Long reconnectMaxMs = 30000L;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public String getWsUrl() {
+            return wsUrl;
+        }
+
+        public void setWsUrl(String wsUrl) {
+            this.wsUrl = wsUrl;
+        }
+
+        public Long getReconnectInitialMs() {
+            return reconnectInitialMs;
+        }
+
+        public void setReconnectInitialMs(Long reconnectInitialMs) {
+            this.reconnectInitialMs = reconnectInitialMs;
+        }
+
+        public Long getReconnectMaxMs() {
+            return reconnectMaxMs;
+        }
+
+        public void setReconnectMaxMs(Long reconnectMaxMs) {
+            this.reconnectMaxMs = reconnectMaxMs;
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.medichain.config;
+
+import com.example.medichain.dto.BatchResponse;
+import com.example.medichain.dto.OwnershipRecordResponse;
+import com.example.medichain.dto.TransactionResponse;
+import java.math.BigInteger;
+import org.web3j.utils.Numeric;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.module.SimpleModule;
+
+/**
+ * Binary-friendly shape of the chain DTOs, registered on the CBOR mapper only. Hex ids,
+ * addresses and log data become raw byte strings and quantities become CBOR integers,
+ * whose variable-length encoding keeps timestamps and block numbers to a few bytes.
+ * Property names are unchanged, so clients decode the same fields as from JSON.
+ */
+public class CompactWireModule extends SimpleModule {
+
+    public CompactWireModule() {
+        super("medichain-compact-wire");
+        addSerializer(BatchResponse.class, new ValueSerializer<>() {
+            @Override
+            public void serialize(BatchResponse value, JsonGenerator gen, SerializationContext context) {
+                gen.writeStartObject();
+                writeBytes(gen, "batchId", value.getBatchId());
+                writeBytes(gen, "currentOwner", value.getCurrentOwner());
+                writeQuantity(gen, "createdAt", value.getCreatedAt());
+                writeBytes(gen, "metadataHash", value.getMetadataHash());
+                gen.writeStringProperty("state", value.getState());
+                gen.writeEndObject();
+            }
+        });
+        addSerializer(OwnershipRecordResponse.class, new ValueSerializer<>() {
+            @Override
+            public void serialize(OwnershipRecordResponse value, JsonGenerator gen, SerializationContext context) {
+                gen.writeStartObject();
+                writeBytes(gen, "owner", value.getOwner());
+                writeQuantity(gen, "role", value.getRole());
+                writeQuantity(gen, "timestamp", value.getTimestamp());
+                gen.writeEndObject();
+            }
+        });
+        addSerializer(TransactionResponse.class, new ValueSerializer<>() {
+            @Override
+            public void serialize(TransactionResponse value, JsonGenerator gen, SerializationContext context) {
+                gen.writeStartObject();
+                writeBytes(gen, "transactionHash", value.getTransactionHash());
+                writeQuantity(gen, "blockNumber", value.getBlockNumber());
+                writeQuantity(gen, "gasUsed", value.getGasUsed());
+                writeQuantity(gen, "status", value.getStatus() == null ? null : Numeric.toBigInt(value.getStatus()));
+                gen.writeArrayPropertyStart("logs");
+                if (value.getLogs() != null) {
+                    for (String log : value.getLogs()) {
+                        gen.writeBinary(Numeric.hexStringToByteArray(log));
+                    }
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        });
+    }
+
+    private static void writeBytes(JsonGenerator gen, String name, String hex) {
+        gen.writeName(name);
+        if (hex == null) {
+            gen.writeNull();
+        } else {
+            gen.writeBinary(Numeric.hexStringToByteArray(hex));
+        }
+    }
+
+    private static void writeQuantity(JsonGenerator gen, String name, BigInteger value) {
+        gen.writeName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
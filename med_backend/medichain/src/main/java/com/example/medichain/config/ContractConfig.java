@@ -1,13 +1,26 @@
 package com.example.medichain.config;
 
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.service.ChainNotifications;
+import com.example.medichain.tx.CoordinatedTransactionManager;
+import com.example.medichain.tx.FeeOracle;
+import com.example.medichain.tx.InMemoryNonceLeaseStore;
+import com.example.medichain.tx.JdbcNonceLeaseStore;
+import com.example.medichain.tx.NonceAllocator;
+import com.example.medichain.tx.NonceLeaseStore;
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.SigningTransactionManager;
+import com.example.medichain.tx.SubmissionScheduler;
+import com.example.medichain.tx.TransactionSender;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
-import org.web3j.tx.RawTransactionManager;
-import org.web3j.tx.TransactionManager;
-import org.web3j.tx.response.PollingTransactionReceiptProcessor;
-import org.web3j.tx.response.TransactionReceiptProcessor;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 
 @Configuration
 public class ContractConfig {
@@ -25,16 +38,69 @@ public class ContractConfig {
 		return Credentials.create(properties.getWalletPrivateKey());
 	}
 
+	@Bean
+	public NonceAllocator nonceAllocator(ObjectProvider<JdbcTemplate> jdbcTemplate) {
+		NonceLeaseStore store = properties.getNonce().getMode() == BlockchainProperties.Nonce.Mode.POSTGRES
+				? new JdbcNonceLeaseStore(jdbcTemplate.getObject())
+				: new InMemoryNonceLeaseStore();
+		return new NonceAllocator(
+				store,
+				address -> web3j.ethGetTransactionCount(address, DefaultBlockParameterName.PENDING)
+						.send()
+						.getTransactionCount()
+						.longValueExact(),
+				properties.getNonce().getLeaseSize());
+	}
+
 	@Bean(name = "web3jTransactionManager")
-	public TransactionManager web3jTransactionManager(Credentials credentials) {
-		return new RawTransactionManager(web3j, credentials);
+	public SigningTransactionManager web3jTransactionManager(Credentials credentials, NonceAllocator nonceAllocator) {
+		return transactionManager(credentials, nonceAllocator);
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public SignerPool signerPool(
+			Credentials credentials,
+			SigningTransactionManager web3jTransactionManager,
+			NonceAllocator nonceAllocator) {
+		List<SignerAccount> signers = properties.getSigners().stream()
+				.map(signer -> Credentials.create(signer.getPrivateKey()))
+				.map(signer -> new SignerAccount(signer, transactionManager(signer, nonceAllocator)))
+				.toList();
+		return new SignerPool(new SignerAccount(credentials, web3jTransactionManager), signers);
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public SubmissionScheduler submissionScheduler() {
+		BlockchainProperties.Submission submission = properties.getSubmission();
+		return new SubmissionScheduler(
+				submission.getWorkers(),
+				submission.getQueueCapacity(),
+				submission.getTenantWeights());
+	}
+
+	private SigningTransactionManager transactionManager(Credentials credentials, NonceAllocator nonceAllocator) {
+		if (properties.getNonce().getMode() == BlockchainProperties.Nonce.Mode.NODE) {
+			return new SigningTransactionManager(web3j, credentials);
+		}
+		return new CoordinatedTransactionManager(web3j, credentials, nonceAllocator);
+	}
+
+	@Bean
+	public FeeOracle feeOracle() {
+		return new FeeOracle(web3j, properties.getFees(), properties.getGasPrice(), properties.getGasLimit());
 	}
 
 	@Bean
-	public TransactionReceiptProcessor transactionReceiptProcessor() {
-		return new PollingTransactionReceiptProcessor(
+	public TransactionSender transactionSender(
+			FeeOracle feeOracle, ChainMetrics chainMetrics, ChainNotifications chainNotifications) {
+		return new TransactionSender(
 				web3j,
+				feeOracle,
+				chainMetrics,
+				chainNotifications,
 				properties.getTxReceipt().getPollIntervalMs(),
-				properties.getTxReceipt().getMaxAttempts());
+				properties.getTxReceipt().getMaxAttempts(),
+				properties.getFees().getReplaceAfterMs(),
+				properties.getFees().getBumpPercent());
 	}
 }
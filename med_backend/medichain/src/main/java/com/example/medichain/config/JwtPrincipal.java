@@ -0,0 +1,12 @@
+package com.example.medichain.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+// Authenticated caller as described by their token; no database lookup behind it.
+public record JwtPrincipal(String username, String role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
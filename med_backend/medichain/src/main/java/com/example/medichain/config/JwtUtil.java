@@ -3,15 +3,41 @@ package com.example.medichain.config;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
 
+    // Identity and role carried by a token whose signature and expiry have been checked.
+    public record VerifiedToken(String username, String role, long expiresAt) {
+    }
+
     private final String SECRET = "mySuperSecretKeyForJwtGeneration1234567890";
     private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    // Parsers are immutable and thread-safe; building one per call was most of the cost.
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    // Keyed by the token's SHA-256 so the cache never holds bearer tokens themselves.
+    // Access-ordered, so past the bound the least recently used token is dropped; guarded by itself.
+    private final Map<String, VerifiedToken> verified;
+
+    public JwtUtil(MedichainProperties properties) {
+        int cacheMaxEntries = properties.getJwt().getCacheMaxEntries();
+        this.verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
+    }
 
     public String generateToken(String username, String role) {
         return Jwts.builder()
@@ -23,13 +49,38 @@ public class JwtUtil {
                 .compact();
     }
 
-    public String extractUsername(String token) {
+    /**
+     * Verifies the token, answering repeats from memory until the token expires.
+     * Empty when the token is malformed, tampered with or expired.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        long now = System.currentTimeMillis();
+        String digest = Numeric.toHexStringNoPrefix(Hash.sha256(token.getBytes(StandardCharsets.UTF_8)));
+        VerifiedToken cached;
+        synchronized (verified) {
+            cached = verified.get(digest);
+            if (cached != null && cached.expiresAt() <= now) {
+                verified.remove(digest);
+            }
+        }
+        if (cached != null) {
+            return cached.expiresAt() > now ? Optional.of(cached) : Optional.empty();
+        }
 
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Date expiration = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+        synchronized (verified) {
+            verified.put(digest, result);
+        }
+        return Optional.of(result);
     }
 }
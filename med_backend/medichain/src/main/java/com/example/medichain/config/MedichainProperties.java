@@ -0,0 +1,701 @@
+package com.example.medichain.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Component
+@ConfigurationProperties(prefix = "medichain")
+@Validated
+public class MedichainProperties {
+
+    @NotNull
+    private Stats stats = new Stats();
+
+    @NotNull
+    private Expiry expiry = new Expiry();
+
+    @NotNull
+    private Idempotency idempotency = new Idempotency();
+
+    @NotNull
+    private Jwt jwt = new Jwt();
+
+    @NotNull
+    private Login login = new Login();
+
+    @NotNull
+    private Users users = new Users();
+
+    @NotNull
+    private Onboarding onboarding = new Onboarding();
+
+    @NotNull
+    private Caching caching = new Caching();
+
+    @NotNull
+    private Stream stream = new Stream();
+
+    @NotNull
+    private Catalog catalog = new Catalog();
+
+    @NotNull
+    private Metadata metadata = new Metadata();
+
+    @NotNull
+    private Counterfeit counterfeit = new Counterfeit();
+
+    @NotNull
+    private Warmup warmup = new Warmup();
+
+    @NotNull
+    private Drain drain = new Drain();
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public void setStats(Stats stats) {
+        this.stats = stats;
+    }
+
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    public void setExpiry(Expiry expiry) {
+        this.expiry = expiry;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(Idempotency idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public void setJwt(Jwt jwt) {
+        this.jwt = jwt;
+    }
+
+    public Login getLogin() {
+        return login;
+    }
+
+    public void setLogin(Login login) {
+        this.login = login;
+    }
+
+    public Users getUsers() {
+        return users;
+    }
+
+    public void setUsers(Users users) {
+        this.users = users;
+    }
+
+    public Onboarding getOnboarding() {
+        return onboarding;
+    }
+
+    public void setOnboarding(Onboarding onboarding) {
+        this.onboarding = onboarding;
+    }
+
+    public Caching getCaching() {
+        return caching;
+    }
+
+    public void setCaching(Caching caching) {
+        this.caching = caching;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public void setStream(Stream stream) {
+        this.stream = stream;
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public void setCatalog(Catalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(Metadata metadata) {
+        this.metadata = metadata;
+    }
+
+    public Counterfeit getCounterfeit() {
+        return counterfeit;
+    }
+
+    public void setCounterfeit(Counterfeit counterfeit) {
+        this.counterfeit = counterfeit;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public Drain getDrain() {
+        return drain;
+    }
+
+    public void setDrain(Drain drain) {
+        this.drain = drain;
+    }
+
+    public static class Stats {
+        @NotNull
+        private Integer snapshotIntervalMs = 60000;
+
+        // How often the in-memory views read events other instances indexed, between head notices.
+        @NotNull
+        private Integer tailIntervalMs = 2000;
+
+        public Integer getSnapshotIntervalMs() {
+            return snapshotIntervalMs;
+        }
+
+        public void setSnapshotIntervalMs(Integer snapshotIntervalMs) {
+            this.snapshotIntervalMs = snapshotIntervalMs;
+        }
+
+        public Integer getTailIntervalMs() {
+            return tailIntervalMs;
+        }
+
+        public void setTailIntervalMs(Integer tailIntervalMs) {
+            this.tailIntervalMs = tailIntervalMs;
+        }
+    }
+
+    public static class Expiry {
+        @NotNull
+        private Integer warningDays = 30;
+
+        @NotNull
+        private Integer bucketSeconds = 3600;
+
+        @NotNull
+        private Integer tickIntervalMs = 60000;
+
+        public Integer getWarningDays() {
+            return warningDays;
+        }
+
+        public void setWarningDays(Integer warningDays) {
+            this.warningDays = warningDays;
+        }
+
+        public Integer getBucketSeconds() {
+            return bucketSeconds;
+        }
+
+        public void setBucketSeconds(Integer bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        public Integer getTickIntervalMs() {
+            return tickIntervalMs;
+        }
+
+        public void setTickIntervalMs(Integer tickIntervalMs) {
+            this.tickIntervalMs = tickIntervalMs;
+        }
+    }
+
+    public static class Idempotency {
+        @NotNull
+        private Integer maxEntries = 10000;
+
+        // How long a retry waits on the request already running under its key before getting 409.
+        @NotNull
+        private Long awaitTimeoutMs = 60000L;
+
+        public Integer getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Integer maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Long getAwaitTimeoutMs() {
+            return awaitTimeoutMs;
+        }
+
+        public void setAwaitTimeoutMs(Long awaitTimeoutMs) {
+            this.awaitTimeoutMs = awaitTimeoutMs;
+        }
+    }
+
+    public static class Jwt {
+        // Verified tokens kept in memory so repeat requests skip signature checks.
+        @NotNull
+        private Integer cacheMaxEntries = 10000;
+
+        public Integer getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(Integer cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+    }
+
+    public static class Login {
+        // BCrypt cost for new hashes; weaker stored hashes are upgraded on the next login.
+        @NotNull
+        @Min(4)
+        @Max(31)
+        private Integer bcryptStrength = 10;
+
+        // Threads doing BCrypt checks, kept below the core count so other endpoints keep CPU.
+        @NotNull
+        private Integer verifyThreads = 2;
+
+        // Checks waiting beyond this are turned away with 429.
+        @NotNull
+        private Integer queueCapacity = 64;
+
+        @NotNull
+        private Integer attemptsPerAccountPerMinute = 10;
+
+        @NotNull
+        private Integer attemptsPerAddressPerMinute = 60;
+
+        public Integer getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(Integer bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+
+        public Integer getVerifyThreads() {
+            return verifyThreads;
+        }
+
+        public void setVerifyThreads(Integer verifyThreads) {
+            this.verifyThreads = verifyThreads;
+        }
+
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Integer getAttemptsPerAccountPerMinute() {
+            return attemptsPerAccountPerMinute;
+        }
+
+        public void setAttemptsPerAccountPerMinute(Integer attemptsPerAccountPerMinute) {
+            this.attemptsPerAccountPerMinute = attemptsPerAccountPerMinute;
+        }
+
+        public Integer getAttemptsPerAddressPerMinute() {
+            return attemptsPerAddressPerMinute;
+        }
+
+        public void setAttemptsPerAddressPerMinute(Integer attemptsPerAddressPerMinute) {
+            this.attemptsPerAddressPerMinute = attemptsPerAddressPerMinute;
+        }
+    }
+
+    public static class Users {
+        @NotNull
+        private Integer cacheMaxEntries = 10000;
+
+        public Integer getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(Integer cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+    }
+
+    public static class Onboarding {
+        // Threads hashing passwords for bulk onboarding, kept apart from the login pool.
+        @NotNull
+        private Integer hashThreads = 4;
+
+        // Rows checked, hashed and inserted together.
+        @NotNull
+        private Integer chunkSize = 500;
+
+        // Accounts per assignRoles transaction; bounded by the block gas limit.
+        @NotNull
+        private Integer rolesPerTransaction = 100;
+
+        public Integer getHashThreads() {
+            return hashThreads;
+        }
+
+        public void setHashThreads(Integer hashThreads) {
+            this.hashThreads = hashThreads;
+        }
+
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Integer getRolesPerTransaction() {
+            return rolesPerTransaction;
+        }
+
+        public void setRolesPerTransaction(Integer rolesPerTransaction) {
+            this.rolesPerTransaction = rolesPerTransaction;
+        }
+    }
+
+    public static class Caching {
+        // Depth past which a history record cannot be reorged away and may be cached for good.
+        @NotNull
+        @Min(1)
+        private Integer immutableAfterBlocks = 64;
+
+        public Integer getImmutableAfterBlocks() {
+            return immutableAfterBlocks;
+        }
+
+        public void setImmutableAfterBlocks(Integer immutableAfterBlocks) {
+            this.immutableAfterBlocks = immutableAfterBlocks;
+        }
+    }
+
+    public static class Stream {
+        // Open SSE connections across all clients; each holds an async request, not a thread.
+        @NotNull
+        private Integer maxSubscribers = 50000;
+
+        @NotNull
+        private Integer maxTopicsPerSubscriber = 50;
+
+        // Updates buffered per client before the oldest are dropped.
+        @NotNull
+        private Integer bufferSize = 32;
+
+        // Updates a client may miss in a row before it is disconnected as a slow consumer.
+        @NotNull
+        private Integer maxDropped = 256;
+
+        @NotNull
+        private Integer writerThreads = 4;
+
+        // A write to one client that has not returned after this is abandoned and the client disconnected.
+        @NotNull
+        @Min(1)
+        private Long writeTimeoutMs = 5000L;
+
+        // Clients reconnect after this; SSE reconnects are automatic.
+        @NotNull
+        private Long timeoutMs = 1800000L;
+
+        public Integer getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(Integer maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public Integer getMaxTopicsPerSubscriber() {
+            return maxTopicsPerSubscriber;
+        }
+
+        public void setMaxTopicsPerSubscriber(Integer maxTopicsPerSubscriber) {
+            this.maxTopicsPerSubscriber = maxTopicsPerSubscriber;
+        }
+
+        public Integer getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(Integer bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Integer getMaxDropped() {
+            return maxDropped;
+        }
+
+        public void setMaxDropped(Integer maxDropped) {
+            this.maxDropped = maxDropped;
+        }
+
+        public Integer getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(Integer writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+
+        public Long getWriteTimeoutMs() {
+            return writeTimeoutMs;
+        }
+
+        public void setWriteTimeoutMs(Long writeTimeoutMs) {
+            this.writeTimeoutMs = writeTimeoutMs;
+        }
+
+        public Long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(Long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public static class Catalog {
+        // Spring resource location of the medicine catalog, e.g. file:/etc/medichain/medicines.json.
+        @NotNull
+        private String location = "classpath:catalog/medicines.json";
+
+        @NotNull
+        private Integer reloadIntervalMs = 10000;
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+
+        public Integer getReloadIntervalMs() {
+            return reloadIntervalMs;
+        }
+
+        public void setReloadIntervalMs(Integer reloadIntervalMs) {
+            this.reloadIntervalMs = reloadIntervalMs;
+        }
+    }
+
+    public static class Metadata {
+        // Segment files and upload staging live here.
+        @NotNull
+        private String directory = "data/metadata";
+
+        // A segment is closed for appends once the next document would take it past this size.
+        @NotNull
+        private Long segmentBytes = 268435456L;
+
+        @NotNull
+        private Long maxUploadBytes = 67108864L;
+
+        // Bytes one account may upload per day, refilled continuously.
+        @NotNull
+        @Min(1)
+        private Long uploadBytesPerUserPerDay = 1073741824L;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Long getSegmentBytes() {
+            return segmentBytes;
+        }
+
+        public void setSegmentBytes(Long segmentBytes) {
+            this.segmentBytes = segmentBytes;
+        }
+
+        public Long getMaxUploadBytes() {
+            return maxUploadBytes;
+        }
+
+        public void setMaxUploadBytes(Long maxUploadBytes) {
+            this.maxUploadBytes = maxUploadBytes;
+        }
+
+        public Long getUploadBytesPerUserPerDay() {
+            return uploadBytesPerUserPerDay;
+        }
+
+        public void setUploadBytesPerUserPerDay(Long uploadBytesPerUserPerDay) {
+            this.uploadBytesPerUserPerDay = uploadBytesPerUserPerDay;
+        }
+    }
+
+    public static class Counterfeit {
+        // Batches tracked at once; about 280 bytes each, allocated at startup.
+        @NotNull
+        private Integer capacity = 131072;
+
+        @NotNull
+        private Long windowSeconds = 86400L;
+
+        // Must stay below the 16 scans each batch remembers.
+        @NotNull
+        @Max(15)
+        private Integer maxScans = 8;
+
+        @NotNull
+        private Double maxSpeedKmh = 900.0;
+
+        @NotNull
+        private Double maxSpreadKm = 1000.0;
+
+        // Buyers may check a pack they bought a few times.
+        @NotNull
+        private Integer maxScansAfterSale = 3;
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public Long getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(Long windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public Integer getMaxScans() {
+            return maxScans;
+        }
+
+        public void setMaxScans(Integer maxScans) {
+            this.maxScans = maxScans;
+        }
+
+        public Double getMaxSpeedKmh() {
+            return maxSpeedKmh;
+        }
+
+        public void setMaxSpeedKmh(Double maxSpeedKmh) {
+            this.maxSpeedKmh = maxSpeedKmh;
+        }
+
+        public Double getMaxSpreadKm() {
+            return maxSpreadKm;
+        }
+
+        public void setMaxSpreadKm(Double maxSpreadKm) {
+            this.maxSpreadKm = maxSpreadKm;
+        }
+
+        public Integer getMaxScansAfterSale() {
+            return maxScansAfterSale;
+        }
+
+        public void setMaxScansAfterSale(Integer maxScansAfterSale) {
+            this.maxScansAfterSale = maxScansAfterSale;
+        }
+    }
+
+    public static class Warmup {
+        private boolean enabled = true;
+
+        // Rounds of ABI and JSON/CBOR work; enough for the hot paths to get compiled.
+        @NotNull
+        private Integer iterations = 2000;
+
+        // Submitters of the latest writes loaded into the user cache; the accounts likely to come back first.
+        @NotNull
+        private Integer recentUsers = 200;
+
+        // Warm-up stops here even if unfinished; the instance turns ready either way.
+        @NotNull
+        private Long budgetMs = 30000L;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Integer getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(Integer iterations) {
+            this.iterations = iterations;
+        }
+
+        public Integer getRecentUsers() {
+            return recentUsers;
+        }
+
+        public void setRecentUsers(Integer recentUsers) {
+            this.recentUsers = recentUsers;
+        }
+
+        public Long getBudgetMs() {
+            return budgetMs;
+        }
+
+        public void setBudgetMs(Long budgetMs) {
+            this.budgetMs = budgetMs;
+        }
+    }
+
+    public static class Drain {
+        // How long shutdown keeps resolving receipts of writes already sent before leaving them to the next start.
+        @NotNull
+        private Long timeoutMs = 20000L;
+
+        // Threads that resolve writes left pending by a previous run.
+        @NotNull
+        private Integer resumeThreads = 4;
+
+        public Long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(Long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public Integer getResumeThreads() {
+            return resumeThreads;
+        }
+
+        public void setResumeThreads(Integer resumeThreads) {
+            this.resumeThreads = resumeThreads;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.medichain.config;
+
+import io.reactivex.Flowable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.WebSocketClient;
+import org.web3j.protocol.websocket.WebSocketService;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * JSON-RPC over one WebSocket to the node, reopened with exponential backoff whenever it drops.
+ *
+ * <p>Requests are pipelined: each is written as soon as it is sent and matched to its reply by
+ * id, so concurrent callers share the connection without waiting on each other. While the
+ * socket is down requests fail fast with an {@link IOException}, which callers already treat
+ * as a transient node error. Subscriptions die with the connection; listeners registered with
+ * {@link #onConnected} run after every successful connect to set them up again.
+ */
+public class ReconnectingWebSocketService implements Web3jService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconnectingWebSocketService.class);
+
+    private final URI uri;
+    private final Function<URI, WebSocketService> sockets;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final List<Runnable> connectListeners = new CopyOnWriteArrayList<>();
+    // Connects, reconnects and connect listeners all run here, one at a time.
+    private final ScheduledExecutorService connector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "node-websocket");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile WebSocketService delegate;
+    private volatile boolean connected;
+    private volatile boolean closed;
+    private long backoffMs;
+
+    public ReconnectingWebSocketService(String url, long initialBackoffMs, long maxBackoffMs) {
+        this(url, initialBackoffMs, maxBackoffMs, uri -> new WebSocketService(new WebSocketClient(uri), false));
+    }
+
+    // Tests supply their own sockets.
+    ReconnectingWebSocketService(
+            String url, long initialBackoffMs, long maxBackoffMs, Function<URI, WebSocketService> sockets) {
+        this.uri = URI.create(url);
+        this.sockets = sockets;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.backoffMs = initialBackoffMs;
+        connector.execute(this::connect);
+    }
+
+    /** Runs {@code listener} after every connect, and now if the socket is already open. */
+    public void onConnected(Runnable listener) {
+        // Registered on the connector thread, so a connect in between cannot run it twice.
+        connector.execute(() -> {
+            connectListeners.add(listener);
+            if (connected) {
+                listener.run();
+            }
+        });
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return current().send(request, responseType);
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        try {
+            return current().sendAsync(request, responseType);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest requests) throws IOException {
+        return current().sendBatch(requests);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest requests) {
+        try {
+            return current().sendBatchAsync(requests);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        try {
+            return current().subscribe(request, unsubscribeMethod, responseType);
+        } catch (IOException e) {
+            return Flowable.error(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        connector.shutdownNow();
+        WebSocketService service = delegate;
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    private WebSocketService current() throws IOException {
+        WebSocketService service = delegate;
+        if (!connected || service == null) {
+            throw new IOException("WebSocket to " + uri + " is reconnecting");
+        }
+        return service;
+    }
+
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        WebSocketService service = sockets.apply(uri);
+        try {
+            service.connect(message -> { }, error -> log.debug("WebSocket error: {}", error.getMessage()), () -> {
+                if (!closed) {
+                    connector.execute(() -> disconnected(service));
+                }
+            });
+        } catch (ConnectException e) {
+            log.warn("Could not open WebSocket to {}, retrying in {} ms: {}", uri, backoffMs, e.getMessage());
+            scheduleReconnect();
+            return;
+        }
+        delegate = service;
+        connected = true;
+        backoffMs = initialBackoffMs;
+        log.info("WebSocket to {} open", uri);
+        for (Runnable listener : connectListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("WebSocket connect listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void disconnected(WebSocketService service) {
+        // Late close of a socket that was already replaced.
+        if (closed || !connected || service != delegate) {
+            return;
+        }
+        connected = false;
+        log.warn("WebSocket to {} closed, reconnecting", uri);
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (closed) {
+            return;
+        }
+        connector.schedule(this::connect, backoffMs, TimeUnit.MILLISECONDS);
+        backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+    }
+}
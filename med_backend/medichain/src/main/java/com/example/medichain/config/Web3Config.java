@@ -3,6 +3,7 @@ package com.example.medichain.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.http.HttpService;
 
 @Configuration
@@ -15,7 +16,20 @@ public class Web3Config {
     }
 
     @Bean
-    public Web3j web3j() {
-        return Web3j.build(new HttpService(properties.getRpcUrl()));
+    public Web3jService web3jService() {
+        BlockchainProperties.Transport transport = properties.getTransport();
+        if (transport.getMode() == BlockchainProperties.Transport.Mode.WEBSOCKET) {
+            if (transport.getWsUrl() == null || transport.getWsUrl().isBlank()) {
+                throw new IllegalStateException("blockchain.transport.ws-url is required for WEBSOCKET mode");
+            }
+            return new ReconnectingWebSocketService(
+                    transport.getWsUrl(), transport.getReconnectInitialMs(), transport.getReconnectMaxMs());
+        }
+        return new HttpService(properties.getRpcUrl());
     }
-}
\ No newline at end of file
+
+    @Bean
+    public Web3j web3j(Web3jService web3jService) {
+        return Web3j.build(web3jService);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.medichain.config;
+
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.boot.jackson.autoconfigure.CborMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+// Serves application/cbor next to JSON; clients opt in with the Accept header.
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public CborMapperBuilderCustomizer compactWireFormat() {
+        return builder -> builder.addModule(new CompactWireModule());
+    }
+
+    @Bean
+    public ServerHttpMessageConvertersCustomizer cborMessageConverter(CBORMapper cborMapper) {
+        return builder -> builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.service.CustodyExportService;
+import com.example.medichain.util.CursorCodec;
+import java.util.Locale;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final CustodyExportService exportService;
+
+    public AuditController(CustodyExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // Resume an interrupted export by passing the cursor of the last record received.
+    @GetMapping("/custody-export")
+    public ResponseEntity<StreamingResponseBody> exportCustody(
+            @RequestParam String manufacturer,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String cursor) {
+        // Parsed before the body streams: once it has started, errors can only truncate it.
+        CustodyExportService.Format exportFormat;
+        long afterId;
+        try {
+            exportFormat = CustodyExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format);
+        }
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        StreamingResponseBody body = out ->
+                exportService.export(manufacturer, from, to, exportFormat, afterId, out);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat == CustodyExportService.Format.CSV ? CSV : NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.service.BatchUpdateHub;
+import com.example.medichain.util.Bytes32Util;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.web3j.utils.Numeric;
+
+@RestController
+@RequestMapping("/api/supply-chain")
+public class BatchStreamController {
+
+    private final BatchUpdateHub batchUpdateHub;
+
+    public BatchStreamController(BatchUpdateHub batchUpdateHub) {
+        this.batchUpdateHub = batchUpdateHub;
+    }
+
+    // Server-Sent Events for the given batches and owners; on a GAP event the client should refetch.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(value = "batchId", required = false) List<String> batchIds,
+            @RequestParam(value = "owner", required = false) List<String> owners) {
+        List<String> batches = batchIds == null ? List.of() : batchIds.stream()
+                .map(batchId -> Numeric.toHexString(Bytes32Util.fromHexString(batchId)))
+                .toList();
+        List<String> addresses = owners == null ? List.of() : owners.stream()
+                .map(String::toLowerCase)
+                .toList();
+        return batchUpdateHub.subscribe(batches, addresses);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.config.JwtPrincipal;
+import com.example.medichain.dto.ExpiringBatchResponse;
+import com.example.medichain.dto.PageResponse;
+import com.example.medichain.dto.ProductRequest;
+import com.example.medichain.model.BatchNotification;
+import com.example.medichain.service.BatchExpiryService;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/supply-chain")
+@Validated
+public class ExpiryController {
+
+    private final BatchExpiryService expiryService;
+
+    public ExpiryController(BatchExpiryService expiryService) {
+        this.expiryService = expiryService;
+    }
+
+    // productId carries the batch id; dates are epoch seconds.
+    @PostMapping("/batches/shelf-life")
+    public ResponseEntity<Void> registerShelfLife(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @Valid @RequestBody ProductRequest request) throws Exception {
+        expiryService.register(request, principal);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @GetMapping("/batches/expiring-soon")
+    public ResponseEntity<List<ExpiringBatchResponse>> expiringSoon(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(expiryService.expiringSoon(days, limit));
+    }
+
+    // The caller's own notices; only admins may ask for another owner's.
+    @GetMapping("/notifications")
+    public ResponseEntity<PageResponse<BatchNotification>> notifications(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(required = false) String owner,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(expiryService.notifications(principal, owner, cursor, limit));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.dto.MedicineResponse;
+import com.example.medichain.dto.MedicineSearchResponse;
+import com.example.medichain.service.MedicineCatalogService;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class MedicineController {
+
+    private final MedicineCatalogService catalogService;
+
+    public MedicineController(MedicineCatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    @GetMapping({"/medicines", "/medicines/"})
+    public ResponseEntity<List<MedicineResponse>> getCatalog() {
+        return ResponseEntity.ok(catalogService.all());
+    }
+
+    // The Flutter client searches through the batches path, with the trailing slash.
+    @GetMapping({"/medicines/search", "/batches/search", "/batches/search/"})
+    public ResponseEntity<MedicineSearchResponse> search(
+            @RequestParam(value = "q", defaultValue = "") String query,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(value = "page_size", defaultValue = "20") int pageSize) {
+        return ResponseEntity.ok(catalogService.search(query, page, pageSize));
+    }
+}
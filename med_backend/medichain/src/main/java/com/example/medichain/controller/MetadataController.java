@@ -0,0 +1,84 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.config.JwtPrincipal;
+import com.example.medichain.dto.MetadataStoredResponse;
+import com.example.medichain.model.User;
+import com.example.medichain.service.MetadataStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.utils.Numeric;
+
+@RestController
+@RequestMapping("/api/metadata")
+public class MetadataController {
+
+    // Tomcat sends a file region itself, with sendfile, when these request attributes are set.
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MetadataStore metadataStore;
+
+    public MetadataController(MetadataStore metadataStore) {
+        this.metadataStore = metadataStore;
+    }
+
+    // Raw document body; pass hash to have the upload rejected unless it matches.
+    @PostMapping
+    public ResponseEntity<MetadataStoredResponse> upload(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            @RequestParam(value = "hash", required = false) String expectedHash,
+            HttpServletRequest request) throws IOException {
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Uploading documents requires a bearer token");
+        }
+        // Documents back batches, so only the roles that create and hand them on may add any.
+        if (User.UserRole.END_USER.name().equals(principal.role())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Uploading documents requires a supply-chain role");
+        }
+        MetadataStore.Stored stored = metadataStore.put(
+                request.getInputStream(), expectedHash, principal.username(), request.getContentLengthLong());
+        return ResponseEntity.status(stored.created() ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(new MetadataStoredResponse(stored.hash(), stored.length(), stored.created()));
+    }
+
+    @GetMapping("/{hash}")
+    public void download(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        MetadataStore.Region region = metadataStore.find(hash)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No document stored for " + hash));
+
+        // The key is the content's hash, so the content behind a URL never changes.
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        String etag = "\"" + Numeric.prependHexPrefix(hash).toLowerCase() + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(region.length());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, region.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, region.offset());
+            request.setAttribute(SENDFILE_END, region.offset() + region.length());
+            return;
+        }
+        metadataStore.transferTo(hash, Channels.newChannel(response.getOutputStream()));
+    }
+}
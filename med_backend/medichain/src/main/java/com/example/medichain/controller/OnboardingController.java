@@ -0,0 +1,44 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.config.JwtPrincipal;
+import com.example.medichain.dto.BulkOnboardingResponse;
+import com.example.medichain.model.User;
+import com.example.medichain.service.OnboardingService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/users")
+public class OnboardingController {
+
+    private final OnboardingService onboardingService;
+
+    public OnboardingController(OnboardingService onboardingService) {
+        this.onboardingService = onboardingService;
+    }
+
+    // Body is streamed: a CSV with a header row, or a JSON array of the same fields.
+    @PostMapping(path = "/bulk", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkOnboardingResponse> onboard(
+            @AuthenticationPrincipal JwtPrincipal principal,
+            HttpServletRequest request) throws Exception {
+        // Creates accounts and assigns on-chain roles with the admin key, so admins only.
+        if (principal == null || !User.UserRole.ADMIN.name().equals(principal.role())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Bulk onboarding requires an admin token");
+        }
+        OnboardingService.Format format = MediaType.APPLICATION_JSON.isCompatibleWith(
+                MediaType.parseMediaType(request.getContentType()))
+                ? OnboardingService.Format.JSON
+                : OnboardingService.Format.CSV;
+        BulkOnboardingResponse response =
+                onboardingService.onboard(request.getInputStream(), format, principal.getName());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.dto.SupplyChainStatsResponse;
+import com.example.medichain.service.SupplyChainStatisticsService;
+import org.springframework.http.ResponseEntity;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/blockchain")
+public class StatisticsController {
+
+    private final SupplyChainStatisticsService statisticsService;
+
+    public StatisticsController(SupplyChainStatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
+
+    // The Flutter client requests the trailing-slash form.
+    @GetMapping({"/stats", "/stats/"})
+    public ResponseEntity<SupplyChainStatsResponse> getStats() {
+        return ResponseEntity.ok(statisticsService.getStats());
+    }
+
+    // Per-manufacturer counts grow with the number of manufacturers, so they are read one at a time.
+    @GetMapping("/stats/manufacturers/{address}")
+    public ResponseEntity<Map<String, Object>> getManufacturerStats(@PathVariable String address) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("manufacturer", address.toLowerCase());
+        body.put("batches", statisticsService.batchesCreatedBy(address));
+        return ResponseEntity.ok(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.medichain.controller;
+
+import com.example.medichain.dto.SignerStatusResponse;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.SubmissionScheduler;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/supply-chain/submission")
+public class SubmissionController {
+
+    private final SignerPool signerPool;
+    private final SubmissionScheduler scheduler;
+
+    public SubmissionController(SignerPool signerPool, SubmissionScheduler scheduler) {
+        this.signerPool = signerPool;
+        this.scheduler = scheduler;
+    }
+
+    @GetMapping("/queues")
+    public ResponseEntity<List<SubmissionScheduler.ClassStatus>> queues() {
+        return ResponseEntity.ok(scheduler.status());
+    }
+
+    @GetMapping("/signers")
+    public ResponseEntity<List<SignerStatusResponse>> signers() {
+        List<SignerStatusResponse> signers = signerPool.accounts().stream()
+                .map(account -> new SignerStatusResponse(
+                        account.getAddress(),
+                        account.getRole().name(),
+                        account.getQueueDepth(),
+                        account.getSubmitted(),
+                        account.getFailed(),
+                        account.getMeanLatencyMs(),
+                        account.getLastLatencyMs()))
+                .toList();
+        return ResponseEntity.ok(signers);
+    }
+}
@@ -1,95 +1,353 @@
 package com.example.medichain.controller;
 
+import com.example.medichain.config.MedichainProperties;
 import com.example.medichain.dto.BatchCreateRequest;
+import com.example.medichain.dto.BatchDetailsResponse;
 import com.example.medichain.dto.BatchResponse;
+import com.example.medichain.dto.BatchStateAtResponse;
 import com.example.medichain.dto.BatchTransferRequest;
+import com.example.medichain.dto.CustodyExportRecord;
+import com.example.medichain.dto.OwnedBatchResponse;
 import com.example.medichain.dto.OwnershipRecordResponse;
+import com.example.medichain.dto.PageResponse;
+import com.example.medichain.dto.SubmittedTransactionResponse;
 import com.example.medichain.dto.TransactionResponse;
 import com.example.medichain.dto.VerifyBatchRequest;
 import com.example.medichain.dto.VerifyBatchResponse;
+import com.example.medichain.model.User;
+import com.example.medichain.service.BatchChangeIndex;
+import com.example.medichain.service.ChainWriteService;
+import com.example.medichain.service.CounterfeitDetectionService;
+import com.example.medichain.service.ListingService;
+import com.example.medichain.service.MetadataStore;
+import com.example.medichain.service.PointInTimeService;
+import com.example.medichain.service.SupplyChainEventIndexer;
 import com.example.medichain.service.SupplyChainService;
+import com.example.medichain.service.UserDirectory;
+import com.example.medichain.tx.TxPriority;
 import com.example.medichain.util.Bytes32Util;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.web3j.protocol.core.methods.response.Log;
-import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.utils.Numeric;
 
 @RestController
 @RequestMapping("/api/supply-chain")
 @Validated
 public class SupplyChainController {
 
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
     private final SupplyChainService supplyChainService;
+    private final ChainWriteService chainWriteService;
+    private final CounterfeitDetectionService counterfeitDetectionService;
+    private final BatchChangeIndex batchChangeIndex;
+    private final MetadataStore metadataStore;
+    private final PointInTimeService pointInTimeService;
+    private final ListingService listingService;
+    private final UserDirectory userDirectory;
+    private final SupplyChainEventIndexer eventIndexer;
+    private final ContentNegotiationManager contentNegotiationManager;
+    private final long immutableAfterBlocks;
 
-    public SupplyChainController(SupplyChainService supplyChainService) {
+    public SupplyChainController(
+            SupplyChainService supplyChainService,
+            ChainWriteService chainWriteService,
+            CounterfeitDetectionService counterfeitDetectionService,
+            BatchChangeIndex batchChangeIndex,
+            MetadataStore metadataStore,
+            PointInTimeService pointInTimeService,
+            ListingService listingService,
+            UserDirectory userDirectory,
+            SupplyChainEventIndexer eventIndexer,
+            ContentNegotiationManager contentNegotiationManager,
+            MedichainProperties properties) {
         this.supplyChainService = supplyChainService;
+        this.chainWriteService = chainWriteService;
+        this.counterfeitDetectionService = counterfeitDetectionService;
+        this.batchChangeIndex = batchChangeIndex;
+        this.metadataStore = metadataStore;
+        this.pointInTimeService = pointInTimeService;
+        this.listingService = listingService;
+        this.userDirectory = userDirectory;
+        this.eventIndexer = eventIndexer;
+        this.contentNegotiationManager = contentNegotiationManager;
+        this.immutableAfterBlocks = properties.getCaching().getImmutableAfterBlocks();
     }
 
     @PostMapping("/batches")
-    public ResponseEntity<TransactionResponse> createBatch(@Valid @RequestBody BatchCreateRequest request)
+    public ResponseEntity<TransactionResponse> createBatch(
+            @Valid @RequestBody BatchCreateRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest servletRequest)
             throws Exception {
-        TransactionReceipt receipt = supplyChainService.createBatch(
-                Bytes32Util.fromHexString(request.getBatchId()),
-                Bytes32Util.fromHexString(request.getMetadataHash()));
-        return ResponseEntity.ok(toResponse(receipt));
+        byte[] batchId = Bytes32Util.fromHexString(request.getBatchId());
+        byte[] metadataHash = Bytes32Util.fromHexString(request.getMetadataHash());
+        String batchHex = Numeric.toHexString(batchId);
+        String wallet = servletRequest.getUserPrincipal() == null ? null
+                : userDirectory.findByUsername(servletRequest.getUserPrincipal().getName())
+                        .map(User::getWalletAddress)
+                        .orElse(null);
+
+        TransactionResponse response = chainWriteService.execute(
+                "createBatch",
+                batchHex,
+                TxPriority.REGISTRATION,
+                tenantOf(servletRequest, idempotencyKey),
+                idempotencyKey,
+                ChainWriteService.fingerprint("createBatch", batchHex, Numeric.toHexString(metadataHash)),
+                () -> supplyChainService.submitCreateBatch(batchId, metadataHash, wallet));
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/batches/transfer")
-    public ResponseEntity<TransactionResponse> transferBatch(@Valid @RequestBody BatchTransferRequest request)
+    public ResponseEntity<TransactionResponse> transferBatch(
+            @Valid @RequestBody BatchTransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest servletRequest)
             throws Exception {
-        TransactionReceipt receipt = supplyChainService.transferBatch(
-                Bytes32Util.fromHexString(request.getBatchId()),
-                request.getTo());
-        return ResponseEntity.ok(toResponse(receipt));
+        byte[] batchId = Bytes32Util.fromHexString(request.getBatchId());
+        String batchHex = Numeric.toHexString(batchId);
+
+        TransactionResponse response = chainWriteService.execute(
+                "transferBatch",
+                batchHex,
+                TxPriority.TRANSFER,
+                tenantOf(servletRequest, idempotencyKey),
+                idempotencyKey,
+                ChainWriteService.fingerprint("transferBatch", batchHex, request.getTo()),
+                () -> supplyChainService.submitTransferBatch(batchId, request.getTo()));
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/batches/verify")
-    public ResponseEntity<VerifyBatchResponse> verifyBatch(@Valid @RequestBody VerifyBatchRequest request)
-            throws Exception {
+    public ResponseEntity<VerifyBatchResponse> verifyBatch(
+            @Valid @RequestBody VerifyBatchRequest request,
+            HttpServletRequest servletRequest) throws Exception {
         byte[] batchId = Bytes32Util.fromHexString(request.getBatchId());
         byte[] metadataHash = Bytes32Util.fromHexString(request.getMetadataHash());
 
         boolean isValid = supplyChainService.verifyBatchReadOnly(batchId, metadataHash);
-        TransactionReceipt receipt = supplyChainService.verifyBatchTx(batchId, metadataHash);
+        TransactionResponse transaction = chainWriteService.execute(
+                "verifyBatch",
+                Numeric.toHexString(batchId),
+                TxPriority.AUDIT_VERIFY,
+                tenantOf(servletRequest),
+                null,
+                null,
+                () -> supplyChainService.submitVerifyBatch(batchId, metadataHash));
+
+        Boolean documentIntact = metadataStore.verify(Numeric.toHexString(metadataHash)).orElse(null);
 
-        return ResponseEntity.ok(new VerifyBatchResponse(isValid, toResponse(receipt)));
+        List<String> anomalies = counterfeitDetectionService
+                .screen(batchId, request.getLatitude(), request.getLongitude())
+                .stream()
+                .map(Enum::name)
+                .toList();
+        return ResponseEntity.ok(new VerifyBatchResponse(isValid, transaction, documentIntact, anomalies));
     }
 
+    // No batch state is final, not even SOLD: the buyer can transfer the batch on, so clients
+    // always revalidate against the ETag.
     @GetMapping("/batches/{batchId}")
-    public ResponseEntity<BatchResponse> getBatch(@PathVariable String batchId) throws Exception {
-        return ResponseEntity.ok(supplyChainService.getBatch(Bytes32Util.fromHexString(batchId)));
+    public ResponseEntity<BatchResponse> getBatch(@PathVariable String batchId, NativeWebRequest request) throws Exception {
+        byte[] id = Bytes32Util.fromHexString(batchId);
+        Optional<BatchChangeIndex.Version> version = batchChangeIndex.version(Numeric.toHexString(id));
+        return conditional(
+                request,
+                version.map(BatchChangeIndex.Version::etag).orElse(null),
+                version.map(v -> CacheControl.noCache()).orElse(null),
+                () -> supplyChainService.getBatch(id));
     }
 
     @GetMapping("/batches/{batchId}/history")
-    public ResponseEntity<BigInteger> getHistoryLength(@PathVariable String batchId) throws Exception {
-        return ResponseEntity.ok(
-                supplyChainService.getOwnershipHistoryLength(Bytes32Util.fromHexString(batchId)));
+    public ResponseEntity<BigInteger> getHistoryLength(@PathVariable String batchId, NativeWebRequest request)
+            throws Exception {
+        byte[] id = Bytes32Util.fromHexString(batchId);
+        Optional<BatchChangeIndex.Version> version = batchChangeIndex.version(Numeric.toHexString(id));
+        return conditional(
+                request,
+                version.map(BatchChangeIndex.Version::etag).orElse(null),
+                version.map(v -> CacheControl.noCache()).orElse(null),
+                () -> supplyChainService.getOwnershipHistoryLength(id));
     }
 
     @GetMapping("/batches/{batchId}/history/{index}")
     public ResponseEntity<OwnershipRecordResponse> getHistoryRecord(
             @PathVariable String batchId,
-            @PathVariable BigInteger index) throws Exception {
-        return ResponseEntity.ok(
-                supplyChainService.getOwnershipRecord(Bytes32Util.fromHexString(batchId), index));
-    }
-
-    private TransactionResponse toResponse(TransactionReceipt receipt) {
-        List<String> logs = receipt.getLogs().stream().map(Log::getData).toList();
-        return new TransactionResponse(
-                receipt.getTransactionHash(),
-                receipt.getBlockNumber(),
-                receipt.getGasUsed(),
-                receipt.getStatus(),
-                logs);
+            @PathVariable BigInteger index,
+            NativeWebRequest request) throws Exception {
+        byte[] id = Bytes32Util.fromHexString(batchId);
+        Optional<BatchChangeIndex.Version> version = batchChangeIndex.version(Numeric.toHexString(id))
+                .filter(v -> index.signum() >= 0 && index.compareTo(BigInteger.valueOf(v.historyLength())) < 0);
+        // Entries are append-only, but a reorg can still drop a recent one. Every entry was written
+        // by the batch's last change at the latest, so once that is deep enough all of them are final.
+        CacheControl cacheControl = version
+                .filter(v -> eventIndexer.depthOf(v.block()) >= immutableAfterBlocks)
+                .map(v -> CacheControl.maxAge(365, TimeUnit.DAYS).immutable())
+                .orElse(CacheControl.noCache());
+        return conditional(
+                request,
+                version.map(v -> v.recordEtag(index.longValue())).orElse(null),
+                cacheControl,
+                () -> supplyChainService.getOwnershipRecord(id, index));
+    }
+
+    // Keyset pages of the indexed ownership trail; follow nextCursor until it is null.
+    @GetMapping("/batches/{batchId}/history/records")
+    public ResponseEntity<PageResponse<CustodyExportRecord.Hop>> getHistoryPage(
+            @PathVariable String batchId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        String id = Numeric.toHexString(Bytes32Util.fromHexString(batchId));
+        return ResponseEntity.ok(listingService.ownershipHistory(id, cursor, limit));
+    }
+
+    @GetMapping("/owners/{owner}/batches")
+    public ResponseEntity<PageResponse<OwnedBatchResponse>> getBatchesOwnedBy(
+            @PathVariable String owner,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(listingService.batchesOwnedBy(owner, cursor, limit));
+    }
+
+    // The caller's own writes, matched on the user they were submitted under. Anonymous writes are
+    // keyed by client address, which many clients can share, so they are not listed to anyone.
+    @GetMapping("/transactions")
+    public ResponseEntity<PageResponse<SubmittedTransactionResponse>> getTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            HttpServletRequest request) {
+        if (request.getUserPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Listing transactions requires a bearer token");
+        }
+        return ResponseEntity.ok(listingService.transactionsOf(request.getUserPrincipal().getName(), cursor, limit));
+    }
+
+    // Owner and state at a past block or block time (epoch seconds); exactly one must be given.
+    @GetMapping("/batches/{batchId}/at")
+    public ResponseEntity<BatchStateAtResponse> getBatchAt(
+            @PathVariable String batchId,
+            @RequestParam(required = false) Long block,
+            @RequestParam(required = false) Long timestamp) throws Exception {
+        if ((block == null) == (timestamp == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pass either block or timestamp");
+        }
+        byte[] id = Bytes32Util.fromHexString(batchId);
+        return ResponseEntity.ok(block != null
+                ? pointInTimeService.atBlock(id, block)
+                : pointInTimeService.atTimestamp(id, timestamp));
+    }
+
+    /**
+     * Batch, history length and every history record read at one pinned block. {@code consistency}
+     * is latest, safe or confirmed; confirmed stays {@code confirmations} blocks behind the head.
+     */
+    @GetMapping("/batches/{batchId}/details")
+    public ResponseEntity<BatchDetailsResponse> getBatchDetails(
+            @PathVariable String batchId,
+            @RequestParam(defaultValue = "latest") String consistency,
+            @RequestParam(defaultValue = "0") @Min(0) int confirmations) throws Exception {
+        SupplyChainService.ReadLevel level;
+        try {
+            level = SupplyChainService.ReadLevel.valueOf(consistency.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "consistency must be latest, safe or confirmed");
+        }
+        byte[] id = Bytes32Util.fromHexString(batchId);
+        return ResponseEntity.ok(supplyChainService.openReadSession(level, confirmations).getBatchDetails(id));
+    }
+
+    // Answers 304 without calling the node when the client already holds the current version.
+    private <T> ResponseEntity<T> conditional(
+            NativeWebRequest request, String versionTag, CacheControl cacheControl, Callable<T> read) throws Exception {
+        if (versionTag == null) {
+            return ResponseEntity.ok(read.call());
+        }
+        String etag = representationTag(versionTag, request);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).body(read.call());
+    }
+
+    // JSON and CBOR bodies of one version differ byte for byte, so each gets its own tag.
+    String representationTag(String versionTag, NativeWebRequest request) {
+        return MediaType.APPLICATION_CBOR.equals(negotiated(request))
+                ? versionTag.substring(0, versionTag.length() - 1) + "-cbor\""
+                : versionTag;
+    }
+
+    /**
+     * The representation the message converters will write: the accepted types the MVC
+     * content negotiation resolves, matched against the two this API produces and ordered
+     * by quality, then specificity, as Spring MVC orders them. JSON comes first on a tie.
+     */
+    private MediaType negotiated(NativeWebRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType acceptable : accepted) {
+            for (MediaType producible : REPRESENTATIONS) {
+                if (acceptable.isCompatibleWith(producible)) {
+                    compatible.add(producible.copyQualityValue(acceptable));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        return compatible.stream()
+                .filter(type -> type.getQualityValue() > 0)
+                .map(MediaType::removeQualityValue)
+                .findFirst()
+                .orElse(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Idempotency keys are scoped to the tenant, and a client address is neither stable across
+     * a mobile client's retries nor unique behind NAT, so keyed writes need a signed-in user.
+     */
+    private static String tenantOf(HttpServletRequest request, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank() && request.getUserPrincipal() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Idempotency-Key requires a bearer token");
+        }
+        return tenantOf(request);
+    }
+
+    // Fair-share key for the submission scheduler: the signed-in user, else the client address.
+    private static String tenantOf(HttpServletRequest request) {
+        return request.getUserPrincipal() != null
+                ? request.getUserPrincipal().getName()
+                : request.getRemoteAddr();
     }
 }
@@ -77,17 +77,24 @@
 
 package com.example.medichain.controller;
 
+import com.example.medichain.config.JwtPrincipal;
 import com.example.medichain.config.JwtUtil;
 import com.example.medichain.dto.LoginRequest;
 import com.example.medichain.dto.ProductRequest;
+import com.example.medichain.dto.RegistrationRequest;
 import com.example.medichain.dto.TransactionResponse;
 import com.example.medichain.model.User;
-import com.example.medichain.repository.UserRepository;
+import com.example.medichain.service.LoginService;
+import com.example.medichain.service.UserDirectory;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 import java.util.HashMap;
@@ -99,7 +106,7 @@ import java.util.Map;
 public class UserController {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -107,6 +114,9 @@ public class UserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private LoginService loginService;
+
 
     @GetMapping("/health")
     public String health() {
@@ -114,36 +124,52 @@ public class UserController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> registerUser(@RequestBody User user) {
+    public ResponseEntity<Map<String, Object>> registerUser(@RequestBody RegistrationRequest request) {
         Map<String, Object> response = new HashMap<>();
 
         // Check for existing username or email
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
+        if (userDirectory.findByUsername(request.getUsername()).isPresent()) {
             response.put("success", false);
             response.put("message", "Username is already taken!");
             return ResponseEntity.badRequest().body(response);
         }
 
-        if (userRepository.findByMailId(user.getMailId()).isPresent()) {
+        if (userDirectory.findByMailId(request.getMailId()).isPresent()) {
             response.put("success", false);
             response.put("message", "Email is already taken!");
             return ResponseEntity.badRequest().body(response);
         }
 
         // Validate password match
-        if (!user.getPassword().equals(user.getConfirmPassword())) {
+        if (request.getPassword() == null || !request.getPassword().equals(request.getConfirmPassword())) {
             response.put("success", false);
             response.put("message", "Passwords do not match!");
             return ResponseEntity.badRequest().body(response);
         }
 
+        User user = new User();
+        user.setUsername(request.getUsername());
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setMailId(request.getMailId());
+        user.setPhone(request.getPhone());
+        user.setDob(request.getDob());
         // Hash the password before saving
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
 
-        // Set default values
+        // Self-registered accounts start as end users without a wallet; admins grant more through onboarding
+        user.setRole(User.UserRole.END_USER);
         user.setActive(true);
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userDirectory.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with another sign-up for the same username or email.
+            response.put("success", false);
+            response.put("message", "Username or email is already taken!");
+            return ResponseEntity.badRequest().body(response);
+        }
 
         // Return user data (without password)
         response.put("success", true);
@@ -161,28 +187,29 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> loginUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<Map<String, Object>> loginUser(
+            @RequestBody LoginRequest loginRequest, HttpServletRequest request) throws Exception {
         Map<String, Object> response = new HashMap<>();
 
-        // Find user by username or email
-        User user = userRepository.findByUsername(loginRequest.getUsernameOrEmail())
-                .orElseGet(() -> userRepository.findByMailId(loginRequest.getUsernameOrEmail())
-                        .orElse(null));
+        // Single username-or-email lookup; the BCrypt check runs on LoginService's bounded pool
+        LoginService.Result result = loginService.authenticate(
+                loginRequest.getUsernameOrEmail(), loginRequest.getPassword(), request.getRemoteAddr());
+        User user = result.user();
 
-        if (user == null) {
+        if (result.outcome() == LoginService.Outcome.UNKNOWN_USER) {
             response.put("success", false);
             response.put("message", "User not found!");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (result.outcome() == LoginService.Outcome.BAD_PASSWORD) {
             response.put("success", false);
             response.put("message", "Invalid password!");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
         // Check if user is active
-        if (!user.isActive()) {
+        if (result.outcome() == LoginService.Outcome.INACTIVE) {
             response.put("success", false);
             response.put("message", "Account is deactivated!");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
@@ -223,23 +250,15 @@ public class UserController {
     }
 
     @GetMapping("/profile")
-    public ResponseEntity<Map<String, Object>> getProfile(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-
-        System.out.println("RAW Header:"+authHeader);
-
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+    public ResponseEntity<Map<String, Object>> getProfile(@AuthenticationPrincipal JwtPrincipal principal) {
+        // Set by JwtAuthenticationFilter from a valid bearer token.
+        if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Missing or invalid Authorization header"));
         }
 
-        String token = authHeader.substring(7);
-        System.out.println(token);
-        System.out.println("Extracting...");
-
-        String username = jwtUtil.extractUsername(token);
-
-        User user = userRepository.findByUsername(username)
+        // Served from UserDirectory's cache after the first read
+        User user = userDirectory.findByUsername(principal.username())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Map<String, Object> response = new HashMap<>();
@@ -249,13 +268,22 @@ public class UserController {
         response.put("mailId", user.getMailId());
         response.put("firstName", user.getFirstName());
         response.put("lastName", user.getLastName());
-        response.put("role", user.getRole());
+        response.put("role", principal.role());
         response.put("phone", user.getPhone());
         response.put("dob", user.getDob());
 
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/users/cache-stats")
+    public ResponseEntity<UserDirectory.Stats> getUserCacheStats(@AuthenticationPrincipal JwtPrincipal principal) {
+        // Operational detail about every user's traffic, so admins only.
+        if (principal == null || !User.UserRole.ADMIN.name().equals(principal.role())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cache statistics require an admin token");
+        }
+        return ResponseEntity.ok(userDirectory.stats());
+    }
+
 //    @PostMapping("/createProduct")
 //    public ResponseEntity<TransactionResponse> createProduct(
 //            @RequestBody ProductRequest request) throws Exception {
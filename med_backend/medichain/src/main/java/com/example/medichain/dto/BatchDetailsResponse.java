@@ -0,0 +1,37 @@
+package com.example.medichain.dto;
+
+import java.math.BigInteger;
+import java.util.List;
+
+public class BatchDetailsResponse {
+
+    private final long blockNumber;
+    private final BatchResponse batch;
+    private final BigInteger historyLength;
+    private final List<OwnershipRecordResponse> history;
+
+    public BatchDetailsResponse(
+            long blockNumber, BatchResponse batch, BigInteger historyLength, List<OwnershipRecordResponse> history) {
+        this.blockNumber = blockNumber;
+        this.batch = batch;
+        this.historyLength = historyLength;
+        this.history = history;
+    }
+
+    // Every field below was read as of this block.
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public BatchResponse getBatch() {
+        return batch;
+    }
+
+    public BigInteger getHistoryLength() {
+        return historyLength;
+    }
+
+    public List<OwnershipRecordResponse> getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.medichain.dto;
+
+public class BatchStateAtResponse {
+
+    private final String batchId;
+    private final String owner;
+    private final String state;
+    private final Long changedAtBlock;
+    private final Long changedAt;
+    private final String source;
+
+    public BatchStateAtResponse(
+            String batchId, String owner, String state, Long changedAtBlock, Long changedAt, String source) {
+        this.batchId = batchId;
+        this.owner = owner;
+        this.state = state;
+        this.changedAtBlock = changedAtBlock;
+        this.changedAt = changedAt;
+        this.source = source;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    // Block and time of the transition that produced this state; null when answered by the node.
+    public Long getChangedAtBlock() {
+        return changedAtBlock;
+    }
+
+    public Long getChangedAt() {
+        return changedAt;
+    }
+
+    // "index" when answered from the transition log, "archive" when read from the node.
+    public String getSource() {
+        return source;
+    }
+}
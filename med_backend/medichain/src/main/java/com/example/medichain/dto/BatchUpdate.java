@@ -0,0 +1,65 @@
+package com.example.medichain.dto;
+
+// One pushed change to a batch: an indexed contract event or a write's receipt.
+public class BatchUpdate {
+
+    private final String type;
+    private final String batchId;
+    private final String fromAddress;
+    private final String toAddress;
+    private final Boolean verifiedValid;
+    private final Long blockNumber;
+    private final String transactionHash;
+    private final String status;
+
+    public BatchUpdate(
+            String type,
+            String batchId,
+            String fromAddress,
+            String toAddress,
+            Boolean verifiedValid,
+            Long blockNumber,
+            String transactionHash,
+            String status) {
+        this.type = type;
+        this.batchId = batchId;
+        this.fromAddress = fromAddress;
+        this.toAddress = toAddress;
+        this.verifiedValid = verifiedValid;
+        this.blockNumber = blockNumber;
+        this.transactionHash = transactionHash;
+        this.status = status;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public String getFromAddress() {
+        return fromAddress;
+    }
+
+    public String getToAddress() {
+        return toAddress;
+    }
+
+    public Boolean getVerifiedValid() {
+        return verifiedValid;
+    }
+
+    public Long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
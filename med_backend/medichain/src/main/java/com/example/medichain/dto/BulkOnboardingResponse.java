@@ -0,0 +1,70 @@
+package com.example.medichain.dto;
+
+import java.util.List;
+
+public class BulkOnboardingResponse {
+
+    public static class Rejection {
+        private final long record;
+        private final String username;
+        private final String reason;
+
+        public Rejection(long record, String username, String reason) {
+            this.record = record;
+            this.username = username;
+            this.reason = reason;
+        }
+
+        // 1-based position of the record in the uploaded file.
+        public long getRecord() {
+            return record;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    private final long received;
+    private final long created;
+    private final List<Rejection> rejected;
+    private final List<String> roleTransactions;
+    private final List<String> roleFailures;
+
+    public BulkOnboardingResponse(
+            long received,
+            long created,
+            List<Rejection> rejected,
+            List<String> roleTransactions,
+            List<String> roleFailures) {
+        this.received = received;
+        this.created = created;
+        this.rejected = rejected;
+        this.roleTransactions = roleTransactions;
+        this.roleFailures = roleFailures;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public List<Rejection> getRejected() {
+        return rejected;
+    }
+
+    public List<String> getRoleTransactions() {
+        return roleTransactions;
+    }
+
+    public List<String> getRoleFailures() {
+        return roleFailures;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.medichain.dto;
+
+// One account in a bulk onboarding file; CSV columns use the same names.
+public class BulkUserRecord {
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String mailId;
+    private String phone;
+    private String dob;
+    private String password;
+    private String role;
+    private String walletAddress;
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getMailId() { return mailId; }
+    public void setMailId(String mailId) { this.mailId = mailId; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getDob() { return dob; }
+    public void setDob(String dob) { this.dob = dob; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+}
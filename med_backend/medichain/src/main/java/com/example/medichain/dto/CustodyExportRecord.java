@@ -0,0 +1,89 @@
+package com.example.medichain.dto;
+
+import java.util.List;
+
+public class CustodyExportRecord {
+
+    private final String cursor;
+    private final String batchId;
+    private final String manufacturer;
+    private final String metadataHash;
+    private final long createdAt;
+    private final List<Hop> trail;
+
+    public CustodyExportRecord(
+            String cursor,
+            String batchId,
+            String manufacturer,
+            String metadataHash,
+            long createdAt,
+            List<Hop> trail) {
+        this.cursor = cursor;
+        this.batchId = batchId;
+        this.manufacturer = manufacturer;
+        this.metadataHash = metadataHash;
+        this.createdAt = createdAt;
+        this.trail = trail;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public String getMetadataHash() {
+        return metadataHash;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<Hop> getTrail() {
+        return trail;
+    }
+
+    public static class Hop {
+
+        private final String from;
+        private final String to;
+        private final long blockNumber;
+        private final long timestamp;
+        private final String transactionHash;
+
+        public Hop(String from, String to, long blockNumber, long timestamp, String transactionHash) {
+            this.from = from;
+            this.to = to;
+            this.blockNumber = blockNumber;
+            this.timestamp = timestamp;
+            this.transactionHash = transactionHash;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public long getBlockNumber() {
+            return blockNumber;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getTransactionHash() {
+            return transactionHash;
+        }
+    }
+}
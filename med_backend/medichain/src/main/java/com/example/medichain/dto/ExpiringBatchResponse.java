@@ -0,0 +1,26 @@
+package com.example.medichain.dto;
+
+public class ExpiringBatchResponse {
+
+    private final String batchId;
+    private final long expiryDate;
+    private final String pendingNotification;
+
+    public ExpiringBatchResponse(String batchId, long expiryDate, String pendingNotification) {
+        this.batchId = batchId;
+        this.expiryDate = expiryDate;
+        this.pendingNotification = pendingNotification;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public long getExpiryDate() {
+        return expiryDate;
+    }
+
+    public String getPendingNotification() {
+        return pendingNotification;
+    }
+}
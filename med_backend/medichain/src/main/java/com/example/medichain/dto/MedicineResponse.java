@@ -0,0 +1,32 @@
+package com.example.medichain.dto;
+
+public class MedicineResponse {
+
+    private final String id;
+    private final String name;
+    private final String strength;
+    private final String form;
+
+    public MedicineResponse(String id, String name, String strength, String form) {
+        this.id = id;
+        this.name = name;
+        this.strength = strength;
+        this.form = form;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getStrength() {
+        return strength;
+    }
+
+    public String getForm() {
+        return form;
+    }
+}
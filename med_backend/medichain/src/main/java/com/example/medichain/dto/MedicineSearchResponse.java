@@ -0,0 +1,35 @@
+package com.example.medichain.dto;
+
+import java.util.List;
+
+// Field names follow what the Flutter client reads from search responses.
+public class MedicineSearchResponse {
+
+    private final List<MedicineResponse> results;
+    private final int page;
+    private final int pageSize;
+    private final int total;
+
+    public MedicineSearchResponse(List<MedicineResponse> results, int page, int pageSize, int total) {
+        this.results = results;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.total = total;
+    }
+
+    public List<MedicineResponse> getResults() {
+        return results;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.medichain.dto;
+
+public class MetadataStoredResponse {
+
+    private final String hash;
+    private final long length;
+    private final boolean created;
+
+    public MetadataStoredResponse(String hash, long length, boolean created) {
+        this.hash = hash;
+        this.length = length;
+        this.created = created;
+    }
+
+    // Use as the batch's metadataHash.
+    public String getHash() {
+        return hash;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    // False when the same content was already stored.
+    public boolean isCreated() {
+        return created;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.medichain.dto;
+
+public class OwnedBatchResponse {
+
+    private final String batchId;
+    private final String owner;
+    private final String state;
+    private final String metadataHash;
+    private final long createdAt;
+    private final long ownedSince;
+
+    public OwnedBatchResponse(
+            String batchId, String owner, String state, String metadataHash, long createdAt, long ownedSince) {
+        this.batchId = batchId;
+        this.owner = owner;
+        this.state = state;
+        this.metadataHash = metadataHash;
+        this.createdAt = createdAt;
+        this.ownedSince = ownedSince;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getMetadataHash() {
+        return metadataHash;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    // Block time at which the current owner received the batch.
+    public long getOwnedSince() {
+        return ownedSince;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.medichain.dto;
+
+import java.util.List;
+
+public class PageResponse<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public PageResponse(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // Null when there is nothing after this page.
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.medichain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.Date;
+
+// Self-service sign-up. Role and wallet are not accepted here; admins set them through onboarding.
+// Older app builds still send a role, which is ignored rather than refused.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RegistrationRequest {
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String mailId;
+    private String phone;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private Date dob;
+    private String password;
+    private String confirmPassword;
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getMailId() { return mailId; }
+    public void setMailId(String mailId) { this.mailId = mailId; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public Date getDob() { return dob; }
+    public void setDob(Date dob) { this.dob = dob; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public String getConfirmPassword() { return confirmPassword; }
+    public void setConfirmPassword(String confirmPassword) { this.confirmPassword = confirmPassword; }
+}
@@ -0,0 +1,57 @@
+package com.example.medichain.dto;
+
+public class SignerStatusResponse {
+
+    private final String address;
+    private final String role;
+    private final int queueDepth;
+    private final long submitted;
+    private final long failed;
+    private final double meanLatencyMs;
+    private final double lastLatencyMs;
+
+    public SignerStatusResponse(
+            String address,
+            String role,
+            int queueDepth,
+            long submitted,
+            long failed,
+            double meanLatencyMs,
+            double lastLatencyMs) {
+        this.address = address;
+        this.role = role;
+        this.queueDepth = queueDepth;
+        this.submitted = submitted;
+        this.failed = failed;
+        this.meanLatencyMs = meanLatencyMs;
+        this.lastLatencyMs = lastLatencyMs;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public double getMeanLatencyMs() {
+        return meanLatencyMs;
+    }
+
+    public double getLastLatencyMs() {
+        return lastLatencyMs;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.medichain.dto;
+
+import java.math.BigInteger;
+import java.util.Date;
+
+public class SubmittedTransactionResponse {
+
+    private final String operation;
+    private final String batchId;
+    private final String transactionHash;
+    private final String status;
+    private final BigInteger blockNumber;
+    private final Date createdAt;
+
+    public SubmittedTransactionResponse(
+            String operation,
+            String batchId,
+            String transactionHash,
+            String status,
+            BigInteger blockNumber,
+            Date createdAt) {
+        this.operation = operation;
+        this.batchId = batchId;
+        this.transactionHash = transactionHash;
+        this.status = status;
+        this.blockNumber = blockNumber;
+        this.createdAt = createdAt;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public String getTransactionHash() {
+        return transactionHash;
+    }
+
+    // PENDING, MINED or FAILED.
+    public String getStatus() {
+        return status;
+    }
+
+    public BigInteger getBlockNumber() {
+        return blockNumber;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.medichain.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class SupplyChainStatsResponse {
+
+    private final long totalBatches;
+    private final Map<String, Long> batchesByState;
+    private final long totalTransfers;
+    private final List<HourlyCount> transfersPerHour;
+    private final long verifications;
+    private final double verificationSuccessRate;
+    private final Map<String, Double> meanSecondsInState;
+    private final long lastEventId;
+
+    public SupplyChainStatsResponse(
+            long totalBatches,
+            Map<String, Long> batchesByState,
+            long totalTransfers,
+            List<HourlyCount> transfersPerHour,
+            long verifications,
+            double verificationSuccessRate,
+            Map<String, Double> meanSecondsInState,
+            long lastEventId) {
+        this.totalBatches = totalBatches;
+        this.batchesByState = batchesByState;
+        this.totalTransfers = totalTransfers;
+        this.transfersPerHour = transfersPerHour;
+        this.verifications = verifications;
+        this.verificationSuccessRate = verificationSuccessRate;
+        this.meanSecondsInState = meanSecondsInState;
+        this.lastEventId = lastEventId;
+    }
+
+    public long getTotalBatches() {
+        return totalBatches;
+    }
+
+    public Map<String, Long> getBatchesByState() {
+        return batchesByState;
+    }
+
+    public long getTotalTransfers() {
+        return totalTransfers;
+    }
+
+    public List<HourlyCount> getTransfersPerHour() {
+        return transfersPerHour;
+    }
+
+    public long getVerifications() {
+        return verifications;
+    }
+
+    public double getVerificationSuccessRate() {
+        return verificationSuccessRate;
+    }
+
+    public Map<String, Double> getMeanSecondsInState() {
+        return meanSecondsInState;
+    }
+
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+    public record HourlyCount(long hourStart, long transfers) {
+    }
+}
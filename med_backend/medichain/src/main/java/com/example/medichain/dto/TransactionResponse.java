@@ -2,6 +2,8 @@ package com.example.medichain.dto;
 
 import java.math.BigInteger;
 import java.util.List;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 public class TransactionResponse {
 
@@ -23,6 +25,16 @@ public class TransactionResponse {
         this.logs = logs;
     }
 
+    public static TransactionResponse fromReceipt(TransactionReceipt receipt) {
+        List<String> logs = receipt.getLogs().stream().map(Log::getData).toList();
+        return new TransactionResponse(
+                receipt.getTransactionHash(),
+                receipt.getBlockNumber(),
+                receipt.getGasUsed(),
+                receipt.getStatus(),
+                logs);
+    }
+
     public String getTransactionHash() { return transactionHash; }
     public BigInteger getBlockNumber() { return blockNumber; }
     public BigInteger getGasUsed() { return gasUsed; }
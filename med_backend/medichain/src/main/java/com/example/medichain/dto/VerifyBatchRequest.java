@@ -1,5 +1,7 @@
 package com.example.medichain.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 
 public class VerifyBatchRequest {
@@ -10,6 +12,15 @@ public class VerifyBatchRequest {
     @NotBlank
     private String metadataHash;
 
+    // Where the scan happened, as reported by the app; optional.
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    private Double latitude;
+
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    private Double longitude;
+
     public String getBatchId() {
         return batchId;
     }
@@ -25,4 +36,20 @@ public class VerifyBatchRequest {
     public void setMetadataHash(String metadataHash) {
         this.metadataHash = metadataHash;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
 }
@@ -1,13 +1,20 @@
 package com.example.medichain.dto;
 
+import java.util.List;
+
 public class VerifyBatchResponse {
 
     private final boolean valid;
     private final TransactionResponse transaction;
+    private final Boolean documentIntact;
+    private final List<String> anomalies;
 
-    public VerifyBatchResponse(boolean valid, TransactionResponse transaction) {
+    public VerifyBatchResponse(
+            boolean valid, TransactionResponse transaction, Boolean documentIntact, List<String> anomalies) {
         this.valid = valid;
         this.transaction = transaction;
+        this.documentIntact = documentIntact;
+        this.anomalies = anomalies;
     }
 
     public boolean isValid() {
@@ -17,4 +24,14 @@ public class VerifyBatchResponse {
     public TransactionResponse getTransaction() {
         return transaction;
     }
+
+    // Whether the stored document still hashes to metadataHash; null when none is stored.
+    public Boolean getDocumentIntact() {
+        return documentIntact;
+    }
+
+    // Why this scan looks like a cloned code; empty when nothing looked wrong.
+    public List<String> getAnomalies() {
+        return anomalies;
+    }
 }
@@ -0,0 +1,7 @@
+package com.example.medichain.event;
+
+import com.example.medichain.model.BatchNotification;
+
+// Published once a near-expiry or expiry notification has been stored for the batch owner.
+public record BatchExpiryNotice(BatchNotification notification) {
+}
@@ -0,0 +1,5 @@
+package com.example.medichain.event;
+
+// Published when the node pushes a new block over the WebSocket transport.
+public record ChainHeadReceived(long blockNumber) {
+}
@@ -0,0 +1,7 @@
+package com.example.medichain.event;
+
+import com.example.medichain.model.ChainTransaction;
+
+// Published once a write's receipt has been recorded in the chain_transactions ledger.
+public record ChainTransactionCompleted(ChainTransaction transaction) {
+}
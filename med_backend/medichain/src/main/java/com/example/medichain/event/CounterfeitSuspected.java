@@ -0,0 +1,8 @@
+package com.example.medichain.event;
+
+import com.example.medichain.util.ScanAnomalyDetector;
+import java.util.Set;
+
+// Published when a verification scan of the batch looks like a cloned code is in circulation.
+public record CounterfeitSuspected(String batchId, Set<ScanAnomalyDetector.Anomaly> anomalies) {
+}
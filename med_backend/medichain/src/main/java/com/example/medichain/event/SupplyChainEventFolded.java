@@ -0,0 +1,8 @@
+package com.example.medichain.event;
+
+import com.example.medichain.model.SupplyChainEvent;
+
+// Published once this instance has folded an indexed event into its in-memory views,
+// whichever instance indexed it.
+public record SupplyChainEventFolded(SupplyChainEvent event) {
+}
@@ -0,0 +1,7 @@
+package com.example.medichain.event;
+
+import com.example.medichain.model.SupplyChainEvent;
+
+// Published after an indexed contract event has been committed to the event index.
+public record SupplyChainEventIndexed(SupplyChainEvent event) {
+}
@@ -0,0 +1,5 @@
+package com.example.medichain.event;
+
+// Published when the node pushes a SupplyChain log; bursts are coalesced into one notice.
+public record SupplyChainLogReceived(long blockNumber) {
+}
@@ -0,0 +1,110 @@
+package com.example.medichain.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigInteger;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for everything that talks to the node: RPC latency per contract function, time
+ * waiting for receipts, blocks from send to inclusion, reverts by reason and gas per
+ * operation. Calls slower than {@link SlowChainCallEvent}'s threshold are also recorded
+ * as Flight Recorder events.
+ */
+@Component
+public class ChainMetrics {
+
+    // Revert reasons are contract require() messages; cut off anything unexpectedly long.
+    private static final int MAX_REASON_LENGTH = 64;
+
+    private final MeterRegistry registry;
+
+    public ChainMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Times one node round trip for {@code function}; {@code kind} is "call" or "send". */
+    public <T> T timeRpc(String function, String kind, Callable<T> rpc) throws Exception {
+        SlowChainCallEvent event = new SlowChainCallEvent();
+        event.begin();
+        long started = System.nanoTime();
+        String outcome = "success";
+        try {
+            return rpc.call();
+        } catch (Exception e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            Timer.builder("medichain.rpc.calls")
+                    .description("JSON-RPC round trips by contract function")
+                    .tag("function", function)
+                    .tag("kind", kind)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.function = function;
+                event.kind = kind;
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    public void receiptWait(long nanos, String outcome, boolean replaced) {
+        Timer.builder("medichain.tx.receipt.wait")
+                .description("Time from send until a receipt appeared")
+                .tag("outcome", outcome)
+                .tag("replaced", Boolean.toString(replaced))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void inclusionBlocks(String function, long blocks) {
+        DistributionSummary.builder("medichain.tx.inclusion.blocks")
+                .description("Blocks between sending a transaction and its inclusion")
+                .tag("function", function)
+                .register(registry)
+                .record(Math.max(0L, blocks));
+    }
+
+    public void revert(String function, String reason) {
+        String tag = reason == null || reason.isBlank() ? "unknown" : reason;
+        Counter.builder("medichain.tx.reverts")
+                .description("Reverted calls and transactions by reason")
+                .tag("function", function)
+                .tag("reason", tag.length() > MAX_REASON_LENGTH ? tag.substring(0, MAX_REASON_LENGTH) : tag)
+                .register(registry)
+                .increment();
+    }
+
+    // The node answered a call with an error that is not a revert, e.g. state pruned at that block.
+    public void callError(String function, int code) {
+        Counter.builder("medichain.rpc.errors")
+                .description("Calls the node failed to run, by JSON-RPC error code")
+                .tag("function", function)
+                .tag("code", Integer.toString(code))
+                .register(registry)
+                .increment();
+    }
+
+    public void gasUsed(String operation, String status, BigInteger gasUsed) {
+        if (gasUsed == null) {
+            return;
+        }
+        DistributionSummary.builder("medichain.tx.gas.used")
+                .description("Gas used per mined write")
+                .baseUnit("gas")
+                .tag("operation", operation)
+                .tag("status", status)
+                .register(registry)
+                .record(gasUsed.doubleValue());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.medichain.metrics;
+
+import com.example.medichain.service.CounterfeitDetectionService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// Flagged scans, and whether the detector's table is large enough to keep a full window of batches.
+@Component
+public class CounterfeitMeterBinder implements MeterBinder {
+
+    private final CounterfeitDetectionService detection;
+
+    public CounterfeitMeterBinder(CounterfeitDetectionService detection) {
+        this.detection = detection;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("medichain.counterfeit.flagged", detection, CounterfeitDetectionService::flaggedCount)
+                .description("Verification scans flagged as a possible counterfeit")
+                .register(registry);
+        FunctionCounter.builder("medichain.counterfeit.evicted", detection, CounterfeitDetectionService::evictedCount)
+                .description("Batches whose scan history was dropped to make room")
+                .register(registry);
+        Gauge.builder("medichain.counterfeit.capacity", detection, CounterfeitDetectionService::capacity)
+                .description("Batches the detector can track at once")
+                .register(registry);
+    }
+}
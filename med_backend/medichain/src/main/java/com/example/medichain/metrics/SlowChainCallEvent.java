@@ -0,0 +1,28 @@
+package com.example.medichain.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// Recorded by Flight Recorder only for node round trips slower than the threshold.
+@Name("com.example.medichain.SlowChainCall")
+@Label("Slow Chain Call")
+@Category({"Medichain", "Blockchain"})
+@Description("JSON-RPC round trip to the node that exceeded the threshold")
+@Threshold("500 ms")
+@StackTrace(false)
+public class SlowChainCallEvent extends Event {
+
+    @Label("Function")
+    String function;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Outcome")
+    String outcome;
+}
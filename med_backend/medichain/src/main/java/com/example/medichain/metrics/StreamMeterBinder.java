@@ -0,0 +1,32 @@
+package com.example.medichain.metrics;
+
+import com.example.medichain.service.BatchUpdateHub;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// Fan-out health of the batch update stream: open connections and what slow clients cost.
+@Component
+public class StreamMeterBinder implements MeterBinder {
+
+    private final BatchUpdateHub hub;
+
+    public StreamMeterBinder(BatchUpdateHub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("medichain.stream.subscribers", hub, BatchUpdateHub::subscriberCount)
+                .description("Open batch update streams")
+                .register(registry);
+        FunctionCounter.builder("medichain.stream.dropped", hub, BatchUpdateHub::droppedCount)
+                .description("Updates dropped because a client's buffer was full")
+                .register(registry);
+        FunctionCounter.builder("medichain.stream.evicted", hub, BatchUpdateHub::evictedCount)
+                .description("Clients disconnected for falling too far behind")
+                .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.medichain.metrics;
+
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.SubmissionScheduler;
+import com.example.medichain.tx.TxPriority;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// Saturation of the write path: scheduler queues per priority class and each signer's backlog.
+@Component
+public class SubmissionMeterBinder implements MeterBinder {
+
+    private final SignerPool signerPool;
+    private final SubmissionScheduler scheduler;
+
+    public SubmissionMeterBinder(SignerPool signerPool, SubmissionScheduler scheduler) {
+        this.signerPool = signerPool;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TxPriority priority : TxPriority.values()) {
+            Gauge.builder("medichain.submission.queue.depth", scheduler, s -> status(s, priority).depth())
+                    .description("Submissions waiting for a scheduler worker")
+                    .tag("priority", priority.name())
+                    .register(registry);
+            FunctionCounter.builder("medichain.submission.rejected", scheduler, s -> status(s, priority).rejected())
+                    .description("Submissions refused because the class queue was full")
+                    .tag("priority", priority.name())
+                    .register(registry);
+        }
+        for (SignerAccount account : signerPool.accounts()) {
+            String signer = account.getAddress();
+            Gauge.builder("medichain.signer.queue.depth", account, SignerAccount::getQueueDepth)
+                    .description("Sends waiting on the signer's thread")
+                    .tag("signer", signer)
+                    .register(registry);
+            FunctionCounter.builder("medichain.signer.sends", account, SignerAccount::getSubmitted)
+                    .tag("signer", signer)
+                    .tag("outcome", "success")
+                    .register(registry);
+            FunctionCounter.builder("medichain.signer.sends", account, SignerAccount::getFailed)
+                    .tag("signer", signer)
+                    .tag("outcome", "error")
+                    .register(registry);
+        }
+    }
+
+    private static SubmissionScheduler.ClassStatus status(SubmissionScheduler scheduler, TxPriority priority) {
+        return scheduler.status().stream()
+                .filter(status -> status.priority() == priority)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.medichain.metrics;
+
+import com.example.medichain.service.WarmupService;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Part of the readiness group: keeps the instance out of rotation until the warm-up has run.
+@Component("warmup")
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupService warmupService;
+
+    public WarmupHealthIndicator(WarmupService warmupService) {
+        this.warmupService = warmupService;
+    }
+
+    @Override
+    public Health health() {
+        return warmupService.isDone() ? Health.up().build() : Health.outOfService().build();
+    }
+}
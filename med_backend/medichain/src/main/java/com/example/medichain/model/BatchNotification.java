@@ -0,0 +1,71 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.util.Date;
+
+@Entity
+@Table(
+        name = "batch_notifications",
+        indexes = @Index(name = "idx_bn_owner", columnList = "owner_address, id"))
+public class BatchNotification {
+
+    public enum Type {
+        NEAR_EXPIRY,
+        EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_address", length = 42)
+    private String ownerAddress;
+
+    @Column(name = "batch_id", nullable = false, length = 66)
+    private String batchId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "expiry_date", nullable = false)
+    private long expiryDate;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt = new Date();
+
+    public BatchNotification() {}
+
+    public BatchNotification(String ownerAddress, String batchId, Type type, long expiryDate) {
+        this.ownerAddress = ownerAddress;
+        this.batchId = batchId;
+        this.type = type;
+        this.expiryDate = expiryDate;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getOwnerAddress() { return ownerAddress; }
+    public void setOwnerAddress(String ownerAddress) { this.ownerAddress = ownerAddress; }
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public long getExpiryDate() { return expiryDate; }
+    public void setExpiryDate(long expiryDate) { this.expiryDate = expiryDate; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,77 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Current owner and state of every batch, projected from the event index for listings by owner.
+@Entity
+@Table(
+        name = "batch_owners",
+        indexes = {
+                @Index(name = "idx_bo_batch", columnList = "batch_id", unique = true),
+                @Index(name = "idx_bo_owner", columnList = "owner_address, id")
+        })
+public class BatchOwner {
+
+    // Id of the BATCH_CREATED event, so listings come back in creation order.
+    @Id
+    private Long id;
+
+    @Column(name = "batch_id", nullable = false, length = 66)
+    private String batchId;
+
+    @Column(name = "owner_address", nullable = false, length = 42)
+    private String ownerAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false, length = 16)
+    private BatchState state;
+
+    @Column(name = "metadata_hash", length = 66)
+    private String metadataHash;
+
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+
+    // Block time of the creation or transfer that made ownerAddress the owner.
+    @Column(name = "owned_since", nullable = false)
+    private long ownedSince;
+
+    public BatchOwner() {}
+
+    public BatchOwner(SupplyChainEvent created) {
+        this.id = created.getId();
+        this.batchId = created.getBatchId();
+        this.ownerAddress = created.getToAddress();
+        this.state = BatchState.CREATED;
+        this.metadataHash = created.getMetadataHash();
+        this.createdAt = created.getBlockTimestamp();
+        this.ownedSince = created.getBlockTimestamp();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public String getOwnerAddress() { return ownerAddress; }
+    public void setOwnerAddress(String ownerAddress) { this.ownerAddress = ownerAddress; }
+
+    public BatchState getState() { return state; }
+    public void setState(BatchState state) { this.state = state; }
+
+    public String getMetadataHash() { return metadataHash; }
+    public void setMetadataHash(String metadataHash) { this.metadataHash = metadataHash; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public long getOwnedSince() { return ownedSince; }
+    public void setOwnedSince(long ownedSince) { this.ownedSince = ownedSince; }
+}
@@ -0,0 +1,43 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "batch_shelf_life")
+public class BatchShelfLife {
+
+    @Id
+    @Column(name = "batch_id", length = 66)
+    private String batchId;
+
+    // Epoch seconds, same unit as block timestamps.
+    @Column(name = "manufacture_date", nullable = false)
+    private long manufactureDate;
+
+    @Column(name = "expiry_date", nullable = false)
+    private long expiryDate;
+
+    @Column(name = "near_expiry_notified", nullable = false)
+    private boolean nearExpiryNotified;
+
+    @Column(name = "expired_notified", nullable = false)
+    private boolean expiredNotified;
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public long getManufactureDate() { return manufactureDate; }
+    public void setManufactureDate(long manufactureDate) { this.manufactureDate = manufactureDate; }
+
+    public long getExpiryDate() { return expiryDate; }
+    public void setExpiryDate(long expiryDate) { this.expiryDate = expiryDate; }
+
+    public boolean isNearExpiryNotified() { return nearExpiryNotified; }
+    public void setNearExpiryNotified(boolean nearExpiryNotified) { this.nearExpiryNotified = nearExpiryNotified; }
+
+    public boolean isExpiredNotified() { return expiredNotified; }
+    public void setExpiredNotified(boolean expiredNotified) { this.expiredNotified = expiredNotified; }
+}
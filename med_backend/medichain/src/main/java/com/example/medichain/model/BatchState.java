@@ -0,0 +1,30 @@
+package com.example.medichain.model;
+
+// Mirrors SupplyChain.BatchState; ordinal matches the on-chain uint8 value.
+public enum BatchState {
+    CREATED,
+    IN_DISTRIBUTION,
+    IN_PHARMACY,
+    SOLD;
+
+    public static String nameOf(int value) {
+        BatchState[] states = values();
+        return value >= 0 && value < states.length ? states[value].name() : "UNKNOWN";
+    }
+
+    /**
+     * State the contract gives a batch when an account holding {@code senderRole} transfers it;
+     * null for roles the contract refuses to transfer from.
+     */
+    public static BatchState afterTransferBy(ChainRole senderRole) {
+        if (senderRole == null) {
+            return null;
+        }
+        return switch (senderRole) {
+            case MANUFACTURER -> IN_DISTRIBUTION;
+            case DISTRIBUTOR -> IN_PHARMACY;
+            case PHARMACY -> SOLD;
+            case END_USER, NONE -> null;
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.medichain.model;
+
+// Mirrors RoleManager.Role; ordinal matches the on-chain uint8 value.
+public enum ChainRole {
+    MANUFACTURER,
+    DISTRIBUTOR,
+    PHARMACY,
+    END_USER,
+    NONE;
+
+    public static ChainRole of(int value) {
+        ChainRole[] roles = values();
+        return value >= 0 && value < roles.length ? roles[value] : NONE;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigInteger;
+import java.util.Date;
+
+// Durable record of every contract write the backend submits.
+@Entity
+@Table(
+        name = "chain_transactions",
+        indexes = {
+                @Index(name = "idx_ct_tx_hash", columnList = "transaction_hash"),
+                @Index(name = "idx_ct_status", columnList = "status"),
+                @Index(name = "idx_ct_submitted_by", columnList = "submitted_by, id")
+        },
+        // Idempotency keys are chosen by clients, so they are only unique per submitter.
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_ct_submitted_by_key", columnNames = {"submitted_by", "idempotency_key"}))
+public class ChainTransaction {
+
+    public enum Status {
+        PENDING,
+        MINED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", length = 128)
+    private String idempotencyKey;
+
+    // Hash of the operation and its arguments; a reused key must carry the same request.
+    @Column(name = "request_fingerprint", length = 66)
+    private String requestFingerprint;
+
+    @Column(name = "operation", nullable = false, length = 64)
+    private String operation;
+
+    @Column(name = "batch_id", length = 66)
+    private String batchId;
+
+    // Signed-in user, else client address, that asked for the write; null on rows older than the column.
+    @Column(name = "submitted_by", length = 128)
+    private String submittedBy;
+
+    @Column(name = "transaction_hash", length = 66)
+    private String transactionHash;
+
+    // Earlier hashes of this write superseded by fee bumps, newline separated.
+    @Column(name = "replaced_hashes", columnDefinition = "text")
+    private String replacedHashes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(name = "block_number")
+    private BigInteger blockNumber;
+
+    @Column(name = "gas_used")
+    private BigInteger gasUsed;
+
+    @Column(name = "receipt_status", length = 16)
+    private String receiptStatus;
+
+    // Receipt log data, newline separated, so a duplicate request can be answered without the node.
+    @Column(name = "logs", columnDefinition = "text")
+    private String logs;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Date createdAt;
+
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = new Date();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getRequestFingerprint() { return requestFingerprint; }
+    public void setRequestFingerprint(String requestFingerprint) { this.requestFingerprint = requestFingerprint; }
+
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public String getSubmittedBy() { return submittedBy; }
+    public void setSubmittedBy(String submittedBy) { this.submittedBy = submittedBy; }
+
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+
+    public String getReplacedHashes() { return replacedHashes; }
+    public void setReplacedHashes(String replacedHashes) { this.replacedHashes = replacedHashes; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public BigInteger getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(BigInteger blockNumber) { this.blockNumber = blockNumber; }
+
+    public BigInteger getGasUsed() { return gasUsed; }
+    public void setGasUsed(BigInteger gasUsed) { this.gasUsed = gasUsed; }
+
+    public String getReceiptStatus() { return receiptStatus; }
+    public void setReceiptStatus(String receiptStatus) { this.receiptStatus = receiptStatus; }
+
+    public String getLogs() { return logs; }
+    public void setLogs(String logs) { this.logs = logs; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+}
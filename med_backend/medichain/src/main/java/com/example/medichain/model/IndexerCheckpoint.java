@@ -0,0 +1,31 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "indexer_checkpoints")
+public class IndexerCheckpoint {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "last_block", nullable = false)
+    private long lastBlock;
+
+    public IndexerCheckpoint() {}
+
+    public IndexerCheckpoint(String name, long lastBlock) {
+        this.name = name;
+        this.lastBlock = lastBlock;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getLastBlock() { return lastBlock; }
+    public void setLastBlock(long lastBlock) { this.lastBlock = lastBlock; }
+}
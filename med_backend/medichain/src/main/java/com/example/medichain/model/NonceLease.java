@@ -0,0 +1,25 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Next unleased nonce per signing address, shared by every backend instance.
+@Entity
+@Table(name = "nonce_leases")
+public class NonceLease {
+
+    @Id
+    @Column(name = "address", length = 42)
+    private String address;
+
+    @Column(name = "next_nonce", nullable = false)
+    private long nextNonce;
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+
+    public long getNextNonce() { return nextNonce; }
+    public void setNextNonce(long nextNonce) { this.nextNonce = nextNonce; }
+}
@@ -0,0 +1,33 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// How far a projection of the event index has got, by event id rather than block.
+@Entity
+@Table(name = "projection_checkpoints")
+public class ProjectionCheckpoint {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    // Id of the last event index row applied; the projection resumes after it.
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    public ProjectionCheckpoint() {}
+
+    public ProjectionCheckpoint(String name, long lastEventId) {
+        this.name = name;
+        this.lastEventId = lastEventId;
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getLastEventId() { return lastEventId; }
+    public void setLastEventId(long lastEventId) { this.lastEventId = lastEventId; }
+}
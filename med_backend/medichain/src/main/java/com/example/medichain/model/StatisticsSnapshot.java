@@ -0,0 +1,47 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.Date;
+
+@Entity
+@Table(name = "statistics_snapshots")
+public class StatisticsSnapshot {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    // Id of the last event index row folded into the snapshot; replay resumes after it.
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "taken_at", nullable = false)
+    private Date takenAt;
+
+    public StatisticsSnapshot() {}
+
+    public StatisticsSnapshot(String name, long lastEventId, byte[] payload) {
+        this.name = name;
+        this.lastEventId = lastEventId;
+        this.payload = payload;
+        this.takenAt = new Date();
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getLastEventId() { return lastEventId; }
+    public void setLastEventId(long lastEventId) { this.lastEventId = lastEventId; }
+
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+
+    public Date getTakenAt() { return takenAt; }
+    public void setTakenAt(Date takenAt) { this.takenAt = takenAt; }
+}
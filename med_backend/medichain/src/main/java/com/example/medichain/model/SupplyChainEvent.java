@@ -0,0 +1,116 @@
+package com.example.medichain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// Decoded SupplyChain contract log, kept so reads do not have to go back to the node.
+@Entity
+@Table(
+        name = "supply_chain_events",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"block_number", "log_index"}),
+        indexes = {
+                @Index(name = "idx_sce_batch", columnList = "batch_id, id"),
+                @Index(name = "idx_sce_type_from_time", columnList = "event_type, from_address, block_timestamp")
+        })
+public class SupplyChainEvent {
+
+    public enum Type {
+        BATCH_CREATED,
+        OWNERSHIP_TRANSFERRED,
+        BATCH_VERIFIED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private Type eventType;
+
+    @Column(name = "batch_id", nullable = false, length = 66)
+    private String batchId;
+
+    // Manufacturer for BATCH_CREATED, previous owner for transfers, verifier for BATCH_VERIFIED.
+    @Column(name = "from_address", nullable = false, length = 42)
+    private String fromAddress;
+
+    // Owner after the event: manufacturer for BATCH_CREATED, recipient for transfers, null otherwise.
+    @Column(name = "to_address", length = 42)
+    private String toAddress;
+
+    // Role of the new owner at the event's block; it decides the state the next transfer moves the batch to.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "receiver_role", length = 16)
+    private ChainRole receiverRole;
+
+    // State of the batch after the event, as the contract set it; null for verifications.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 16)
+    private BatchState state;
+
+    @Column(name = "metadata_hash", length = 66)
+    private String metadataHash;
+
+    @Column(name = "verified_valid")
+    private Boolean verifiedValid;
+
+    @Column(name = "block_number", nullable = false)
+    private long blockNumber;
+
+    @Column(name = "log_index", nullable = false)
+    private int logIndex;
+
+    @Column(name = "block_timestamp", nullable = false)
+    private long blockTimestamp;
+
+    @Column(name = "transaction_hash", nullable = false, length = 66)
+    private String transactionHash;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Type getEventType() { return eventType; }
+    public void setEventType(Type eventType) { this.eventType = eventType; }
+
+    public String getBatchId() { return batchId; }
+    public void setBatchId(String batchId) { this.batchId = batchId; }
+
+    public String getFromAddress() { return fromAddress; }
+    public void setFromAddress(String fromAddress) { this.fromAddress = fromAddress; }
+
+    public String getToAddress() { return toAddress; }
+    public void setToAddress(String toAddress) { this.toAddress = toAddress; }
+
+    public ChainRole getReceiverRole() { return receiverRole; }
+    public void setReceiverRole(ChainRole receiverRole) { this.receiverRole = receiverRole; }
+
+    public BatchState getState() { return state; }
+    public void setState(BatchState state) { this.state = state; }
+
+    public String getMetadataHash() { return metadataHash; }
+    public void setMetadataHash(String metadataHash) { this.metadataHash = metadataHash; }
+
+    public Boolean getVerifiedValid() { return verifiedValid; }
+    public void setVerifiedValid(Boolean verifiedValid) { this.verifiedValid = verifiedValid; }
+
+    public long getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(long blockNumber) { this.blockNumber = blockNumber; }
+
+    public int getLogIndex() { return logIndex; }
+    public void setLogIndex(int logIndex) { this.logIndex = logIndex; }
+
+    public long getBlockTimestamp() { return blockTimestamp; }
+    public void setBlockTimestamp(long blockTimestamp) { this.blockTimestamp = blockTimestamp; }
+
+    public String getTransactionHash() { return transactionHash; }
+    public void setTransactionHash(String transactionHash) { this.transactionHash = transactionHash; }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonFormat;
 
 import java.util.Date;
+import java.util.Locale;
 
 @Entity
 @Table(name = "users")
@@ -16,7 +17,7 @@ public class User {
 
     @Enumerated(EnumType.STRING)
     @Column(name = "role", nullable = false)
-    @JsonProperty("role")
+    @JsonProperty(value = "role", access = JsonProperty.Access.READ_ONLY)
     private UserRole role;
 
     @Column(name = "username", nullable = false, unique = true)
@@ -45,6 +46,11 @@ public class User {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private Date dob;
 
+    // Account the user signs with on chain; RoleManager roles are assigned to it.
+    @Column(name = "wallet_address", unique = true, length = 42)
+    @JsonProperty(value = "walletAddress", access = JsonProperty.Access.READ_ONLY)
+    private String walletAddress;
+
     @Column(name = "password", nullable = false)
     @JsonProperty("password")
     private String password;
@@ -86,11 +92,20 @@ public class User {
     protected void onCreate() {
         this.createdAt = new Date();
         this.updatedAt = new Date();
+        normalizeWallet();
     }
 
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = new Date();
+        normalizeWallet();
+    }
+
+    // Stored lower-cased so lookups compare the column directly and can use its unique index.
+    private void normalizeWallet() {
+        if (walletAddress != null) {
+            walletAddress = walletAddress.toLowerCase(Locale.ROOT);
+        }
     }
 
     // Getters and Setters
@@ -118,6 +133,9 @@ public class User {
     public Date getDob() { return dob; }
     public void setDob(Date dob) { this.dob = dob; }
 
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
 
@@ -0,0 +1,14 @@
+package com.example.medichain.repository;
+
+import com.example.medichain.model.BatchNotification;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BatchNotificationRepository extends JpaRepository<BatchNotification, Long> {
+
+    List<BatchNotification> findByOwnerAddressAndIdGreaterThanOrderByIdAsc(
+            String ownerAddress, long afterId, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.example.medichain.repository;
+
+import com.example.medichain.model.BatchOwner;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BatchOwnerRepository extends JpaRepository<BatchOwner, Long> {
+
+    Optional<BatchOwner> findByBatchId(String batchId);
+
+    // Keyset page over the batches an address currently owns, in creation order.
+    List<BatchOwner> findByOwnerAddressAndIdGreaterThanOrderByIdAsc(
+            String ownerAddress, long afterId, Pageable pageable);
+}
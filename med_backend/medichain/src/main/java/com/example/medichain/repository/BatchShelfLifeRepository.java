@@ -0,0 +1,29 @@
+package com.example.medichain.repository;
+
+import com.example.medichain.model.BatchShelfLife;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BatchShelfLifeRepository extends JpaRepository<BatchShelfLife, String> {
+
+    // Startup load only; batches are walked in id order one page at a time.
+    List<BatchShelfLife> findByBatchIdGreaterThanAndExpiredNotifiedFalseOrderByBatchIdAsc(
+            String afterBatchId, Pageable pageable);
+
+    // Every instance ticks; only the one whose update flips the flag sends the notice.
+    @Modifying
+    @Query("update BatchShelfLife s set s.nearExpiryNotified = true"
+            + " where s.batchId = :batchId and s.nearExpiryNotified = false")
+    int claimNearExpiry(@Param("batchId") String batchId);
+
+    @Modifying
+    @Query("update BatchShelfLife s set s.expiredNotified = true"
+            + " where s.batchId = :batchId and s.expiredNotified = false")
+    int claimExpired(@Param("batchId") String batchId);
+}
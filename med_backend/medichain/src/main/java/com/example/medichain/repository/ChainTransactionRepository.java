@@ -0,0 +1,20 @@
+package com.example.medichain.repository;
+
+import com.example.medichain.model.ChainTransaction;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChainTransactionRepository extends JpaRepository<ChainTransaction, Long> {
+    Optional<ChainTransaction> findBySubmittedByAndIdempotencyKey(String submittedBy, String idempotencyKey);
+
+    // Writes sent to the node whose receipt was never recorded.
+    List<ChainTransaction> findByStatusAndTransactionHashIsNotNullOrderByIdAsc(ChainTransaction.Status status);
+
+    // Keyset page over the writes one user submitted, oldest first.
+    List<ChainTransaction> findBySubmittedByAndIdGreaterThanOrderByIdAsc(
+            String submittedBy, long afterId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.example.medichain.repository;
+
+import com.example.medichain.model.StatisticsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatisticsSnapshotRepository extends JpaRepository<StatisticsSnapshot, String> {
+}
@@ -0,0 +1,61 @@
+package com.example.medichain.repository;
+
+import com.example.medichain.model.SupplyChainEvent;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SupplyChainEventRepository extends JpaRepository<SupplyChainEvent, Long> {
+
+    // Keyset page over the batches a manufacturer created in [fromTime, toTime].
+    @Query("select e from SupplyChainEvent e"
+            + " where e.eventType = com.example.medichain.model.SupplyChainEvent.Type.BATCH_CREATED"
+            + " and e.fromAddress = :manufacturer"
+            + " and e.blockTimestamp between :fromTime and :toTime"
+            + " and e.id > :afterId"
+            + " order by e.id asc")
+    List<SupplyChainEvent> findCreatedByManufacturer(
+            @Param("manufacturer") String manufacturer,
+            @Param("fromTime") long fromTime,
+            @Param("toTime") long toTime,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    // Ownership trail (creation plus transfers) for a page of batches, grouped by batch in chain order.
+    @Query("select e from SupplyChainEvent e"
+            + " where e.batchId in :batchIds"
+            + " and e.eventType <> com.example.medichain.model.SupplyChainEvent.Type.BATCH_VERIFIED"
+            + " order by e.batchId asc, e.id asc")
+    List<SupplyChainEvent> findCustodyTrail(@Param("batchIds") Collection<String> batchIds);
+
+    // Keyset page over one batch's creation and transfers, oldest first.
+    @Query("select e from SupplyChainEvent e"
+            + " where e.batchId = :batchId"
+            + " and e.eventType <> com.example.medichain.model.SupplyChainEvent.Type.BATCH_VERIFIED"
+            + " and e.id > :afterId"
+            + " order by e.id asc")
+    List<SupplyChainEvent> findOwnershipPage(
+            @Param("batchId") String batchId,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    // Replays the index in commit order for consumers rebuilding in-memory state.
+    List<SupplyChainEvent> findByIdGreaterThanOrderByIdAsc(long afterId, Pageable pageable);
+
+    // Latest creation or transfer for a batch; its toAddress is the current owner.
+    Optional<SupplyChainEvent> findFirstByBatchIdAndToAddressIsNotNullOrderByIdDesc(String batchId);
+
+    // Creation or transfer that handed a batch to the account making the transfer with id beforeId.
+    Optional<SupplyChainEvent> findFirstByBatchIdAndToAddressIsNotNullAndIdLessThanOrderByIdDesc(
+            String batchId, long beforeId);
+
+    // Rows indexed before roles and states were recorded, in commit order.
+    List<SupplyChainEvent> findByIdGreaterThanAndStateIsNullAndEventTypeNotOrderByIdAsc(
+            long afterId, SupplyChainEvent.Type excluded, Pageable pageable);
+}
@@ -3,10 +3,12 @@ package com.example.medichain.repository;
 import com.example.medichain.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByMailId(String mailId);
+    List<User> findByUsernameOrMailId(String username, String mailId);
 }
\ No newline at end of file
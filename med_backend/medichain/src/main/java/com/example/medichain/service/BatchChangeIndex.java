@@ -0,0 +1,88 @@
+package com.example.medichain.service;
+
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.SupplyChainEvent;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Last creation or transfer of every batch, folded in from the event index so conditional
+ * reads can be answered without calling the node. Verifications do not change what the
+ * batch endpoints return and are ignored.
+ *
+ * <p>The index trails the chain by at most one indexer poll, so a client may be told a
+ * batch is unchanged for a few seconds after a transfer is mined.
+ */
+@Service
+@Order(2)
+public class BatchChangeIndex implements SupplyChainEventReplay.Fold {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchChangeIndex.class);
+
+    // State of a batch as of its last change; history entries below historyLength never change again.
+    public record Version(
+            long createdBlock, long block, int logIndex, long changedAt, BatchState state, int historyLength) {
+
+        public String etag() {
+            return "W/\"" + block + "." + logIndex + "\"";
+        }
+
+        public String recordEtag(long index) {
+            return "W/\"" + createdBlock + "." + index + "\"";
+        }
+    }
+
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    @Override
+    public void replayed() {
+        loaded = true;
+        log.info("Tracking last change of {} batches", versions.size());
+    }
+
+    /** Empty until the index is loaded and while the batch has not been indexed yet. */
+    public Optional<Version> version(String batchId) {
+        return loaded ? Optional.ofNullable(versions.get(batchId)) : Optional.empty();
+    }
+
+    // Version as of the events folded so far, loaded or not; for folds that run before this one.
+    Version current(String batchId) {
+        return versions.get(batchId);
+    }
+
+    @Override
+    public void fold(SupplyChainEvent event) {
+        String batchId = event.getBatchId();
+        switch (event.getEventType()) {
+            case BATCH_CREATED -> versions.put(batchId, new Version(
+                    event.getBlockNumber(),
+                    event.getBlockNumber(),
+                    event.getLogIndex(),
+                    event.getBlockTimestamp(),
+                    BatchState.CREATED,
+                    1));
+            case OWNERSHIP_TRANSFERRED -> {
+                Version current = versions.get(batchId);
+                if (current != null) {
+                    versions.put(batchId, new Version(
+                            current.createdBlock(),
+                            event.getBlockNumber(),
+                            event.getLogIndex(),
+                            event.getBlockTimestamp(),
+                            event.getState() == null ? current.state() : event.getState(),
+                            current.historyLength() + 1));
+                }
+            }
+            case BATCH_VERIFIED -> {
+                // does not change the batch
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.JwtPrincipal;
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.BatchResponse;
+import com.example.medichain.dto.ExpiringBatchResponse;
+import com.example.medichain.dto.PageResponse;
+import com.example.medichain.dto.ProductRequest;
+import com.example.medichain.event.BatchExpiryNotice;
+import com.example.medichain.model.BatchNotification;
+import com.example.medichain.model.BatchShelfLife;
+import com.example.medichain.model.User;
+import com.example.medichain.repository.BatchNotificationRepository;
+import com.example.medichain.repository.BatchShelfLifeRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import com.example.medichain.util.Bytes32Util;
+import com.example.medichain.util.CursorCodec;
+import com.example.medichain.util.ExpiryIndex;
+import java.math.BigInteger;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.utils.Numeric;
+
+/**
+ * Tracks batch shelf life in an in-memory {@link ExpiryIndex}. The table is read once at
+ * startup; afterwards only new registrations and fired notifications touch the database.
+ */
+@Service
+public class BatchExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchExpiryService.class);
+
+    private static final int LOAD_PAGE = 5000;
+    private static final int MAX_LIMIT = 500;
+    // Last second of year 9999; anything larger is not a shelf-life date.
+    private static final BigInteger MAX_DATE = BigInteger.valueOf(253_402_300_799L);
+
+    private final BatchShelfLifeRepository shelfLifeRepository;
+    private final BatchNotificationRepository notificationRepository;
+    private final SupplyChainEventRepository eventRepository;
+    private final SupplyChainService supplyChainService;
+    private final UserDirectory userDirectory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher publisher;
+    private final ExpiryIndex index;
+
+    private volatile boolean loaded;
+
+    public BatchExpiryService(
+            BatchShelfLifeRepository shelfLifeRepository,
+            BatchNotificationRepository notificationRepository,
+            SupplyChainEventRepository eventRepository,
+            SupplyChainService supplyChainService,
+            UserDirectory userDirectory,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher publisher,
+            MedichainProperties properties) {
+        this.shelfLifeRepository = shelfLifeRepository;
+        this.notificationRepository = notificationRepository;
+        this.eventRepository = eventRepository;
+        this.supplyChainService = supplyChainService;
+        this.userDirectory = userDirectory;
+        this.transactionTemplate = transactionTemplate;
+        this.publisher = publisher;
+        MedichainProperties.Expiry expiry = properties.getExpiry();
+        this.index = new ExpiryIndex(expiry.getBucketSeconds(), expiry.getWarningDays() * 86_400L);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        String after = "";
+        while (true) {
+            List<BatchShelfLife> page = shelfLifeRepository
+                    .findByBatchIdGreaterThanAndExpiredNotifiedFalseOrderByBatchIdAsc(after, PageRequest.of(0, LOAD_PAGE));
+            for (BatchShelfLife shelfLife : page) {
+                track(shelfLife);
+            }
+            if (page.size() < LOAD_PAGE) {
+                break;
+            }
+            after = page.get(page.size() - 1).getBatchId();
+        }
+        loaded = true;
+        log.info("Tracking shelf life for {} batches", index.size());
+    }
+
+    /**
+     * Records or corrects a batch's shelf life. Only its current owner (or an admin) may do so.
+     * Notifications already sent for the batch are not sent again.
+     */
+    public void register(ProductRequest request, JwtPrincipal caller) throws Exception {
+        long manufactureDate = epochSeconds(request.getManufactureDate(), "Manufacture date");
+        long expiryDate = epochSeconds(request.getExpiryDate(), "Expiry date");
+        if (expiryDate <= manufactureDate) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expiry date must be after manufacture date");
+        }
+        byte[] id;
+        try {
+            id = Bytes32Util.fromHexString(request.getProductId());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product ID must be a 32-byte hex batch id");
+        }
+        requireOwner(id, caller);
+
+        String batchId = Numeric.toHexString(id);
+        BatchShelfLife shelfLife = shelfLifeRepository.findById(batchId).orElseGet(() -> {
+            BatchShelfLife created = new BatchShelfLife();
+            created.setBatchId(batchId);
+            return created;
+        });
+        shelfLife.setManufactureDate(manufactureDate);
+        shelfLife.setExpiryDate(expiryDate);
+        shelfLifeRepository.save(shelfLife);
+        track(shelfLife);
+    }
+
+    public List<ExpiringBatchResponse> expiringSoon(int days, int limit) {
+        long now = System.currentTimeMillis() / 1000L;
+        return index.expiringBetween(now, now + days * 86_400L, Math.max(1, Math.min(limit, MAX_LIMIT))).stream()
+                .map(due -> new ExpiringBatchResponse(
+                        Numeric.toHexString(due.batchId()), due.expiresAt(), due.stage().name()))
+                .toList();
+    }
+
+    /**
+     * Notices sent to the caller's own wallet. Admins may name another {@code owner}; for anyone
+     * else the owner is the wallet linked to their account, never a request parameter.
+     */
+    public PageResponse<BatchNotification> notifications(JwtPrincipal caller, String owner, String cursor, int limit) {
+        if (caller == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Notifications require a bearer token");
+        }
+        if (owner == null || !isAdmin(caller)) {
+            owner = walletOf(caller);
+            if (owner == null) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No wallet is linked to this account");
+            }
+        }
+        long afterId;
+        try {
+            afterId = CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return notifications(owner, afterId, limit);
+    }
+
+    private PageResponse<BatchNotification> notifications(String owner, long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<BatchNotification> items = notificationRepository.findByOwnerAddressAndIdGreaterThanOrderByIdAsc(
+                owner.toLowerCase(), afterId, PageRequest.of(0, pageSize));
+        String next = items.size() < pageSize ? null : CursorCodec.encode(items.get(items.size() - 1).getId());
+        return new PageResponse<>(items, next);
+    }
+
+    @Scheduled(fixedDelayString = "${medichain.expiry.tick-interval-ms:60000}")
+    public void tick() {
+        if (!loaded) {
+            return;
+        }
+        for (ExpiryIndex.Due due : index.drainDue(System.currentTimeMillis() / 1000L)) {
+            try {
+                notifyOwner(due);
+            } catch (Exception e) {
+                log.warn("Failed to record {} notification for {}, retrying next tick: {}",
+                        due.stage(), Numeric.toHexString(due.batchId()), e.getMessage());
+                // drainDue already moved the batch on; it still owes this stage.
+                index.track(due.batchId(), due.expiresAt(), due.stage());
+            }
+        }
+    }
+
+    private void notifyOwner(ExpiryIndex.Due due) {
+        String batchId = Numeric.toHexString(due.batchId());
+        String owner = eventRepository.findFirstByBatchIdAndToAddressIsNotNullOrderByIdDesc(batchId)
+                .map(event -> event.getToAddress())
+                .orElse(null);
+        if (owner == null) {
+            // Not indexed yet; the stage stays owed until the index knows whom to tell.
+            index.track(due.batchId(), due.expiresAt(), due.stage());
+            return;
+        }
+        BatchNotification.Type type = due.stage() == ExpiryIndex.Stage.NEAR_EXPIRY
+                ? BatchNotification.Type.NEAR_EXPIRY
+                : BatchNotification.Type.EXPIRED;
+
+        // The stage is claimed and its notification stored together, so neither a retry nor
+        // another instance's tick can repeat it.
+        BatchNotification notification = transactionTemplate.execute(status -> {
+            int claimed = type == BatchNotification.Type.NEAR_EXPIRY
+                    ? shelfLifeRepository.claimNearExpiry(batchId)
+                    : shelfLifeRepository.claimExpired(batchId);
+            if (claimed != 1) {
+                return null;
+            }
+            return notificationRepository.save(new BatchNotification(owner, batchId, type, due.expiresAt()));
+        });
+        if (notification != null) {
+            publisher.publishEvent(new BatchExpiryNotice(notification));
+        }
+    }
+
+    private void requireOwner(byte[] batchId, JwtPrincipal caller) throws Exception {
+        BatchResponse batch;
+        try {
+            batch = supplyChainService.getBatch(batchId);
+        } catch (IllegalStateException e) {
+            if (SupplyChainService.isBatchMissing(e)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Batch does not exist");
+            }
+            throw e;
+        }
+        if (caller != null && isAdmin(caller)) {
+            return;
+        }
+        String wallet = caller == null ? null : walletOf(caller);
+        if (wallet == null || !wallet.equalsIgnoreCase(batch.getCurrentOwner())) {
+            throw new ResponseStatusException(
+                    HttpStatus.FORBIDDEN, "Only the batch's current owner can register its shelf life");
+        }
+    }
+
+    private static boolean isAdmin(JwtPrincipal caller) {
+        return User.UserRole.ADMIN.name().equals(caller.role());
+    }
+
+    // Wallets are only ever set by admin onboarding, so this is an address the user was vetted for.
+    private String walletOf(JwtPrincipal caller) {
+        return userDirectory.findByUsername(caller.getName()).map(User::getWalletAddress).orElse(null);
+    }
+
+    private static long epochSeconds(BigInteger value, String field) {
+        if (value.signum() <= 0 || value.compareTo(MAX_DATE) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, field + " must be epoch seconds");
+        }
+        return value.longValue();
+    }
+
+    private void track(BatchShelfLife shelfLife) {
+        ExpiryIndex.Stage stage = shelfLife.isExpiredNotified()
+                ? ExpiryIndex.Stage.DONE
+                : shelfLife.isNearExpiryNotified() ? ExpiryIndex.Stage.EXPIRED : ExpiryIndex.Stage.NEAR_EXPIRY;
+        index.track(Numeric.hexStringToByteArray(shelfLife.getBatchId()), shelfLife.getExpiryDate(), stage);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.medichain.service;
+
+import com.example.medichain.model.BatchOwner;
+import com.example.medichain.model.IndexerCheckpoint;
+import com.example.medichain.model.ProjectionCheckpoint;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.BatchOwnerRepository;
+import com.example.medichain.repository.IndexerCheckpointRepository;
+import com.example.medichain.repository.ProjectionCheckpointRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@code batch_owners} in step with the event index. The indexer applies each chunk of
+ * events in the same transaction that stores them, so the projection never disagrees with the
+ * index; its checkpoint in {@code projection_checkpoints} holds the id of the last event applied.
+ */
+@Service
+public class BatchOwnerProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchOwnerProjection.class);
+
+    static final String CHECKPOINT = "batch-owners";
+
+    private static final int REPLAY_PAGE = 1000;
+
+    private final BatchOwnerRepository ownerRepository;
+    private final SupplyChainEventRepository eventRepository;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    // Held the checkpoint, in its block column, before projections had their own table.
+    private final IndexerCheckpointRepository legacyCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile boolean caughtUp;
+
+    public BatchOwnerProjection(
+            BatchOwnerRepository ownerRepository,
+            SupplyChainEventRepository eventRepository,
+            ProjectionCheckpointRepository checkpointRepository,
+            IndexerCheckpointRepository legacyCheckpointRepository,
+            TransactionTemplate transactionTemplate) {
+        this.ownerRepository = ownerRepository;
+        this.eventRepository = eventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.legacyCheckpointRepository = legacyCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Applies events already in the index but not yet projected, e.g. on the first start after
+     * the projection was added. Called by the indexer before it stores anything new.
+     */
+    public void catchUp() {
+        if (caughtUp) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> migrateCheckpoint());
+        long applied = 0;
+        while (true) {
+            Integer size = transactionTemplate.execute(status -> {
+                List<SupplyChainEvent> page = eventRepository.findByIdGreaterThanOrderByIdAsc(
+                        lastEventId(), PageRequest.of(0, REPLAY_PAGE));
+                apply(page);
+                return page.size();
+            });
+            applied += size;
+            if (size < REPLAY_PAGE) {
+                break;
+            }
+        }
+        caughtUp = true;
+        if (applied > 0) {
+            log.info("Projected owners from {} indexed events", applied);
+        }
+    }
+
+    /** Folds {@code events}, in id order, into the projection; must run inside the caller's transaction. */
+    public void apply(List<SupplyChainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long last = lastEventId();
+        for (SupplyChainEvent event : events) {
+            if (event.getId() <= last) {
+                continue;
+            }
+            last = event.getId();
+            switch (event.getEventType()) {
+                case BATCH_CREATED -> ownerRepository.save(new BatchOwner(event));
+                case OWNERSHIP_TRANSFERRED -> ownerRepository.findByBatchId(event.getBatchId()).ifPresent(owner -> {
+                    owner.setOwnerAddress(event.getToAddress());
+                    // The indexer derives the state from the sender's role, as the contract does.
+                    if (event.getState() != null) {
+                        owner.setState(event.getState());
+                    }
+                    owner.setOwnedSince(event.getBlockTimestamp());
+                });
+                case BATCH_VERIFIED -> {
+                    // ownership is unchanged
+                }
+            }
+        }
+        checkpointRepository.save(new ProjectionCheckpoint(CHECKPOINT, last));
+    }
+
+    // Moves a checkpoint left in indexer_checkpoints over, so the projection resumes rather than replays.
+    private void migrateCheckpoint() {
+        legacyCheckpointRepository.findById(CHECKPOINT).ifPresent(legacy -> {
+            if (!checkpointRepository.existsById(CHECKPOINT)) {
+                checkpointRepository.save(new ProjectionCheckpoint(CHECKPOINT, legacy.getLastBlock()));
+            }
+            legacyCheckpointRepository.delete(legacy);
+        });
+    }
+
+    private long lastEventId() {
+        return checkpointRepository.findById(CHECKPOINT).map(ProjectionCheckpoint::getLastEventId).orElse(0L);
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.BatchUpdate;
+import com.example.medichain.event.ChainTransactionCompleted;
+import com.example.medichain.event.CounterfeitSuspected;
+import com.example.medichain.event.SupplyChainEventFolded;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.model.SupplyChainEvent;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Pushes batch changes to Server-Sent Events subscribers, keyed by batch id or owner address.
+ *
+ * <p>Each update is serialized once and handed to the subscribers of its topics only. Every
+ * subscriber has a small bounded buffer drained by a shared writer pool, so a slow client
+ * never holds up the event replay or other clients: when its buffer is full the oldest update is
+ * dropped and the client is told how many it missed, and a client that keeps falling behind
+ * is disconnected so it can reconnect and refetch.
+ *
+ * <p>Writes to the servlet response block, so a client whose socket stops draining would pin a
+ * writer thread and starve everyone else on the pool. Each write is timed: one still running
+ * after {@code medichain.stream.write-timeout-ms} gets its thread interrupted and its client
+ * disconnected, which frees the writer.
+ */
+@Service
+public class BatchUpdateHub {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchUpdateHub.class);
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writers;
+    private final int maxSubscribers;
+    private final int maxTopics;
+    private final int bufferSize;
+    private final int maxDropped;
+    private final long timeoutMs;
+    private final long writeTimeoutMs;
+    private final LongSupplier clock;
+    private final LongFunction<SseEmitter> emitters;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    @Autowired
+    public BatchUpdateHub(ObjectMapper objectMapper, MedichainProperties properties) {
+        this(objectMapper, properties, System::currentTimeMillis, SseEmitter::new);
+    }
+
+    // Lets tests control time and stand in for the servlet response.
+    BatchUpdateHub(
+            ObjectMapper objectMapper,
+            MedichainProperties properties,
+            LongSupplier clock,
+            LongFunction<SseEmitter> emitters) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.emitters = emitters;
+        MedichainProperties.Stream stream = properties.getStream();
+        this.maxSubscribers = stream.getMaxSubscribers();
+        this.maxTopics = stream.getMaxTopicsPerSubscriber();
+        this.bufferSize = stream.getBufferSize();
+        this.maxDropped = stream.getMaxDropped();
+        this.timeoutMs = stream.getTimeoutMs();
+        this.writeTimeoutMs = stream.getWriteTimeoutMs();
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(stream.getWriterThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "stream-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Opens a stream of updates for the given batch ids and owner addresses, both already normalized. */
+    public SseEmitter subscribe(Collection<String> batchIds, Collection<String> owners) {
+        List<String> keys = new ArrayList<>();
+        batchIds.forEach(batchId -> keys.add(batchTopic(batchId)));
+        owners.forEach(owner -> keys.add(ownerTopic(owner)));
+        if (keys.isEmpty() || keys.size() > maxTopics) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Subscribe to between 1 and " + maxTopics + " batch ids or owners");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open streams");
+        }
+
+        SseEmitter emitter = emitters.apply(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, keys, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.add(subscriber);
+        for (String key : keys) {
+            topics.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onFolded(SupplyChainEventFolded folded) {
+        SupplyChainEvent event = folded.event();
+        BatchUpdate update = new BatchUpdate(
+                event.getEventType().name(),
+                event.getBatchId(),
+                event.getFromAddress(),
+                event.getToAddress(),
+                event.getVerifiedValid(),
+                event.getBlockNumber(),
+                event.getTransactionHash(),
+                null);
+        List<String> keys = new ArrayList<>(3);
+        keys.add(batchTopic(event.getBatchId()));
+        keys.add(ownerTopic(event.getFromAddress()));
+        if (event.getToAddress() != null && !event.getToAddress().equals(event.getFromAddress())) {
+            keys.add(ownerTopic(event.getToAddress()));
+        }
+        publish(keys, String.valueOf(event.getId()), update);
+    }
+
+    @EventListener
+    public void onCompleted(ChainTransactionCompleted completed) {
+        ChainTransaction transaction = completed.transaction();
+        if (transaction.getBatchId() == null) {
+            return;
+        }
+        BatchUpdate update = new BatchUpdate(
+                "RECEIPT",
+                transaction.getBatchId(),
+                null,
+                null,
+                null,
+                transaction.getBlockNumber() == null ? null : transaction.getBlockNumber().longValue(),
+                transaction.getTransactionHash(),
+                transaction.getOperation() + ":" + transaction.getStatus().name());
+        publish(List.of(batchTopic(transaction.getBatchId())), null, update);
+    }
+
+    @EventListener
+    public void onCounterfeitSuspected(CounterfeitSuspected suspected) {
+        BatchUpdate update = new BatchUpdate(
+                "ANOMALY",
+                suspected.batchId(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                suspected.anomalies().stream().map(Enum::name).collect(Collectors.joining(",")));
+        publish(List.of(batchTopic(suspected.batchId())), null, update);
+    }
+
+    // Keeps idle connections open through proxies and finds clients that went away.
+    @Scheduled(fixedDelayString = "${medichain.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty() && subscriber.queue.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // Finds writes stuck on a client that stopped reading; detected within twice the write timeout.
+    @Scheduled(fixedDelayString = "${medichain.stream.write-timeout-ms:5000}")
+    public void evictStalled() {
+        long now = clock.getAsLong();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.writeStartedMs;
+            if (started == 0 || now - started < writeTimeoutMs) {
+                continue;
+            }
+            evicted.incrementAndGet();
+            log.debug("Disconnecting stream subscriber whose write stalled for {} ms", now - started);
+            remove(subscriber);
+            stopWriter(subscriber);
+            subscriber.emitter.completeWithError(new IOException("Stream write timed out"));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long evictedCount() {
+        return evicted.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        writers.shutdown();
+    }
+
+    private void publish(List<String> keys, String id, BatchUpdate update) {
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = null;
+        Set<Subscriber> seen = keys.size() > 1 ? new HashSet<>() : null;
+        for (String key : keys) {
+            Set<Subscriber> audience = topics.get(key);
+            if (audience == null) {
+                continue;
+            }
+            for (Subscriber subscriber : audience) {
+                if (seen != null && !seen.add(subscriber)) {
+                    continue;
+                }
+                if (frame == null) {
+                    frame = frame(id, update);
+                }
+                offer(subscriber, frame);
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String id, BatchUpdate update) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event()
+                .name(update.getType())
+                .data(objectMapper.writeValueAsString(update));
+        if (id != null) {
+            event.id(id);
+        }
+        return event.build();
+    }
+
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (subscriber.closed) {
+            return;
+        }
+        while (!subscriber.queue.offer(frame)) {
+            if (subscriber.queue.poll() != null) {
+                dropped.incrementAndGet();
+                if (subscriber.dropped.incrementAndGet() > maxDropped) {
+                    evicted.incrementAndGet();
+                    log.debug("Disconnecting slow stream subscriber after {} dropped updates", maxDropped);
+                    close(subscriber);
+                    return;
+                }
+            }
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        subscriber.writer = Thread.currentThread();
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame;
+            while (!subscriber.closed && (frame = subscriber.queue.poll()) != null) {
+                subscriber.writeStartedMs = clock.getAsLong();
+                int missed = subscriber.dropped.getAndSet(0);
+                if (missed > 0) {
+                    // Tells the client to refetch what it is watching.
+                    subscriber.emitter.send(SseEmitter.event().name("GAP").data(String.valueOf(missed)));
+                }
+                subscriber.emitter.send(frame);
+                subscriber.writeStartedMs = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            close(subscriber);
+        } finally {
+            synchronized (subscriber) {
+                subscriber.writeStartedMs = 0;
+                subscriber.writer = null;
+                // Clears an interrupt from evictStalled that landed after the write returned.
+                Thread.interrupted();
+            }
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        stopWriter(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    // Unblocks a write in progress to a client being disconnected so its writer thread is freed.
+    private static void stopWriter(Subscriber subscriber) {
+        // Under the lock the writer is still inside this subscriber's drain, so the interrupt cannot hit another's.
+        synchronized (subscriber) {
+            Thread writer = subscriber.writer;
+            if (writer != null && writer != Thread.currentThread()) {
+                writer.interrupt();
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.queue.clear();
+        for (String key : subscriber.keys) {
+            topics.computeIfPresent(key, (k, audience) -> {
+                audience.remove(subscriber);
+                return audience.isEmpty() ? null : audience;
+            });
+        }
+    }
+
+    private static String batchTopic(String batchId) {
+        return "batch:" + batchId;
+    }
+
+    private static String ownerTopic(String owner) {
+        return "owner:" + owner;
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final List<String> keys;
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Updates dropped since the client last received one.
+        private final AtomicInteger dropped = new AtomicInteger();
+        private volatile boolean closed;
+        // When the write in progress began, 0 when none is; read by evictStalled.
+        private volatile long writeStartedMs;
+        private volatile Thread writer;
+
+        Subscriber(SseEmitter emitter, List<String> keys, int bufferSize) {
+            this.emitter = emitter;
+            this.keys = keys;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
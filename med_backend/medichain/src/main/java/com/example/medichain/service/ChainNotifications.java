@@ -0,0 +1,118 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.config.ReconnectingWebSocketService;
+import com.example.medichain.event.ChainHeadReceived;
+import com.example.medichain.event.SupplyChainLogReceived;
+import io.reactivex.disposables.CompositeDisposable;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.utils.Numeric;
+
+/**
+ * New blocks and SupplyChain logs pushed by the node when the WebSocket transport is used.
+ *
+ * <p>Notifications arrive on the socket's reader thread, which must never wait on the node
+ * itself, so they are handed to one dispatch thread and published there as application
+ * events; log notices are coalesced so a busy block triggers one indexer pass. Callers can
+ * also block until the next head with {@link #awaitHead}. Over HTTP nothing is pushed, and
+ * waits simply run to their timeout as the old polling sleeps did.
+ */
+@Service
+public class ChainNotifications {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainNotifications.class);
+
+    private final Web3j web3j;
+    private final String contractAddress;
+    private final ApplicationEventPublisher publisher;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chain-notifications");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean logNoticePending = new AtomicBoolean();
+    private final Object headMonitor = new Object();
+    private CompositeDisposable subscriptions = new CompositeDisposable();
+    private volatile long heads;
+    private volatile long latestLogBlock;
+
+    public ChainNotifications(
+            Web3j web3j,
+            Web3jService web3jService,
+            BlockchainProperties properties,
+            ApplicationEventPublisher publisher) {
+        this.web3j = web3j;
+        this.contractAddress = properties.getSupplyChain().getContractAddress();
+        this.publisher = publisher;
+        if (web3jService instanceof ReconnectingWebSocketService webSocket) {
+            webSocket.onConnected(this::subscribe);
+        }
+    }
+
+    /** Heads received so far; pass to {@link #awaitHead} to wait for the next one. */
+    public long headCount() {
+        return heads;
+    }
+
+    /** Waits until a head arrives after {@code seen} heads, or {@code timeoutMs} passes. */
+    public void awaitHead(long seen, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (headMonitor) {
+            long remaining = timeoutMs;
+            while (heads == seen && remaining > 0) {
+                headMonitor.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        subscriptions.dispose();
+        dispatcher.shutdownNow();
+    }
+
+    // Runs on every (re)connect; subscriptions from the previous connection are already dead.
+    private synchronized void subscribe() {
+        subscriptions.dispose();
+        subscriptions = new CompositeDisposable();
+        subscriptions.add(web3j.newHeadsNotifications().subscribe(
+                notification -> onHead(Numeric.toBigInt(notification.getParams().getResult().getNumber()).longValue()),
+                error -> log.debug("newHeads subscription ended: {}", error.getMessage())));
+        subscriptions.add(web3j.logsNotifications(List.of(contractAddress), List.of()).subscribe(
+                notification -> onLog(Numeric.toBigInt(notification.getParams().getResult().getBlockNumber())
+                        .longValue()),
+                error -> log.debug("logs subscription ended: {}", error.getMessage())));
+        // Logs emitted while the socket was down are only found by the indexer's own scan.
+        onLog(latestLogBlock);
+        log.info("Subscribed to newHeads and SupplyChain logs");
+    }
+
+    private void onHead(long blockNumber) {
+        synchronized (headMonitor) {
+            heads++;
+            headMonitor.notifyAll();
+        }
+        dispatcher.execute(() -> publisher.publishEvent(new ChainHeadReceived(blockNumber)));
+    }
+
+    private void onLog(long blockNumber) {
+        latestLogBlock = Math.max(latestLogBlock, blockNumber);
+        if (logNoticePending.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                logNoticePending.set(false);
+                publisher.publishEvent(new SupplyChainLogReceived(latestLogBlock));
+            });
+        }
+    }
+}
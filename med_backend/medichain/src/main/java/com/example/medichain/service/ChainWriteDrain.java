@@ -0,0 +1,71 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.tx.TransactionSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains contract writes when the application stops, ahead of the web server's own graceful
+ * shutdown: new writes get 503, writes already sent keep waiting for their receipts until
+ * {@code medichain.drain.timeout-ms}, and any still unmined then are abandoned as
+ * {@code PENDING} for the next start to resolve.
+ */
+@Component
+public class ChainWriteDrain implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainWriteDrain.class);
+
+    private final ChainWriteService chainWriteService;
+    private final TransactionSender transactionSender;
+    private final long timeoutMs;
+    // Abandoned waits notice at their next poll; allow two before giving up on them.
+    private final long abandonGraceMs;
+    private volatile boolean running;
+
+    public ChainWriteDrain(
+            ChainWriteService chainWriteService,
+            TransactionSender transactionSender,
+            MedichainProperties properties,
+            BlockchainProperties blockchainProperties) {
+        this.chainWriteService = chainWriteService;
+        this.transactionSender = transactionSender;
+        this.timeoutMs = properties.getDrain().getTimeoutMs();
+        this.abandonGraceMs = 2 * blockchainProperties.getTxReceipt().getPollIntervalMs();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        chainWriteService.stopAccepting();
+        try {
+            if (!chainWriteService.awaitIdle(timeoutMs)) {
+                log.warn("Writes still awaiting receipts after {} ms; leaving them to the next start", timeoutMs);
+                transactionSender.abandonWaits();
+                chainWriteService.awaitIdle(abandonGraceMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops first, so the web server is still answering while writes drain.
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
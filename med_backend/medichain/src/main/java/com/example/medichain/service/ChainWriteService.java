@@ -0,0 +1,398 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.TransactionResponse;
+import com.example.medichain.event.ChainTransactionCompleted;
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.repository.ChainTransactionRepository;
+import com.example.medichain.tx.SigningTransactionManager;
+import com.example.medichain.tx.SubmissionScheduler;
+import com.example.medichain.tx.TransactionSender;
+import com.example.medichain.tx.TxPriority;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+/**
+ * Runs contract writes through the {@code chain_transactions} ledger.
+ *
+ * <p>Submissions are ordered by the {@link SubmissionScheduler}; a full queue answers 429.
+ * Writes that carry an {@code Idempotency-Key} are deduplicated: a retry of a completed
+ * write is answered from the stored receipt, and a retry of one still in flight on this
+ * instance waits on the same future. Neither reaches the node. The in-memory map is
+ * bounded; entries that fall out of it are still found in PostgreSQL.
+ *
+ * <p>On shutdown new writes are refused with 503 while those already admitted finish; a write
+ * whose receipt has not arrived by the drain deadline stays {@code PENDING} with its hash, and
+ * the next start watches it to completion. Retries with its key join that watch.
+ */
+@Service
+public class ChainWriteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChainWriteService.class);
+
+    @FunctionalInterface
+    public interface Submission {
+        String submit() throws Exception;
+    }
+
+    private final SupplyChainService supplyChainService;
+    private final ChainTransactionRepository transactionRepository;
+    private final SubmissionScheduler scheduler;
+    private final ChainMetrics chainMetrics;
+    private final ApplicationEventPublisher publisher;
+    private final Map<String, InFlight> recent;
+    private final ExecutorService resumer;
+    private final long awaitTimeoutMs;
+    // Guards draining and admitted; notified whenever admitted drops.
+    private final Object admission = new Object();
+    private boolean draining;
+    private int admitted;
+
+    public ChainWriteService(
+            SupplyChainService supplyChainService,
+            ChainTransactionRepository transactionRepository,
+            SubmissionScheduler scheduler,
+            ChainMetrics chainMetrics,
+            ApplicationEventPublisher publisher,
+            MedichainProperties properties) {
+        this.supplyChainService = supplyChainService;
+        this.transactionRepository = transactionRepository;
+        this.scheduler = scheduler;
+        this.chainMetrics = chainMetrics;
+        this.publisher = publisher;
+        int maxEntries = properties.getIdempotency().getMaxEntries();
+        this.awaitTimeoutMs = properties.getIdempotency().getAwaitTimeoutMs();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InFlight> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.resumer = Executors.newFixedThreadPool(properties.getDrain().getResumeThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "chain-write-resume");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static String fingerprint(String operation, String... arguments) {
+        String canonical = operation + ":" + String.join(":", Arrays.asList(arguments)).toLowerCase();
+        return Numeric.toHexString(Hash.sha256(canonical.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public TransactionResponse execute(
+            String operation,
+            String batchId,
+            TxPriority priority,
+            String tenant,
+            String idempotencyKey,
+            String fingerprint,
+            Submission submission) throws Exception {
+        if (!admit()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Shutting down, retry the write");
+        }
+        try {
+            return executeAdmitted(operation, batchId, priority, tenant, idempotencyKey, fingerprint, submission);
+        } finally {
+            release();
+        }
+    }
+
+    /** Refuses writes from now on; those already admitted carry on. */
+    public void stopAccepting() {
+        synchronized (admission) {
+            draining = true;
+        }
+    }
+
+    /** Waits up to {@code timeoutMs} for every admitted write to finish; returns whether they did. */
+    public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (admission) {
+            long remaining = timeoutMs;
+            while (admitted > 0 && remaining > 0) {
+                admission.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return admitted == 0;
+        }
+    }
+
+    /** Writes a previous run sent but did not see mined; they are watched in the background until they are. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        List<ChainTransaction> leftover = transactionRepository
+                .findByStatusAndTransactionHashIsNotNullOrderByIdAsc(ChainTransaction.Status.PENDING);
+        for (ChainTransaction record : leftover) {
+            InFlight watch = new InFlight(record.getRequestFingerprint(), new CompletableFuture<>());
+            if (record.getIdempotencyKey() != null) {
+                synchronized (recent) {
+                    if (recent.putIfAbsent(scoped(record), watch) != null) {
+                        continue;
+                    }
+                }
+            }
+            resumer.execute(() -> resumeLeftover(record, watch));
+        }
+        if (!leftover.isEmpty()) {
+            log.info("Resuming {} writes left pending by a previous run", leftover.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumer.shutdownNow();
+    }
+
+    private TransactionResponse executeAdmitted(
+            String operation,
+            String batchId,
+            TxPriority priority,
+            String tenant,
+            String idempotencyKey,
+            String fingerprint,
+            Submission submission) throws Exception {
+        Submission scheduled = () -> scheduler.run(priority, tenant, submission::submit);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return run(start(operation, batchId, tenant, null, null), scheduled);
+        }
+
+        // Keys are chosen by clients, so they only deduplicate within one tenant.
+        String scopedKey = scoped(tenant, idempotencyKey);
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing;
+        synchronized (recent) {
+            existing = recent.get(scopedKey);
+            if (existing == null) {
+                recent.put(scopedKey, mine);
+            }
+        }
+        if (existing != null) {
+            requireSameRequest(existing.fingerprint(), fingerprint);
+            return await(existing.future());
+        }
+
+        try {
+            TransactionResponse response;
+            Optional<ChainTransaction> stored =
+                    transactionRepository.findBySubmittedByAndIdempotencyKey(tenant, idempotencyKey);
+            if (stored.isPresent()) {
+                requireSameRequest(stored.get().getRequestFingerprint(), fingerprint);
+                response = resume(stored.get());
+            } else {
+                response = run(start(operation, batchId, tenant, idempotencyKey, fingerprint), scheduled);
+            }
+            mine.future().complete(response);
+            return response;
+        } catch (Exception e) {
+            synchronized (recent) {
+                recent.remove(scopedKey, mine);
+            }
+            mine.future().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ChainTransaction start(
+            String operation, String batchId, String tenant, String idempotencyKey, String fingerprint) {
+        ChainTransaction record = new ChainTransaction();
+        record.setOperation(operation);
+        record.setBatchId(batchId);
+        record.setSubmittedBy(tenant);
+        record.setIdempotencyKey(idempotencyKey);
+        record.setRequestFingerprint(fingerprint);
+        try {
+            return transactionRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key between our lookup and insert.
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Request with this Idempotency-Key is in progress");
+        }
+    }
+
+    private TransactionResponse run(ChainTransaction record, Submission submission) throws Exception {
+        String transactionHash;
+        try {
+            transactionHash = submission.submit();
+        } catch (RejectedExecutionException e) {
+            transactionRepository.delete(record);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        } catch (SigningTransactionManager.SendOutcomeUnknownException e) {
+            // The node may have taken it: keep the row and the key, and watch for the hash like any sent write.
+            log.warn("Send of {} {} failed in transit; watching for it anyway", record.getOperation(),
+                    e.getTransactionHash());
+            transactionHash = e.getTransactionHash();
+        } catch (Exception e) {
+            // Failed before anything was signed and sent (checks, fee estimate, a JSON-RPC error),
+            // so the key is free to be retried.
+            transactionRepository.delete(record);
+            throw e;
+        }
+        record.setTransactionHash(transactionHash);
+        transactionRepository.save(record);
+        return complete(record, awaitReceipt(record));
+    }
+
+    private TransactionResponse resume(ChainTransaction record) throws Exception {
+        if (record.getStatus() != ChainTransaction.Status.PENDING) {
+            return toResponse(record);
+        }
+        if (record.getTransactionHash() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Request with this Idempotency-Key is in progress");
+        }
+        return complete(record, awaitReceipt(record));
+    }
+
+    private void resumeLeftover(ChainTransaction record, InFlight watch) {
+        if (!admit()) {
+            return;
+        }
+        try {
+            TransactionReceipt receipt = awaitReceipt(record);
+            // The instance that sent it may still be draining and have recorded the receipt first.
+            ChainTransaction current = transactionRepository.findById(record.getId()).orElse(record);
+            TransactionResponse response = current.getStatus() == ChainTransaction.Status.PENDING
+                    ? complete(record, receipt)
+                    : toResponse(current);
+            watch.future().complete(response);
+        } catch (Exception e) {
+            log.warn("Pending write {} not resolved: {}", record.getTransactionHash(), e.getMessage());
+            watch.future().completeExceptionally(e);
+        } finally {
+            if (record.getIdempotencyKey() != null) {
+                synchronized (recent) {
+                    recent.remove(scoped(record), watch);
+                }
+            }
+            release();
+        }
+    }
+
+    // Watches every version of the write and records fee-bump replacements as they are sent.
+    private TransactionReceipt awaitReceipt(ChainTransaction record) throws Exception {
+        List<String> hashes = new ArrayList<>(splitLines(record.getReplacedHashes()));
+        hashes.add(record.getTransactionHash());
+        try {
+            return supplyChainService.awaitReceipt(hashes, replacement -> {
+                List<String> replaced = new ArrayList<>(splitLines(record.getReplacedHashes()));
+                replaced.add(record.getTransactionHash());
+                record.setReplacedHashes(String.join("\n", replaced));
+                record.setTransactionHash(replacement);
+                transactionRepository.save(record);
+            });
+        } catch (TransactionSender.WaitAbandonedException e) {
+            // The record keeps PENDING and every hash sent, so the next start picks the write up.
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Shutting down before transaction " + record.getTransactionHash() + " was mined; "
+                            + "retry with the same Idempotency-Key for its receipt");
+        }
+    }
+
+    private static String scoped(String tenant, String idempotencyKey) {
+        return tenant + "\n" + idempotencyKey;
+    }
+
+    private static String scoped(ChainTransaction record) {
+        return scoped(record.getSubmittedBy(), record.getIdempotencyKey());
+    }
+
+    private boolean admit() {
+        synchronized (admission) {
+            if (draining) {
+                return false;
+            }
+            admitted++;
+            return true;
+        }
+    }
+
+    private void release() {
+        synchronized (admission) {
+            admitted--;
+            admission.notifyAll();
+        }
+    }
+
+    private TransactionResponse complete(ChainTransaction record, TransactionReceipt receipt) {
+        TransactionResponse response = TransactionResponse.fromReceipt(receipt);
+        if (!response.getTransactionHash().equalsIgnoreCase(record.getTransactionHash())) {
+            // An earlier version was mined; the last one sent is now the superseded one.
+            List<String> replaced = new ArrayList<>(splitLines(record.getReplacedHashes()));
+            replaced.remove(response.getTransactionHash());
+            replaced.add(record.getTransactionHash());
+            record.setReplacedHashes(String.join("\n", replaced));
+            record.setTransactionHash(response.getTransactionHash());
+        }
+        record.setStatus(receipt.isStatusOK() ? ChainTransaction.Status.MINED : ChainTransaction.Status.FAILED);
+        record.setBlockNumber(response.getBlockNumber());
+        record.setGasUsed(response.getGasUsed());
+        record.setReceiptStatus(response.getStatus());
+        record.setLogs(String.join("\n", response.getLogs()));
+        transactionRepository.save(record);
+        chainMetrics.gasUsed(record.getOperation(), record.getStatus().name(), response.getGasUsed());
+        publisher.publishEvent(new ChainTransactionCompleted(record));
+        return response;
+    }
+
+    private static TransactionResponse toResponse(ChainTransaction record) {
+        List<String> logs = splitLines(record.getLogs());
+        return new TransactionResponse(
+                record.getTransactionHash(),
+                record.getBlockNumber(),
+                record.getGasUsed(),
+                record.getReceiptStatus(),
+                logs);
+    }
+
+    private static List<String> splitLines(String joined) {
+        return joined == null || joined.isEmpty() ? List.of() : List.of(joined.split("\n"));
+    }
+
+    private static void requireSameRequest(String expected, String actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new ResponseStatusException(
+                    HttpStatus.UNPROCESSABLE_CONTENT, "Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private TransactionResponse await(CompletableFuture<TransactionResponse> future) throws Exception {
+        try {
+            return future.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Request with this Idempotency-Key is in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<TransactionResponse> future) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.event.CounterfeitSuspected;
+import com.example.medichain.model.BatchState;
+import com.example.medichain.util.ScanAnomalyDetector;
+import java.time.Clock;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.web3j.utils.Numeric;
+
+/**
+ * Screens every verification request for signs of a cloned QR code: bursts of scans, scans
+ * too far apart for the time between them, and scans of a batch that was already sold.
+ *
+ * <p>The decision is made inline, against state held by a {@link ScanAnomalyDetector}, so the
+ * verify response can carry the verdict; anomalies are also published for live subscribers.
+ */
+@Service
+public class CounterfeitDetectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterfeitDetectionService.class);
+
+    private final ScanAnomalyDetector detector;
+    private final BatchChangeIndex batchChangeIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock = Clock.systemUTC();
+    private long flagged;
+
+    public CounterfeitDetectionService(
+            MedichainProperties properties,
+            BatchChangeIndex batchChangeIndex,
+            ApplicationEventPublisher eventPublisher) {
+        MedichainProperties.Counterfeit counterfeit = properties.getCounterfeit();
+        this.detector = new ScanAnomalyDetector(
+                counterfeit.getCapacity(),
+                counterfeit.getWindowSeconds(),
+                counterfeit.getMaxScans(),
+                counterfeit.getMaxSpeedKmh(),
+                counterfeit.getMaxSpreadKm(),
+                counterfeit.getMaxScansAfterSale());
+        this.batchChangeIndex = batchChangeIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** Records a scan of {@code batchId}; latitude and longitude are null when the client sent none. */
+    public Set<ScanAnomalyDetector.Anomaly> screen(byte[] batchId, Double latitude, Double longitude) {
+        String batchHex = Numeric.toHexString(batchId);
+        boolean sold = batchChangeIndex.version(batchHex)
+                .map(version -> version.state() == BatchState.SOLD)
+                .orElse(false);
+        Set<ScanAnomalyDetector.Anomaly> anomalies;
+        synchronized (detector) {
+            anomalies = detector.scan(
+                    ScanAnomalyDetector.key(batchId),
+                    clock.instant().getEpochSecond(),
+                    latitude == null ? Double.NaN : latitude,
+                    longitude == null ? Double.NaN : longitude,
+                    sold);
+            if (!anomalies.isEmpty()) {
+                flagged++;
+            }
+        }
+        if (!anomalies.isEmpty()) {
+            log.warn("Possible counterfeit of batch {}: {}", batchHex, anomalies);
+            eventPublisher.publishEvent(new CounterfeitSuspected(batchHex, anomalies));
+        }
+        return anomalies;
+    }
+
+    public long flaggedCount() {
+        synchronized (detector) {
+            return flagged;
+        }
+    }
+
+    public long evictedCount() {
+        synchronized (detector) {
+            return detector.evictions();
+        }
+    }
+
+    public int capacity() {
+        return detector.capacity();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.medichain.service;
+
+import com.example.medichain.dto.CustodyExportRecord;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import com.example.medichain.util.CursorCodec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the chain of custody for every batch a manufacturer created in a period,
+ * reading the event index one keyset page at a time so memory stays bounded by the page size.
+ */
+@Service
+public class CustodyExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    static final int PAGE_SIZE = 200;
+
+    private static final byte[] CSV_HEADER =
+            "cursor,batch_id,hop,from,to,block_number,timestamp,transaction_hash\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    private final SupplyChainEventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+
+    public CustodyExportService(SupplyChainEventRepository eventRepository, ObjectMapper objectMapper) {
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(
+            String manufacturer,
+            long fromTime,
+            long toTime,
+            Format format,
+            long afterId,
+            OutputStream out) throws IOException {
+        String owner = manufacturer.toLowerCase();
+
+        if (format == Format.CSV && afterId == 0L) {
+            out.write(CSV_HEADER);
+        }
+
+        while (true) {
+            List<SupplyChainEvent> created = eventRepository.findCreatedByManufacturer(
+                    owner, fromTime, toTime, afterId, PageRequest.of(0, PAGE_SIZE));
+            if (created.isEmpty()) {
+                break;
+            }
+
+            Map<String, List<CustodyExportRecord.Hop>> trails = loadTrails(created);
+            for (SupplyChainEvent event : created) {
+                CustodyExportRecord record = new CustodyExportRecord(
+                        CursorCodec.encode(event.getId()),
+                        event.getBatchId(),
+                        event.getFromAddress(),
+                        event.getMetadataHash(),
+                        event.getBlockTimestamp(),
+                        trails.getOrDefault(event.getBatchId(), List.of()));
+                if (format == Format.CSV) {
+                    writeCsv(record, out);
+                } else {
+                    out.write(objectMapper.writeValueAsBytes(record));
+                    out.write('\n');
+                }
+            }
+            out.flush();
+
+            afterId = created.get(created.size() - 1).getId();
+            if (created.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+    }
+
+    private Map<String, List<CustodyExportRecord.Hop>> loadTrails(List<SupplyChainEvent> created) {
+        List<String> batchIds = created.stream().map(SupplyChainEvent::getBatchId).toList();
+        Map<String, List<CustodyExportRecord.Hop>> trails = new LinkedHashMap<>();
+        for (SupplyChainEvent event : eventRepository.findCustodyTrail(batchIds)) {
+            String from = event.getEventType() == SupplyChainEvent.Type.BATCH_CREATED
+                    ? null
+                    : event.getFromAddress();
+            trails.computeIfAbsent(event.getBatchId(), id -> new ArrayList<>())
+                    .add(new CustodyExportRecord.Hop(
+                            from,
+                            event.getToAddress(),
+                            event.getBlockNumber(),
+                            event.getBlockTimestamp(),
+                            event.getTransactionHash()));
+        }
+        return trails;
+    }
+
+    private void writeCsv(CustodyExportRecord record, OutputStream out) throws IOException {
+        StringBuilder rows = new StringBuilder();
+        List<CustodyExportRecord.Hop> trail = record.getTrail();
+        for (int i = 0; i < trail.size(); i++) {
+            CustodyExportRecord.Hop hop = trail.get(i);
+            rows.append(record.getCursor()).append(',')
+                    .append(record.getBatchId()).append(',')
+                    .append(i).append(',')
+                    .append(hop.getFrom() == null ? "" : hop.getFrom()).append(',')
+                    .append(hop.getTo()).append(',')
+                    .append(hop.getBlockNumber()).append(',')
+                    .append(hop.getTimestamp()).append(',')
+                    .append(hop.getTransactionHash()).append('\n');
+        }
+        out.write(rows.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
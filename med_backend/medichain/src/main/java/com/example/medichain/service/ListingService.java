@@ -0,0 +1,104 @@
+package com.example.medichain.service;
+
+import com.example.medichain.dto.CustodyExportRecord;
+import com.example.medichain.dto.OwnedBatchResponse;
+import com.example.medichain.dto.PageResponse;
+import com.example.medichain.dto.SubmittedTransactionResponse;
+import com.example.medichain.model.BatchOwner;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.BatchOwnerRepository;
+import com.example.medichain.repository.ChainTransactionRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import com.example.medichain.util.CursorCodec;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Keyset-paginated listings served from indexed tables. Every page is an index range scan
+ * starting after the id in the cursor, so page 1000 costs the same as page 1, and rows added
+ * while a client pages never shift or repeat what it has already seen.
+ */
+@Service
+public class ListingService {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final SupplyChainEventRepository eventRepository;
+    private final BatchOwnerRepository ownerRepository;
+    private final ChainTransactionRepository transactionRepository;
+
+    public ListingService(
+            SupplyChainEventRepository eventRepository,
+            BatchOwnerRepository ownerRepository,
+            ChainTransactionRepository transactionRepository) {
+        this.eventRepository = eventRepository;
+        this.ownerRepository = ownerRepository;
+        this.transactionRepository = transactionRepository;
+    }
+
+    /** Creation and transfers of a batch as recorded by the indexer, oldest first. */
+    public PageResponse<CustodyExportRecord.Hop> ownershipHistory(String batchId, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        List<SupplyChainEvent> events = eventRepository.findOwnershipPage(
+                batchId, afterId(cursor), PageRequest.of(0, pageSize));
+        return page(events, pageSize, SupplyChainEvent::getId, event -> new CustodyExportRecord.Hop(
+                event.getEventType() == SupplyChainEvent.Type.BATCH_CREATED ? null : event.getFromAddress(),
+                event.getToAddress(),
+                event.getBlockNumber(),
+                event.getBlockTimestamp(),
+                event.getTransactionHash()));
+    }
+
+    /** Batches {@code owner} holds now, in the order they were created. */
+    public PageResponse<OwnedBatchResponse> batchesOwnedBy(String owner, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        List<BatchOwner> owned = ownerRepository.findByOwnerAddressAndIdGreaterThanOrderByIdAsc(
+                owner.toLowerCase(), afterId(cursor), PageRequest.of(0, pageSize));
+        return page(owned, pageSize, BatchOwner::getId, batch -> new OwnedBatchResponse(
+                batch.getBatchId(),
+                batch.getOwnerAddress(),
+                batch.getState().name(),
+                batch.getMetadataHash(),
+                batch.getCreatedAt(),
+                batch.getOwnedSince()));
+    }
+
+    /** Writes submitted by {@code user}, oldest first. */
+    public PageResponse<SubmittedTransactionResponse> transactionsOf(String user, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        List<ChainTransaction> transactions = transactionRepository.findBySubmittedByAndIdGreaterThanOrderByIdAsc(
+                user, afterId(cursor), PageRequest.of(0, pageSize));
+        return page(transactions, pageSize, ChainTransaction::getId, transaction -> new SubmittedTransactionResponse(
+                transaction.getOperation(),
+                transaction.getBatchId(),
+                transaction.getTransactionHash(),
+                transaction.getStatus().name(),
+                transaction.getBlockNumber(),
+                transaction.getCreatedAt()));
+    }
+
+    // A short page means there is nothing after it.
+    private static <E, T> PageResponse<T> page(
+            List<E> rows, int pageSize, ToLongFunction<E> id, Function<E, T> mapper) {
+        String next = rows.size() < pageSize ? null : CursorCodec.encode(id.applyAsLong(rows.get(rows.size() - 1)));
+        return new PageResponse<>(rows.stream().map(mapper).toList(), next);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static long afterId(String cursor) {
+        try {
+            return CursorCodec.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.model.User;
+import com.example.medichain.util.KeyedRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Password logins, shielded from credential stuffing.
+ *
+ * <p>Attempts are rate limited per account and per client address before anything else
+ * runs. The client address is the one Tomcat resolves from X-Forwarded-For for requests
+ * through a trusted proxy ({@code server.tomcat.remoteip.internal-proxies}), so clients
+ * behind one proxy do not share a limit. BCrypt checks run on a small dedicated pool with a bounded queue; when it is full
+ * the attempt is refused with 429 instead of tying up request threads and CPU that the
+ * rest of the API needs. Stored hashes weaker than the configured cost are rehashed after
+ * a successful login.
+ */
+@Service
+public class LoginService {
+
+    public enum Outcome {
+        SUCCESS,
+        UNKNOWN_USER,
+        BAD_PASSWORD,
+        INACTIVE
+    }
+
+    public record Result(Outcome outcome, User user) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LoginService.class);
+
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final UserDirectory userDirectory;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor verifier;
+    private final KeyedRateLimiter perAccount;
+    private final KeyedRateLimiter perAddress;
+
+    public LoginService(
+            UserDirectory userDirectory,
+            PasswordEncoder passwordEncoder,
+            MedichainProperties properties,
+            MeterRegistry meterRegistry) {
+        this.userDirectory = userDirectory;
+        this.passwordEncoder = passwordEncoder;
+        MedichainProperties.Login login = properties.getLogin();
+        AtomicInteger threads = new AtomicInteger();
+        this.verifier = new ThreadPoolExecutor(
+                login.getVerifyThreads(),
+                login.getVerifyThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(login.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-verify-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(this.verifier, "login.verify", List.of()).bindTo(meterRegistry);
+        this.perAccount = new KeyedRateLimiter(login.getAttemptsPerAccountPerMinute(), MAX_TRACKED_KEYS);
+        this.perAddress = new KeyedRateLimiter(login.getAttemptsPerAddressPerMinute(), MAX_TRACKED_KEYS);
+    }
+
+    public Result authenticate(String usernameOrEmail, String password, String clientAddress) throws Exception {
+        if (usernameOrEmail == null || password == null) {
+            return new Result(Outcome.UNKNOWN_USER, null);
+        }
+        if (!perAddress.tryAcquire(clientAddress)
+                || !perAccount.tryAcquire(usernameOrEmail.toLowerCase(Locale.ROOT))) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later");
+        }
+
+        User user = userDirectory.findByLogin(usernameOrEmail).orElse(null);
+        if (user == null) {
+            return new Result(Outcome.UNKNOWN_USER, null);
+        }
+        if (!matches(password, user.getPassword())) {
+            return new Result(Outcome.BAD_PASSWORD, user);
+        }
+        if (!user.isActive()) {
+            return new Result(Outcome.INACTIVE, user);
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            upgradeHash(user, password);
+        }
+        return new Result(Outcome.SUCCESS, user);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        verifier.shutdown();
+    }
+
+    private boolean matches(String password, String hash) throws Exception {
+        try {
+            return verifier.submit(() -> passwordEncoder.matches(password, hash)).get();
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Login is busy, try again shortly");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    // Rehashing costs another BCrypt round, so it runs after the response and is skipped when busy.
+    private void upgradeHash(User user, String password) {
+        try {
+            verifier.execute(() -> {
+                try {
+                    user.setPassword(passwordEncoder.encode(password));
+                    userDirectory.save(user);
+                } catch (RuntimeException e) {
+                    log.warn("Could not upgrade password hash for user {}: {}", user.getId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Try again on a later login.
+        }
+    }
+}
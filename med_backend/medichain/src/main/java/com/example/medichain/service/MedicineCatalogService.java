@@ -0,0 +1,104 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.MedicineResponse;
+import com.example.medichain.dto.MedicineSearchResponse;
+import com.example.medichain.util.CatalogIndex;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Serves the medicine catalog from an immutable {@link CatalogIndex}. The catalog file is
+ * checked for changes periodically; a changed file is parsed and indexed off to the side and
+ * swapped in with one write, so searches never see a half-built index. A file that fails to
+ * parse leaves the previous catalog in place.
+ */
+@Service
+public class MedicineCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicineCatalogService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final Resource resource;
+    private final ObjectMapper objectMapper;
+
+    private volatile CatalogIndex index = CatalogIndex.build(List.of());
+    private long loadedModified = -1;
+
+    public MedicineCatalogService(ResourceLoader resourceLoader, ObjectMapper objectMapper, MedichainProperties properties) {
+        this.resource = resourceLoader.getResource(properties.getCatalog().getLocation());
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reloadIfChanged();
+    }
+
+    @Scheduled(
+            initialDelayString = "${medichain.catalog.reload-interval-ms:10000}",
+            fixedDelayString = "${medichain.catalog.reload-interval-ms:10000}")
+    public synchronized void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified == loadedModified) {
+            return;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            List<CatalogIndex.Entry> entries = new ArrayList<>();
+            for (JsonNode node : objectMapper.readTree(in)) {
+                entries.add(new CatalogIndex.Entry(
+                        node.path("id").asString(),
+                        node.path("name").asString(),
+                        node.path("strength").asString(),
+                        node.path("form").asString()));
+            }
+            index = CatalogIndex.build(entries);
+            loadedModified = modified;
+            log.info("Loaded {} medicines from {}", entries.size(), resource.getDescription());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Keeping the current medicine catalog; {} could not be loaded: {}",
+                    resource.getDescription(), e.getMessage());
+        }
+    }
+
+    public List<MedicineResponse> all() {
+        return index.entries().stream().map(MedicineCatalogService::toResponse).toList();
+    }
+
+    public MedicineSearchResponse search(String query, int page, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        int number = Math.max(1, page);
+        List<CatalogIndex.Hit> hits = index.search(query);
+        int from = (int) Math.min((long) (number - 1) * size, hits.size());
+        List<MedicineResponse> results = hits.subList(from, Math.min(from + size, hits.size())).stream()
+                .map(hit -> toResponse(hit.entry()))
+                .toList();
+        return new MedicineSearchResponse(results, number, size, hits.size());
+    }
+
+    // Resources inside a jar may not report a time; those are loaded once.
+    private long lastModified() {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static MedicineResponse toResponse(CatalogIndex.Entry entry) {
+        return new MedicineResponse(entry.id(), entry.name(), entry.strength(), entry.form());
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.util.KeyedRateLimiter;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.utils.Numeric;
+
+/**
+ * Content-addressed store for batch documents, keyed by the SHA-256 the clients put on chain
+ * as {@code metadataHash}.
+ *
+ * <p>Uploads are hashed as they stream into a staging file, so nothing is held in memory and
+ * the key is known before the content is committed. Content is appended to segment files as
+ * {@code [32-byte hash][8-byte length][content]} records; the in-memory index is rebuilt from
+ * the record headers on startup and a torn record at the tail of a segment is cut off. Reads
+ * hand out a file region so callers can send it with {@code sendfile} or
+ * {@link FileChannel#transferTo} without copying through the heap.
+ *
+ * <p>Each account may upload {@code medichain.metadata.upload-bytes-per-user-per-day}; the
+ * declared length is charged before the body is read, so an exhausted quota costs no disk.
+ */
+@Service
+public class MetadataStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MetadataStore.class);
+
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = HASH_BYTES + Long.BYTES;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAX_TRACKED_UPLOADERS = 100_000;
+
+    // Where a document's content lives: a byte range of one segment file.
+    public record Region(Path file, long offset, long length) {
+    }
+
+    public record Stored(String hash, long length, boolean created) {
+    }
+
+    private record Location(int segment, long offset, long length) {
+    }
+
+    private final Path directory;
+    private final Path staging;
+    private final long segmentBytes;
+    private final long maxUploadBytes;
+    private final KeyedRateLimiter uploadQuota;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    // Appended to only under appendLock; readers use positional I/O without locking.
+    private final List<FileChannel> segments = new CopyOnWriteArrayList<>();
+    private final Object appendLock = new Object();
+
+    public MetadataStore(MedichainProperties properties) throws IOException {
+        MedichainProperties.Metadata metadata = properties.getMetadata();
+        this.directory = Path.of(metadata.getDirectory());
+        this.staging = directory.resolve("staging");
+        this.segmentBytes = metadata.getSegmentBytes();
+        this.maxUploadBytes = metadata.getMaxUploadBytes();
+        this.uploadQuota = new KeyedRateLimiter(
+                metadata.getUploadBytesPerUserPerDay(), Duration.ofDays(1), MAX_TRACKED_UPLOADERS);
+        Files.createDirectories(staging);
+        try (Stream<Path> leftovers = Files.list(staging)) {
+            for (Path leftover : leftovers.toList()) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        open();
+    }
+
+    /**
+     * Charges {@code declaredLength} to {@code uploader}'s daily quota, then stores the upload
+     * as {@link #put(InputStream, String)} does. The servlet container stops reading the body
+     * at its declared length, so the charge covers everything written.
+     */
+    public Stored put(InputStream in, String expectedHash, String uploader, long declaredLength) throws IOException {
+        if (declaredLength < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Uploads must declare a Content-Length");
+        }
+        if (declaredLength > maxUploadBytes) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONTENT_TOO_LARGE, "Documents are limited to " + maxUploadBytes + " bytes");
+        }
+        if (!uploadQuota.tryAcquire(uploader, declaredLength)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Daily upload quota exhausted");
+        }
+        return put(in, expectedHash);
+    }
+
+    /**
+     * Streams {@code in} into the store. When {@code expectedHash} is given the upload is
+     * rejected unless the content hashes to it. Content already stored is not written twice.
+     */
+    public Stored put(InputStream in, String expectedHash) throws IOException {
+        Path staged = Files.createTempFile(staging, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long length = 0;
+            try (FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                byte[] chunk = new byte[BUFFER_BYTES];
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    length += read;
+                    if (length > maxUploadBytes) {
+                        throw new ResponseStatusException(
+                                HttpStatus.CONTENT_TOO_LARGE, "Documents are limited to " + maxUploadBytes + " bytes");
+                    }
+                    digest.update(chunk, 0, read);
+                    ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, read);
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+            }
+
+            byte[] hash = digest.digest();
+            String key = Numeric.toHexString(hash);
+            if (expectedHash != null && !key.equalsIgnoreCase(Numeric.prependHexPrefix(expectedHash))) {
+                throw new ResponseStatusException(
+                        HttpStatus.UNPROCESSABLE_CONTENT, "Content hashes to " + key + ", not " + expectedHash);
+            }
+            if (index.containsKey(key)) {
+                return new Stored(key, length, false);
+            }
+            synchronized (appendLock) {
+                if (index.containsKey(key)) {
+                    return new Stored(key, length, false);
+                }
+                append(hash, key, staged, length);
+            }
+            return new Stored(key, length, true);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    public Optional<Region> find(String hash) {
+        Location location = index.get(normalize(hash));
+        if (location == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Region(segmentPath(location.segment()), location.offset(), location.length()));
+    }
+
+    public boolean contains(String hash) {
+        return index.containsKey(normalize(hash));
+    }
+
+    /** Copies a stored document to {@code target} with {@link FileChannel#transferTo}. */
+    public void transferTo(String hash, WritableByteChannel target) throws IOException {
+        Location location = index.get(normalize(hash));
+        if (location == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No document stored for " + hash);
+        }
+        FileChannel segment = segment(location.segment());
+        long position = location.offset();
+        long end = location.offset() + location.length();
+        while (position < end) {
+            position += segment.transferTo(position, end - position, target);
+        }
+    }
+
+    /**
+     * Hashes the stored content again. Empty when nothing is stored for {@code hash}; false
+     * when the bytes on disk no longer match their key.
+     */
+    public Optional<Boolean> verify(String hash) throws IOException {
+        String key = normalize(hash);
+        Location location = index.get(key);
+        if (location == null) {
+            return Optional.empty();
+        }
+        MessageDigest digest = sha256();
+        FileChannel segment = segment(location.segment());
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        long position = location.offset();
+        long end = location.offset() + location.length();
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(BUFFER_BYTES, end - position));
+            int read = segment.read(buffer, position);
+            if (read < 0) {
+                return Optional.of(false);
+            }
+            position += read;
+            digest.update(buffer.flip());
+        }
+        return Optional.of(Numeric.toHexString(digest.digest()).equals(key));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            for (FileChannel segment : segments) {
+                segment.close();
+            }
+        }
+    }
+
+    private void append(byte[] hash, String key, Path staged, long length) throws IOException {
+        int number = segments.size() - 1;
+        FileChannel segment = segments.get(number);
+        if (segment.size() > 0 && segment.size() + HEADER_BYTES + length > segmentBytes) {
+            segment = openSegment(++number);
+        }
+
+        long start = segment.size();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).put(hash).putLong(length).flip();
+            long position = start;
+            while (header.hasRemaining()) {
+                position += segment.write(header, position);
+            }
+            try (FileChannel in = FileChannel.open(staged, StandardOpenOption.READ)) {
+                long copied = 0;
+                while (copied < length) {
+                    long transferred = segment.transferFrom(in, position + copied, length - copied);
+                    if (transferred == 0) {
+                        throw new IOException("Staged upload ended after " + copied + " of " + length + " bytes");
+                    }
+                    copied += transferred;
+                }
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            // Cuts the partial record off now; otherwise the next append would land behind it
+            // and startup would truncate that one away together with it.
+            try {
+                segment.truncate(start);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        index.put(key, new Location(number, start + HEADER_BYTES, length));
+    }
+
+    private void open() throws IOException {
+        for (int number = 0; Files.exists(segmentPath(number)); number++) {
+            FileChannel segment = openSegment(number);
+            long position = 0;
+            long size = segment.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                segment.read(header, position);
+                header.flip();
+                byte[] hash = new byte[HASH_BYTES];
+                header.get(hash);
+                long length = header.getLong();
+                if (length < 0 || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                index.putIfAbsent(Numeric.toHexString(hash), new Location(number, position + HEADER_BYTES, length));
+                position += HEADER_BYTES + length;
+            }
+            if (position < size) {
+                log.warn("Truncating torn record at {} of {}", position, segmentPath(number));
+                segment.truncate(position);
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        }
+        log.info("Metadata store holds {} documents in {} segments", index.size(), segments.size());
+    }
+
+    private FileChannel openSegment(int number) throws IOException {
+        FileChannel segment = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.add(segment);
+        return segment;
+    }
+
+    private FileChannel segment(int number) {
+        return segments.get(number);
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%06d%s", number, SEGMENT_SUFFIX));
+    }
+
+    private static String normalize(String hash) {
+        return Numeric.prependHexPrefix(hash).toLowerCase();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
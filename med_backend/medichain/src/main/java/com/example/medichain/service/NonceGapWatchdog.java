@@ -0,0 +1,84 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.tx.NonceAllocator;
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.TransactionSender;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.Web3j;
+
+/**
+ * Unsticks accounts whose nonces come from leases. A nonce lost between lease and send, e.g.
+ * by an instance that died holding its range, leaves a gap the node will not mine past; once
+ * the gap has held this instance's transactions back for {@code blockchain.nonce.stall-blocks}
+ * blocks or {@code blockchain.nonce.stall-ms} milliseconds it is filled with zero-value
+ * transfers to the account itself.
+ *
+ * <p>With a lease size above 1, nonces an idle live instance still holds look the same as
+ * lost ones, so they are filled too; that instance's next send is then refused as stale and
+ * it leases again from the chain. A lease size of 1 keeps such stalls to a single nonce.
+ */
+@Service
+public class NonceGapWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(NonceGapWatchdog.class);
+
+    private final Web3j web3j;
+    private final SignerPool signerPool;
+    private final NonceAllocator nonceAllocator;
+    private final TransactionSender transactionSender;
+    private final BlockchainProperties.Nonce properties;
+
+    public NonceGapWatchdog(
+            Web3j web3j,
+            SignerPool signerPool,
+            NonceAllocator nonceAllocator,
+            TransactionSender transactionSender,
+            BlockchainProperties properties) {
+        this.web3j = web3j;
+        this.signerPool = signerPool;
+        this.nonceAllocator = nonceAllocator;
+        this.transactionSender = transactionSender;
+        this.properties = properties.getNonce();
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.nonce.gap-check-interval-ms:15000}")
+    public void check() {
+        if (properties.getMode() == BlockchainProperties.Nonce.Mode.NODE) {
+            return;
+        }
+        try {
+            long block = web3j.ethBlockNumber().send().getBlockNumber().longValueExact();
+            long now = System.currentTimeMillis();
+            for (SignerAccount account : signerPool.accounts()) {
+                Optional<NonceAllocator.Gap> gap = nonceAllocator.stalledGap(
+                        account.getAddress(), block, now, properties.getStallBlocks(), properties.getStallMs());
+                if (gap.isPresent()) {
+                    fill(account, gap.get());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Nonce gap check failed: {}", e.getMessage());
+        }
+    }
+
+    private void fill(SignerAccount account, NonceAllocator.Gap gap) {
+        for (long nonce = gap.from(); nonce < gap.to(); nonce++) {
+            try {
+                String hash = transactionSender.fillGap(account, nonce);
+                nonceAllocator.markSent(account.getAddress(), nonce);
+                log.warn("Nonce {} of {} held back later transactions; filled it with {}",
+                        nonce, account.getAddress(), hash);
+            } catch (Exception e) {
+                // Someone sent it after all, or the node refused; the next check looks again.
+                log.warn("Could not fill nonce {} of {}: {}", nonce, account.getAddress(), e.getMessage());
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.BulkOnboardingResponse;
+import com.example.medichain.dto.BulkUserRecord;
+import com.example.medichain.dto.TransactionResponse;
+import com.example.medichain.model.ChainRole;
+import com.example.medichain.model.User;
+import com.example.medichain.tx.TxPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.web3j.crypto.WalletUtils;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Creates user accounts in bulk from a streamed CSV or JSON array.
+ *
+ * <p>Records are handled in chunks: each chunk is validated, checked for taken usernames,
+ * emails and wallets in one query, hashed in parallel and inserted as one JDBC batch.
+ * Accounts with a wallet then get their RoleManager role through batched
+ * {@code assignRoles} transactions. Bad records are reported back instead of failing
+ * the upload.
+ */
+@Service
+public class OnboardingService {
+
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    private static final String INSERT = """
+            insert into users (role, username, first_name, last_name, mail_id, phone, dob, password,
+                               wallet_address, created_at, updated_at, is_active)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true)
+            on conflict do nothing
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final ChainWriteService chainWriteService;
+    private final SupplyChainService supplyChainService;
+    private final ExecutorService hashers;
+    private final int chunkSize;
+    private final int rolesPerTransaction;
+
+    public OnboardingService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PasswordEncoder passwordEncoder,
+            ObjectMapper objectMapper,
+            ChainWriteService chainWriteService,
+            SupplyChainService supplyChainService,
+            MedichainProperties properties,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.chainWriteService = chainWriteService;
+        this.supplyChainService = supplyChainService;
+        MedichainProperties.Onboarding onboarding = properties.getOnboarding();
+        AtomicInteger threads = new AtomicInteger();
+        this.hashers = Executors.newFixedThreadPool(onboarding.getHashThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "onboarding-hash-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(this.hashers, "onboarding.hash", List.of()).bindTo(meterRegistry);
+        this.chunkSize = onboarding.getChunkSize();
+        this.rolesPerTransaction = onboarding.getRolesPerTransaction();
+    }
+
+    public BulkOnboardingResponse onboard(InputStream in, Format format, String tenant) throws Exception {
+        Run run = new Run(tenant);
+        if (format == Format.JSON) {
+            try (MappingIterator<BulkUserRecord> records = objectMapper.readerFor(BulkUserRecord.class).readValues(in)) {
+                process(records, run);
+            }
+        } else {
+            process(new CsvRecords(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))), run);
+        }
+        run.flushRoles(true);
+        return new BulkOnboardingResponse(
+                run.received, run.created, run.rejected, run.roleTransactions, run.roleFailures);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdown();
+    }
+
+    private void process(Iterator<BulkUserRecord> records, Run run) throws Exception {
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        while (records.hasNext()) {
+            BulkUserRecord record = records.next();
+            run.received++;
+            Row row = validate(run.received, record, run);
+            if (row != null) {
+                chunk.add(row);
+            }
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, run);
+        }
+    }
+
+    private Row validate(long position, BulkUserRecord record, Run run) {
+        String username = trim(record.getUsername());
+        String reason = null;
+        User.UserRole role = null;
+        LocalDate dob = null;
+        String wallet = trim(record.getWalletAddress());
+
+        if (username == null || trim(record.getMailId()) == null || trim(record.getPassword()) == null
+                || trim(record.getFirstName()) == null || trim(record.getLastName()) == null
+                || trim(record.getPhone()) == null || trim(record.getDob()) == null || trim(record.getRole()) == null) {
+            reason = "Missing required field";
+        } else {
+            try {
+                role = User.UserRole.valueOf(record.getRole().trim().toUpperCase(Locale.ROOT));
+                dob = LocalDate.parse(record.getDob().trim());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                reason = role == null ? "Unknown role" : "Date of birth must be yyyy-MM-dd";
+            }
+        }
+        if (reason == null && role == User.UserRole.ADMIN) {
+            reason = "Admin accounts cannot be bulk onboarded";
+        }
+        if (reason == null && wallet != null && !WalletUtils.isValidAddress(wallet)) {
+            reason = "Invalid wallet address";
+        }
+        if (reason == null && !run.seenUsernames.add(username)) {
+            reason = "Username repeated in file";
+        }
+        if (reason == null && !run.seenMailIds.add(record.getMailId().trim())) {
+            reason = "Email repeated in file";
+        }
+        if (reason == null && wallet != null && !run.seenWallets.add(wallet.toLowerCase(Locale.ROOT))) {
+            reason = "Wallet repeated in file";
+        }
+        if (reason != null) {
+            run.rejected.add(new BulkOnboardingResponse.Rejection(position, username, reason));
+            return null;
+        }
+        return new Row(position, record, role, dob, wallet == null ? null : wallet.toLowerCase(Locale.ROOT));
+    }
+
+    private void insertChunk(List<Row> chunk, Run run) throws Exception {
+        List<Row> fresh = withoutTaken(chunk, run);
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<Future<String>> hashes = new ArrayList<>(fresh.size());
+        for (Row row : fresh) {
+            String password = row.record.getPassword();
+            hashes.add(hashers.submit(() -> passwordEncoder.encode(password)));
+        }
+        List<Object[]> batch = new ArrayList<>(fresh.size());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < fresh.size(); i++) {
+            Row row = fresh.get(i);
+            BulkUserRecord record = row.record;
+            batch.add(new Object[] {
+                    row.role.name(),
+                    record.getUsername().trim(),
+                    record.getFirstName().trim(),
+                    record.getLastName().trim(),
+                    record.getMailId().trim(),
+                    record.getPhone().trim(),
+                    Date.valueOf(row.dob),
+                    await(hashes.get(i)),
+                    row.wallet,
+                    now,
+                    now
+            });
+        }
+
+        int[] counts = jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT, batch);
+        for (int i = 0; i < fresh.size(); i++) {
+            Row row = fresh.get(i);
+            if (counts[i] == 0) {
+                // Taken by a registration that committed after our uniqueness check.
+                run.rejected.add(new BulkOnboardingResponse.Rejection(
+                        row.position, row.record.getUsername(), "Username, email or wallet already taken"));
+                continue;
+            }
+            run.created++;
+            if (row.wallet != null) {
+                run.pendingAccounts.add(row.wallet);
+                run.pendingRoles.add(ChainRole.valueOf(row.role.name()));
+            }
+        }
+        run.flushRoles(false);
+    }
+
+    // One query for the whole chunk instead of two lookups per user.
+    private List<Row> withoutTaken(List<Row> chunk, Run run) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("usernames", chunk.stream().map(row -> row.record.getUsername().trim()).toList())
+                .addValue("mailIds", chunk.stream().map(row -> row.record.getMailId().trim()).toList());
+        List<String> wallets = chunk.stream().map(row -> row.wallet).filter(Objects::nonNull).toList();
+        // Wallets are stored lower-cased (see User), so the unique index on the column serves the lookup.
+        String sql = "select username, mail_id, wallet_address as wallet from users "
+                + "where username in (:usernames) or mail_id in (:mailIds)";
+        if (!wallets.isEmpty()) {
+            sql += " or wallet_address in (:wallets)";
+            parameters.addValue("wallets", wallets);
+        }
+
+        Set<String> taken = new HashSet<>();
+        jdbcTemplate.query(sql, parameters, rs -> {
+            taken.add("u:" + rs.getString("username"));
+            taken.add("m:" + rs.getString("mail_id"));
+            if (rs.getString("wallet") != null) {
+                taken.add("w:" + rs.getString("wallet"));
+            }
+        });
+
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String reason = taken.contains("u:" + row.record.getUsername().trim()) ? "Username is already taken"
+                    : taken.contains("m:" + row.record.getMailId().trim()) ? "Email is already taken"
+                    : row.wallet != null && taken.contains("w:" + row.wallet) ? "Wallet is already registered"
+                    : null;
+            if (reason == null) {
+                fresh.add(row);
+            } else {
+                run.rejected.add(new BulkOnboardingResponse.Rejection(row.position, row.record.getUsername(), reason));
+            }
+        }
+        return fresh;
+    }
+
+    private static String await(Future<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static String trim(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private record Row(long position, BulkUserRecord record, User.UserRole role, LocalDate dob, String wallet) {
+    }
+
+    private final class Run {
+        private final String tenant;
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenMailIds = new HashSet<>();
+        private final Set<String> seenWallets = new HashSet<>();
+        private final List<BulkOnboardingResponse.Rejection> rejected = new ArrayList<>();
+        private final List<String> roleTransactions = new ArrayList<>();
+        private final List<String> roleFailures = new ArrayList<>();
+        private final List<String> pendingAccounts = new ArrayList<>();
+        private final List<ChainRole> pendingRoles = new ArrayList<>();
+        private long received;
+        private long created;
+
+        Run(String tenant) {
+            this.tenant = tenant;
+        }
+
+        void flushRoles(boolean all) {
+            while (pendingAccounts.size() >= rolesPerTransaction || (all && !pendingAccounts.isEmpty())) {
+                int count = Math.min(rolesPerTransaction, pendingAccounts.size());
+                List<String> accounts = List.copyOf(pendingAccounts.subList(0, count));
+                List<ChainRole> roles = List.copyOf(pendingRoles.subList(0, count));
+                pendingAccounts.subList(0, count).clear();
+                pendingRoles.subList(0, count).clear();
+                try {
+                    TransactionResponse response = chainWriteService.execute(
+                            "assignRoles",
+                            null,
+                            TxPriority.REGISTRATION,
+                            tenant,
+                            null,
+                            null,
+                            () -> supplyChainService.submitAssignRoles(accounts, roles));
+                    roleTransactions.add(response.getTransactionHash());
+                } catch (Exception e) {
+                    // The accounts exist; their roles can be assigned again later.
+                    roleFailures.add(accounts.size() + " accounts from " + accounts.get(0) + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Reads CSV records with a header row; fields may be double-quoted.
+    private static final class CsvRecords implements Iterator<BulkUserRecord> {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> next;
+
+        CsvRecords(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRow();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim(), i);
+                }
+            }
+            next = header == null ? null : readRow();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public BulkUserRecord next() {
+            List<String> row = next;
+            try {
+                next = readRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            BulkUserRecord record = new BulkUserRecord();
+            record.setUsername(field(row, "username"));
+            record.setFirstName(field(row, "firstName"));
+            record.setLastName(field(row, "lastName"));
+            record.setMailId(field(row, "mailId"));
+            record.setPhone(field(row, "phone"));
+            record.setDob(field(row, "dob"));
+            record.setPassword(field(row, "password"));
+            record.setRole(field(row, "role"));
+            record.setWalletAddress(field(row, "walletAddress"));
+            return record;
+        }
+
+        private String field(List<String> row, String name) {
+            Integer index = columns.get(name);
+            return index == null || index >= row.size() ? null : row.get(index);
+        }
+
+        private List<String> readRow() throws IOException {
+            String line = reader.readLine();
+            while (line != null && line.isBlank()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.dto.BatchResponse;
+import com.example.medichain.dto.BatchStateAtResponse;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.util.TransitionLog;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.utils.Numeric;
+
+/**
+ * Answers "who owned the batch, in what state" at a past block or time from a
+ * {@link TransitionLog} folded from the event index. Only when the question falls outside
+ * what the index has covered (before its start block, or after its checkpoint) does it go
+ * to the node, with an {@code eth_call} at the historical block; that needs an archive node
+ * once the block is older than the node's state retention.
+ */
+@Service
+public class PointInTimeService implements SupplyChainEventReplay.Fold {
+
+    private static final Logger log = LoggerFactory.getLogger(PointInTimeService.class);
+
+    private final SupplyChainEventIndexer indexer;
+    private final SupplyChainService supplyChainService;
+    private final Web3j web3j;
+    private final long startBlock;
+    private final TransitionLog transitions = new TransitionLog();
+
+    private volatile boolean loaded;
+
+    public PointInTimeService(
+            SupplyChainEventIndexer indexer,
+            SupplyChainService supplyChainService,
+            Web3j web3j,
+            BlockchainProperties properties) {
+        this.indexer = indexer;
+        this.supplyChainService = supplyChainService;
+        this.web3j = web3j;
+        this.startBlock = properties.getIndexer().getStartBlock().longValueExact();
+    }
+
+    @Override
+    public void replayed() {
+        loaded = true;
+        log.info("Transition log holds {} batches", transitions.size());
+    }
+
+    public BatchStateAtResponse atBlock(byte[] batchId, long block) throws Exception {
+        String key = Numeric.toHexString(batchId);
+        SupplyChainEventIndexer.Progress progress = indexer.progress();
+        if (loaded && progress != null && block >= startBlock && block <= progress.block()) {
+            TransitionLog.Transition transition;
+            synchronized (this) {
+                transition = transitions.atBlock(key, block);
+            }
+            if (transition != null || startBlock == 0) {
+                return fromLog(key, transition, "block " + block);
+            }
+        }
+        long head = web3j.ethBlockNumber().send().getBlockNumber().longValueExact();
+        if (block < 0 || block > head) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Block " + block + " is outside the chain, head is " + head);
+        }
+        return fromNode(batchId, block);
+    }
+
+    public BatchStateAtResponse atTimestamp(byte[] batchId, long timestamp) throws Exception {
+        String key = Numeric.toHexString(batchId);
+        SupplyChainEventIndexer.Progress progress = indexer.progress();
+        if (loaded && progress != null && timestamp <= progress.timestamp()) {
+            TransitionLog.Transition transition;
+            synchronized (this) {
+                transition = transitions.atTimestamp(key, timestamp);
+            }
+            // Without a start block the log has seen every batch, so a miss means it did not exist yet.
+            if (transition != null || startBlock == 0) {
+                return fromLog(key, transition, "time " + timestamp);
+            }
+        }
+        return fromNode(batchId, blockAt(timestamp));
+    }
+
+    private BatchStateAtResponse fromLog(String batchId, TransitionLog.Transition transition, String at) {
+        if (transition == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Batch did not exist at " + at);
+        }
+        return new BatchStateAtResponse(
+                batchId,
+                transition.owner(),
+                transition.state().name(),
+                transition.block(),
+                transition.timestamp(),
+                "index");
+    }
+
+    private BatchStateAtResponse fromNode(byte[] batchId, long block) throws Exception {
+        BatchResponse batch;
+        try {
+            batch = supplyChainService.getBatch(batchId, DefaultBlockParameter.valueOf(BigInteger.valueOf(block)));
+        } catch (Exception e) {
+            if (SupplyChainService.isBatchMissing(e)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Batch did not exist at block " + block);
+            }
+            if (e instanceof IOException || e instanceof ClientConnectionException) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Node unreachable", e);
+            }
+            // e.g. "missing trie node" once the block's state is pruned on a non-archive node.
+            log.warn("Node could not read batch at block {}: {}", block, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                    "Node could not answer for block " + block + ": " + e.getMessage(), e);
+        }
+        return new BatchStateAtResponse(
+                batch.getBatchId(), batch.getCurrentOwner(), batch.getState(), null, null, "archive");
+    }
+
+    // Last block mined at or before the timestamp, by binary search over block headers.
+    private long blockAt(long timestamp) throws IOException {
+        long low = 0;
+        long high = web3j.ethBlockNumber().send().getBlockNumber().longValueExact();
+        if (timestamp < blockTimestamp(low)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Time " + timestamp + " is before the chain began");
+        }
+        while (low < high) {
+            long mid = (low + high + 1) >>> 1;
+            if (blockTimestamp(mid) <= timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private long blockTimestamp(long block) throws IOException {
+        EthBlock.Block header = web3j.ethGetBlockByNumber(
+                block == 0 ? DefaultBlockParameterName.EARLIEST : DefaultBlockParameter.valueOf(BigInteger.valueOf(block)),
+                false).send().getBlock();
+        return header.getTimestamp().longValueExact();
+    }
+
+    @Override
+    public synchronized void fold(SupplyChainEvent event) {
+        switch (event.getEventType()) {
+            case BATCH_CREATED -> transitions.created(
+                    event.getBatchId(), event.getBlockNumber(), event.getBlockTimestamp(), event.getToAddress());
+            case OWNERSHIP_TRANSFERRED -> transitions.transferred(
+                    event.getBatchId(),
+                    event.getBlockNumber(),
+                    event.getBlockTimestamp(),
+                    event.getToAddress(),
+                    event.getState());
+            case BATCH_VERIFIED -> {
+                // ownership and state are unchanged
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.event.SupplyChainEventIndexed;
+import com.example.medichain.event.SupplyChainLogReceived;
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.ChainRole;
+import com.example.medichain.model.IndexerCheckpoint;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.IndexerCheckpointRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import com.example.medichain.util.SupplyChainEvents;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+/**
+ * Tails SupplyChain contract logs into the {@code supply_chain_events} table in
+ * bounded block ranges and publishes every committed event to the application.
+ *
+ * <p>Only blocks at least {@code blockchain.indexer.confirmations} deep are indexed. The index
+ * and every projection built on it are append-only, so a block that could still be reorged
+ * away is never stored rather than stored and rolled back.
+ *
+ * <p>Logs do not say what state a transfer moved the batch to; the contract decides it from the
+ * sender's role. Each creation and transfer therefore records the role of the account it handed
+ * the batch to, and a transfer's state follows from the role recorded on the hop before it.
+ */
+@Service
+public class SupplyChainEventIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(SupplyChainEventIndexer.class);
+
+    static final String CHECKPOINT = "supply-chain-events";
+
+    private static final int BACKFILL_PAGE = 1000;
+
+    // Last block whose events are all committed to the index, with its timestamp.
+    public record Progress(long block, long timestamp) {
+    }
+
+    private final Web3j web3j;
+    private final BlockchainProperties properties;
+    private final SupplyChainEventRepository eventRepository;
+    private final IndexerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchOwnerProjection ownerProjection;
+    private final SupplyChainService supplyChainService;
+    private final ApplicationEventPublisher publisher;
+
+    private volatile Progress progress;
+    private boolean backfilled;
+
+    public SupplyChainEventIndexer(
+            Web3j web3j,
+            BlockchainProperties properties,
+            SupplyChainEventRepository eventRepository,
+            IndexerCheckpointRepository checkpointRepository,
+            TransactionTemplate transactionTemplate,
+            BatchOwnerProjection ownerProjection,
+            SupplyChainService supplyChainService,
+            ApplicationEventPublisher publisher) {
+        this.web3j = web3j;
+        this.properties = properties;
+        this.eventRepository = eventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ownerProjection = ownerProjection;
+        this.supplyChainService = supplyChainService;
+        this.publisher = publisher;
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.indexer.poll-interval-ms:5000}")
+    public void poll() {
+        if (!properties.getIndexer().isEnabled()) {
+            return;
+        }
+        try {
+            catchUp();
+        } catch (Exception e) {
+            log.warn("Event indexing failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Over the WebSocket transport the node announces new logs; the scheduled poll remains as a backstop.
+    @EventListener
+    public void onLogReceived(SupplyChainLogReceived received) {
+        poll();
+    }
+
+    // Ahead of the replay that builds the in-memory views from the table.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillOnStartup() {
+        if (!properties.getIndexer().isEnabled()) {
+            return;
+        }
+        try {
+            backfillStates();
+        } catch (Exception e) {
+            log.warn("Could not backfill batch states, will retry on the next poll: {}", e.getMessage());
+        }
+    }
+
+    // Indexes chunk by chunk until the checkpoint reaches the last confirmed block.
+    public synchronized void catchUp() throws Exception {
+        backfillStates();
+        ownerProjection.catchUp();
+        long head = web3j.ethBlockNumber().send().getBlockNumber().longValueExact()
+                - properties.getIndexer().getConfirmations();
+        long next = nextBlock();
+        long chunk = properties.getIndexer().getChunkSize();
+
+        while (next <= head) {
+            long to = Math.min(head, next + chunk - 1);
+            List<SupplyChainEvent> events = fetch(next, to);
+            assignStates(events);
+            long checkpoint = to;
+            List<SupplyChainEvent> saved = transactionTemplate.execute(status -> {
+                checkpointRepository.save(new IndexerCheckpoint(CHECKPOINT, checkpoint));
+                List<SupplyChainEvent> stored = eventRepository.saveAll(events);
+                ownerProjection.apply(stored);
+                return stored;
+            });
+            for (SupplyChainEvent event : saved) {
+                publisher.publishEvent(new SupplyChainEventIndexed(event));
+            }
+            next = to + 1;
+        }
+
+        long through = next - 1;
+        if (through >= 0 && (progress == null || progress.block() != through)) {
+            progress = new Progress(through, blockTimestamp(BigInteger.valueOf(through), new HashMap<>()));
+        }
+    }
+
+    /** Null until the first poll has read the checkpoint; never ahead of the confirmed block. */
+    public Progress progress() {
+        return progress;
+    }
+
+    /** Blocks known to sit on top of {@code block}, at least; -1 before the first poll. */
+    public long depthOf(long block) {
+        Progress indexed = progress;
+        return indexed == null ? -1 : indexed.block() + properties.getIndexer().getConfirmations() - block;
+    }
+
+    /**
+     * Gives rows indexed before roles and states were recorded their role and state, in id order
+     * so each transfer finds the role recorded on the hop before it.
+     */
+    synchronized void backfillStates() throws Exception {
+        if (backfilled) {
+            return;
+        }
+        long afterId = 0;
+        long filled = 0;
+        while (true) {
+            List<SupplyChainEvent> page = eventRepository.findByIdGreaterThanAndStateIsNullAndEventTypeNotOrderByIdAsc(
+                    afterId, SupplyChainEvent.Type.BATCH_VERIFIED, PageRequest.of(0, BACKFILL_PAGE));
+            if (page.isEmpty()) {
+                break;
+            }
+            assignStates(page);
+            eventRepository.saveAll(page);
+            filled += page.size();
+            afterId = page.get(page.size() - 1).getId();
+        }
+        backfilled = true;
+        if (filled > 0) {
+            log.info("Backfilled roles and states of {} indexed events", filled);
+        }
+    }
+
+    // Events must be in chain order; unsaved events have no id yet and come after every stored one.
+    void assignStates(List<SupplyChainEvent> events) throws Exception {
+        Map<String, ChainRole> holders = new HashMap<>();
+        for (SupplyChainEvent event : events) {
+            switch (event.getEventType()) {
+                case BATCH_CREATED -> {
+                    // The contract only lets manufacturers create batches.
+                    event.setReceiverRole(ChainRole.MANUFACTURER);
+                    event.setState(BatchState.CREATED);
+                    holders.put(event.getBatchId(), ChainRole.MANUFACTURER);
+                }
+                case OWNERSHIP_TRANSFERRED -> {
+                    DefaultBlockParameter block = DefaultBlockParameter.valueOf(BigInteger.valueOf(event.getBlockNumber()));
+                    ChainRole sender = holders.get(event.getBatchId());
+                    if (sender == null) {
+                        long beforeId = event.getId() == null ? Long.MAX_VALUE : event.getId();
+                        sender = eventRepository
+                                .findFirstByBatchIdAndToAddressIsNotNullAndIdLessThanOrderByIdDesc(event.getBatchId(), beforeId)
+                                .map(SupplyChainEvent::getReceiverRole)
+                                .orElse(null);
+                    }
+                    BatchState state = BatchState.afterTransferBy(sender);
+                    if (state == null) {
+                        // The previous hop predates the index, or the sender's role changed since it received the batch.
+                        state = BatchState.afterTransferBy(supplyChainService.getRole(event.getFromAddress(), block));
+                    }
+                    ChainRole receiver = supplyChainService.getRole(event.getToAddress(), block);
+                    event.setReceiverRole(receiver);
+                    event.setState(state);
+                    holders.put(event.getBatchId(), receiver);
+                }
+                case BATCH_VERIFIED -> {
+                    // ownership and state are unchanged
+                }
+            }
+        }
+    }
+
+    private long nextBlock() {
+        return checkpointRepository.findById(CHECKPOINT)
+                .map(checkpoint -> checkpoint.getLastBlock() + 1)
+                .orElse(properties.getIndexer().getStartBlock().longValueExact());
+    }
+
+    private List<SupplyChainEvent> fetch(long from, long to) throws IOException {
+        EthFilter filter = new EthFilter(
+                new DefaultBlockParameterNumber(from),
+                new DefaultBlockParameterNumber(to),
+                properties.getSupplyChain().getContractAddress());
+        filter.addOptionalTopics(
+                SupplyChainEvents.BATCH_CREATED_TOPIC,
+                SupplyChainEvents.OWNERSHIP_TRANSFERRED_TOPIC,
+                SupplyChainEvents.BATCH_VERIFIED_TOPIC);
+
+        EthLog response = web3j.ethGetLogs(filter).send();
+        if (response.hasError()) {
+            throw new IllegalStateException(response.getError().getMessage());
+        }
+
+        Map<BigInteger, Long> timestamps = new HashMap<>();
+        List<SupplyChainEvent> events = new ArrayList<>();
+        for (EthLog.LogResult<?> result : response.getLogs()) {
+            Log entry = (Log) result.get();
+            if (entry.isRemoved()) {
+                continue;
+            }
+            SupplyChainEvent event = decode(entry);
+            if (event == null) {
+                continue;
+            }
+            event.setBlockTimestamp(blockTimestamp(entry.getBlockNumber(), timestamps));
+            events.add(event);
+        }
+        events.sort(Comparator.comparingLong(SupplyChainEvent::getBlockNumber)
+                .thenComparingInt(SupplyChainEvent::getLogIndex));
+        return events;
+    }
+
+    private long blockTimestamp(BigInteger blockNumber, Map<BigInteger, Long> cache) throws IOException {
+        Long cached = cache.get(blockNumber);
+        if (cached != null) {
+            return cached;
+        }
+        long timestamp = web3j.ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), false)
+                .send()
+                .getBlock()
+                .getTimestamp()
+                .longValueExact();
+        cache.put(blockNumber, timestamp);
+        return timestamp;
+    }
+
+    static SupplyChainEvent decode(Log entry) {
+        List<String> topics = entry.getTopics();
+        if (topics == null || topics.isEmpty()) {
+            return null;
+        }
+        String signature = topics.get(0);
+
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setBatchId(bytes32(topics.get(1)));
+        event.setFromAddress(address(topics.get(2)));
+        event.setBlockNumber(entry.getBlockNumber().longValueExact());
+        event.setLogIndex(entry.getLogIndex().intValueExact());
+        event.setTransactionHash(entry.getTransactionHash());
+
+        if (SupplyChainEvents.BATCH_CREATED_TOPIC.equals(signature)) {
+            List<Type> data = FunctionReturnDecoder.decode(
+                    entry.getData(), SupplyChainEvents.BATCH_CREATED.getNonIndexedParameters());
+            event.setEventType(SupplyChainEvent.Type.BATCH_CREATED);
+            event.setToAddress(event.getFromAddress());
+            event.setMetadataHash(Numeric.toHexString(((Bytes32) data.get(0)).getValue()));
+        } else if (SupplyChainEvents.OWNERSHIP_TRANSFERRED_TOPIC.equals(signature)) {
+            event.setEventType(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED);
+            event.setToAddress(address(topics.get(3)));
+        } else if (SupplyChainEvents.BATCH_VERIFIED_TOPIC.equals(signature)) {
+            List<Type> data = FunctionReturnDecoder.decode(
+                    entry.getData(), SupplyChainEvents.BATCH_VERIFIED.getNonIndexedParameters());
+            event.setEventType(SupplyChainEvent.Type.BATCH_VERIFIED);
+            event.setVerifiedValid(((Bool) data.get(0)).getValue());
+        } else {
+            return null;
+        }
+        return event;
+    }
+
+    private static String bytes32(String topic) {
+        Bytes32 value = (Bytes32) FunctionReturnDecoder.decodeIndexedValue(topic, new TypeReference<Bytes32>() {});
+        return Numeric.toHexString(value.getValue());
+    }
+
+    private static String address(String topic) {
+        Address value = (Address) FunctionReturnDecoder.decodeIndexedValue(topic, new TypeReference<Address>() {});
+        return value.getValue().toLowerCase();
+    }
+}
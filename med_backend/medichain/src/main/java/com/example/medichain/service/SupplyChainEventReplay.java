@@ -0,0 +1,268 @@
+package com.example.medichain.service;
+
+import com.example.medichain.event.ChainHeadReceived;
+import com.example.medichain.event.SupplyChainEventFolded;
+import com.example.medichain.event.SupplyChainEventIndexed;
+import com.example.medichain.model.StatisticsSnapshot;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.StatisticsSnapshotRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Builds every in-memory view of the event index at startup, then keeps the views current by
+ * tailing {@code supply_chain_events} past the last id folded. The tail runs on a timer, on
+ * every new head and whenever this instance indexes an event, so instances that do not run
+ * the indexer see the same events; each one folded is republished as
+ * {@link SupplyChainEventFolded}. The index has a single writer, so ids commit in order.
+ *
+ * <p>Each {@link Fold} sees every event exactly once, in id order. Folds run in {@code @Order}
+ * order, so a fold can read the state of a later one as it was before the event.
+ *
+ * <p>Per-batch views grow with the index and are rebuilt from the whole table at startup.
+ * Only {@link SnapshotFold}s, whose state is a fixed size, are snapshotted, together and as
+ * of one event id, into a single row of {@code statistics_snapshots}. A restart restores
+ * them and hands them the events the snapshot covers through {@link SnapshotFold#refold};
+ * if any cannot be restored, all of them are rebuilt from the whole table too.
+ */
+@Service
+public class SupplyChainEventReplay {
+
+    /** An in-memory view folded from the event index. */
+    public interface Fold {
+
+        void fold(SupplyChainEvent event);
+
+        /** Runs once the replay has caught up, before any live event is folded. */
+        default void replayed() {
+        }
+    }
+
+    /** A fold of fixed size, restored from a snapshot rather than from the whole index. */
+    public interface SnapshotFold extends Fold {
+
+        /** Replaces {@link #fold} for events the restored snapshot already covers. */
+        default void refold(SupplyChainEvent event) {
+        }
+
+        /** Copies the view under the replay's lock; the copy is written out after it is released. */
+        SnapshotWriter capture();
+
+        /** Restores what a {@link #capture} wrote into an empty view. */
+        void readSnapshot(DataInput in) throws IOException;
+
+        /** Empties the view, e.g. after a snapshot could only be partly read. */
+        void reset();
+    }
+
+    @FunctionalInterface
+    public interface SnapshotWriter {
+
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SupplyChainEventReplay.class);
+
+    static final String SNAPSHOT = "supply-chain-views";
+    // 2: point-in-time states come from the indexed events rather than the role sequence.
+    // 3: fixed-size counters only; per-batch views are rebuilt from the index.
+    private static final int SNAPSHOT_VERSION = 3;
+
+    private static final int REPLAY_PAGE = 5000;
+
+    private final SupplyChainEventRepository eventRepository;
+    private final StatisticsSnapshotRepository snapshotRepository;
+    private final List<Fold> folds;
+    private final List<SnapshotFold> snapshotFolds;
+    private final ApplicationEventPublisher publisher;
+    // One tail at a time, so folded events are republished in id order.
+    private final Object tailLock = new Object();
+
+    private volatile long lastEventId;
+    // Events up to here are in the restored snapshot.
+    private long restoredEventId;
+    private volatile boolean loaded;
+    private boolean dirty;
+
+    public SupplyChainEventReplay(
+            SupplyChainEventRepository eventRepository,
+            StatisticsSnapshotRepository snapshotRepository,
+            List<Fold> folds,
+            ApplicationEventPublisher publisher) {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.folds = List.copyOf(folds);
+        this.snapshotFolds = this.folds.stream()
+                .filter(SnapshotFold.class::isInstance)
+                .map(SnapshotFold.class::cast)
+                .toList();
+        this.publisher = publisher;
+    }
+
+    // Only a hint that the table grew; the event itself is read back in id order by the tail.
+    @EventListener
+    public void onIndexed(SupplyChainEventIndexed indexed) {
+        if (indexed.event().getId() > lastEventId) {
+            tail();
+        }
+    }
+
+    // Another instance may have indexed the block.
+    @EventListener
+    public void onHead(ChainHeadReceived head) {
+        tail();
+    }
+
+    /** Folds the events stored since the last one folded, then republishes them. */
+    @Scheduled(fixedDelayString = "${medichain.stats.tail-interval-ms:2000}")
+    public void tail() {
+        if (!loaded) {
+            return;
+        }
+        synchronized (tailLock) {
+            List<SupplyChainEvent> folded;
+            do {
+                folded = replayPage();
+                for (SupplyChainEvent event : folded) {
+                    publisher.publishEvent(new SupplyChainEventFolded(event));
+                }
+            } while (folded.size() == REPLAY_PAGE);
+        }
+    }
+
+    // After the indexer's state backfill, before the other ready listeners, which may read the views.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void replay() {
+        synchronized (this) {
+            restore();
+        }
+        while (replayPage().size() == REPLAY_PAGE) {
+            // keep draining; anything committed after the last page is left to the tail
+        }
+        synchronized (this) {
+            folds.forEach(Fold::replayed);
+            loaded = true;
+        }
+        log.info("Event index replayed up to event {} into {} views, counters resumed from event {}",
+                lastEventId, folds.size(), restoredEventId);
+    }
+
+    @Scheduled(
+            initialDelayString = "${medichain.stats.snapshot-interval-ms:60000}",
+            fixedDelayString = "${medichain.stats.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        long eventId;
+        List<SnapshotWriter> captured;
+        synchronized (this) {
+            if (!loaded || !dirty) {
+                return;
+            }
+            eventId = lastEventId;
+            captured = snapshotFolds.stream().map(SnapshotFold::capture).toList();
+            dirty = false;
+        }
+        snapshotRepository.save(new StatisticsSnapshot(SNAPSHOT, eventId, write(captured)));
+    }
+
+    // Returns the events of the page this call folded.
+    private List<SupplyChainEvent> replayPage() {
+        List<SupplyChainEvent> page = eventRepository.findByIdGreaterThanOrderByIdAsc(
+                lastEventId, PageRequest.of(0, REPLAY_PAGE));
+        List<SupplyChainEvent> folded = new ArrayList<>(page.size());
+        synchronized (this) {
+            for (SupplyChainEvent event : page) {
+                if (dispatch(event)) {
+                    folded.add(event);
+                }
+            }
+        }
+        return folded;
+    }
+
+    private boolean dispatch(SupplyChainEvent event) {
+        if (event.getId() <= lastEventId) {
+            return false;
+        }
+        lastEventId = event.getId();
+        dirty = true;
+        boolean restored = event.getId() <= restoredEventId;
+        for (Fold fold : folds) {
+            try {
+                if (restored && fold instanceof SnapshotFold snapshotted) {
+                    snapshotted.refold(event);
+                } else {
+                    fold.fold(event);
+                }
+            } catch (RuntimeException e) {
+                log.warn("{} could not fold event {}: {}", name(fold), event.getId(), e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void restore() {
+        StatisticsSnapshot snapshot = snapshotRepository.findById(SNAPSHOT).orElse(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot.getPayload()));
+            if (in.readInt() != SNAPSHOT_VERSION || in.readInt() != snapshotFolds.size()) {
+                log.warn("Ignoring view snapshot written by another version");
+                return;
+            }
+            for (SnapshotFold fold : snapshotFolds) {
+                if (!in.readUTF().equals(name(fold))) {
+                    throw new IOException("views are in a different order");
+                }
+                fold.readSnapshot(in);
+            }
+            restoredEventId = snapshot.getLastEventId();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore view snapshot, rebuilding from the index: {}", e.getMessage());
+            snapshotFolds.forEach(SnapshotFold::reset);
+        }
+    }
+
+    private byte[] write(List<SnapshotWriter> captured) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(snapshotFolds.size());
+            for (int i = 0; i < snapshotFolds.size(); i++) {
+                out.writeUTF(name(snapshotFolds.get(i)));
+                captured.get(i).writeTo(out);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String name(Fold fold) {
+        return ClassUtils.getUserClass(fold).getSimpleName();
+    }
+}
@@ -1,63 +1,105 @@
 package com.example.medichain.service;
 
 import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.dto.BatchDetailsResponse;
 import com.example.medichain.dto.BatchResponse;
 import com.example.medichain.dto.OwnershipRecordResponse;
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.ChainRole;
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.TransactionSender;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.web3j.abi.EventEncoder;
 import org.web3j.abi.FunctionEncoder;
 import org.web3j.abi.FunctionReturnDecoder;
 import org.web3j.abi.TypeReference;
 import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Event;
 import org.web3j.abi.datatypes.Function;
 import org.web3j.abi.datatypes.Type;
 import org.web3j.abi.datatypes.generated.Bytes32;
 import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.abi.datatypes.generated.Uint8;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.DefaultBlockParameter;
 import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
 import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.core.methods.response.EthCall;
-import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.EthLog;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tx.TransactionManager;
-import org.web3j.tx.response.TransactionReceiptProcessor;
 import org.web3j.utils.Numeric;
 
 @Service
 public class SupplyChainService {
 
+    private static final Logger log = LoggerFactory.getLogger(SupplyChainService.class);
+
+    private static final Event ROLE_ASSIGNED = new Event(
+            "RoleAssigned", List.of(new TypeReference<Address>(true) {}, new TypeReference<Uint8>() {}));
+
     private final Web3j web3j;
-    private final TransactionManager transactionManager;
-    private final TransactionReceiptProcessor receiptProcessor;
+    private final SignerPool signerPool;
+    private final TransactionSender transactionSender;
     private final BlockchainProperties properties;
+    private final ChainMetrics chainMetrics;
+    private volatile String roleManagerAddress;
 
     public SupplyChainService(
             Web3j web3j,
-            TransactionManager transactionManager,
-            TransactionReceiptProcessor receiptProcessor,
-            BlockchainProperties properties) {
+            SignerPool signerPool,
+            TransactionSender transactionSender,
+            BlockchainProperties properties,
+            ChainMetrics chainMetrics) {
         this.web3j = web3j;
-        this.transactionManager = transactionManager;
-        this.receiptProcessor = receiptProcessor;
+        this.signerPool = signerPool;
+        this.transactionSender = transactionSender;
         this.properties = properties;
+        this.chainMetrics = chainMetrics;
     }
 
-    public TransactionReceipt createBatch(byte[] batchId, byte[] metadataHash) throws Exception {
+    /**
+     * The creating account becomes the batch's first owner, so it is chosen deterministically:
+     * the requesting user's wallet when the pool holds it as a manufacturer, else the configured
+     * manufacturer account, else the wallet key.
+     */
+    public String submitCreateBatch(byte[] batchId, byte[] metadataHash, String requesterWallet) throws Exception {
         Function function = new Function(
                 "createBatch",
                 List.of(new Bytes32(batchId), new Bytes32(metadataHash)),
                 List.of());
-        return sendTransaction(function);
+        SignerAccount manufacturer = signerPool.forAddress(requesterWallet)
+                .filter(account -> account.getRole() == ChainRole.MANUFACTURER)
+                .or(() -> signerPool.forAddress(properties.getSupplyChain().getManufacturerAddress()))
+                .orElse(signerPool.defaultAccount());
+        return submitTransaction(manufacturer, function);
     }
 
-    public TransactionReceipt transferBatch(byte[] batchId, String to) throws Exception {
+    public String submitTransferBatch(byte[] batchId, String to) throws Exception {
         Function function = new Function(
                 "transferBatch",
                 List.of(new Bytes32(batchId), new Address(to)),
                 List.of());
-        return sendTransaction(function);
+        // Only the current owner may transfer, so sign with that account when the pool holds it.
+        SignerAccount owner = signerPool.forAddress(getBatch(batchId).getCurrentOwner())
+                .orElse(signerPool.defaultAccount());
+        return submitTransaction(owner, function);
     }
 
     public boolean verifyBatchReadOnly(byte[] batchId, byte[] metadataHash) throws Exception {
@@ -72,16 +114,272 @@ public class SupplyChainService {
         return (boolean) decoded.get(0).getValue();
     }
 
-    public TransactionReceipt verifyBatchTx(byte[] batchId, byte[] metadataHash) throws Exception {
+    public String submitVerifyBatch(byte[] batchId, byte[] metadataHash) throws Exception {
         Function function = new Function(
                 "verifyBatch",
                 List.of(new Bytes32(batchId), new Bytes32(metadataHash)),
                 List.of());
-        return sendTransaction(function);
+        return submitTransaction(signerPool.leastLoaded(), function);
+    }
+
+    /** Whether {@code e} is the contract refusing a read because the batch was never created. */
+    public static boolean isBatchMissing(Exception e) {
+        return e instanceof IllegalStateException && String.valueOf(e.getMessage()).contains("Batch does not exist");
     }
 
     public BatchResponse getBatch(byte[] batchId) throws Exception {
+        return getBatch(batchId, DefaultBlockParameterName.LATEST);
+    }
+
+    // State as of the given block; older blocks need an archive node.
+    public BatchResponse getBatch(byte[] batchId, DefaultBlockParameter block) throws Exception {
+        return toBatch(call(properties.getSupplyChain().getContractAddress(), getBatchFunction(batchId), block));
+    }
+
+    public BigInteger getOwnershipHistoryLength(byte[] batchId) throws Exception {
+        return toHistoryLength(call(historyLengthFunction(batchId)));
+    }
+
+    public OwnershipRecordResponse getOwnershipRecord(byte[] batchId, BigInteger index) throws Exception {
+        return toOwnershipRecord(call(ownershipRecordFunction(batchId, index)));
+    }
+
+    /**
+     * Pins one block for every read made through the returned session, so a response built
+     * from several calls cannot mix state from before and after a block. {@code confirmations}
+     * applies to {@link ReadLevel#CONFIRMED} only.
+     */
+    public ReadSession openReadSession(ReadLevel level, int confirmations) throws Exception {
+        long head = chainMetrics.timeRpc("blockNumber", "call", () -> web3j.ethBlockNumber().send())
+                .getBlockNumber().longValueExact();
+        long block = switch (level) {
+            case LATEST -> head;
+            case SAFE -> safeBlock(head);
+            case CONFIRMED -> head - Math.max(0, confirmations);
+        };
+        return new ReadSession(Math.max(0, block));
+    }
+
+    // Blocks a node promises not to reorg; dev chains without the tag fall back to a fixed depth.
+    private long safeBlock(long head) {
+        try {
+            EthBlock safe = web3j.ethGetBlockByNumber(DefaultBlockParameterName.SAFE, false).send();
+            if (!safe.hasError() && safe.getBlock() != null) {
+                return safe.getBlock().getNumber().longValueExact();
+            }
+        } catch (IOException e) {
+            log.debug("Safe block tag unavailable: {}", e.getMessage());
+        }
+        return head - properties.getReads().getSafeFallbackConfirmations();
+    }
+
+    public enum ReadLevel {
+        LATEST,
+        SAFE,
+        CONFIRMED
+    }
+
+    /** Reads against one pinned block. Independent calls are sent together as JSON-RPC batches. */
+    public final class ReadSession {
+
+        private final long blockNumber;
+        private final DefaultBlockParameter block;
+
+        private ReadSession(long blockNumber) {
+            this.blockNumber = blockNumber;
+            this.block = DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber));
+        }
+
+        public long getBlockNumber() {
+            return blockNumber;
+        }
+
+        public BatchResponse getBatch(byte[] batchId) throws Exception {
+            return SupplyChainService.this.getBatch(batchId, block);
+        }
+
+        /** The batch, its history length and every history record, all as of the pinned block. */
+        public BatchDetailsResponse getBatchDetails(byte[] batchId) throws Exception {
+            List<List<Type>> first = callAll(List.of(getBatchFunction(batchId), historyLengthFunction(batchId)));
+            BatchResponse batch = toBatch(first.get(0));
+            BigInteger length = toHistoryLength(first.get(1));
+
+            List<Function> records = new ArrayList<>();
+            for (long i = 0; i < length.longValueExact(); i++) {
+                records.add(ownershipRecordFunction(batchId, BigInteger.valueOf(i)));
+            }
+            List<OwnershipRecordResponse> history = new ArrayList<>(records.size());
+            for (List<Type> decoded : callAll(records)) {
+                history.add(toOwnershipRecord(decoded));
+            }
+            return new BatchDetailsResponse(blockNumber, batch, length, history);
+        }
+
+        // Chunks go out concurrently; results come back in the order of the functions.
+        private List<List<Type>> callAll(List<Function> functions) throws Exception {
+            String contract = properties.getSupplyChain().getContractAddress();
+            String from = signerPool.defaultAccount().getAddress();
+            int batchSize = properties.getReads().getBatchSize();
+
+            List<CompletableFuture<org.web3j.protocol.core.BatchResponse>> chunks = new ArrayList<>();
+            for (int offset = 0; offset < functions.size(); offset += batchSize) {
+                BatchRequest request = web3j.newBatch();
+                for (Function function : functions.subList(offset, Math.min(offset + batchSize, functions.size()))) {
+                    String data = FunctionEncoder.encode(function);
+                    request.add(web3j.ethCall(Transaction.createEthCallTransaction(from, contract, data), block));
+                }
+                chunks.add(request.sendAsync());
+            }
+
+            List<List<Type>> results = new ArrayList<>(functions.size());
+            int index = 0;
+            for (CompletableFuture<org.web3j.protocol.core.BatchResponse> chunk : chunks) {
+                org.web3j.protocol.core.BatchResponse response = chainMetrics.timeRpc("batch", "call", chunk::get);
+                for (Response<?> item : response.getResponses()) {
+                    Function function = functions.get(index++);
+                    results.add(decode(function, (EthCall) item));
+                }
+            }
+            return results;
+        }
+    }
+
+    // Waits on every hash sent for one write; stuck ones are replaced and reported to onReplaced.
+    public TransactionReceipt awaitReceipt(List<String> transactionHashes, Consumer<String> onReplaced) throws Exception {
+        return transactionSender.awaitReceipt(transactionHashes, onReplaced);
+    }
+
+    public String submitAssignRoles(List<String> accounts, List<ChainRole> roles) throws Exception {
         Function function = new Function(
+                "assignRoles",
+                List.of(
+                        new DynamicArray<>(Address.class, accounts.stream().map(Address::new).toList()),
+                        new DynamicArray<>(Uint8.class, roles.stream().map(role -> new Uint8(role.ordinal())).toList())),
+                List.of());
+        // RoleManager only takes role changes from its admin, the wallet key that deployed it.
+        return transactionSender.send(
+                signerPool.defaultAccount(), function.getName(), roleManagerAddress(), FunctionEncoder.encode(function));
+    }
+
+    // Reads each pooled account's role from RoleManager so writes can be routed by role.
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshSignerRoles() {
+        try {
+            String roleManager = roleManagerAddress();
+            for (SignerAccount account : signerPool.accounts()) {
+                ChainRole role = getRole(account.getAddress(), DefaultBlockParameterName.LATEST);
+                // Accounts never assigned a role also read as 0, MANUFACTURER.
+                if (role == ChainRole.MANUFACTURER && !wasAssignedRole(roleManager, account.getAddress())) {
+                    role = ChainRole.NONE;
+                }
+                account.setRole(role);
+            }
+        } catch (Exception e) {
+            log.warn("Could not resolve signer roles: {}", e.getMessage());
+        }
+    }
+
+    /** The account's RoleManager role as of {@code block}; accounts never assigned one read as MANUFACTURER. */
+    public ChainRole getRole(String account, DefaultBlockParameter block) throws Exception {
+        Function getRole = new Function(
+                "getRole",
+                List.of(new Address(account)),
+                List.of(new TypeReference<Uint8>() {}));
+        return ChainRole.of(((Uint8) call(roleManagerAddress(), getRole, block).get(0)).getValue().intValue());
+    }
+
+    private boolean wasAssignedRole(String roleManager, String account) throws IOException {
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameterName.EARLIEST, DefaultBlockParameterName.LATEST, roleManager);
+        filter.addSingleTopic(EventEncoder.encode(ROLE_ASSIGNED));
+        filter.addSingleTopic(Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(account), 64));
+        EthLog logs = web3j.ethGetLogs(filter).send();
+        if (logs.hasError()) {
+            throw new IOException(logs.getError().getMessage());
+        }
+        return !logs.getLogs().isEmpty();
+    }
+
+    private String roleManagerAddress() throws Exception {
+        String address = roleManagerAddress;
+        if (address == null) {
+            Function getter = new Function("roleManager", List.of(), List.of(new TypeReference<Address>() {}));
+            address = ((Address) call(getter).get(0)).getValue();
+            roleManagerAddress = address;
+        }
+        return address;
+    }
+
+    private String submitTransaction(SignerAccount account, Function function) throws Exception {
+        return transactionSender.send(
+                account,
+                function.getName(),
+                properties.getSupplyChain().getContractAddress(),
+                FunctionEncoder.encode(function));
+    }
+
+    private List<Type> call(Function function) throws Exception {
+        return call(properties.getSupplyChain().getContractAddress(), function);
+    }
+
+    private List<Type> call(String contractAddress, Function function) throws Exception {
+        return call(contractAddress, function, DefaultBlockParameterName.LATEST);
+    }
+
+    private List<Type> call(String contractAddress, Function function, DefaultBlockParameter block) throws Exception {
+        String data = FunctionEncoder.encode(function);
+        Transaction tx = Transaction.createEthCallTransaction(
+                signerPool.defaultAccount().getAddress(),
+                contractAddress,
+                data);
+        EthCall response = chainMetrics.timeRpc(
+                function.getName(), "call", () -> web3j.ethCall(tx, block).send());
+        return decode(function, response);
+    }
+
+    private List<Type> decode(Function function, EthCall response) {
+        // web3j reports every error as reverted; only code 3 or an "execution reverted" message is one.
+        if (response.hasError() && !isRevertError(response.getError())) {
+            // Not a revert: the node could not run the call, e.g. state pruned at that block.
+            chainMetrics.callError(function.getName(), response.getError().getCode());
+            throw new IllegalStateException("Call failed: " + response.getError().getMessage());
+        }
+        if (response.isReverted()) {
+            chainMetrics.revert(function.getName(), response.getRevertReason());
+            throw new IllegalStateException("Call reverted: " + response.getRevertReason());
+        }
+        return FunctionReturnDecoder.decode(response.getValue(), function.getOutputParameters());
+    }
+
+    // Runs the encode and decode paths of every read against canned return data, to warm up the JIT.
+    int exerciseCodec(int iterations) {
+        Address zero = new Address("0x0000000000000000000000000000000000000000");
+        String batchReturn = FunctionEncoder.encodeConstructor(List.<Type>of(
+                new Bytes32(new byte[32]), zero, new Uint256(1), new Bytes32(new byte[32]), new Uint8(1)));
+        String recordReturn = FunctionEncoder.encodeConstructor(List.<Type>of(zero, new Uint8(1), new Uint256(1)));
+        byte[] batchId = new byte[32];
+        int checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            batchId[31] = (byte) i;
+            Function batch = getBatchFunction(batchId);
+            Function record = ownershipRecordFunction(batchId, BigInteger.valueOf(i));
+            checksum += FunctionEncoder.encode(batch).length() + FunctionEncoder.encode(record).length()
+                    + FunctionEncoder.encode(historyLengthFunction(batchId)).length();
+            checksum += toBatch(FunctionReturnDecoder.decode(batchReturn, batch.getOutputParameters()))
+                    .getState().length();
+            checksum += toOwnershipRecord(FunctionReturnDecoder.decode(recordReturn, record.getOutputParameters()))
+                    .getOwner().length();
+        }
+        return checksum;
+    }
+
+    private static boolean isRevertError(Response.Error error) {
+        return error.getCode() == 3
+                || (error.getMessage() != null && error.getMessage().startsWith("execution reverted"));
+    }
+
+    private static Function getBatchFunction(byte[] batchId) {
+        return new Function(
                 "getBatch",
                 List.of(new Bytes32(batchId)),
                 List.of(
@@ -91,8 +389,27 @@ public class SupplyChainService {
                         new TypeReference<Bytes32>() {},
                         new TypeReference<Uint8>() {}
                 ));
+    }
 
-        List<Type> decoded = call(function);
+    private static Function historyLengthFunction(byte[] batchId) {
+        return new Function(
+                "getOwnershipHistoryLength",
+                List.of(new Bytes32(batchId)),
+                List.of(new TypeReference<Uint256>() {}));
+    }
+
+    private static Function ownershipRecordFunction(byte[] batchId, BigInteger index) {
+        return new Function(
+                "getOwnershipRecord",
+                List.of(new Bytes32(batchId), new Uint256(index)),
+                List.of(
+                        new TypeReference<Address>() {},
+                        new TypeReference<Uint8>() {},
+                        new TypeReference<Uint256>() {}
+                ));
+    }
+
+    private BatchResponse toBatch(List<Type> decoded) {
         Bytes32 id = (Bytes32) decoded.get(0);
         Address owner = (Address) decoded.get(1);
         Uint256 createdAt = (Uint256) decoded.get(2);
@@ -108,26 +425,11 @@ public class SupplyChainService {
         );
     }
 
-    public BigInteger getOwnershipHistoryLength(byte[] batchId) throws Exception {
-        Function function = new Function(
-                "getOwnershipHistoryLength",
-                List.of(new Bytes32(batchId)),
-                List.of(new TypeReference<Uint256>() {}));
-        List<Type> decoded = call(function);
+    private static BigInteger toHistoryLength(List<Type> decoded) {
         return ((Uint256) decoded.get(0)).getValue();
     }
 
-    public OwnershipRecordResponse getOwnershipRecord(byte[] batchId, BigInteger index) throws Exception {
-        Function function = new Function(
-                "getOwnershipRecord",
-                List.of(new Bytes32(batchId), new Uint256(index)),
-                List.of(
-                        new TypeReference<Address>() {},
-                        new TypeReference<Uint8>() {},
-                        new TypeReference<Uint256>() {}
-                ));
-
-        List<Type> decoded = call(function);
+    private static OwnershipRecordResponse toOwnershipRecord(List<Type> decoded) {
         Address owner = (Address) decoded.get(0);
         Uint8 role = (Uint8) decoded.get(1);
         Uint256 timestamp = (Uint256) decoded.get(2);
@@ -135,45 +437,7 @@ public class SupplyChainService {
         return new OwnershipRecordResponse(owner.getValue(), role.getValue(), timestamp.getValue());
     }
 
-    private TransactionReceipt sendTransaction(Function function) throws Exception {
-        String data = FunctionEncoder.encode(function);
-        EthSendTransaction tx = transactionManager.sendTransaction(
-                properties.getGasPrice(),
-                properties.getGasLimit(),
-                properties.getSupplyChain().getContractAddress(),
-                data,
-                BigInteger.ZERO);
-
-        if (tx.hasError()) {
-            throw new IllegalStateException(tx.getError().getMessage());
-        }
-
-        return receiptProcessor.waitForTransactionReceipt(tx.getTransactionHash());
-    }
-
-    private List<Type> call(Function function) throws Exception {
-        String data = FunctionEncoder.encode(function);
-        Transaction tx = Transaction.createEthCallTransaction(
-                transactionManager.getFromAddress(),
-                properties.getSupplyChain().getContractAddress(),
-                data);
-        EthCall response = web3j.ethCall(tx, DefaultBlockParameterName.LATEST).send();
-
-        if (response.isReverted()) {
-            throw new IllegalStateException("Call reverted: " + response.getRevertReason());
-        }
-
-        return FunctionReturnDecoder.decode(response.getValue(), function.getOutputParameters());
-    }
-
     private String mapBatchState(BigInteger state) {
-        int value = state.intValue();
-        return switch (value) {
-            case 0 -> "CREATED";
-            case 1 -> "IN_DISTRIBUTION";
-            case 2 -> "IN_PHARMACY";
-            case 3 -> "SOLD";
-            default -> "UNKNOWN";
-        };
+        return BatchState.nameOf(state.intValue());
     }
 }
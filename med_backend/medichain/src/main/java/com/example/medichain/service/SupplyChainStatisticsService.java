@@ -0,0 +1,202 @@
+package com.example.medichain.service;
+
+import com.example.medichain.dto.SupplyChainStatsResponse;
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.SupplyChainEvent;
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+/**
+ * Counters and histograms over the supply chain, folded in one event at a time as the
+ * indexer commits them. The aggregates {@link #getStats()} reports are fixed-size, so reads
+ * never depend on the number of batches; per-manufacturer counts grow with the number of
+ * manufacturers and are only read one at a time. {@link SupplyChainEventReplay} snapshots
+ * the fixed-size counters, so a restart counts only events newer than the snapshot; the
+ * per-manufacturer counts are rebuilt from the whole index, with the other per-batch views.
+ *
+ * <p>A transfer's dwell time needs the state the batch left and when it entered it; that is
+ * read from {@link BatchChangeIndex}, which folds each event after this service does.
+ */
+@Service
+@Order(1)
+public class SupplyChainStatisticsService implements SupplyChainEventReplay.SnapshotFold {
+
+    private static final int HOURS = 168;
+    private static final int REPORTED_HOURS = 24;
+
+    private final BatchChangeIndex batchChangeIndex;
+
+    private final int stateCount = BatchState.values().length;
+    private final long[] batchesByState = new long[stateCount];
+    private final long[] dwellSeconds = new long[stateCount];
+    private final long[] dwellCount = new long[stateCount];
+    private final long[] hourKeys = new long[HOURS];
+    private final long[] hourTransfers = new long[HOURS];
+    private final Map<String, Long> batchesByManufacturer = new HashMap<>();
+    private long totalTransfers;
+    private long verifications;
+    private long verificationsValid;
+    private long lastEventId;
+
+    public SupplyChainStatisticsService(BatchChangeIndex batchChangeIndex) {
+        this.batchChangeIndex = batchChangeIndex;
+    }
+
+    public synchronized SupplyChainStatsResponse getStats() {
+        BatchState[] states = BatchState.values();
+        Map<String, Long> byState = new LinkedHashMap<>();
+        Map<String, Double> meanDwell = new LinkedHashMap<>();
+        long totalBatches = 0;
+        for (int i = 0; i < stateCount; i++) {
+            byState.put(states[i].name(), batchesByState[i]);
+            meanDwell.put(states[i].name(), dwellCount[i] == 0 ? 0.0 : (double) dwellSeconds[i] / dwellCount[i]);
+            totalBatches += batchesByState[i];
+        }
+
+        long currentHour = System.currentTimeMillis() / 3_600_000L;
+        List<SupplyChainStatsResponse.HourlyCount> perHour = new ArrayList<>(REPORTED_HOURS);
+        for (long hour = currentHour - REPORTED_HOURS + 1; hour <= currentHour; hour++) {
+            int slot = (int) (hour % HOURS);
+            long count = hourKeys[slot] == hour ? hourTransfers[slot] : 0L;
+            perHour.add(new SupplyChainStatsResponse.HourlyCount(hour * 3600L, count));
+        }
+
+        double successRate = verifications == 0 ? 0.0 : (double) verificationsValid / verifications;
+
+        return new SupplyChainStatsResponse(
+                totalBatches,
+                byState,
+                totalTransfers,
+                perHour,
+                verifications,
+                successRate,
+                meanDwell,
+                lastEventId);
+    }
+
+    /** Batches the manufacturer has created, as of the last folded event. */
+    public synchronized long batchesCreatedBy(String manufacturer) {
+        return batchesByManufacturer.getOrDefault(manufacturer.toLowerCase(), 0L);
+    }
+
+    @Override
+    public synchronized void fold(SupplyChainEvent event) {
+        switch (event.getEventType()) {
+            case BATCH_CREATED -> {
+                if (countCreator(event)) {
+                    batchesByState[BatchState.CREATED.ordinal()]++;
+                }
+            }
+            case OWNERSHIP_TRANSFERRED -> {
+                totalTransfers++;
+                recordTransferHour(event.getBlockTimestamp());
+                // Not yet folded into the index, so this is the state the batch is leaving.
+                BatchChangeIndex.Version left = batchChangeIndex.current(event.getBatchId());
+                if (left != null && event.getState() != null) {
+                    int from = left.state().ordinal();
+                    dwellSeconds[from] += Math.max(0L, event.getBlockTimestamp() - left.changedAt());
+                    dwellCount[from]++;
+                    batchesByState[from]--;
+                    batchesByState[event.getState().ordinal()]++;
+                }
+            }
+            case BATCH_VERIFIED -> {
+                verifications++;
+                if (Boolean.TRUE.equals(event.getVerifiedValid())) {
+                    verificationsValid++;
+                }
+            }
+        }
+        lastEventId = event.getId();
+    }
+
+    // Only the per-manufacturer counts are missing from the snapshot.
+    @Override
+    public synchronized void refold(SupplyChainEvent event) {
+        if (event.getEventType() == SupplyChainEvent.Type.BATCH_CREATED) {
+            countCreator(event);
+        }
+    }
+
+    // False for a creation the index has already seen.
+    private boolean countCreator(SupplyChainEvent event) {
+        if (batchChangeIndex.current(event.getBatchId()) != null) {
+            return false;
+        }
+        batchesByManufacturer.merge(event.getFromAddress(), 1L, Long::sum);
+        return true;
+    }
+
+    private void recordTransferHour(long timestamp) {
+        long hour = timestamp / 3600L;
+        int slot = (int) (hour % HOURS);
+        if (hourKeys[slot] != hour) {
+            hourKeys[slot] = hour;
+            hourTransfers[slot] = 0L;
+        }
+        hourTransfers[slot]++;
+    }
+
+    @Override
+    public synchronized SupplyChainEventReplay.SnapshotWriter capture() {
+        long[] byState = batchesByState.clone();
+        long[] seconds = dwellSeconds.clone();
+        long[] counts = dwellCount.clone();
+        long[] keys = hourKeys.clone();
+        long[] transfers = hourTransfers.clone();
+        long[] totals = {totalTransfers, verifications, verificationsValid, lastEventId};
+        return out -> {
+            for (int i = 0; i < stateCount; i++) {
+                out.writeLong(byState[i]);
+                out.writeLong(seconds[i]);
+                out.writeLong(counts[i]);
+            }
+            for (int i = 0; i < HOURS; i++) {
+                out.writeLong(keys[i]);
+                out.writeLong(transfers[i]);
+            }
+            for (long total : totals) {
+                out.writeLong(total);
+            }
+        };
+    }
+
+    @Override
+    public synchronized void readSnapshot(DataInput in) throws IOException {
+        for (int i = 0; i < stateCount; i++) {
+            batchesByState[i] = in.readLong();
+            dwellSeconds[i] = in.readLong();
+            dwellCount[i] = in.readLong();
+        }
+        for (int i = 0; i < HOURS; i++) {
+            hourKeys[i] = in.readLong();
+            hourTransfers[i] = in.readLong();
+        }
+        totalTransfers = in.readLong();
+        verifications = in.readLong();
+        verificationsValid = in.readLong();
+        lastEventId = in.readLong();
+    }
+
+    @Override
+    public synchronized void reset() {
+        Arrays.fill(batchesByState, 0L);
+        Arrays.fill(dwellSeconds, 0L);
+        Arrays.fill(dwellCount, 0L);
+        Arrays.fill(hourKeys, 0L);
+        Arrays.fill(hourTransfers, 0L);
+        batchesByManufacturer.clear();
+        totalTransfers = 0;
+        verifications = 0;
+        verificationsValid = 0;
+        lastEventId = 0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.model.User;
+import com.example.medichain.repository.UserRepository;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * User lookups through a bounded in-process cache.
+ *
+ * <p>Entries are held by id in LRU order, with username and email indexes pointing at the
+ * id. Callers always get their own copy, so changing a returned user never changes the
+ * cache. User writes go through {@link #save}, which evicts the user, again after commit
+ * when inside a transaction. A load that overlaps an eviction is not cached, because it
+ * may have read the old row.
+ */
+@Service
+public class UserDirectory {
+
+    public record Stats(long hits, long misses, int size, double hitRatio) {
+    }
+
+    private final UserRepository userRepository;
+    private final Map<Long, User> byId;
+    private final Map<String, Long> byUsername = new HashMap<>();
+    private final Map<String, Long> byMailId = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long evictions;
+
+    public UserDirectory(UserRepository userRepository, MedichainProperties properties) {
+        this.userRepository = userRepository;
+        int maxEntries = properties.getUsers().getCacheMaxEntries();
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, User> eldest) {
+                if (size() > maxEntries) {
+                    byUsername.remove(eldest.getValue().getUsername());
+                    byMailId.remove(eldest.getValue().getMailId());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<User> findById(Long id) {
+        return lookup(() -> id, () -> userRepository.findById(id));
+    }
+
+    public Optional<User> findByUsername(String username) {
+        return lookup(() -> byUsername.get(username), () -> userRepository.findByUsername(username));
+    }
+
+    public Optional<User> findByMailId(String mailId) {
+        return lookup(() -> byMailId.get(mailId), () -> userRepository.findByMailId(mailId));
+    }
+
+    // Usernames and emails are both unique; a username match wins if the two collide.
+    public Optional<User> findByLogin(String usernameOrEmail) {
+        return lookup(
+                () -> {
+                    Long id = byUsername.get(usernameOrEmail);
+                    return id != null ? id : byMailId.get(usernameOrEmail);
+                },
+                () -> {
+                    List<User> matches = userRepository.findByUsernameOrMailId(usernameOrEmail, usernameOrEmail);
+                    return matches.stream()
+                            .filter(user -> usernameOrEmail.equals(user.getUsername()))
+                            .findFirst()
+                            .or(() -> matches.stream().findFirst());
+                });
+    }
+
+    public User save(User user) {
+        User saved = userRepository.save(user);
+        evict(saved);
+        // Until commit other readers still see the old row and may cache it.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(saved);
+                }
+            });
+        }
+        return saved;
+    }
+
+    public synchronized void evict(User user) {
+        evictions++;
+        if (user.getId() == null) {
+            return;
+        }
+        User cached = byId.remove(user.getId());
+        if (cached != null) {
+            byUsername.remove(cached.getUsername());
+            byMailId.remove(cached.getMailId());
+        }
+    }
+
+    public synchronized Stats stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return new Stats(hitCount, total - hitCount, byId.size(), total == 0 ? 0.0 : (double) hitCount / total);
+    }
+
+    private Optional<User> lookup(Supplier<Long> cachedId, Supplier<Optional<User>> loader) {
+        long seenEvictions;
+        synchronized (this) {
+            Long id = cachedId.get();
+            User cached = id == null ? null : byId.get(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(copy(cached));
+            }
+            misses.increment();
+            seenEvictions = evictions;
+        }
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(user -> {
+            synchronized (this) {
+                if (evictions == seenEvictions) {
+                    User snapshot = copy(user);
+                    byId.put(snapshot.getId(), snapshot);
+                    byUsername.put(snapshot.getUsername(), snapshot.getId());
+                    byMailId.put(snapshot.getMailId(), snapshot.getId());
+                }
+            }
+        });
+        return loaded;
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setRole(user.getRole());
+        copy.setUsername(user.getUsername());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setMailId(user.getMailId());
+        copy.setPhone(user.getPhone());
+        copy.setDob(user.getDob());
+        copy.setWalletAddress(user.getWalletAddress());
+        copy.setPassword(user.getPassword());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        copy.setActive(user.isActive());
+        return copy;
+    }
+}
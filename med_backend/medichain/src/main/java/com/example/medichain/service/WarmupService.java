@@ -0,0 +1,200 @@
+package com.example.medichain.service;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.BatchCreateRequest;
+import com.example.medichain.dto.BatchDetailsResponse;
+import com.example.medichain.dto.BatchResponse;
+import com.example.medichain.dto.OwnershipRecordResponse;
+import com.example.medichain.dto.TransactionResponse;
+import com.example.medichain.dto.VerifyBatchRequest;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.repository.ChainTransactionRepository;
+import com.example.medichain.tx.FeeOracle;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.web3j.protocol.Web3j;
+import org.web3j.utils.Numeric;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Pays the cold-start costs before the instance takes traffic: opens the node connection,
+ * drives the ABI, JSON and CBOR paths until the JIT has compiled them, runs the listing
+ * queries once, and loads the accounts behind the latest writes into the {@link UserDirectory}
+ * cache. Batch reads are not cached on the server, so there is nothing to preload for them
+ * beyond the node connection and decode paths the first steps already exercise.
+ *
+ * <p>Runs on the startup thread while the application-ready event is delivered, so Spring
+ * Boot only flips readiness to accepting traffic afterwards; the {@code warmup} health
+ * indicator in the readiness group reports out of service until then as well. Every step
+ * is best effort and the whole run is capped by {@code medichain.warmup.budget-ms}.
+ */
+@Service
+public class WarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private final Web3j web3j;
+    private final SupplyChainService supplyChainService;
+    private final FeeOracle feeOracle;
+    private final ListingService listingService;
+    private final ChainTransactionRepository transactionRepository;
+    private final UserDirectory userDirectory;
+    private final ObjectMapper objectMapper;
+    private final CBORMapper cborMapper;
+    private final MeterRegistry registry;
+    private final MedichainProperties.Warmup warmup;
+
+    private volatile boolean done;
+
+    public WarmupService(
+            Web3j web3j,
+            SupplyChainService supplyChainService,
+            FeeOracle feeOracle,
+            ListingService listingService,
+            ChainTransactionRepository transactionRepository,
+            UserDirectory userDirectory,
+            ObjectMapper objectMapper,
+            CBORMapper cborMapper,
+            MeterRegistry registry,
+            MedichainProperties properties) {
+        this.web3j = web3j;
+        this.supplyChainService = supplyChainService;
+        this.feeOracle = feeOracle;
+        this.listingService = listingService;
+        this.transactionRepository = transactionRepository;
+        this.userDirectory = userDirectory;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborMapper;
+        this.registry = registry;
+        this.warmup = properties.getWarmup();
+    }
+
+    // Last among the ready listeners, after the in-memory indexes have loaded.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        if (!warmup.isEnabled()) {
+            done = true;
+            return;
+        }
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(warmup.getBudgetMs());
+        try {
+            step("rpc", deadline, this::primeNode);
+            step("codec", deadline, () -> supplyChainService.exerciseCodec(warmup.getIterations()));
+            step("serialization", deadline, () -> exerciseSerialization(deadline));
+            step("queries", deadline, this::exerciseQueries);
+            step("users", deadline, () -> loadRecentUsers(deadline));
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            registry.timer("medichain.startup.warmup").record(elapsed, TimeUnit.NANOSECONDS);
+            done = true;
+            log.info("Warm-up finished in {} ms; ready {} ms after JVM start",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    private void step(String name, long deadline, Step step) {
+        if (System.nanoTime() > deadline) {
+            log.warn("Warm-up budget spent, skipping {}", name);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            step.run();
+            log.debug("Warm-up step {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            log.warn("Warm-up step {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    // Opens the connection to the node and fills the fee cache the first write would otherwise wait on.
+    private void primeNode() throws Exception {
+        web3j.ethChainId().send();
+        for (int i = 0; i < 3; i++) {
+            web3j.ethBlockNumber().send();
+        }
+        feeOracle.quote();
+    }
+
+    private void exerciseSerialization(long deadline) {
+        BatchResponse batch = new BatchResponse(
+                Numeric.toHexString(new byte[32]), "0x0000000000000000000000000000000000000000",
+                BigInteger.ONE, Numeric.toHexString(new byte[32]), "CREATED");
+        OwnershipRecordResponse record = new OwnershipRecordResponse(
+                "0x0000000000000000000000000000000000000000", BigInteger.ONE, BigInteger.ONE);
+        BatchDetailsResponse details = new BatchDetailsResponse(1L, batch, BigInteger.ONE, List.of(record));
+        TransactionResponse transaction = new TransactionResponse(
+                Numeric.toHexString(new byte[32]), BigInteger.ONE, BigInteger.ONE, "0x1", List.of());
+        byte[] verifyRequest = objectMapper.writeValueAsBytes(Map.of(
+                "batchId", batch.getBatchId(), "metadataHash", batch.getMetadataHash(), "latitude", 0.0));
+        byte[] createRequest = objectMapper.writeValueAsBytes(Map.of(
+                "batchId", batch.getBatchId(), "metadataHash", batch.getMetadataHash()));
+
+        for (int i = 0; i < warmup.getIterations() && System.nanoTime() < deadline; i++) {
+            for (Object response : List.of(batch, record, details, transaction)) {
+                objectMapper.writeValueAsBytes(response);
+                cborMapper.writeValueAsBytes(response);
+            }
+            objectMapper.readValue(verifyRequest, VerifyBatchRequest.class);
+            objectMapper.readValue(createRequest, BatchCreateRequest.class);
+        }
+    }
+
+    // First execution of each listing query builds Hibernate's SQL and result mapping.
+    private void exerciseQueries() {
+        String nobody = "0x0000000000000000000000000000000000000000";
+        listingService.ownershipHistory(Numeric.toHexString(new byte[32]), null, 1);
+        listingService.batchesOwnedBy(nobody, null, 1);
+        listingService.transactionsOf(nobody, null, 1);
+    }
+
+    // Signed-in writes are recorded under the username, so these are the accounts in use right now.
+    private void loadRecentUsers(long deadline) {
+        int wanted = warmup.getRecentUsers();
+        if (wanted <= 0) {
+            return;
+        }
+        Set<String> usernames = new LinkedHashSet<>();
+        for (ChainTransaction transaction : transactionRepository.findAll(
+                PageRequest.of(0, wanted * 4, Sort.by(Sort.Direction.DESC, "id")))) {
+            if (transaction.getSubmittedBy() != null) {
+                usernames.add(transaction.getSubmittedBy());
+            }
+            if (usernames.size() == wanted) {
+                break;
+            }
+        }
+        for (String username : usernames) {
+            if (System.nanoTime() > deadline) {
+                return;
+            }
+            userDirectory.findByUsername(username);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
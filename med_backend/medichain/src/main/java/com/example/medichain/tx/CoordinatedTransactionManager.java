@@ -0,0 +1,55 @@
+package com.example.medichain.tx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Locale;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+
+// Transaction manager that takes nonces from a shared NonceAllocator instead of asking the node.
+public class CoordinatedTransactionManager extends SigningTransactionManager {
+
+    private final NonceAllocator nonceAllocator;
+
+    public CoordinatedTransactionManager(Web3j web3j, Credentials credentials, NonceAllocator nonceAllocator) {
+        super(web3j, credentials);
+        this.nonceAllocator = nonceAllocator;
+    }
+
+    @Override
+    protected BigInteger getNonce() throws IOException {
+        return BigInteger.valueOf(nonceAllocator.next(getFromAddress()));
+    }
+
+    @Override
+    public void releaseNonce(BigInteger nonce) {
+        nonceAllocator.release(getFromAddress(), nonce.longValueExact());
+    }
+
+    @Override
+    public EthSendTransaction signAndSend(RawTransaction rawTransaction) throws IOException {
+        long nonce = rawTransaction.getNonce().longValueExact();
+        EthSendTransaction response;
+        try {
+            response = super.signAndSend(rawTransaction);
+        } catch (SendOutcomeUnknownException | TxHashMismatchException e) {
+            // Not released: the node may have taken the nonce.
+            nonceAllocator.markSent(getFromAddress(), nonce);
+            throw e;
+        }
+        if (!response.hasError()) {
+            nonceAllocator.markSent(getFromAddress(), nonce);
+        } else {
+            String message = String.valueOf(response.getError().getMessage()).toLowerCase(Locale.ROOT);
+            if (message.contains("nonce too low") || message.contains("already known")) {
+                nonceAllocator.reset(getFromAddress());
+            } else {
+                nonceAllocator.release(getFromAddress(), nonce);
+            }
+        }
+        return response;
+    }
+}
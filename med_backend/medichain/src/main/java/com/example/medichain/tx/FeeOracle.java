@@ -0,0 +1,219 @@
+package com.example.medichain.tx;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.event.ChainHeadReceived;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
+import org.web3j.protocol.core.methods.response.EthFeeHistory;
+
+/**
+ * Prices transactions from recent blocks instead of the static gas settings.
+ *
+ * <p>On chains with a base fee the fee cap is a multiple of the next block's base fee plus
+ * the median priority fee paid over the sampled blocks; elsewhere the node's gas price is
+ * used. A quote is cached briefly so a burst of writes shares one sample. Gas limits are
+ * estimated once per contract function and calldata length and reused with some headroom;
+ * calls taking dynamic arrays, whose gas grows with the array, get an estimate per length.
+ */
+public class FeeOracle {
+
+    public record Quote(BigInteger gasPrice, BigInteger maxFeePerGas, BigInteger maxPriorityFeePerGas) {
+
+        static Quote legacy(BigInteger gasPrice) {
+            return new Quote(gasPrice, null, null);
+        }
+
+        static Quote dynamic(BigInteger maxFeePerGas, BigInteger maxPriorityFeePerGas) {
+            return new Quote(null, maxFeePerGas, maxPriorityFeePerGas);
+        }
+
+        public boolean isDynamic() {
+            return maxFeePerGas != null;
+        }
+
+        // Most the sender may pay per unit of gas.
+        public BigInteger ceiling() {
+            return isDynamic() ? maxFeePerGas : gasPrice;
+        }
+
+        /**
+         * Raises every fee field by at least {@code percent}, and to no less than
+         * {@code market}, keeping the transaction type. Nodes only accept a replacement
+         * when all of its fees go up by their minimum bump (10% on geth).
+         */
+        public Quote bump(int percent, Quote market) {
+            if (!isDynamic()) {
+                return legacy(raise(gasPrice, percent).max(market.ceiling()));
+            }
+            BigInteger tip = raise(maxPriorityFeePerGas, percent);
+            BigInteger cap = raise(maxFeePerGas, percent);
+            if (market.isDynamic()) {
+                tip = tip.max(market.maxPriorityFeePerGas());
+                cap = cap.max(market.maxFeePerGas());
+            }
+            return dynamic(cap.max(tip), tip);
+        }
+
+        private static BigInteger raise(BigInteger value, int percent) {
+            BigInteger scaled = value.multiply(BigInteger.valueOf(100L + percent));
+            return scaled.add(BigInteger.valueOf(99)).divide(BigInteger.valueOf(100));
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(FeeOracle.class);
+
+    private static final BigInteger DEFAULT_PRIORITY_FEE = BigInteger.valueOf(1_000_000_000L);
+
+    private final Web3j web3j;
+    private final BlockchainProperties.Fees fees;
+    private final BigInteger staticGasPrice;
+    private final BigInteger staticGasLimit;
+    private final Map<String, BigInteger> gasLimits = new ConcurrentHashMap<>();
+    private volatile Quote cached;
+    private volatile long sampledAt;
+    private volatile boolean feeHistoryUnsupported;
+    private volatile Long chainId;
+
+    public FeeOracle(Web3j web3j, BlockchainProperties.Fees fees, BigInteger staticGasPrice, BigInteger staticGasLimit) {
+        this.web3j = web3j;
+        this.fees = fees;
+        this.staticGasPrice = staticGasPrice;
+        this.staticGasLimit = staticGasLimit;
+    }
+
+    public Quote quote() {
+        Quote quote = cached;
+        if (quote != null && System.currentTimeMillis() - sampledAt < fees.getCacheMs()) {
+            return quote;
+        }
+        synchronized (this) {
+            if (cached != null && System.currentTimeMillis() - sampledAt < fees.getCacheMs()) {
+                return cached;
+            }
+            cached = sample();
+            sampledAt = System.currentTimeMillis();
+            return cached;
+        }
+    }
+
+    // Fees move with every block, so a pushed head ends the cached quote early.
+    @EventListener
+    public void onHead(ChainHeadReceived head) {
+        sampledAt = 0;
+    }
+
+    // Estimated gas for this call plus headroom, never above the configured gas limit.
+    public BigInteger gasLimit(String from, String to, String data) {
+        if (fees.getMode() == BlockchainProperties.Fees.Mode.STATIC) {
+            return staticGasLimit;
+        }
+        String key = to.toLowerCase() + (data.length() >= 10 ? data.substring(0, 10) : data) + ":" + data.length();
+        BigInteger known = gasLimits.get(key);
+        if (known != null) {
+            return known;
+        }
+        try {
+            EthEstimateGas estimate = web3j.ethEstimateGas(
+                    Transaction.createEthCallTransaction(from, to, data)).send();
+            if (estimate.hasError()) {
+                // Usually a revert; send with the full limit and let the receipt report it.
+                return staticGasLimit;
+            }
+            BigInteger limit = estimate.getAmountUsed()
+                    .multiply(BigInteger.valueOf(100L + fees.getGasHeadroomPercent()))
+                    .divide(BigInteger.valueOf(100))
+                    .min(staticGasLimit);
+            return gasLimits.merge(key, limit, BigInteger::max);
+        } catch (IOException e) {
+            log.warn("Gas estimation failed, using the configured limit: {}", e.getMessage());
+            return staticGasLimit;
+        }
+    }
+
+    public long chainId() throws IOException {
+        Long id = chainId;
+        if (id == null) {
+            id = web3j.ethChainId().send().getChainId().longValueExact();
+            chainId = id;
+        }
+        return id;
+    }
+
+    // Applies the configured ceiling; null when the quote is already above it.
+    public Quote capped(Quote quote) {
+        BigInteger max = fees.getMaxGasPrice();
+        if (max == null || quote.ceiling().compareTo(max) <= 0) {
+            return quote;
+        }
+        return null;
+    }
+
+    private Quote sample() {
+        if (fees.getMode() == BlockchainProperties.Fees.Mode.STATIC) {
+            return Quote.legacy(staticGasPrice);
+        }
+        try {
+            if (fees.getMode() == BlockchainProperties.Fees.Mode.AUTO && !feeHistoryUnsupported) {
+                Quote dynamic = sampleFeeHistory();
+                if (dynamic != null) {
+                    return limit(dynamic);
+                }
+            }
+            return limit(Quote.legacy(web3j.ethGasPrice().send().getGasPrice()));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Fee sampling failed, using the configured gas price: {}", e.getMessage());
+            return Quote.legacy(staticGasPrice);
+        }
+    }
+
+    private Quote sampleFeeHistory() throws IOException {
+        EthFeeHistory response = web3j.ethFeeHistory(
+                fees.getSampleBlocks(),
+                DefaultBlockParameterName.LATEST,
+                List.of(fees.getPriorityPercentile())).send();
+        EthFeeHistory.FeeHistory history = response.hasError() ? null : response.getFeeHistory();
+        if (history == null || history.getBaseFeePerGas() == null || history.getBaseFeePerGas().isEmpty()) {
+            // Pre-London chain: there is no base fee to price against.
+            feeHistoryUnsupported = true;
+            return null;
+        }
+        List<BigInteger> baseFees = history.getBaseFeePerGas();
+        // The last entry is the base fee of the block after the newest one sampled.
+        BigInteger nextBaseFee = baseFees.get(baseFees.size() - 1);
+
+        List<BigInteger> tips = new ArrayList<>();
+        if (history.getReward() != null) {
+            for (List<BigInteger> block : history.getReward()) {
+                if (block != null && !block.isEmpty() && block.get(0) != null) {
+                    tips.add(block.get(0));
+                }
+            }
+        }
+        tips.sort(null);
+        BigInteger tip = tips.isEmpty() ? DEFAULT_PRIORITY_FEE : tips.get(tips.size() / 2);
+
+        BigInteger maxFee = nextBaseFee.multiply(BigInteger.valueOf(fees.getBaseFeeMultiplier())).add(tip);
+        return Quote.dynamic(maxFee, tip);
+    }
+
+    private Quote limit(Quote quote) {
+        BigInteger max = fees.getMaxGasPrice();
+        if (max == null) {
+            return quote;
+        }
+        return quote.isDynamic()
+                ? Quote.dynamic(quote.maxFeePerGas().min(max), quote.maxPriorityFeePerGas().min(max))
+                : Quote.legacy(quote.gasPrice().min(max));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.medichain.tx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Single-instance store; also stands in for PostgreSQL when several allocators share one JVM.
+public class InMemoryNonceLeaseStore implements NonceLeaseStore {
+
+    private final Map<String, Long> next = new HashMap<>();
+
+    @Override
+    public synchronized long lease(String address, long chainNonce, int count) {
+        long start = Math.max(next.getOrDefault(address, 0L), chainNonce);
+        next.put(address, start + count);
+        return start;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.medichain.tx;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hands out nonce ranges from the {@code nonce_leases} table. The upsert takes the row lock,
+ * so concurrent instances leasing for the same address are serialized by PostgreSQL and
+ * never receive overlapping ranges.
+ */
+public class JdbcNonceLeaseStore implements NonceLeaseStore {
+
+    private static final String LEASE_SQL =
+            "insert into nonce_leases (address, next_nonce) values (?, ?) "
+                    + "on conflict (address) do update "
+                    + "set next_nonce = greatest(nonce_leases.next_nonce, ?) + ? "
+                    + "returning next_nonce - ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcNonceLeaseStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long lease(String address, long chainNonce, int count) {
+        Long start = jdbcTemplate.queryForObject(
+                LEASE_SQL, Long.class, address, chainNonce + count, chainNonce, count, count);
+        if (start == null) {
+            throw new IllegalStateException("Nonce lease returned no row for " + address);
+        }
+        return start;
+    }
+}
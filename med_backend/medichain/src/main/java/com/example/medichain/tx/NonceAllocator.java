@@ -0,0 +1,142 @@
+package com.example.medichain.tx;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allocates nonces per signing address from ranges leased through a {@link NonceLeaseStore}.
+ *
+ * <p>A nonce whose transaction never reached the node is released and handed out again
+ * before the range advances, so a failed send does not leave a gap that would stall every
+ * later transaction. Ranges still held by an instance that dies, or nonces lost any other
+ * way, do leave a gap; {@link #stalledGap} finds one holding back transactions this instance
+ * sent, so it can be filled.
+ */
+public class NonceAllocator {
+
+    @FunctionalInterface
+    public interface ChainNonceReader {
+        long pendingNonce(String address) throws IOException;
+    }
+
+    /** Nonces {@code from} (inclusive) to {@code to} (exclusive) that nobody has sent. */
+    public record Gap(long from, long to) {
+    }
+
+    private final NonceLeaseStore store;
+    private final ChainNonceReader chainNonceReader;
+    private final int leaseSize;
+    private final Map<String, Range> ranges = new ConcurrentHashMap<>();
+
+    public NonceAllocator(NonceLeaseStore store, ChainNonceReader chainNonceReader, int leaseSize) {
+        if (leaseSize < 1) {
+            throw new IllegalArgumentException("Lease size must be at least 1");
+        }
+        this.store = store;
+        this.chainNonceReader = chainNonceReader;
+        this.leaseSize = leaseSize;
+    }
+
+    public long next(String address) throws IOException {
+        String key = address.toLowerCase();
+        Range range = ranges.computeIfAbsent(key, k -> new Range());
+        synchronized (range) {
+            if (!range.released.isEmpty()) {
+                return range.released.pollFirst();
+            }
+            if (range.next >= range.end) {
+                long chainNonce = chainNonceReader.pendingNonce(key);
+                range.next = store.lease(key, chainNonce, leaseSize);
+                range.end = range.next + leaseSize;
+            }
+            return range.next++;
+        }
+    }
+
+    // The transaction carrying this nonce reached the node, or may have; it can hold back later ones.
+    public void markSent(String address, long nonce) {
+        Range range = ranges.get(address.toLowerCase());
+        if (range == null) {
+            return;
+        }
+        synchronized (range) {
+            range.released.remove(nonce);
+            range.sent.add(nonce);
+        }
+    }
+
+    /**
+     * Returns the nonces the chain is stuck at when transactions this instance sent above them
+     * have waited {@code stallBlocks} blocks or {@code stallMs} milliseconds, whichever comes
+     * first, without the chain's pending nonce moving. The time bound matters on chains that
+     * mine only when a transaction arrives, where a gap stops blocks altogether. A nonce this
+     * instance sent itself is not a gap: the sender re-broadcasts it when bumping fees. The gap
+     * runs up to the lowest nonce sent here, so a whole range lost with a dead instance is
+     * reported at once. Once reported, the same gap is reported again only after another stall.
+     */
+    public Optional<Gap> stalledGap(String address, long block, long nowMs, int stallBlocks, long stallMs)
+            throws IOException {
+        String key = address.toLowerCase();
+        Range range = ranges.get(key);
+        if (range == null) {
+            return Optional.empty();
+        }
+        long chainNonce = chainNonceReader.pendingNonce(key);
+        synchronized (range) {
+            range.sent.headSet(chainNonce).clear();
+            if (range.sent.isEmpty() || range.sent.contains(chainNonce)) {
+                range.stalledAt = -1;
+                return Optional.empty();
+            }
+            if (range.stalledAt != chainNonce) {
+                range.stalledAt = chainNonce;
+                range.stalledSince = block;
+                range.stalledSinceMs = nowMs;
+                return Optional.empty();
+            }
+            if (block - range.stalledSince < stallBlocks && nowMs - range.stalledSinceMs < stallMs) {
+                return Optional.empty();
+            }
+            range.stalledSince = block;
+            range.stalledSinceMs = nowMs;
+            return Optional.of(new Gap(chainNonce, range.sent.first()));
+        }
+    }
+
+    // The transaction carrying this nonce was not accepted by the node; reuse it.
+    public void release(String address, long nonce) {
+        Range range = ranges.get(address.toLowerCase());
+        if (range == null) {
+            return;
+        }
+        synchronized (range) {
+            range.released.add(nonce);
+        }
+    }
+
+    // The node reported our nonces as stale; drop the local range and lease again from the chain's view.
+    public void reset(String address) {
+        Range range = ranges.get(address.toLowerCase());
+        if (range == null) {
+            return;
+        }
+        synchronized (range) {
+            range.next = range.end;
+            range.released.clear();
+        }
+    }
+
+    private static final class Range {
+        private long next;
+        private long end;
+        private final TreeSet<Long> released = new TreeSet<>();
+        // Sent and not yet below the chain's pending nonce.
+        private final TreeSet<Long> sent = new TreeSet<>();
+        private long stalledAt = -1;
+        private long stalledSince;
+        private long stalledSinceMs;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.medichain.tx;
+
+public interface NonceLeaseStore {
+
+    /**
+     * Atomically reserves {@code count} consecutive nonces for {@code address}, starting no
+     * lower than {@code chainNonce}, and returns the first one.
+     */
+    long lease(String address, long chainNonce, int count);
+}
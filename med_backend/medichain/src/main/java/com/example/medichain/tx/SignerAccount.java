@@ -0,0 +1,105 @@
+package com.example.medichain.tx;
+
+import com.example.medichain.model.ChainRole;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.web3j.crypto.Credentials;
+
+/**
+ * One signing account with its own submission thread. Sends for an account are serialized,
+ * which keeps its nonces in order; different accounts submit in parallel.
+ */
+public class SignerAccount {
+
+    @FunctionalInterface
+    public interface Send {
+        String send(SigningTransactionManager transactionManager) throws Exception;
+    }
+
+    private final Credentials credentials;
+    private final SigningTransactionManager transactionManager;
+    private final ExecutorService executor;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private volatile long lastLatencyNanos;
+    private volatile ChainRole role = ChainRole.NONE;
+
+    public SignerAccount(Credentials credentials, SigningTransactionManager transactionManager) {
+        this.credentials = credentials;
+        this.transactionManager = transactionManager;
+        String address = credentials.getAddress();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signer-" + address.substring(0, 10));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<String> submit(Send send) {
+        long enqueued = System.nanoTime();
+        queueDepth.incrementAndGet();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            queueDepth.decrementAndGet();
+            try {
+                result.complete(send.send(transactionManager));
+                submitted.increment();
+            } catch (Exception e) {
+                failed.increment();
+                result.completeExceptionally(e);
+            } finally {
+                long elapsed = System.nanoTime() - enqueued;
+                latencyNanos.add(elapsed);
+                lastLatencyNanos = elapsed;
+            }
+        });
+        return result;
+    }
+
+    public String getAddress() {
+        return credentials.getAddress().toLowerCase();
+    }
+
+    public SigningTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    public ChainRole getRole() {
+        return role;
+    }
+
+    public void setRole(ChainRole role) {
+        this.role = role;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    // Enqueue-to-hash time, averaged over every send attempted on this account.
+    public double getMeanLatencyMs() {
+        long count = submitted.sum() + failed.sum();
+        return count == 0 ? 0.0 : latencyNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getLastLatencyMs() {
+        return lastLatencyNanos / 1_000_000.0;
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
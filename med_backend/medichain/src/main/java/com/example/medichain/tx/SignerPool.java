@@ -0,0 +1,44 @@
+package com.example.medichain.tx;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Every account the backend can sign with, indexed by address and on-chain role.
+public class SignerPool {
+
+    private final SignerAccount defaultAccount;
+    private final Map<String, SignerAccount> byAddress = new LinkedHashMap<>();
+
+    public SignerPool(SignerAccount defaultAccount, List<SignerAccount> additional) {
+        this.defaultAccount = defaultAccount;
+        byAddress.put(defaultAccount.getAddress(), defaultAccount);
+        for (SignerAccount account : additional) {
+            byAddress.putIfAbsent(account.getAddress(), account);
+        }
+    }
+
+    public SignerAccount defaultAccount() {
+        return defaultAccount;
+    }
+
+    public List<SignerAccount> accounts() {
+        return List.copyOf(byAddress.values());
+    }
+
+    public Optional<SignerAccount> forAddress(String address) {
+        return Optional.ofNullable(address == null ? null : byAddress.get(address.toLowerCase()));
+    }
+
+    public SignerAccount leastLoaded() {
+        return byAddress.values().stream()
+                .min(Comparator.comparingInt(SignerAccount::getQueueDepth))
+                .orElse(defaultAccount);
+    }
+
+    public void shutdown() {
+        byAddress.values().forEach(SignerAccount::shutdown);
+    }
+}
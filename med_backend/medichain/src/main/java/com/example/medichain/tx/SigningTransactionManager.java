@@ -0,0 +1,77 @@
+package com.example.medichain.tx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.RawTransactionManager;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+
+/**
+ * RawTransactionManager that lets callers build the transaction themselves, fee fields included.
+ *
+ * <p>The hash is computed from the signed bytes before they are sent. When the send fails on
+ * the transport, the node may still have accepted the transaction, so the failure is reported
+ * as {@link SendOutcomeUnknownException} carrying that hash instead of a plain I/O error.
+ */
+public class SigningTransactionManager extends RawTransactionManager {
+
+    /** The transaction was signed and possibly broadcast; watch for its hash before assuming it was lost. */
+    public static class SendOutcomeUnknownException extends IOException {
+
+        private final String transactionHash;
+
+        public SendOutcomeUnknownException(String transactionHash, IOException cause) {
+            super("Outcome of sending " + transactionHash + " is unknown: " + cause.getMessage(), cause);
+            this.transactionHash = transactionHash;
+        }
+
+        public String getTransactionHash() {
+            return transactionHash;
+        }
+    }
+
+    private final Web3j web3j;
+
+    public SigningTransactionManager(Web3j web3j, Credentials credentials) {
+        super(web3j, credentials);
+        this.web3j = web3j;
+    }
+
+    public BigInteger nextNonce() throws IOException {
+        return getNonce();
+    }
+
+    /** Gives back a nonce from {@link #nextNonce} whose transaction was never broadcast. */
+    public void releaseNonce(BigInteger nonce) {
+        // The node hands out nonces here, so nothing is held.
+    }
+
+    @Override
+    public EthSendTransaction signAndSend(RawTransaction rawTransaction) throws IOException {
+        return send(rawTransaction);
+    }
+
+    // Sends a transaction reusing a nonce that is already taken, so none of the nonce bookkeeping applies.
+    public EthSendTransaction resend(RawTransaction rawTransaction) throws IOException {
+        return send(rawTransaction);
+    }
+
+    private EthSendTransaction send(RawTransaction rawTransaction) throws IOException {
+        String signed = sign(rawTransaction);
+        String localHash = Hash.sha3(signed);
+        EthSendTransaction response;
+        try {
+            response = web3j.ethSendRawTransaction(signed).send();
+        } catch (IOException e) {
+            throw new SendOutcomeUnknownException(localHash, e);
+        }
+        if (!response.hasError() && !txHashVerifier.verify(localHash, response.getTransactionHash())) {
+            throw new TxHashMismatchException(localHash, response.getTransactionHash());
+        }
+        return response;
+    }
+}
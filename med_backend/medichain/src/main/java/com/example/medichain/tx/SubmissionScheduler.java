@@ -0,0 +1,212 @@
+package com.example.medichain.tx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Orders chain submissions before they reach the signer pool.
+ *
+ * <p>Classes are served in strict {@link TxPriority} order. Inside a class, tenants share the
+ * workers by deficit round robin weighted per tenant, so one tenant's bulk registration
+ * cannot starve another's. Each class queue is bounded; a full queue rejects immediately
+ * instead of letting latency grow.
+ */
+public class SubmissionScheduler {
+
+    public record ClassStatus(TxPriority priority, int depth, int tenants, long rejected, double meanWaitMs) {
+    }
+
+    private final Map<String, Integer> tenantWeights;
+    private final int capacity;
+    private final Map<TxPriority, ClassQueue> queues = new EnumMap<>(TxPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private volatile boolean running = true;
+
+    public SubmissionScheduler(int workerCount, int capacity, Map<String, Integer> tenantWeights) {
+        this.capacity = capacity;
+        this.tenantWeights = Map.copyOf(tenantWeights);
+        for (TxPriority priority : TxPriority.values()) {
+            queues.put(priority, new ClassQueue());
+        }
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "tx-scheduler-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /** Queues {@code work} and blocks until a worker has run it. */
+    public <T> T run(TxPriority priority, String tenant, Callable<T> work) throws Exception {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Task task = new Task(work, result, System.nanoTime());
+        lock.lock();
+        try {
+            ClassQueue queue = queues.get(priority);
+            if (!running || queue.size >= capacity) {
+                queue.rejected.increment();
+                throw new RejectedExecutionException("Submission queue for " + priority + " is full");
+            }
+            queue.offer(tenant == null ? "" : tenant, task);
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            T value = (T) result.get();
+            return value;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    public List<ClassStatus> status() {
+        lock.lock();
+        try {
+            List<ClassStatus> status = new ArrayList<>();
+            for (Map.Entry<TxPriority, ClassQueue> entry : queues.entrySet()) {
+                ClassQueue queue = entry.getValue();
+                long served = queue.served.sum();
+                status.add(new ClassStatus(
+                        entry.getKey(),
+                        queue.size,
+                        queue.tenants.size(),
+                        queue.rejected.sum(),
+                        served == 0 ? 0.0 : queue.waitNanos.sum() / 1_000_000.0 / served));
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Fails every queued submission so no caller is left blocked; submissions already running carry on.
+    public void shutdown() {
+        List<Task> abandoned = new ArrayList<>();
+        lock.lock();
+        try {
+            running = false;
+            queues.values().forEach(queue -> queue.drainTo(abandoned));
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Task task : abandoned) {
+            task.result().completeExceptionally(new RejectedExecutionException("Submission scheduler is shut down"));
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                task = next();
+                while (task == null) {
+                    if (!running) {
+                        return;
+                    }
+                    available.await();
+                    task = next();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                task.result().complete(task.work().call());
+            } catch (Exception e) {
+                task.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private Task next() {
+        for (ClassQueue queue : queues.values()) {
+            Task task = queue.poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private record Task(Callable<?> work, CompletableFuture<Object> result, long enqueuedAt) {
+    }
+
+    private final class ClassQueue {
+        private final Map<String, TenantQueue> tenants = new HashMap<>();
+        private final ArrayDeque<TenantQueue> rotation = new ArrayDeque<>();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder served = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private int size;
+
+        void offer(String tenant, Task task) {
+            TenantQueue queue = tenants.get(tenant);
+            if (queue == null) {
+                queue = new TenantQueue(tenant, Math.max(1, tenantWeights.getOrDefault(tenant, 1)));
+                tenants.put(tenant, queue);
+                rotation.addLast(queue);
+            }
+            queue.tasks.addLast(task);
+            size++;
+        }
+
+        void drainTo(List<Task> drained) {
+            for (TenantQueue queue : rotation) {
+                drained.addAll(queue.tasks);
+            }
+            tenants.clear();
+            rotation.clear();
+            size = 0;
+        }
+
+        Task poll() {
+            TenantQueue head = rotation.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            if (head.deficit <= 0) {
+                head.deficit += head.weight;
+            }
+            Task task = head.tasks.pollFirst();
+            head.deficit--;
+            size--;
+            if (head.tasks.isEmpty()) {
+                rotation.pollFirst();
+                tenants.remove(head.name);
+            } else if (head.deficit <= 0) {
+                rotation.addLast(rotation.pollFirst());
+            }
+            served.increment();
+            waitNanos.add(System.nanoTime() - task.enqueuedAt());
+            return task;
+        }
+    }
+
+    private static final class TenantQueue {
+        private final String name;
+        private final int weight;
+        private final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        private int deficit;
+
+        TenantQueue(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+}
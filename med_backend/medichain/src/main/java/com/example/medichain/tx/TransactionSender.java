@@ -0,0 +1,319 @@
+package com.example.medichain.tx;
+
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.service.ChainNotifications;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+
+/**
+ * Signs contract writes priced by the {@link FeeOracle} and waits for them to be mined.
+ *
+ * <p>A transaction still unmined after {@code replaceAfterMs} is sent again with the same
+ * nonce and bumped fees. Only one of the versions can be mined, so the wait watches every
+ * hash sent for the write and returns whichever receipt appears. Replacements are reported
+ * to the caller as they happen so they can be recorded durably. On shutdown the waits that
+ * are still open can be abandoned; the writes stay on the chain and are watched again later.
+ */
+public class TransactionSender {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSender.class);
+
+    private static final BigInteger TRANSFER_GAS = BigInteger.valueOf(21_000);
+
+    private final Web3j web3j;
+    private final FeeOracle feeOracle;
+    private final ChainMetrics metrics;
+    private final ChainNotifications notifications;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final long replaceAfterMs;
+    private final int bumpPercent;
+    // Every hash sent for a write still being watched, pointing at the write's shared state.
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private volatile boolean abandoned;
+
+    public TransactionSender(
+            Web3j web3j,
+            FeeOracle feeOracle,
+            ChainMetrics metrics,
+            ChainNotifications notifications,
+            long pollIntervalMs,
+            int maxAttempts,
+            long replaceAfterMs,
+            int bumpPercent) {
+        this.web3j = web3j;
+        this.feeOracle = feeOracle;
+        this.metrics = metrics;
+        this.notifications = notifications;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.replaceAfterMs = replaceAfterMs;
+        this.bumpPercent = bumpPercent;
+    }
+
+    /** Sends {@code data} to {@code to}; {@code function} names the call in metrics. */
+    public String send(SignerAccount account, String function, String to, String data) throws Exception {
+        String from = account.getAddress();
+        return await(account.submit(transactionManager -> {
+            // Every lookup that can fail comes before the nonce is taken, so a taken nonce is either
+            // broadcast or handed back.
+            FeeOracle.Quote quote = feeOracle.quote();
+            long chainId = chainIdFor(quote);
+            BigInteger gasLimit = feeOracle.gasLimit(from, to, data);
+            BigInteger sentAtBlock = web3j.ethBlockNumber().send().getBlockNumber();
+            BigInteger nonce = transactionManager.nextNonce();
+            Pending write = new Pending(account, function, sentAtBlock, nonce, gasLimit, to, data, quote);
+            EthSendTransaction tx;
+            try {
+                RawTransaction raw = build(chainId, nonce, gasLimit, to, data, quote);
+                tx = metrics.timeRpc(function, "send", () -> transactionManager.signAndSend(raw));
+            } catch (SigningTransactionManager.SendOutcomeUnknownException e) {
+                // Watched like any sent write, so it can still be found or replaced.
+                pending.put(e.getTransactionHash(), write);
+                throw e;
+            } catch (TxHashMismatchException e) {
+                // The node accepted a transaction at this nonce, so it is not free again.
+                throw e;
+            } catch (Exception e) {
+                // Nothing was broadcast.
+                transactionManager.releaseNonce(nonce);
+                throw e;
+            }
+
+            if (tx.hasError()) {
+                // The transaction manager has already given back the nonce the node rejected.
+                throw new IllegalStateException(tx.getError().getMessage());
+            }
+
+            String hash = tx.getTransactionHash();
+            pending.put(hash, write);
+            return hash;
+        }));
+    }
+
+    /**
+     * Sends a zero-value transfer to the account itself at {@code nonce}, filling a gap that
+     * holds back the account's later transactions. Nothing is watched or replaced.
+     */
+    public String fillGap(SignerAccount account, long nonce) throws Exception {
+        String self = account.getAddress();
+        return await(account.submit(transactionManager -> {
+            FeeOracle.Quote quote = feeOracle.quote();
+            RawTransaction raw = build(chainIdFor(quote), BigInteger.valueOf(nonce), TRANSFER_GAS, self, "", quote);
+            EthSendTransaction tx = transactionManager.resend(raw);
+            if (tx.hasError()) {
+                throw new IllegalStateException(tx.getError().getMessage());
+            }
+            return tx.getTransactionHash();
+        }));
+    }
+
+    /** Ends every receipt wait, current and future, at its next poll with {@link WaitAbandonedException}. */
+    public void abandonWaits() {
+        abandoned = true;
+    }
+
+    /**
+     * Waits for any of {@code hashes} to be mined. Writes sent by this instance are replaced
+     * when stuck; hashes it did not send (e.g. after a restart) are only watched.
+     */
+    public TransactionReceipt awaitReceipt(List<String> hashes, Consumer<String> onReplaced) throws Exception {
+        List<String> watched = new ArrayList<>(hashes);
+        Pending write = hashes.stream().map(pending::get).filter(Objects::nonNull).findFirst().orElse(null);
+        long started = System.nanoTime();
+        long replaceAt = System.currentTimeMillis() + replaceAfterMs;
+        long deadline = System.currentTimeMillis() + pollIntervalMs * maxAttempts;
+        try {
+            while (true) {
+                long seenHeads = notifications.headCount();
+                for (String hash : watched) {
+                    Optional<TransactionReceipt> receipt =
+                            web3j.ethGetTransactionReceipt(hash).send().getTransactionReceipt();
+                    if (receipt.isPresent()) {
+                        record(write, receipt.get(), System.nanoTime() - started, watched.size() > hashes.size());
+                        return receipt.get();
+                    }
+                }
+                if (abandoned) {
+                    metrics.receiptWait(System.nanoTime() - started, "abandoned", watched.size() > hashes.size());
+                    String last = watched.get(watched.size() - 1);
+                    throw new WaitAbandonedException("Stopped waiting for transaction " + last, last);
+                }
+                if (write != null && System.currentTimeMillis() >= replaceAt) {
+                    String replacement = replace(write);
+                    if (replacement != null) {
+                        watched.add(replacement);
+                        onReplaced.accept(replacement);
+                    }
+                    replaceAt = System.currentTimeMillis() + replaceAfterMs;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                // A receipt can only appear with a new block; pushed heads end the wait early.
+                notifications.awaitHead(seenHeads, Math.min(pollIntervalMs, remaining));
+            }
+        } finally {
+            watched.forEach(pending::remove);
+        }
+        metrics.receiptWait(System.nanoTime() - started, "timeout", watched.size() > hashes.size());
+        String last = watched.get(watched.size() - 1);
+        throw new TransactionException(
+                "Transaction receipt was not generated after " + (pollIntervalMs * maxAttempts / 1000)
+                        + " seconds for transaction: " + last,
+                last);
+    }
+
+    private String replace(Pending write) {
+        try {
+            return await(write.account.submit(transactionManager -> {
+                FeeOracle.Quote bumped = feeOracle.capped(write.quote.bump(bumpPercent, feeOracle.quote()));
+                if (bumped == null) {
+                    log.warn("Not replacing nonce {} of {}: fee ceiling reached", write.nonce, write.account.getAddress());
+                    return null;
+                }
+                EthSendTransaction tx;
+                try {
+                    tx = transactionManager.resend(
+                            build(chainIdFor(bumped), write.nonce, write.gasLimit, write.to, write.data, bumped));
+                } catch (SigningTransactionManager.SendOutcomeUnknownException e) {
+                    // The replacement may be in the pool; watching its hash costs nothing if it is not.
+                    write.quote = bumped;
+                    pending.put(e.getTransactionHash(), write);
+                    return e.getTransactionHash();
+                }
+                if (tx.hasError()) {
+                    String message = String.valueOf(tx.getError().getMessage()).toLowerCase(Locale.ROOT);
+                    if (message.contains("nonce too low") || message.contains("already known")) {
+                        // An earlier version was mined or is already in the pool.
+                        return null;
+                    }
+                    throw new IllegalStateException(tx.getError().getMessage());
+                }
+                write.quote = bumped;
+                String hash = tx.getTransactionHash();
+                pending.put(hash, write);
+                log.info("Replaced stuck nonce {} of {} with {} at {} wei/gas",
+                        write.nonce, write.account.getAddress(), hash, bumped.ceiling());
+                return hash;
+            }));
+        } catch (Exception e) {
+            log.warn("Replacement of nonce {} of {} failed: {}", write.nonce, write.account.getAddress(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void record(Pending write, TransactionReceipt receipt, long waitedNanos, boolean replaced) {
+        metrics.receiptWait(waitedNanos, receipt.isStatusOK() ? "mined" : "failed", replaced);
+        if (write == null) {
+            return;
+        }
+        metrics.inclusionBlocks(write.function, receipt.getBlockNumber().subtract(write.sentAtBlock).longValue());
+        if (!receipt.isStatusOK()) {
+            metrics.revert(write.function, revertReason(write, receipt));
+        }
+    }
+
+    // Receipts rarely carry the reason, so replay the call against the parent block to read it.
+    private String revertReason(Pending write, TransactionReceipt receipt) {
+        if (receipt.getRevertReason() != null) {
+            return receipt.getRevertReason();
+        }
+        try {
+            EthCall replay = web3j.ethCall(
+                    Transaction.createEthCallTransaction(write.account.getAddress(), write.to, write.data),
+                    DefaultBlockParameter.valueOf(receipt.getBlockNumber().subtract(BigInteger.ONE))).send();
+            return replay.getRevertReason();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Legacy transactions take the chain id from the transaction manager when they are signed.
+    private long chainIdFor(FeeOracle.Quote quote) throws IOException {
+        return quote.isDynamic() ? feeOracle.chainId() : -1L;
+    }
+
+    private static RawTransaction build(
+            long chainId, BigInteger nonce, BigInteger gasLimit, String to, String data, FeeOracle.Quote quote) {
+        if (quote.isDynamic()) {
+            return RawTransaction.createTransaction(
+                    chainId,
+                    nonce,
+                    gasLimit,
+                    to,
+                    BigInteger.ZERO,
+                    data,
+                    quote.maxPriorityFeePerGas(),
+                    quote.maxFeePerGas());
+        }
+        return RawTransaction.createTransaction(nonce, quote.gasPrice(), gasLimit, to, BigInteger.ZERO, data);
+    }
+
+    private static String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static final class Pending {
+        private final SignerAccount account;
+        private final String function;
+        private final BigInteger sentAtBlock;
+        private final BigInteger nonce;
+        private final BigInteger gasLimit;
+        private final String to;
+        private final String data;
+        private volatile FeeOracle.Quote quote;
+
+        Pending(
+                SignerAccount account,
+                String function,
+                BigInteger sentAtBlock,
+                BigInteger nonce,
+                BigInteger gasLimit,
+                String to,
+                String data,
+                FeeOracle.Quote quote) {
+            this.account = account;
+            this.function = function;
+            this.sentAtBlock = sentAtBlock;
+            this.nonce = nonce;
+            this.gasLimit = gasLimit;
+            this.to = to;
+            this.data = data;
+            this.quote = quote;
+        }
+    }
+
+    /** The wait ended because the instance is shutting down; the transaction may still be mined. */
+    public static class WaitAbandonedException extends TransactionException {
+        public WaitAbandonedException(String message, String transactionHash) {
+            super(message, transactionHash);
+        }
+    }
+}
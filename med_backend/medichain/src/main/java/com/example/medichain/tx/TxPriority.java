@@ -0,0 +1,8 @@
+package com.example.medichain.tx;
+
+// Submission classes, most urgent first. A class is only served when every class above it is empty.
+public enum TxPriority {
+    TRANSFER,
+    REGISTRATION,
+    AUDIT_VERIFY
+}
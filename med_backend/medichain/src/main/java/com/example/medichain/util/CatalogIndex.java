@@ -0,0 +1,251 @@
+package com.example.medichain.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable search index over the medicine catalog.
+ *
+ * <p>Names, strengths and forms are split into lower-case terms kept in one sorted array, so a
+ * prefix is a binary search followed by a short scan. Each term has a postings array of
+ * {@code entry << 2 | field}. Typos are handled through trigram postings: terms sharing a
+ * trigram with the query are checked with a bounded edit distance, against the whole term and
+ * against its prefix so half-typed, misspelled names still match. Every query term must match
+ * an entry; entries are ranked by how well they matched, with name matches counting most.
+ */
+public final class CatalogIndex {
+
+    public record Entry(String id, String name, String strength, String form) {
+    }
+
+    public record Hit(Entry entry, double score) {
+    }
+
+    private static final int NAME = 0;
+    private static final int STRENGTH = 1;
+    private static final int FORM = 2;
+    private static final double[] FIELD_WEIGHT = {2.0, 1.0, 1.0};
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.8;
+    private static final double FUZZY = 0.6;
+    private static final double PER_EDIT = 0.15;
+
+    private final Entry[] entries;
+    private final String[] terms;
+    private final int[][] postings;
+    private final long[] trigramKeys;
+    private final int[][] trigramTerms;
+
+    private CatalogIndex(Entry[] entries, String[] terms, int[][] postings, long[] trigramKeys, int[][] trigramTerms) {
+        this.entries = entries;
+        this.terms = terms;
+        this.postings = postings;
+        this.trigramKeys = trigramKeys;
+        this.trigramTerms = trigramTerms;
+    }
+
+    public static CatalogIndex build(List<Entry> catalog) {
+        Entry[] entries = catalog.toArray(new Entry[0]);
+        TreeMap<String, List<Integer>> byTerm = new TreeMap<>();
+        for (int i = 0; i < entries.length; i++) {
+            addTerms(byTerm, entries[i].name(), i, NAME);
+            addTerms(byTerm, entries[i].strength(), i, STRENGTH);
+            addTerms(byTerm, entries[i].form(), i, FORM);
+        }
+
+        String[] terms = byTerm.keySet().toArray(new String[0]);
+        int[][] postings = new int[terms.length][];
+        TreeMap<Long, List<Integer>> byTrigram = new TreeMap<>();
+        for (int t = 0; t < terms.length; t++) {
+            postings[t] = byTerm.get(terms[t]).stream().distinct().mapToInt(Integer::intValue).toArray();
+            for (long trigram : trigrams(terms[t])) {
+                List<Integer> termIds = byTrigram.computeIfAbsent(trigram, k -> new ArrayList<>());
+                if (termIds.isEmpty() || termIds.get(termIds.size() - 1) != t) {
+                    termIds.add(t);
+                }
+            }
+        }
+
+        long[] trigramKeys = new long[byTrigram.size()];
+        int[][] trigramTerms = new int[byTrigram.size()][];
+        int k = 0;
+        for (Map.Entry<Long, List<Integer>> trigram : byTrigram.entrySet()) {
+            trigramKeys[k] = trigram.getKey();
+            trigramTerms[k++] = trigram.getValue().stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new CatalogIndex(entries, terms, postings, trigramKeys, trigramTerms);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public List<Entry> entries() {
+        return List.of(entries);
+    }
+
+    /** Entries matching every term of {@code query}, best first. */
+    public List<Hit> search(String query) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        // Work is proportional to the matched terms and their postings, not to the index size.
+        Map<Integer, Double> candidates = null;
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Double> best = new HashMap<>();
+            for (Map.Entry<Integer, Double> term : scoreTerms(queryTerm).entrySet()) {
+                for (int posting : postings[term.getKey()]) {
+                    int entry = posting >>> 2;
+                    if (candidates == null || candidates.containsKey(entry)) {
+                        best.merge(entry, term.getValue() * FIELD_WEIGHT[posting & 0x3], Math::max);
+                    }
+                }
+            }
+            if (candidates == null) {
+                candidates = best;
+            } else {
+                candidates.keySet().retainAll(best.keySet());
+                candidates.replaceAll((entry, total) -> total + best.get(entry));
+            }
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(candidates.size());
+        for (Map.Entry<Integer, Double> candidate : candidates.entrySet()) {
+            hits.add(new Hit(entries[candidate.getKey()], candidate.getValue()));
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparingInt(hit -> hit.entry().name().length())
+                .thenComparing(hit -> hit.entry().name()));
+        return hits;
+    }
+
+    // Score per matched term id: the prefix range, then trigram candidates within the edit bound.
+    private Map<Integer, Double> scoreTerms(String queryTerm) {
+        Map<Integer, Double> termScores = new HashMap<>();
+        for (int t = lowerBound(queryTerm); t < terms.length && terms[t].startsWith(queryTerm); t++) {
+            termScores.put(t, terms[t].length() == queryTerm.length() ? EXACT : PREFIX);
+        }
+
+        int maxEdits = queryTerm.length() < 3 ? 0 : queryTerm.length() < 6 ? 1 : 2;
+        if (maxEdits == 0) {
+            return termScores;
+        }
+        Set<Integer> checked = new HashSet<>();
+        for (long trigram : trigrams(queryTerm)) {
+            int k = Arrays.binarySearch(trigramKeys, trigram);
+            if (k < 0) {
+                continue;
+            }
+            for (int t : trigramTerms[k]) {
+                if (termScores.containsKey(t) || !checked.add(t)) {
+                    continue;
+                }
+                String term = terms[t];
+                int distance = Math.min(
+                        distance(queryTerm, term, maxEdits),
+                        distance(queryTerm, term.substring(0, Math.min(term.length(), queryTerm.length())), maxEdits));
+                if (distance <= maxEdits) {
+                    termScores.put(t, FUZZY - PER_EDIT * distance);
+                }
+            }
+        }
+        return termScores;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Optimal string alignment distance, or max + 1 once it is known to exceed max.
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static void addTerms(TreeMap<String, List<Integer>> byTerm, String text, int entry, int field) {
+        for (String term : tokenize(text)) {
+            byTerm.computeIfAbsent(term, k -> new ArrayList<>()).add(entry << 2 | field);
+        }
+    }
+
+    // Lower-case alphanumeric runs; "500mg" is also indexed as "500" and "mg".
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            tokens.add(token);
+            String[] parts = token.split("(?<=\\p{N})(?=\\p{L})|(?<=\\p{L})(?=\\p{N})");
+            if (parts.length > 1) {
+                tokens.addAll(Arrays.asList(parts));
+            }
+        }
+        return tokens;
+    }
+
+    // Trigrams of the term padded with a leading and trailing marker, three chars packed per key.
+    private static long[] trigrams(String term) {
+        String padded = "\u0001" + term + "\u0002";
+        long[] keys = new long[padded.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.medichain.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursors: clients only echo them back, the server decodes the last seen id.
+public final class CursorCodec {
+
+    private static final String PREFIX = "v1:";
+
+    private CursorCodec() {}
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.medichain.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact time-bucketed index of batch shelf-life deadlines.
+ *
+ * <p>Each tracked batch gets an int handle; its 32-byte id, expiry and next deadline live in
+ * flat primitive arrays, and an open-addressing table maps ids to handles. Deadlines are
+ * grouped into fixed-width buckets of handles, so draining what is due only touches the
+ * buckets whose time has come. A batch sits in exactly one live bucket at a time: first at
+ * its near-expiry warning, then at its expiry. Re-tracking a batch leaves its old entry
+ * behind, which is skipped lazily because it no longer matches the batch's current deadline.
+ */
+public final class ExpiryIndex {
+
+    public enum Stage {
+        NEAR_EXPIRY,
+        EXPIRED,
+        DONE
+    }
+
+    public record Due(byte[] batchId, long expiresAt, Stage stage) {
+    }
+
+    private static final int ID_BYTES = 32;
+
+    private final long bucketSeconds;
+    private final long warningSeconds;
+    private final TreeMap<Long, IntBag> buckets = new TreeMap<>();
+
+    private byte[] ids = new byte[16 * ID_BYTES];
+    private long[] expiresAt = new long[16];
+    private long[] nextDeadline = new long[16];
+    private byte[] stages = new byte[16];
+    private int size;
+
+    // Open-addressing table of handle + 1; 0 marks an empty slot.
+    private int[] slots = new int[32];
+
+    public ExpiryIndex(long bucketSeconds, long warningSeconds) {
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        this.bucketSeconds = bucketSeconds;
+        this.warningSeconds = Math.max(0L, warningSeconds);
+    }
+
+    /**
+     * Tracks or re-tracks a batch. {@code stage} is the next notification still owed,
+     * which lets a restart resume without repeating notifications already sent.
+     */
+    public synchronized void track(byte[] batchId, long expiry, Stage stage) {
+        if (batchId.length != ID_BYTES) {
+            throw new IllegalArgumentException("Batch id must be 32 bytes");
+        }
+        int handle = handleOf(batchId);
+        if (handle < 0) {
+            handle = insert(batchId);
+        }
+        expiresAt[handle] = expiry;
+        schedule(handle, stage);
+    }
+
+    /** Removes and returns every notification due at {@code now}, in deadline order. */
+    public synchronized List<Due> drainDue(long now) {
+        List<Due> due = new ArrayList<>();
+        long lastBucket = bucketOf(now);
+        // Handles in the current bucket whose deadline is later than now go back once drained.
+        IntBag notYetDue = new IntBag();
+        while (!buckets.isEmpty() && buckets.firstKey() <= lastBucket) {
+            Map.Entry<Long, IntBag> entry = buckets.pollFirstEntry();
+            long bucket = entry.getKey();
+            IntBag bag = entry.getValue();
+            for (int i = 0; i < bag.size; i++) {
+                int handle = bag.values[i];
+                if (!isLiveIn(handle, bucket)) {
+                    continue;
+                }
+                if (nextDeadline[handle] > now) {
+                    notYetDue.add(handle);
+                    continue;
+                }
+                Stage stage = Stage.values()[stages[handle]];
+                due.add(new Due(idOf(handle), expiresAt[handle], stage));
+                schedule(handle, stage == Stage.NEAR_EXPIRY ? Stage.EXPIRED : Stage.DONE);
+            }
+        }
+        if (notYetDue.size > 0) {
+            buckets.put(lastBucket, notYetDue);
+        }
+        due.sort(Comparator.comparingLong(Due::expiresAt));
+        return due;
+    }
+
+    /** Batches whose expiry falls in [from, to], soonest first, still owing a notification. */
+    public synchronized List<Due> expiringBetween(long from, long to, int limit) {
+        List<Due> result = new ArrayList<>();
+        BitSet seen = new BitSet(size);
+        for (Map.Entry<Long, IntBag> entry : buckets.headMap(bucketOf(to), true).entrySet()) {
+            IntBag bag = entry.getValue();
+            for (int i = 0; i < bag.size; i++) {
+                int handle = bag.values[i];
+                if (seen.get(handle) || !isLiveIn(handle, entry.getKey())) {
+                    continue;
+                }
+                seen.set(handle);
+                long expiry = expiresAt[handle];
+                if (expiry >= from && expiry <= to) {
+                    result.add(new Due(idOf(handle), expiry, Stage.values()[stages[handle]]));
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(Due::expiresAt));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void schedule(int handle, Stage stage) {
+        stages[handle] = (byte) stage.ordinal();
+        if (stage == Stage.DONE) {
+            return;
+        }
+        long deadline = stage == Stage.NEAR_EXPIRY
+                ? expiresAt[handle] - warningSeconds
+                : expiresAt[handle];
+        nextDeadline[handle] = deadline;
+        buckets.computeIfAbsent(bucketOf(deadline), key -> new IntBag()).add(handle);
+    }
+
+    private boolean isLiveIn(int handle, long bucket) {
+        return stages[handle] != Stage.DONE.ordinal() && bucketOf(nextDeadline[handle]) == bucket;
+    }
+
+    private long bucketOf(long timestamp) {
+        return Math.floorDiv(timestamp, bucketSeconds);
+    }
+
+    private byte[] idOf(int handle) {
+        return Arrays.copyOfRange(ids, handle * ID_BYTES, (handle + 1) * ID_BYTES);
+    }
+
+    private int handleOf(byte[] batchId) {
+        int mask = slots.length - 1;
+        for (int slot = hash(batchId) & mask; ; slot = (slot + 1) & mask) {
+            int stored = slots[slot];
+            if (stored == 0) {
+                return -1;
+            }
+            if (Arrays.equals(ids, (stored - 1) * ID_BYTES, stored * ID_BYTES, batchId, 0, ID_BYTES)) {
+                return stored - 1;
+            }
+        }
+    }
+
+    private int insert(byte[] batchId) {
+        if (size == expiresAt.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity * ID_BYTES);
+            expiresAt = Arrays.copyOf(expiresAt, capacity);
+            nextDeadline = Arrays.copyOf(nextDeadline, capacity);
+            stages = Arrays.copyOf(stages, capacity);
+        }
+        int handle = size++;
+        System.arraycopy(batchId, 0, ids, handle * ID_BYTES, ID_BYTES);
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            place(handle);
+        }
+        return handle;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int handle = 0; handle < size; handle++) {
+            place(handle);
+        }
+    }
+
+    private void place(int handle) {
+        int mask = slots.length - 1;
+        int slot = hash(ids, handle * ID_BYTES) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = handle + 1;
+    }
+
+    private static int hash(byte[] batchId) {
+        return hash(batchId, 0);
+    }
+
+    // Batch ids are hashes or random, so a few leading bytes spread well enough.
+    private static int hash(byte[] bytes, int offset) {
+        int h = 0;
+        for (int i = 0; i < 8; i++) {
+            h = 31 * h + bytes[offset + i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static final class IntBag {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.medichain.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token bucket per key, refilled continuously at {@code permits} per {@code period}. The number of
+ * tracked keys is bounded: past the bound the least recently used key's bucket is dropped,
+ * so every key is always limited and the map never grows without limit.
+ */
+public final class KeyedRateLimiter {
+
+    private final double capacity;
+    private final double permitsPerNano;
+    // Access-ordered; guarded by itself.
+    private final Map<String, Bucket> buckets;
+
+    public KeyedRateLimiter(int permitsPerMinute, int maxKeys) {
+        this(permitsPerMinute, Duration.ofMinutes(1), maxKeys);
+    }
+
+    public KeyedRateLimiter(long permits, Duration period, int maxKeys) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("Rate must be at least one permit per " + period);
+        }
+        this.capacity = permits;
+        this.permitsPerNano = (double) permits / period.toNanos();
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    // Takes all of permits or none of them, e.g. a request's size in bytes.
+    public boolean tryAcquire(String key, long permits) {
+        long now = System.nanoTime();
+        synchronized (buckets) {
+            return buckets.computeIfAbsent(key, k -> new Bucket(capacity, now)).tryTake(now, permits);
+        }
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        boolean tryTake(long now, long permits) {
+            refill(now);
+            if (tokens < permits) {
+                return false;
+            }
+            tokens -= permits;
+            return true;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * permitsPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.medichain.util;
+
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Sliding-window state of recent verification scans per batch, for spotting cloned QR codes.
+ *
+ * <p>State lives in fixed-size primitive arrays allocated up front: a 4-way set-associative
+ * table of batch keys, each slot holding a ring of its last {@link #DEPTH} scans (time and
+ * position as floats) and a count of scans after the batch was sold. A new batch that lands
+ * in a full set takes the slot seen least recently, so memory stays bounded whatever the scan
+ * volume and only batches idle for longest lose their history. Not thread-safe; callers
+ * synchronize.
+ */
+public final class ScanAnomalyDetector {
+
+    public enum Anomaly {
+        // More scans inside the window than one legitimate pack sees.
+        SCAN_BURST,
+        // Two scans further apart than anyone could have travelled in between.
+        IMPOSSIBLE_TRAVEL,
+        // Scans inside the window spread over a wider area than one distribution route.
+        GEO_SPREAD,
+        // Scanned again and again after the batch was sold to a patient.
+        SCANNED_AFTER_SALE
+    }
+
+    public static final int DEPTH = 16;
+
+    private static final int WAYS = 4;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    // Position noise below this never counts as travel.
+    private static final double MIN_TRAVEL_KM = 25.0;
+
+    private final int sets;
+    private final long windowSeconds;
+    private final int maxScans;
+    private final double maxSpeedKmh;
+    private final double maxSpreadKm;
+    private final int maxScansAfterSale;
+
+    private final long[] keys;
+    private final long[] lastSeen;
+    private final byte[] heads;
+    private final byte[] sizes;
+    private final int[] afterSale;
+    private final long[] times;
+    private final float[] latitudes;
+    private final float[] longitudes;
+    private long evictions;
+
+    public ScanAnomalyDetector(
+            int capacity, long windowSeconds, int maxScans, double maxSpeedKmh, double maxSpreadKm,
+            int maxScansAfterSale) {
+        if (maxScans >= DEPTH) {
+            throw new IllegalArgumentException("maxScans must be below " + DEPTH);
+        }
+        this.sets = Math.max(1, capacity / WAYS);
+        this.windowSeconds = windowSeconds;
+        this.maxScans = maxScans;
+        this.maxSpeedKmh = maxSpeedKmh;
+        this.maxSpreadKm = maxSpreadKm;
+        this.maxScansAfterSale = maxScansAfterSale;
+        int slots = sets * WAYS;
+        this.keys = new long[slots];
+        this.lastSeen = new long[slots];
+        this.heads = new byte[slots];
+        this.sizes = new byte[slots];
+        this.afterSale = new int[slots];
+        this.times = new long[slots * DEPTH];
+        this.latitudes = new float[slots * DEPTH];
+        this.longitudes = new float[slots * DEPTH];
+    }
+
+    /**
+     * Records a scan at {@code epochSecond} and returns what looks wrong about it. Latitude and
+     * longitude are NaN when the scanner sent no position.
+     */
+    public Set<Anomaly> scan(long key, long epochSecond, double latitude, double longitude, boolean sold) {
+        int slot = slot(key, epochSecond);
+        int base = slot * DEPTH;
+        Set<Anomaly> anomalies = EnumSet.noneOf(Anomaly.class);
+
+        int inWindow = 1;
+        double spread = 0.0;
+        boolean located = !Double.isNaN(latitude) && !Double.isNaN(longitude);
+        for (int i = 0; i < sizes[slot]; i++) {
+            int entry = base + i;
+            long age = epochSecond - times[entry];
+            if (age > windowSeconds) {
+                continue;
+            }
+            inWindow++;
+            if (!located || Float.isNaN(latitudes[entry])) {
+                continue;
+            }
+            double km = distanceKm(latitude, longitude, latitudes[entry], longitudes[entry]);
+            spread = Math.max(spread, km);
+            if (km > MIN_TRAVEL_KM && km / (Math.max(age, 1L) / 3600.0) > maxSpeedKmh) {
+                anomalies.add(Anomaly.IMPOSSIBLE_TRAVEL);
+            }
+        }
+        if (inWindow > maxScans) {
+            anomalies.add(Anomaly.SCAN_BURST);
+        }
+        if (spread > maxSpreadKm) {
+            anomalies.add(Anomaly.GEO_SPREAD);
+        }
+        if (sold && ++afterSale[slot] > maxScansAfterSale) {
+            anomalies.add(Anomaly.SCANNED_AFTER_SALE);
+        }
+
+        int head = heads[slot];
+        times[base + head] = epochSecond;
+        latitudes[base + head] = located ? (float) latitude : Float.NaN;
+        longitudes[base + head] = located ? (float) longitude : Float.NaN;
+        heads[slot] = (byte) ((head + 1) % DEPTH);
+        if (sizes[slot] < DEPTH) {
+            sizes[slot]++;
+        }
+        return anomalies;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Batches dropped to make room for new ones since the detector was created. */
+    public long evictions() {
+        return evictions;
+    }
+
+    /** A well-mixed, non-zero 64-bit key for a 32-byte batch id. */
+    public static long key(byte[] batchId) {
+        ByteBuffer buffer = ByteBuffer.wrap(batchId);
+        long hash = 0x9E3779B97F4A7C15L;
+        while (buffer.remaining() >= Long.BYTES) {
+            hash = mix(hash ^ buffer.getLong());
+        }
+        while (buffer.hasRemaining()) {
+            hash = mix(hash ^ buffer.get());
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // Slot already holding key, else an empty one in its set, else the set's least recently seen.
+    private int slot(long key, long epochSecond) {
+        int first = (int) Long.remainderUnsigned(key, sets) * WAYS;
+        int victim = first;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            if (keys[slot] == key) {
+                lastSeen[slot] = epochSecond;
+                return slot;
+            }
+            if (keys[slot] == 0) {
+                victim = slot;
+                break;
+            }
+            if (lastSeen[slot] < lastSeen[victim]) {
+                victim = slot;
+            }
+        }
+        if (keys[victim] != 0) {
+            evictions++;
+        }
+        keys[victim] = key;
+        lastSeen[victim] = epochSecond;
+        heads[victim] = 0;
+        sizes[victim] = 0;
+        afterSale[victim] = 0;
+        return victim;
+    }
+
+    // Finalizer of MurmurHash3.
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
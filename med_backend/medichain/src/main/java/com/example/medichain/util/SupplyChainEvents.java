@@ -0,0 +1,39 @@
+package com.example.medichain.util;
+
+import java.util.List;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.generated.Bytes32;
+
+public final class SupplyChainEvents {
+
+    public static final Event BATCH_CREATED = new Event(
+            "BatchCreated",
+            List.of(
+                    new TypeReference<Bytes32>(true) {},
+                    new TypeReference<Address>(true) {},
+                    new TypeReference<Bytes32>() {}));
+
+    public static final Event OWNERSHIP_TRANSFERRED = new Event(
+            "OwnershipTransferred",
+            List.of(
+                    new TypeReference<Bytes32>(true) {},
+                    new TypeReference<Address>(true) {},
+                    new TypeReference<Address>(true) {}));
+
+    public static final Event BATCH_VERIFIED = new Event(
+            "BatchVerified",
+            List.of(
+                    new TypeReference<Bytes32>(true) {},
+                    new TypeReference<Address>(true) {},
+                    new TypeReference<Bool>() {}));
+
+    public static final String BATCH_CREATED_TOPIC = EventEncoder.encode(BATCH_CREATED);
+    public static final String OWNERSHIP_TRANSFERRED_TOPIC = EventEncoder.encode(OWNERSHIP_TRANSFERRED);
+    public static final String BATCH_VERIFIED_TOPIC = EventEncoder.encode(BATCH_VERIFIED);
+
+    private SupplyChainEvents() {}
+}
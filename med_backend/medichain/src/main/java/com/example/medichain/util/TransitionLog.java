@@ -0,0 +1,114 @@
+package com.example.medichain.util;
+
+import com.example.medichain.model.BatchState;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ownership and state transitions of every batch, in chain order, for point-in-time lookups.
+ *
+ * <p>Each batch keeps parallel primitive arrays of block numbers, timestamps, owner ids and
+ * states; owners are interned once into a shared table. A lookup is a binary search over the
+ * block or timestamp array of one batch. Not thread-safe; callers synchronize.
+ */
+public final class TransitionLog {
+
+    public record Transition(long block, long timestamp, String owner, BatchState state) {
+    }
+
+    private static final BatchState[] STATES = BatchState.values();
+
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final Map<String, Integer> ownerIds = new HashMap<>();
+    private final List<String> owners = new ArrayList<>();
+
+    public void created(String batchId, long block, long timestamp, String owner) {
+        Batch batch = new Batch();
+        batch.add(block, timestamp, intern(owner), BatchState.CREATED);
+        batches.put(batchId, batch);
+    }
+
+    /**
+     * Records a transfer with the state the contract gave the batch, as the indexer derived it
+     * from the sender's role; a null state keeps the previous one. Transfers of batches created
+     * before the log started are ignored.
+     */
+    public void transferred(String batchId, long block, long timestamp, String owner, BatchState state) {
+        Batch batch = batches.get(batchId);
+        if (batch != null) {
+            batch.add(block, timestamp, intern(owner), state == null ? STATES[batch.states[batch.size - 1]] : state);
+        }
+    }
+
+    /** Latest transition at or before {@code block}; null if the batch did not exist yet or is unknown. */
+    public Transition atBlock(String batchId, long block) {
+        Batch batch = batches.get(batchId);
+        return batch == null ? null : batch.transition(floor(batch.blocks, batch.size, block));
+    }
+
+    /** Latest transition at or before {@code timestamp}, in block time seconds. */
+    public Transition atTimestamp(String batchId, long timestamp) {
+        Batch batch = batches.get(batchId);
+        return batch == null ? null : batch.transition(floor(batch.timestamps, batch.size, timestamp));
+    }
+
+    public int size() {
+        return batches.size();
+    }
+
+    private int intern(String owner) {
+        return ownerIds.computeIfAbsent(owner, key -> {
+            owners.add(key);
+            return owners.size() - 1;
+        });
+    }
+
+    // Index of the last element <= key, or -1.
+    private static int floor(long[] values, int size, long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private final class Batch {
+        // Most batches see creation plus three transfers.
+        private long[] blocks = new long[4];
+        private long[] timestamps = new long[4];
+        private int[] ownerIndexes = new int[4];
+        private byte[] states = new byte[4];
+        private int size;
+
+        void add(long block, long timestamp, int owner, BatchState state) {
+            if (size == blocks.length) {
+                int capacity = size * 2;
+                blocks = Arrays.copyOf(blocks, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                ownerIndexes = Arrays.copyOf(ownerIndexes, capacity);
+                states = Arrays.copyOf(states, capacity);
+            }
+            blocks[size] = block;
+            timestamps[size] = timestamp;
+            ownerIndexes[size] = owner;
+            states[size] = (byte) state.ordinal();
+            size++;
+        }
+
+        Transition transition(int index) {
+            if (index < 0) {
+                return null;
+            }
+            return new Transition(blocks[index], timestamps[index], owners.get(ownerIndexes[index]), STATES[states[index]]);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.medichain.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.medichain.dto.BatchResponse;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+import org.web3j.utils.Numeric;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+class CompactWireModuleTest {
+
+    private static final String BATCH_ID = "0x" + "ab".repeat(32);
+
+    private final CBORMapper cbor = CBORMapper.builder().addModule(new CompactWireModule()).build();
+
+    @Test
+    void batchIsEncodedWithRawIdsAndIntegerTimestamps() {
+        BatchResponse batch = new BatchResponse(
+                BATCH_ID, "0x" + "12".repeat(20), BigInteger.valueOf(1_760_000_000L), "0x" + "cd".repeat(32), "SOLD");
+
+        byte[] encoded = cbor.writeValueAsBytes(batch);
+        JsonNode decoded = cbor.readTree(encoded);
+
+        assertArrayEquals(Numeric.hexStringToByteArray(BATCH_ID), decoded.get("batchId").binaryValue());
+        assertEquals(1_760_000_000L, decoded.get("createdAt").longValue());
+        assertEquals("SOLD", decoded.get("state").stringValue());
+        // Hex strings and quoted numbers are what made the JSON heavy.
+        int json = JsonMapper.builder().build().writeValueAsBytes(batch).length;
+        assertTrue(encoded.length * 10 < json * 6, encoded.length + " bytes of CBOR vs " + json + " of JSON");
+    }
+}
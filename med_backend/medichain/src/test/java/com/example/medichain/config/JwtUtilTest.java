@@ -0,0 +1,31 @@
+package com.example.medichain.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(new MedichainProperties());
+
+    @Test
+    void verifiedTokenCarriesIdentityAndRole() {
+        String token = jwtUtil.generateToken("alice", "PHARMACY");
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token).orElseThrow();
+        JwtUtil.VerifiedToken cached = jwtUtil.verify(token).orElseThrow();
+
+        assertEquals("alice", first.username());
+        assertEquals("PHARMACY", first.role());
+        assertEquals(first, cached);
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken("alice", "PHARMACY");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertTrue(jwtUtil.verify(tampered).isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.medichain.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.websocket.WebSocketService;
+
+class ReconnectingWebSocketServiceTest {
+
+    private static final String URL = "ws://localhost:8546";
+
+    private final List<WebSocketService> opened = new CopyOnWriteArrayList<>();
+    private final List<Long> attemptsAtNanos = new CopyOnWriteArrayList<>();
+    private ReconnectingWebSocketService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void failedConnectsBackOffExponentiallyUpToTheCap() throws Exception {
+        AtomicInteger failuresLeft = new AtomicInteger(4);
+        service = new ReconnectingWebSocketService(URL, 20, 80, uri -> socket(failuresLeft.getAndDecrement() > 0));
+
+        await(service::isConnected);
+
+        assertEquals(5, attemptsAtNanos.size());
+        long[] expectedMs = {20, 40, 80, 80};
+        for (int i = 0; i < expectedMs.length; i++) {
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(attemptsAtNanos.get(i + 1) - attemptsAtNanos.get(i));
+            assertTrue(waitedMs >= expectedMs[i], "attempt " + (i + 2) + " came after " + waitedMs + " ms");
+        }
+    }
+
+    @Test
+    void requestsFailFastWhileDown() {
+        service = new ReconnectingWebSocketService(URL, 10_000, 10_000, uri -> socket(true));
+        Request<?, EthBlockNumber> request = new Request<>("eth_blockNumber", List.of(), service, EthBlockNumber.class);
+
+        assertThrows(IOException.class, () -> service.send(request, EthBlockNumber.class));
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> service.sendAsync(request, EthBlockNumber.class).get());
+        assertTrue(e.getCause() instanceof IOException);
+        assertFalse(service.isConnected());
+    }
+
+    @Test
+    void droppedSocketIsReopenedAndListenersRunAgain() throws Exception {
+        service = new ReconnectingWebSocketService(URL, 10, 1_000, uri -> socket(false));
+        AtomicInteger connects = new AtomicInteger();
+        service.onConnected(connects::incrementAndGet);
+        await(() -> connects.get() == 1);
+
+        onClose(opened.get(0)).run();
+        await(() -> connects.get() == 2);
+
+        assertTrue(service.isConnected());
+        assertEquals(2, opened.size());
+        Request<?, EthBlockNumber> request = new Request<>("eth_blockNumber", List.of(), service, EthBlockNumber.class);
+        service.send(request, EthBlockNumber.class);
+        verify(opened.get(1)).send(request, EthBlockNumber.class);
+    }
+
+    @Test
+    void lateCloseOfAReplacedSocketIsIgnored() throws Exception {
+        service = new ReconnectingWebSocketService(URL, 10, 1_000, uri -> socket(false));
+        await(service::isConnected);
+        Runnable firstClosed = onClose(opened.get(0));
+        firstClosed.run();
+        await(() -> opened.size() == 2 && service.isConnected());
+
+        firstClosed.run();
+        Thread.sleep(50);
+
+        assertTrue(service.isConnected());
+        assertEquals(2, opened.size());
+    }
+
+    private WebSocketService socket(boolean refuse) {
+        attemptsAtNanos.add(System.nanoTime());
+        WebSocketService socket = mock(WebSocketService.class);
+        if (refuse) {
+            try {
+                doThrow(new ConnectException("Connection refused")).when(socket).connect(any(), any(), any());
+            } catch (ConnectException e) {
+                throw new AssertionError(e);
+            }
+        } else {
+            opened.add(socket);
+        }
+        return socket;
+    }
+
+    private static Runnable onClose(WebSocketService socket) throws ConnectException {
+        ArgumentCaptor<Runnable> onClose = ArgumentCaptor.forClass(Runnable.class);
+        verify(socket).connect(any(), any(), onClose.capture());
+        return onClose.getValue();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Timed out waiting for the socket");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.medichain.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.BatchResponse;
+import com.example.medichain.dto.OwnershipRecordResponse;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.service.BatchChangeIndex;
+import com.example.medichain.service.SupplyChainEventIndexer;
+import com.example.medichain.service.SupplyChainService;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+class SupplyChainControllerTest {
+
+    private static final String BATCH = "0x" + "01".repeat(32);
+    private static final String OWNER = "0x00000000000000000000000000000000000000aa";
+
+    private final AtomicInteger nodeReads = new AtomicInteger();
+    private final BatchChangeIndex changeIndex = new BatchChangeIndex();
+    private final SupplyChainEventIndexer eventIndexer = mock(SupplyChainEventIndexer.class);
+    private SupplyChainController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Only the node read is stubbed; a 304 must not reach it.
+        SupplyChainService supplyChainService = new SupplyChainService(null, null, null, null, null) {
+            @Override
+            public BatchResponse getBatch(byte[] batchId) {
+                nodeReads.incrementAndGet();
+                return new BatchResponse(BATCH, OWNER, BigInteger.ONE, BATCH, "CREATED");
+            }
+
+            @Override
+            public OwnershipRecordResponse getOwnershipRecord(byte[] batchId, BigInteger index) {
+                return new OwnershipRecordResponse(OWNER, BigInteger.ONE, BigInteger.valueOf(1_000));
+            }
+        };
+        controller = new SupplyChainController(supplyChainService, null, null, changeIndex, null, null, null, null,
+                eventIndexer, new ContentNegotiationManager(), new MedichainProperties());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        changeIndex.fold(event(1, SupplyChainEvent.Type.BATCH_CREATED));
+        changeIndex.replayed();
+    }
+
+    @Test
+    void unchangedBatchAnswersNotModifiedWithoutReadingTheNode() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/api/supply-chain/batches/" + BATCH))
+                .andReturn().getResponse();
+        assertEquals(200, first.getStatus());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse repeat = mockMvc.perform(get("/api/supply-chain/batches/" + BATCH)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+
+        assertEquals(304, repeat.getStatus());
+        assertEquals(etag, repeat.getHeader(HttpHeaders.ETAG));
+        assertEquals(1, nodeReads.get());
+    }
+
+    @Test
+    void transferChangesTheTag() throws Exception {
+        String before = mockMvc.perform(get("/api/supply-chain/batches/" + BATCH))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        changeIndex.fold(event(2, SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED));
+        MockHttpServletResponse after = mockMvc.perform(get("/api/supply-chain/batches/" + BATCH)
+                .header(HttpHeaders.IF_NONE_MATCH, before)).andReturn().getResponse();
+
+        assertEquals(200, after.getStatus());
+        assertNotEquals(before, after.getHeader(HttpHeaders.ETAG));
+        assertEquals(2, nodeReads.get());
+    }
+
+    @Test
+    void idempotentWriteWithoutATokenIsUnauthorized() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/api/supply-chain/batches/transfer")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"batchId\":\"" + BATCH + "\",\"to\":\"" + OWNER + "\"}"))
+                .andReturn().getResponse();
+
+        assertEquals(401, response.getStatus());
+    }
+
+    @Test
+    void transactionListingWithoutATokenIsUnauthorized() throws Exception {
+        int status = mockMvc.perform(get("/api/supply-chain/transactions")).andReturn().getResponse().getStatus();
+
+        assertEquals(401, status);
+    }
+
+    @Test
+    void jsonAndCborGetDifferentTagsForOneVersion() {
+        String version = "W/\"7.2\"";
+
+        assertEquals(version, controller.representationTag(version, accepting(null)));
+        assertEquals(version, controller.representationTag(version, accepting("*/*")));
+        assertEquals("W/\"7.2-cbor\"", controller.representationTag(version, accepting("application/cbor")));
+        assertEquals("W/\"7.2-cbor\"",
+                controller.representationTag(version, accepting("application/json;q=0.5, application/cbor")));
+        assertEquals(version, controller.representationTag(version, accepting("application/cbor;q=0.2, */*")));
+        assertEquals(version, controller.representationTag(version, accepting("not a media type")));
+    }
+
+    @Test
+    void historyRecordIsImmutableOnlyOnceFinal() throws Exception {
+        int finality = new MedichainProperties().getCaching().getImmutableAfterBlocks();
+
+        when(eventIndexer.depthOf(1)).thenReturn((long) finality - 1);
+        String recent = mockMvc.perform(get("/api/supply-chain/batches/" + BATCH + "/history/0"))
+                .andReturn().getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+        when(eventIndexer.depthOf(1)).thenReturn((long) finality);
+        String settled = mockMvc.perform(get("/api/supply-chain/batches/" + BATCH + "/history/0"))
+                .andReturn().getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+
+        assertEquals("no-cache", recent);
+        assertTrue(settled.contains("immutable"), settled);
+    }
+
+    private static ServletWebRequest accepting(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (accept != null) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+        return new ServletWebRequest(request);
+    }
+
+    private static SupplyChainEvent event(long block, SupplyChainEvent.Type type) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setId(block);
+        event.setEventType(type);
+        event.setBatchId(BATCH);
+        event.setBlockNumber(block);
+        event.setLogIndex(0);
+        event.setBlockTimestamp(1_000 * block);
+        return event;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.medichain.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.example.medichain.config.JwtUtil;
+import com.example.medichain.model.User;
+import com.example.medichain.service.LoginService;
+import com.example.medichain.service.UserDirectory;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+
+    private static final String SIGN_UP = """
+            {"username":"mallory","firstName":"Mal","lastName":"Lory","mailId":"mal@example.com",
+             "phone":"555","dob":"1990-01-01","password":"pw","confirmPassword":"pw",
+             "role":"ADMIN","walletAddress":"0x00000000000000000000000000000000000000aa"}
+            """;
+
+    @Mock
+    private UserDirectory userDirectory;
+    @Mock
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private JwtUtil jwtUtil;
+    @Mock
+    private LoginService loginService;
+    @InjectMocks
+    private UserController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(userDirectory.findByUsername("mallory")).thenReturn(Optional.empty());
+        when(userDirectory.findByMailId("mal@example.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+    }
+
+    @Test
+    void signUpCannotChooseItsRoleOrWallet() throws Exception {
+        when(userDirectory.save(any(User.class))).thenAnswer(call -> {
+            User user = call.getArgument(0);
+            user.setId(1L);
+            return user;
+        });
+
+        int status = mockMvc.perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(SIGN_UP))
+                .andReturn().getResponse().getStatus();
+
+        assertEquals(201, status);
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userDirectory).save(saved.capture());
+        assertEquals(User.UserRole.END_USER, saved.getValue().getRole());
+        assertNull(saved.getValue().getWalletAddress());
+        assertEquals("hash", saved.getValue().getPassword());
+    }
+
+    @Test
+    void concurrentDuplicateSignUpIsABadRequest() throws Exception {
+        when(userDirectory.save(any(User.class))).thenThrow(new DataIntegrityViolationException("users_username_key"));
+
+        int status = mockMvc.perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(SIGN_UP))
+                .andReturn().getResponse().getStatus();
+
+        assertEquals(400, status);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.medichain.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+
+class ChainMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ChainMetrics metrics = new ChainMetrics(registry);
+
+    @Test
+    void rpcIsTimedByFunctionKindAndOutcome() throws Exception {
+        assertEquals("0x1", metrics.timeRpc("getBatch", "call", () -> "0x1"));
+        assertThrows(IOException.class, () -> metrics.timeRpc("getBatch", "call", () -> {
+            throw new IOException("connection reset");
+        }));
+
+        assertEquals(1, registry.get("medichain.rpc.calls")
+                .tags("function", "getBatch", "kind", "call", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("medichain.rpc.calls")
+                .tags("function", "getBatch", "kind", "call", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void revertReasonsAreTaggedAndCutShort() {
+        metrics.revert("transferBatch", "Only owner can transfer");
+        metrics.revert("transferBatch", null);
+        metrics.revert("transferBatch", "x".repeat(200));
+
+        assertEquals(1.0, registry.get("medichain.tx.reverts").tag("reason", "Only owner can transfer").counter().count());
+        assertEquals(1.0, registry.get("medichain.tx.reverts").tag("reason", "unknown").counter().count());
+        assertEquals(1.0, registry.get("medichain.tx.reverts").tag("reason", "x".repeat(64)).counter().count());
+    }
+
+    @Test
+    void receiptWaitsAndInclusionAreRecorded() {
+        metrics.receiptWait(2_000_000, "mined", true);
+        metrics.inclusionBlocks("createBatch", 3);
+        metrics.inclusionBlocks("createBatch", -1);
+
+        assertEquals(1, registry.get("medichain.tx.receipt.wait")
+                .tags("outcome", "mined", "replaced", "true").timer().count());
+        assertEquals(3.0, registry.get("medichain.tx.inclusion.blocks").summary().totalAmount());
+        assertEquals(2, registry.get("medichain.tx.inclusion.blocks").summary().count());
+    }
+
+    @Test
+    void gasIsRecordedOnlyWhenKnown() {
+        metrics.gasUsed("createBatch", "MINED", null);
+        assertNull(registry.find("medichain.tx.gas.used").summary());
+
+        metrics.gasUsed("createBatch", "MINED", BigInteger.valueOf(21_000));
+        assertEquals(21_000.0, registry.get("medichain.tx.gas.used")
+                .tags("operation", "createBatch", "status", "MINED").summary().totalAmount());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.medichain.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.repository.ChainTransactionRepository;
+import com.example.medichain.service.ListingService;
+import com.example.medichain.service.SupplyChainService;
+import com.example.medichain.service.UserDirectory;
+import com.example.medichain.service.WarmupService;
+import com.example.medichain.tx.FeeOracle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.web3j.protocol.Web3j;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+class WarmupHealthIndicatorTest {
+
+    private final ChainTransactionRepository transactionRepository = mock(ChainTransactionRepository.class);
+    private final UserDirectory userDirectory = mock(UserDirectory.class);
+    private final MedichainProperties properties = new MedichainProperties();
+
+    @Test
+    void readinessStaysOutOfServiceUntilTheWarmUpHasRun() {
+        properties.getWarmup().setIterations(1);
+        when(transactionRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                submittedBy("alice"), submittedBy("bob"), submittedBy("alice"), submittedBy(null))));
+        WarmupService warmup = warmupService();
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator(warmup);
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        // The unstubbed node fails the RPC step; warm-up is best effort and still finishes.
+        warmup.warmUp();
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        verify(userDirectory).findByUsername("alice");
+        verify(userDirectory).findByUsername("bob");
+    }
+
+    @Test
+    void disabledWarmUpIsReadyAtOnce() {
+        properties.getWarmup().setEnabled(false);
+        WarmupService warmup = warmupService();
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator(warmup);
+
+        warmup.warmUp();
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        verify(transactionRepository, never()).findAll(any(Pageable.class));
+    }
+
+    private WarmupService warmupService() {
+        return new WarmupService(
+                mock(Web3j.class),
+                mock(SupplyChainService.class),
+                mock(FeeOracle.class),
+                mock(ListingService.class),
+                transactionRepository,
+                userDirectory,
+                new ObjectMapper(),
+                new CBORMapper(),
+                new SimpleMeterRegistry(),
+                properties);
+    }
+
+    private static ChainTransaction submittedBy(String username) {
+        ChainTransaction transaction = new ChainTransaction();
+        transaction.setSubmittedBy(username);
+        return transaction;
+    }
+}
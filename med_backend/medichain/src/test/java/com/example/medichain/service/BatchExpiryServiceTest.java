@@ -0,0 +1,143 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.JwtPrincipal;
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.ProductRequest;
+import com.example.medichain.event.BatchExpiryNotice;
+import com.example.medichain.model.BatchNotification;
+import com.example.medichain.model.BatchShelfLife;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.model.User;
+import com.example.medichain.repository.BatchNotificationRepository;
+import com.example.medichain.repository.BatchShelfLifeRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+class BatchExpiryServiceTest {
+
+    private static final String WALLET = "0x00000000000000000000000000000000000000aa";
+    private static final String OTHER = "0x00000000000000000000000000000000000000bb";
+    private static final String BATCH = "0x" + "01".repeat(32);
+
+    private final BatchNotificationRepository notificationRepository = mock(BatchNotificationRepository.class);
+    private final UserDirectory userDirectory = mock(UserDirectory.class);
+    private final BatchShelfLifeRepository shelfLifeRepository = mock(BatchShelfLifeRepository.class);
+    private final SupplyChainEventRepository eventRepository = mock(SupplyChainEventRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final BatchExpiryService expiryService = new BatchExpiryService(
+            shelfLifeRepository, notificationRepository, eventRepository, null, userDirectory,
+            transactionTemplate, publisher, new MedichainProperties());
+
+    @Test
+    void notificationsAreReadForTheCallersOwnWallet() {
+        User user = new User();
+        user.setWalletAddress(WALLET);
+        when(userDirectory.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(notificationRepository.findByOwnerAddressAndIdGreaterThanOrderByIdAsc(anyString(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        expiryService.notifications(new JwtPrincipal("alice", "PHARMACY"), OTHER, null, 50);
+
+        verify(notificationRepository).findByOwnerAddressAndIdGreaterThanOrderByIdAsc(eq(WALLET), eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void notificationsNeedAToken() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> expiryService.notifications(null, WALLET, null, 50));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+    }
+
+    @Test
+    void stageAnotherInstanceClaimedIsNotSentAgain() {
+        trackBatchNearExpiry();
+        when(eventRepository.findFirstByBatchIdAndToAddressIsNotNullOrderByIdDesc(BATCH)).thenReturn(Optional.of(owner()));
+        when(shelfLifeRepository.claimNearExpiry(BATCH)).thenReturn(0);
+
+        expiryService.tick();
+
+        verify(notificationRepository, never()).save(any());
+        verify(publisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void claimedStageIsStoredAndAnnounced() {
+        trackBatchNearExpiry();
+        when(eventRepository.findFirstByBatchIdAndToAddressIsNotNullOrderByIdDesc(BATCH)).thenReturn(Optional.of(owner()));
+        when(shelfLifeRepository.claimNearExpiry(BATCH)).thenReturn(1);
+        when(notificationRepository.save(any(BatchNotification.class))).thenAnswer(call -> call.getArgument(0));
+
+        expiryService.tick();
+
+        verify(notificationRepository).save(any(BatchNotification.class));
+        verify(publisher).publishEvent(any(BatchExpiryNotice.class));
+    }
+
+    @Test
+    void batchNotYetIndexedStaysOwedUntilItsOwnerIsKnown() {
+        trackBatchNearExpiry();
+
+        expiryService.tick();
+
+        verify(shelfLifeRepository, never()).claimNearExpiry(anyString());
+        when(eventRepository.findFirstByBatchIdAndToAddressIsNotNullOrderByIdDesc(BATCH)).thenReturn(Optional.of(owner()));
+        when(shelfLifeRepository.claimNearExpiry(BATCH)).thenReturn(1);
+        when(notificationRepository.save(any(BatchNotification.class))).thenAnswer(call -> call.getArgument(0));
+
+        expiryService.tick();
+
+        verify(notificationRepository).save(any(BatchNotification.class));
+    }
+
+    @Test
+    void oversizedDatesAreABadRequest() {
+        ProductRequest request = new ProductRequest(
+                "0x" + "01".repeat(32), BigInteger.ONE, BigInteger.TWO.pow(70));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> expiryService.register(request, new JwtPrincipal("alice", "ADMIN")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    // A day from expiry, well inside the warning window.
+    private void trackBatchNearExpiry() {
+        BatchShelfLife shelfLife = new BatchShelfLife();
+        shelfLife.setBatchId(BATCH);
+        shelfLife.setManufactureDate(1);
+        shelfLife.setExpiryDate(System.currentTimeMillis() / 1000L + 86_400L);
+        when(shelfLifeRepository.findByBatchIdGreaterThanAndExpiredNotifiedFalseOrderByBatchIdAsc(anyString(), any(Pageable.class)))
+                .thenReturn(List.of(shelfLife));
+        when(transactionTemplate.execute(any())).thenAnswer(call ->
+                call.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        expiryService.load();
+    }
+
+    private static SupplyChainEvent owner() {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setToAddress(WALLET);
+        return event;
+    }
+}
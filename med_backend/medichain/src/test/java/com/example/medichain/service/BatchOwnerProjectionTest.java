@@ -0,0 +1,94 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.model.BatchOwner;
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.ProjectionCheckpoint;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.BatchOwnerRepository;
+import com.example.medichain.repository.ProjectionCheckpointRepository;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchOwnerProjectionTest {
+
+    private static final String BATCH = "0x" + "01".repeat(32);
+    private static final String MANUFACTURER = "0x00000000000000000000000000000000000000aa";
+    private static final String DISTRIBUTOR = "0x00000000000000000000000000000000000000bb";
+
+    private final Map<String, BatchOwner> owners = new HashMap<>();
+    private final Map<String, ProjectionCheckpoint> checkpoints = new HashMap<>();
+
+    private final BatchOwnerRepository ownerRepository = mock(BatchOwnerRepository.class);
+    private final ProjectionCheckpointRepository checkpointRepository = mock(ProjectionCheckpointRepository.class);
+
+    private final BatchOwnerProjection projection =
+            new BatchOwnerProjection(ownerRepository, null, checkpointRepository, null, null);
+
+    // Stand in for the two tables; entities stay managed, so changes to a found owner stick.
+    @BeforeEach
+    void setUp() {
+        when(ownerRepository.save(any(BatchOwner.class))).thenAnswer(call -> {
+            BatchOwner owner = call.getArgument(0);
+            owners.put(owner.getBatchId(), owner);
+            return owner;
+        });
+        when(ownerRepository.findByBatchId(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(owners.get(call.<String>getArgument(0))));
+        when(checkpointRepository.save(any(ProjectionCheckpoint.class))).thenAnswer(call -> {
+            ProjectionCheckpoint checkpoint = call.getArgument(0);
+            checkpoints.put(checkpoint.getName(), checkpoint);
+            return checkpoint;
+        });
+        when(checkpointRepository.findById(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(checkpoints.get(call.<String>getArgument(0))));
+    }
+
+    @Test
+    void transferMovesOwnerAndTakesTheIndexedState() {
+        projection.apply(List.of(event(1, SupplyChainEvent.Type.BATCH_CREATED, null, MANUFACTURER, 100)));
+        projection.apply(List.of(transfer(2, BatchState.IN_DISTRIBUTION)));
+
+        BatchOwner owner = owners.get(BATCH);
+        assertEquals(DISTRIBUTOR, owner.getOwnerAddress());
+        assertEquals(BatchState.IN_DISTRIBUTION, owner.getState());
+        assertEquals(200, owner.getOwnedSince());
+        assertEquals(100, owner.getCreatedAt());
+        assertEquals(2, checkpoints.get(BatchOwnerProjection.CHECKPOINT).getLastEventId());
+
+        // Replayed events at or below the checkpoint are skipped, not applied twice.
+        projection.apply(List.of(transfer(2, BatchState.IN_PHARMACY)));
+        assertEquals(BatchState.IN_DISTRIBUTION, owners.get(BATCH).getState());
+
+        // A distributor handing on to another distributor leaves the batch where the contract put it.
+        projection.apply(List.of(transfer(3, BatchState.IN_DISTRIBUTION)));
+        assertEquals(BatchState.IN_DISTRIBUTION, owners.get(BATCH).getState());
+    }
+
+    private static SupplyChainEvent transfer(long id, BatchState state) {
+        SupplyChainEvent event = event(id, SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, MANUFACTURER, DISTRIBUTOR, 200);
+        event.setState(state);
+        return event;
+    }
+
+    private static SupplyChainEvent event(long id, SupplyChainEvent.Type type, String from, String to, long time) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setBatchId(BATCH);
+        event.setFromAddress(from);
+        event.setToAddress(to);
+        event.setBlockNumber(id);
+        event.setBlockTimestamp(time);
+        return event;
+    }
+}
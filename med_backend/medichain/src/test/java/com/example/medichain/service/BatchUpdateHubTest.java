@@ -0,0 +1,180 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.event.SupplyChainEventFolded;
+import com.example.medichain.model.SupplyChainEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+class BatchUpdateHubTest {
+
+    private static final String BATCH = "0x" + "01".repeat(32);
+    private static final Pattern GAP = Pattern.compile("event:GAP\\ndata:(\\d+)");
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    // Holds the first write to each client, as a socket that stopped draining would.
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final List<RecordingEmitter> emitters = Collections.synchronizedList(new ArrayList<>());
+    private BatchUpdateHub hub;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (hub != null) {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void overflowDropsTheOldestAndTellsTheClientHowManyItMissed() throws Exception {
+        hub = hub(2, 10);
+        RecordingEmitter client = subscribe();
+        publish(1);
+        client.awaitBlocked();
+
+        for (long id = 2; id <= 6; id++) {
+            publish(id);
+        }
+        gate.countDown();
+
+        assertEquals(List.of("1", "GAP 3", "5", "6"), client.awaitFrames(4));
+        assertEquals(3, hub.droppedCount());
+        assertEquals(1, hub.subscriberCount());
+    }
+
+    @Test
+    void clientThatKeepsFallingBehindIsDisconnectedAndItsWriterFreed() throws Exception {
+        hub = hub(1, 2);
+        RecordingEmitter slow = subscribe();
+        publish(1);
+        slow.awaitBlocked();
+
+        for (long id = 2; id <= 5; id++) {
+            publish(id);
+        }
+
+        assertEquals(0, hub.subscriberCount());
+        assertEquals(1, hub.evictedCount());
+        assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+        assertWriterServesOthers();
+    }
+
+    @Test
+    void stalledWriteIsAbandonedAfterTheWriteTimeout() throws Exception {
+        hub = hub(8, 100);
+        RecordingEmitter stalled = subscribe();
+        publish(1);
+        stalled.awaitBlocked();
+
+        clock.addAndGet(999);
+        hub.evictStalled();
+        assertEquals(1, hub.subscriberCount());
+
+        clock.addAndGet(1);
+        hub.evictStalled();
+
+        assertEquals(0, hub.subscriberCount());
+        assertEquals(1, hub.evictedCount());
+        assertTrue(stalled.interrupted.await(5, TimeUnit.SECONDS));
+        assertWriterServesOthers();
+    }
+
+    // With a single writer thread, a new client only hears from the hub if the stuck write let go.
+    private void assertWriterServesOthers() throws Exception {
+        RecordingEmitter next = subscribe();
+        next.blocking = false;
+        publish(7);
+        assertEquals(List.of("7"), next.awaitFrames(1));
+    }
+
+    private BatchUpdateHub hub(int bufferSize, int maxDropped) {
+        MedichainProperties properties = new MedichainProperties();
+        properties.getStream().setBufferSize(bufferSize);
+        properties.getStream().setMaxDropped(maxDropped);
+        properties.getStream().setWriterThreads(1);
+        properties.getStream().setWriteTimeoutMs(1000L);
+        return new BatchUpdateHub(new ObjectMapper(), properties, clock::get, timeout -> {
+            RecordingEmitter emitter = new RecordingEmitter(timeout);
+            emitters.add(emitter);
+            return emitter;
+        });
+    }
+
+    private RecordingEmitter subscribe() {
+        hub.subscribe(List.of(BATCH), List.of());
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private void publish(long id) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setId(id);
+        event.setEventType(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED);
+        event.setBatchId(BATCH);
+        event.setBlockNumber(id);
+        hub.onFolded(new SupplyChainEventFolded(event));
+    }
+
+    private final class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private volatile boolean blocking = true;
+
+        RecordingEmitter(long timeout) {
+            super(timeout);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            send(builder.build());
+        }
+
+        @Override
+        public void send(Set<ResponseBodyEmitter.DataWithMediaType> items) throws IOException {
+            if (blocking) {
+                blocking = false;
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IOException("Write interrupted", e);
+                }
+            }
+            String text = items.stream().map(item -> String.valueOf(item.getData())).collect(Collectors.joining());
+            Matcher gap = GAP.matcher(text);
+            Matcher id = ID.matcher(text);
+            frames.add(gap.find() ? "GAP " + gap.group(1) : id.find() ? id.group(1) : text);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        }
+
+        List<String> awaitFrames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (frames.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return List.copyOf(frames);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.TransactionResponse;
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.repository.ChainTransactionRepository;
+import com.example.medichain.tx.SubmissionScheduler;
+import com.example.medichain.tx.TransactionSender;
+import com.example.medichain.tx.TxPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+class ChainWriteServiceDrainTest {
+
+    private final Map<Long, ChainTransaction> rows = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    // Stands in for chain_transactions; shared by both service instances as the table would be.
+    private final ChainTransactionRepository repository = mock(ChainTransactionRepository.class);
+
+    // Receipts the fake node has, by hash.
+    private final Map<String, TransactionReceipt> mined = new ConcurrentHashMap<>();
+    private final Web3j web3j = mock(Web3j.class);
+
+    private final ChainMetrics metrics = new ChainMetrics(new SimpleMeterRegistry());
+    private final ChainNotifications notifications = new ChainNotifications(web3j, null, blockchain(), event -> { });
+    private final SubmissionScheduler scheduler = new SubmissionScheduler(1, 10, Map.of());
+
+    private final ChainWriteService service = new ChainWriteService(
+            null, repository, scheduler, metrics, event -> { }, new MedichainProperties());
+
+    private ChainWriteService restarted;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Answer<ChainTransaction> store = call -> {
+            ChainTransaction row = call.getArgument(0);
+            if (row.getId() == null) {
+                row.setId(ids.incrementAndGet());
+            }
+            rows.put(row.getId(), row);
+            return row;
+        };
+        when(repository.saveAndFlush(any(ChainTransaction.class))).thenAnswer(store);
+        when(repository.save(any(ChainTransaction.class))).thenAnswer(store);
+        doAnswer(call -> rows.remove(call.<ChainTransaction>getArgument(0).getId()))
+                .when(repository).delete(any(ChainTransaction.class));
+        when(repository.findById(anyLong())).thenAnswer(call -> Optional.ofNullable(rows.get(call.<Long>getArgument(0))));
+        when(repository.findBySubmittedByAndIdempotencyKey(anyString(), anyString())).thenAnswer(call -> rows.values()
+                .stream()
+                .filter(row -> row.getSubmittedBy().equals(call.getArgument(0))
+                        && call.getArgument(1).equals(row.getIdempotencyKey()))
+                .findFirst());
+        when(repository.findByStatusAndTransactionHashIsNotNullOrderByIdAsc(any())).thenAnswer(call -> rows.values()
+                .stream()
+                .filter(row -> row.getStatus() == call.getArgument(0) && row.getTransactionHash() != null)
+                .toList());
+
+        for (String hash : List.of("0xa", "0xb")) {
+            doReturn(receiptRequest(hash)).when(web3j).ethGetTransactionReceipt(hash);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        service.shutdown();
+        if (restarted != null) {
+            restarted.shutdown();
+        }
+        notifications.shutdown();
+    }
+
+    @Test
+    void drainRefusesNewWritesAndWaitsForAdmittedOnes() throws Exception {
+        CountDownLatch submitted = new CountDownLatch(1);
+        CountDownLatch node = new CountDownLatch(1);
+        CompletableFuture<Object> admitted = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.execute("createBatch", "0x01", TxPriority.REGISTRATION, "tenant", null, null, () -> {
+                    submitted.countDown();
+                    node.await();
+                    throw new IllegalStateException("node unavailable");
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+
+        service.stopAccepting();
+        ResponseStatusException refused = assertThrows(ResponseStatusException.class, () -> service.execute(
+                "createBatch", "0x02", TxPriority.REGISTRATION, "tenant", null, null, () -> "0xhash"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, refused.getStatusCode());
+        assertFalse(service.awaitIdle(50));
+
+        node.countDown();
+        assertTrue(service.awaitIdle(5000));
+        assertThrows(ExecutionException.class, admitted::get);
+    }
+
+    @Test
+    void abandonedWriteStaysPendingAndTheNextStartFinishesIt() throws Exception {
+        TransactionSender sender = sender();
+        CountDownLatch bumped = new CountDownLatch(1);
+        // The sender reports one fee bump, as it would for a stuck write, then keeps watching.
+        SupplyChainService supplyChain = mock(SupplyChainService.class);
+        when(supplyChain.awaitReceipt(anyList(), any())).thenAnswer(call -> {
+            List<String> hashes = call.getArgument(0);
+            Consumer<String> onReplaced = call.getArgument(1);
+            onReplaced.accept("0xb");
+            bumped.countDown();
+            return sender.awaitReceipt(List.of(hashes.get(0), "0xb"), onReplaced);
+        });
+        ChainWriteService first = new ChainWriteService(
+                supplyChain, repository, scheduler, metrics, event -> { }, new MedichainProperties());
+        CompletableFuture<Object> write = CompletableFuture.supplyAsync(() -> call(() -> first.execute(
+                "createBatch", "0x01", TxPriority.REGISTRATION, "tenant", "key-1", "fp", () -> "0xa")));
+        assertTrue(bumped.await(5, TimeUnit.SECONDS));
+
+        sender.abandonWaits();
+        ExecutionException abandoned = assertThrows(ExecutionException.class, () -> write.get(5, TimeUnit.SECONDS));
+        ResponseStatusException refused = assertInstanceOf(
+                ResponseStatusException.class, abandoned.getCause().getCause());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, refused.getStatusCode());
+        first.shutdown();
+
+        ChainTransaction row = rows.values().iterator().next();
+        assertEquals(ChainTransaction.Status.PENDING, row.getStatus());
+        assertEquals("0xb", row.getTransactionHash());
+        assertEquals("0xa", row.getReplacedHashes());
+
+        // Next start: the leftover is watched, and a retry with the key joins that watch.
+        TransactionSender restartedSender = sender();
+        SupplyChainService restartedChain = mock(SupplyChainService.class);
+        when(restartedChain.awaitReceipt(anyList(), any())).thenAnswer(
+                call -> restartedSender.awaitReceipt(call.getArgument(0), call.getArgument(1)));
+        restarted = new ChainWriteService(
+                restartedChain, repository, scheduler, metrics, event -> { }, new MedichainProperties());
+        restarted.resumePending();
+        clearInvocations(repository);
+        CompletableFuture<TransactionResponse> retry = CompletableFuture.supplyAsync(() -> call(() -> restarted.execute(
+                "createBatch", "0x01", TxPriority.REGISTRATION, "tenant", "key-1", "fp", () -> {
+                    throw new AssertionError("retry must not send again");
+                })));
+
+        mined.put("0xa", receipt("0xa"));
+        TransactionResponse response = retry.get(5, TimeUnit.SECONDS);
+
+        assertEquals("0xa", response.getTransactionHash());
+        verify(repository, never()).findBySubmittedByAndIdempotencyKey(anyString(), anyString());
+        assertEquals(ChainTransaction.Status.MINED, row.getStatus());
+        assertEquals("0xa", row.getTransactionHash());
+        assertEquals("0xb", row.getReplacedHashes());
+    }
+
+    private TransactionSender sender() {
+        return new TransactionSender(web3j, null, metrics, notifications, 10, 1000, Long.MAX_VALUE, 10);
+    }
+
+    // Answers with whatever the fake node has mined for the hash by the time it is asked.
+    @SuppressWarnings("unchecked")
+    private Request<?, EthGetTransactionReceipt> receiptRequest(String hash) throws IOException {
+        Request<?, EthGetTransactionReceipt> request = mock(Request.class);
+        when(request.send()).thenAnswer(call -> {
+            EthGetTransactionReceipt response = new EthGetTransactionReceipt();
+            response.setResult(mined.get(hash));
+            return response;
+        });
+        return request;
+    }
+
+    private static BlockchainProperties blockchain() {
+        BlockchainProperties properties = new BlockchainProperties();
+        properties.setSupplyChain(new BlockchainProperties.SupplyChain());
+        return properties;
+    }
+
+    private static TransactionReceipt receipt(String hash) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(hash);
+        receipt.setBlockNumber("0x10");
+        receipt.setGasUsed("0x5208");
+        receipt.setStatus("0x1");
+        receipt.setLogs(List.of());
+        return receipt;
+    }
+
+    private static <T> T call(Callable<T> callable) {
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.TransactionResponse;
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.repository.ChainTransactionRepository;
+import com.example.medichain.tx.SigningTransactionManager;
+import com.example.medichain.tx.SubmissionScheduler;
+import com.example.medichain.tx.TxPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+class ChainWriteServiceTest {
+
+    private final ChainTransactionRepository repository = mock(ChainTransactionRepository.class);
+    private final SupplyChainService supplyChainService = mock(SupplyChainService.class);
+    private final SubmissionScheduler scheduler = new SubmissionScheduler(1, 10, Map.of());
+    private final ChainWriteService service = new ChainWriteService(
+            supplyChainService,
+            repository,
+            scheduler,
+            new ChainMetrics(new SimpleMeterRegistry()),
+            event -> { },
+            new MedichainProperties());
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        service.shutdown();
+    }
+
+    @Test
+    void retryOfACompletedWriteIsAnsweredFromTheLedger() throws Exception {
+        when(repository.findBySubmittedByAndIdempotencyKey("alice", "key-1")).thenReturn(Optional.of(mined("fp")));
+
+        TransactionResponse response = service.execute(
+                "createBatch", "0x01", TxPriority.REGISTRATION, "alice", "key-1", "fp", () -> {
+                    throw new AssertionError("a replay must not send again");
+                });
+
+        assertEquals("0xa", response.getTransactionHash());
+        assertEquals(BigInteger.valueOf(16), response.getBlockNumber());
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        when(repository.findBySubmittedByAndIdempotencyKey("alice", "key-1")).thenReturn(Optional.of(mined("fp")));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.execute(
+                "transferBatch", "0x01", TxPriority.TRANSFER, "alice", "key-1", "other", () -> "0xb"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_CONTENT, e.getStatusCode());
+    }
+
+    @Test
+    void keysOfDifferentTenantsDoNotCollide() throws Exception {
+        when(repository.findBySubmittedByAndIdempotencyKey("alice", "key-1")).thenReturn(Optional.of(mined("fp")));
+        when(repository.findBySubmittedByAndIdempotencyKey("bob", "key-1")).thenReturn(Optional.empty());
+        stubLedgerWrites();
+        when(supplyChainService.awaitReceipt(anyList(), any())).thenReturn(receipt("0xb"));
+
+        TransactionResponse response = service.execute(
+                "createBatch", "0x02", TxPriority.REGISTRATION, "bob", "key-1", "fp", () -> "0xb");
+
+        assertEquals("0xb", response.getTransactionHash());
+    }
+
+    @Test
+    void sendWithUnknownOutcomeKeepsTheKeyAndWatchesForTheHash() throws Exception {
+        when(repository.findBySubmittedByAndIdempotencyKey("alice", "key-1")).thenReturn(Optional.empty());
+        stubLedgerWrites();
+        when(supplyChainService.awaitReceipt(anyList(), any())).thenReturn(receipt("0xa"));
+
+        TransactionResponse response = service.execute(
+                "createBatch", "0x01", TxPriority.REGISTRATION, "alice", "key-1", "fp", () -> {
+                    throw new SigningTransactionManager.SendOutcomeUnknownException("0xa", new IOException("reset"));
+                });
+
+        assertEquals("0xa", response.getTransactionHash());
+        verify(repository, never()).delete(any());
+        verify(supplyChainService).awaitReceipt(any(), any());
+    }
+
+    @Test
+    void fullSubmissionQueueAnswersTooManyRequestsAndFreesTheKey() throws Exception {
+        SubmissionScheduler full = new SubmissionScheduler(1, 1, Map.of());
+        ChainWriteService service = new ChainWriteService(supplyChainService, repository, full,
+                new ChainMetrics(new SimpleMeterRegistry()), event -> { }, new MedichainProperties());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newCachedThreadPool();
+        try {
+            callers.submit(() -> full.run(TxPriority.TRANSFER, "bob", () -> {
+                started.countDown();
+                gate.await();
+                return "0xbusy";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> full.run(TxPriority.TRANSFER, "bob", () -> "0xqueued"));
+            while (full.status().stream().mapToInt(SubmissionScheduler.ClassStatus::depth).sum() == 0) {
+                Thread.sleep(1);
+            }
+            when(repository.findBySubmittedByAndIdempotencyKey("alice", "key-1")).thenReturn(Optional.empty());
+            stubLedgerWrites();
+
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.execute(
+                    "transferBatch", "0x01", TxPriority.TRANSFER, "alice", "key-1", "fp", () -> "0xa"));
+
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getStatusCode());
+            verify(repository).delete(any(ChainTransaction.class));
+        } finally {
+            gate.countDown();
+            full.shutdown();
+            service.shutdown();
+            callers.shutdownNow();
+        }
+    }
+
+    private void stubLedgerWrites() {
+        when(repository.saveAndFlush(any(ChainTransaction.class))).thenAnswer(call -> {
+            ChainTransaction row = call.getArgument(0);
+            row.setId(1L);
+            return row;
+        });
+        when(repository.save(any(ChainTransaction.class))).thenAnswer(call -> call.getArgument(0));
+    }
+
+    private static ChainTransaction mined(String fingerprint) {
+        ChainTransaction row = new ChainTransaction();
+        row.setId(1L);
+        row.setSubmittedBy("alice");
+        row.setIdempotencyKey("key-1");
+        row.setRequestFingerprint(fingerprint);
+        row.setTransactionHash("0xa");
+        row.setStatus(ChainTransaction.Status.MINED);
+        row.setBlockNumber(BigInteger.valueOf(16));
+        row.setGasUsed(BigInteger.valueOf(21_000));
+        row.setReceiptStatus("0x1");
+        return row;
+    }
+
+    private static TransactionReceipt receipt(String hash) {
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(hash);
+        receipt.setBlockNumber("0x10");
+        receipt.setGasUsed("0x5208");
+        receipt.setStatus("0x1");
+        receipt.setLogs(List.of());
+        return receipt;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import com.example.medichain.util.CursorCodec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+class CustodyExportServiceTest {
+
+    private static final String MANUFACTURER = "0x00000000000000000000000000000000000000aa";
+    private static final String DISTRIBUTOR = "0x00000000000000000000000000000000000000bb";
+
+    private final SupplyChainEventRepository eventRepository = mock(SupplyChainEventRepository.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final CustodyExportService exportService = new CustodyExportService(eventRepository, objectMapper);
+
+    private final SupplyChainEvent created = created(1, "0x01");
+    private final SupplyChainEvent transferred = transferred(2, "0x01");
+
+    @BeforeEach
+    void setUp() {
+        when(eventRepository.findCreatedByManufacturer(eq(MANUFACTURER), anyLong(), anyLong(), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(created));
+        when(eventRepository.findCustodyTrail(anyCollection())).thenReturn(List.of(created, transferred));
+    }
+
+    @Test
+    void ndjsonWritesOneRecordPerBatchWithItsTrail() throws IOException {
+        JsonNode record = objectMapper.readTree(export(CustodyExportService.Format.NDJSON, 0L).trim());
+
+        assertEquals(CursorCodec.encode(1), record.get("cursor").stringValue());
+        assertEquals("0x01", record.get("batchId").stringValue());
+        assertEquals(MANUFACTURER, record.get("manufacturer").stringValue());
+        assertEquals(2, record.get("trail").size());
+        assertEquals(DISTRIBUTOR, record.get("trail").get(1).get("to").stringValue());
+    }
+
+    @Test
+    void csvWritesAHeaderThenOneRowPerHop() throws IOException {
+        String[] lines = export(CustodyExportService.Format.CSV, 0L).split("\n");
+
+        assertEquals(3, lines.length);
+        assertEquals("cursor,batch_id,hop,from,to,block_number,timestamp,transaction_hash", lines[0]);
+        assertEquals(CursorCodec.encode(1) + ",0x01,0,," + MANUFACTURER + ",1,1000,0xt1", lines[1]);
+        assertEquals(CursorCodec.encode(1) + ",0x01,1," + MANUFACTURER + "," + DISTRIBUTOR + ",2,2000,0xt2", lines[2]);
+    }
+
+    @Test
+    void resumedCsvExportContinuesAfterTheCursorWithoutAHeader() throws IOException {
+        when(eventRepository.findCreatedByManufacturer(eq(MANUFACTURER), anyLong(), anyLong(), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        assertEquals("", export(CustodyExportService.Format.CSV, CursorCodec.decode(CursorCodec.encode(1))));
+    }
+
+    // The manufacturer is matched case-insensitively, as checksummed addresses come in mixed case.
+    private String export(CustodyExportService.Format format, long afterId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export("0x00000000000000000000000000000000000000AA", 0, Long.MAX_VALUE, format, afterId, out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static SupplyChainEvent created(long id, String batchId) {
+        SupplyChainEvent event = event(id, SupplyChainEvent.Type.BATCH_CREATED, batchId);
+        event.setFromAddress(MANUFACTURER);
+        event.setToAddress(MANUFACTURER);
+        return event;
+    }
+
+    private static SupplyChainEvent transferred(long id, String batchId) {
+        SupplyChainEvent event = event(id, SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, batchId);
+        event.setFromAddress(MANUFACTURER);
+        event.setToAddress(DISTRIBUTOR);
+        return event;
+    }
+
+    private static SupplyChainEvent event(long id, SupplyChainEvent.Type type, String batchId) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setBatchId(batchId);
+        event.setBlockNumber(id);
+        event.setBlockTimestamp(1_000 * id);
+        event.setTransactionHash("0xt" + id);
+        return event;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.dto.PageResponse;
+import com.example.medichain.dto.SubmittedTransactionResponse;
+import com.example.medichain.model.ChainTransaction;
+import com.example.medichain.repository.ChainTransactionRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+class ListingServiceTest {
+
+    private final List<ChainTransaction> rows = new ArrayList<>();
+
+    private final ChainTransactionRepository transactionRepository = mock(ChainTransactionRepository.class);
+    private final ListingService service = new ListingService(null, null, transactionRepository);
+
+    // Stands in for the keyset query: rows of the user after the id, in id order, one page long.
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.findBySubmittedByAndIdGreaterThanOrderByIdAsc(
+                anyString(), anyLong(), any(Pageable.class))).thenAnswer(call -> rows.stream()
+                .filter(row -> row.getSubmittedBy().equals(call.getArgument(0))
+                        && row.getId() > call.<Long>getArgument(1))
+                .limit(call.<Pageable>getArgument(2).getPageSize())
+                .toList());
+    }
+
+    @Test
+    void cursorResumesAfterTheLastRowAndAShortPageEnds() {
+        for (long id = 1; id <= 5; id++) {
+            rows.add(transaction(id, id == 3 ? "bob" : "alice"));
+        }
+
+        PageResponse<SubmittedTransactionResponse> first = service.transactionsOf("alice", null, 2);
+        assertEquals(List.of("0x1", "0x2"), batchIds(first));
+
+        PageResponse<SubmittedTransactionResponse> second = service.transactionsOf("alice", first.getNextCursor(), 2);
+        assertEquals(List.of("0x4", "0x5"), batchIds(second));
+
+        PageResponse<SubmittedTransactionResponse> last = service.transactionsOf("alice", second.getNextCursor(), 2);
+        assertEquals(List.of(), batchIds(last));
+        assertNull(last.getNextCursor());
+        assertNull(service.transactionsOf("bob", null, 2).getNextCursor());
+    }
+
+    private static List<String> batchIds(PageResponse<SubmittedTransactionResponse> page) {
+        return page.getItems().stream().map(SubmittedTransactionResponse::getBatchId).toList();
+    }
+
+    private static ChainTransaction transaction(long id, String submittedBy) {
+        ChainTransaction transaction = new ChainTransaction();
+        transaction.setId(id);
+        transaction.setSubmittedBy(submittedBy);
+        transaction.setOperation("createBatch");
+        transaction.setBatchId("0x" + id);
+        transaction.setStatus(ChainTransaction.Status.MINED);
+        return transaction;
+    }
+}
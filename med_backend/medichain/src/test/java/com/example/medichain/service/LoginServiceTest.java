@@ -0,0 +1,45 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.MedichainProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+class LoginServiceTest {
+
+    private final UserDirectory userDirectory = mock(UserDirectory.class);
+    private LoginService loginService;
+
+    @AfterEach
+    void tearDown() {
+        loginService.shutdown();
+    }
+
+    @Test
+    void clientsBehindOneProxyAreLimitedSeparately() throws Exception {
+        MedichainProperties properties = new MedichainProperties();
+        properties.getLogin().setAttemptsPerAddressPerMinute(2);
+        loginService = new LoginService(userDirectory, new BCryptPasswordEncoder(4), properties, new SimpleMeterRegistry());
+        when(userDirectory.findByLogin(anyString())).thenReturn(Optional.empty());
+
+        // Addresses as Tomcat resolves them from X-Forwarded-For for a trusted proxy.
+        loginService.authenticate("alice", "secret", "203.0.113.7");
+        loginService.authenticate("bob", "secret", "203.0.113.7");
+        ResponseStatusException limited = assertThrows(ResponseStatusException.class,
+                () -> loginService.authenticate("carol", "secret", "203.0.113.7"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, limited.getStatusCode());
+        assertEquals(LoginService.Outcome.UNKNOWN_USER,
+                loginService.authenticate("carol", "secret", "198.51.100.4").outcome());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.medichain.config.MedichainProperties;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+class MetadataStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesUnderTheSha256AndSurvivesATornTail() throws Exception {
+        byte[] document = "certificate of analysis".getBytes(StandardCharsets.UTF_8);
+        String hash = Numeric.toHexString(Hash.sha256(document));
+
+        MetadataStore store = new MetadataStore(properties());
+        MetadataStore.Stored stored = store.put(new ByteArrayInputStream(document), hash);
+        assertEquals(hash, stored.hash());
+        assertTrue(stored.created());
+        assertFalse(store.put(new ByteArrayInputStream(document), null).created());
+        store.close();
+
+        // A crash halfway through the next append leaves a partial record behind.
+        Files.write(directory.resolve("000000.seg"), new byte[20], StandardOpenOption.APPEND);
+
+        MetadataStore reopened = new MetadataStore(properties());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reopened.transferTo(hash, Channels.newChannel(out));
+        assertEquals("certificate of analysis", out.toString(StandardCharsets.UTF_8));
+        assertEquals(Boolean.TRUE, reopened.verify(hash).orElseThrow());
+        assertEquals(40L + document.length, Files.size(directory.resolve("000000.seg")));
+        reopened.close();
+    }
+
+    @Test
+    void uploadsAreChargedToTheUploadersDailyQuota() throws Exception {
+        MedichainProperties properties = properties();
+        properties.getMetadata().setUploadBytesPerUserPerDay(100L);
+        MetadataStore store = new MetadataStore(properties);
+        byte[] document = new byte[60];
+
+        store.put(new ByteArrayInputStream(document), null, "alice", document.length);
+        ResponseStatusException exhausted = assertThrows(ResponseStatusException.class,
+                () -> store.put(new ByteArrayInputStream(document), null, "alice", document.length));
+        ResponseStatusException undeclared = assertThrows(ResponseStatusException.class,
+                () -> store.put(new ByteArrayInputStream(document), null, "bob", -1));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exhausted.getStatusCode());
+        assertEquals(HttpStatus.LENGTH_REQUIRED, undeclared.getStatusCode());
+        assertFalse(store.put(new ByteArrayInputStream(document), null, "bob", document.length).created());
+        store.close();
+    }
+
+    private MedichainProperties properties() {
+        MedichainProperties properties = new MedichainProperties();
+        properties.getMetadata().setDirectory(directory.toString());
+        return properties;
+    }
+}
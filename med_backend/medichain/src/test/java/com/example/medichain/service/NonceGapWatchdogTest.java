@@ -0,0 +1,95 @@
+package com.example.medichain.service;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.tx.InMemoryNonceLeaseStore;
+import com.example.medichain.tx.NonceAllocator;
+import com.example.medichain.tx.NonceLeaseStore;
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.TransactionSender;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+
+class NonceGapWatchdogTest {
+
+    private static final String SIGNER = "0x627306090abab3a6e1400e9345bc60c78a8bef57";
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final SignerAccount account = mock(SignerAccount.class);
+    private final TransactionSender transactionSender = mock(TransactionSender.class);
+    private final BlockchainProperties properties = new BlockchainProperties();
+    private final EthBlockNumber head = new EthBlockNumber();
+    private final NonceLeaseStore shared = new InMemoryNonceLeaseStore();
+    private final NonceAllocator dead = new NonceAllocator(shared, address -> 0L, 3);
+    private final NonceAllocator live = new NonceAllocator(shared, address -> 0L, 3);
+    private NonceGapWatchdog watchdog;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        properties.getNonce().setMode(BlockchainProperties.Nonce.Mode.POSTGRES);
+        properties.getNonce().setStallBlocks(2);
+        when(account.getAddress()).thenReturn(SIGNER);
+        SignerPool signerPool = mock(SignerPool.class);
+        when(signerPool.accounts()).thenReturn(List.of(account));
+        Request<?, EthBlockNumber> request = mock(Request.class);
+        when(request.send()).thenReturn(head);
+        doReturn(request).when(web3j).ethBlockNumber();
+        when(transactionSender.fillGap(eq(account), anyLong())).thenReturn("0xfill");
+        watchdog = new NonceGapWatchdog(web3j, signerPool, live, transactionSender, properties);
+
+        // The dead instance leased 0-2 and never sent; this one sent 3.
+        dead.next(SIGNER);
+        live.markSent(SIGNER, live.next(SIGNER));
+    }
+
+    @Test
+    void stalledRangeIsFilledNonceByNonce() throws Exception {
+        head.setResult("0x10");
+        watchdog.check();
+        verify(transactionSender, never()).fillGap(eq(account), anyLong());
+
+        head.setResult("0x12");
+        watchdog.check();
+
+        verify(transactionSender).fillGap(account, 0L);
+        verify(transactionSender).fillGap(account, 1L);
+        verify(transactionSender).fillGap(account, 2L);
+        verify(transactionSender, never()).fillGap(account, 3L);
+    }
+
+    @Test
+    void fillingStopsAtTheFirstRefusal() throws Exception {
+        when(transactionSender.fillGap(account, 1L)).thenThrow(new IllegalStateException("nonce too low"));
+        head.setResult("0x10");
+        watchdog.check();
+        head.setResult("0x12");
+        watchdog.check();
+
+        verify(transactionSender).fillGap(account, 0L);
+        verify(transactionSender, never()).fillGap(account, 2L);
+    }
+
+    @Test
+    void nodeManagedNoncesAreLeftAlone() throws Exception {
+        properties.getNonce().setMode(BlockchainProperties.Nonce.Mode.NODE);
+        head.setResult("0x10");
+        watchdog.check();
+        head.setResult("0x20");
+        watchdog.check();
+
+        verify(web3j, never()).ethBlockNumber();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.dto.BulkOnboardingResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import tools.jackson.databind.ObjectMapper;
+
+class OnboardingServiceTest {
+
+    private static final String HEADER = "username,firstName,lastName,mailId,phone,dob,password,role,walletAddress\n";
+    private static final String WALLET = "0x627306090abaB3A6e1400e9345bC60c78a8BEf57";
+
+    private final List<String> lookups = new ArrayList<>();
+    private final List<Object[]> inserted = new ArrayList<>();
+
+    // Stands in for PostgreSQL: nothing is taken yet and every insert succeeds.
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            inserted.addAll(batchArgs);
+            int[] counts = new int[batchArgs.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        }
+    };
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate) {
+        @Override
+        public void query(String sql, SqlParameterSource parameters, RowCallbackHandler handler) {
+            lookups.add(sql);
+        }
+    };
+
+    // No chain here: role assignment fails and is reported, as it would with the node down.
+    private final OnboardingService service = new OnboardingService(
+            namedJdbcTemplate, new BCryptPasswordEncoder(4), new ObjectMapper(), null, null,
+            new MedichainProperties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void csvRowsAreValidatedAndBadOnesReported() throws Exception {
+        String csv = HEADER
+                + "alice,Alice,Smith,alice@example.com,555,1990-01-31,secret,MANUFACTURER," + WALLET + "\n"
+                + "bob,Bob,Jones,bob@example.com,555,31/01/1990,secret,PHARMACY,\n"
+                + "\n"
+                + "carol,Carol,Lee,carol@example.com,555,1985-05-05,secret,DISTRIBUTOR," + WALLET.toLowerCase() + "\n"
+                + "dave,Dave,Ng,dave@example.com,555,1970-07-07,secret,ADMIN,\n"
+                + "erin,\"Erin, \"\"E\"\"\",Ross,erin@example.com,555,2000-02-02,secret,END_USER,\n";
+
+        BulkOnboardingResponse response = service.onboard(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), OnboardingService.Format.CSV, "admin");
+
+        assertEquals(5, response.getReceived());
+        assertEquals(2, response.getCreated());
+        List<BulkOnboardingResponse.Rejection> rejected = response.getRejected();
+        assertEquals(3, rejected.size());
+        assertRejection(rejected.get(0), 2, "bob", "Date of birth must be yyyy-MM-dd");
+        assertRejection(rejected.get(1), 3, "carol", "Wallet repeated in file");
+        assertRejection(rejected.get(2), 4, "dave", "Admin accounts cannot be bulk onboarded");
+
+        assertEquals("alice", inserted.get(0)[1]);
+        assertEquals(WALLET.toLowerCase(), inserted.get(0)[8]);
+        assertEquals("Erin, \"E\"", inserted.get(1)[2]);
+        assertEquals(1, response.getRoleFailures().size());
+        // Compared against the column as stored, so the unique index can serve it.
+        assertFalse(lookups.get(0).contains("lower("));
+    }
+
+    private static void assertRejection(
+            BulkOnboardingResponse.Rejection rejection, long record, String username, String reason) {
+        assertEquals(record, rejection.getRecord());
+        assertEquals(username, rejection.getUsername());
+        assertEquals(reason, rejection.getReason());
+    }
+}
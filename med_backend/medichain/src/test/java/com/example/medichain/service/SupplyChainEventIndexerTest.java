@@ -0,0 +1,159 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.ChainRole;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import com.example.medichain.util.SupplyChainEvents;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+class SupplyChainEventIndexerTest {
+
+    private static final String BATCH = "0x" + "01".repeat(32);
+    private static final String METADATA = "0x" + "cd".repeat(32);
+    private static final String MANUFACTURER = "0x00000000000000000000000000000000000000aa";
+    private static final String DISTRIBUTOR = "0x00000000000000000000000000000000000000bb";
+
+    @Test
+    void decodesBatchCreated() {
+        Log entry = log(List.of(SupplyChainEvents.BATCH_CREATED_TOPIC, BATCH, topic(MANUFACTURER)),
+                encode(new Bytes32(Numeric.hexStringToByteArray(METADATA))));
+
+        SupplyChainEvent event = SupplyChainEventIndexer.decode(entry);
+
+        assertEquals(SupplyChainEvent.Type.BATCH_CREATED, event.getEventType());
+        assertEquals(BATCH, event.getBatchId());
+        assertEquals(MANUFACTURER, event.getFromAddress());
+        assertEquals(MANUFACTURER, event.getToAddress());
+        assertEquals(METADATA, event.getMetadataHash());
+        assertEquals(42, event.getBlockNumber());
+        assertEquals(3, event.getLogIndex());
+    }
+
+    @Test
+    void decodesOwnershipTransferred() {
+        Log entry = log(List.of(SupplyChainEvents.OWNERSHIP_TRANSFERRED_TOPIC, BATCH,
+                topic(MANUFACTURER), topic(DISTRIBUTOR)), "0x");
+
+        SupplyChainEvent event = SupplyChainEventIndexer.decode(entry);
+
+        assertEquals(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, event.getEventType());
+        assertEquals(MANUFACTURER, event.getFromAddress());
+        assertEquals(DISTRIBUTOR, event.getToAddress());
+    }
+
+    @Test
+    void decodesBatchVerified() {
+        Log entry = log(List.of(SupplyChainEvents.BATCH_VERIFIED_TOPIC, BATCH, topic(DISTRIBUTOR)),
+                encode(new Bool(true)));
+
+        SupplyChainEvent event = SupplyChainEventIndexer.decode(entry);
+
+        assertEquals(SupplyChainEvent.Type.BATCH_VERIFIED, event.getEventType());
+        assertEquals(DISTRIBUTOR, event.getFromAddress());
+        assertNull(event.getToAddress());
+        assertTrue(event.getVerifiedValid());
+    }
+
+    @Test
+    void ignoresOtherEvents() {
+        Log entry = log(List.of("0x" + "ee".repeat(32), BATCH, topic(MANUFACTURER)), "0x");
+
+        assertNull(SupplyChainEventIndexer.decode(entry));
+        assertNull(SupplyChainEventIndexer.decode(log(List.of(), "0x")));
+    }
+
+    @Test
+    void transfersTakeTheStateTheSendersRoleGives() throws Exception {
+        String pharmacy = "0x00000000000000000000000000000000000000cc";
+        String buyer = "0x00000000000000000000000000000000000000dd";
+        SupplyChainService supplyChainService = mock(SupplyChainService.class);
+        when(supplyChainService.getRole(eq(DISTRIBUTOR), any())).thenReturn(ChainRole.DISTRIBUTOR);
+        when(supplyChainService.getRole(eq(pharmacy), any())).thenReturn(ChainRole.PHARMACY);
+        // Never assigned a role, so RoleManager reports MANUFACTURER.
+        when(supplyChainService.getRole(eq(buyer), any())).thenReturn(ChainRole.MANUFACTURER);
+        SupplyChainEventRepository eventRepository = mock(SupplyChainEventRepository.class);
+        when(eventRepository.findFirstByBatchIdAndToAddressIsNotNullAndIdLessThanOrderByIdDesc(any(), anyLong()))
+                .thenReturn(Optional.empty());
+        SupplyChainEventIndexer indexer = new SupplyChainEventIndexer(
+                null, null, eventRepository, null, null, null, supplyChainService, null);
+
+        List<SupplyChainEvent> events = List.of(
+                hop(SupplyChainEvent.Type.BATCH_CREATED, MANUFACTURER, MANUFACTURER),
+                hop(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, MANUFACTURER, DISTRIBUTOR),
+                hop(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, DISTRIBUTOR, pharmacy),
+                hop(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, pharmacy, buyer),
+                hop(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, buyer, DISTRIBUTOR));
+        indexer.assignStates(events);
+
+        assertEquals(
+                List.of(BatchState.CREATED, BatchState.IN_DISTRIBUTION, BatchState.IN_PHARMACY,
+                        BatchState.SOLD, BatchState.IN_DISTRIBUTION),
+                events.stream().map(SupplyChainEvent::getState).toList());
+        assertEquals(ChainRole.MANUFACTURER, events.get(3).getReceiverRole());
+    }
+
+    @Test
+    void previousHopIsReadFromTheIndexAcrossChunks() throws Exception {
+        SupplyChainService supplyChainService = mock(SupplyChainService.class);
+        when(supplyChainService.getRole(eq(DISTRIBUTOR), any())).thenReturn(ChainRole.PHARMACY);
+        SupplyChainEvent stored = hop(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, MANUFACTURER, MANUFACTURER);
+        stored.setReceiverRole(ChainRole.DISTRIBUTOR);
+        SupplyChainEventRepository eventRepository = mock(SupplyChainEventRepository.class);
+        when(eventRepository.findFirstByBatchIdAndToAddressIsNotNullAndIdLessThanOrderByIdDesc(BATCH, Long.MAX_VALUE))
+                .thenReturn(Optional.of(stored));
+        SupplyChainEventIndexer indexer = new SupplyChainEventIndexer(
+                null, null, eventRepository, null, null, null, supplyChainService, null);
+
+        SupplyChainEvent transfer = hop(SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, MANUFACTURER, DISTRIBUTOR);
+        indexer.assignStates(List.of(transfer));
+
+        assertEquals(BatchState.IN_PHARMACY, transfer.getState());
+        assertEquals(ChainRole.PHARMACY, transfer.getReceiverRole());
+    }
+
+    private static SupplyChainEvent hop(SupplyChainEvent.Type type, String from, String to) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setEventType(type);
+        event.setBatchId(BATCH);
+        event.setFromAddress(from);
+        event.setToAddress(to);
+        event.setBlockNumber(42);
+        return event;
+    }
+
+    private static Log log(List<String> topics, String data) {
+        Log entry = new Log();
+        entry.setTopics(topics);
+        entry.setData(data);
+        entry.setBlockNumber("0x2a");
+        entry.setLogIndex("0x3");
+        entry.setTransactionHash("0x" + "77".repeat(32));
+        return entry;
+    }
+
+    private static String topic(String address) {
+        return Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(address), 64);
+    }
+
+    private static String encode(Type<?> value) {
+        return "0x" + FunctionEncoder.encodeConstructor(List.of(value));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.dto.BatchDetailsResponse;
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthCall;
+
+class SupplyChainServiceReadSessionTest {
+
+    private static final String OWNER = "0x00000000000000000000000000000000000000aa";
+    private static final byte[] BATCH = new byte[32];
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final BatchRequest batchRequest = mock(BatchRequest.class);
+    private final BlockchainProperties properties = new BlockchainProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private SupplyChainService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setSupplyChain(new BlockchainProperties.SupplyChain());
+        properties.getSupplyChain().setContractAddress("0x00000000000000000000000000000000000000cc");
+        SignerAccount wallet = mock(SignerAccount.class);
+        when(wallet.getAddress()).thenReturn(OWNER);
+        SignerPool signerPool = mock(SignerPool.class);
+        when(signerPool.defaultAccount()).thenReturn(wallet);
+        service = new SupplyChainService(web3j, signerPool, null, properties, new ChainMetrics(registry));
+
+        EthBlockNumber head = new EthBlockNumber();
+        head.setResult("0x64");
+        doReturn(answering(head)).when(web3j).ethBlockNumber();
+        doReturn(batchRequest).when(web3j).newBatch();
+        doReturn(mock(Request.class)).when(web3j).ethCall(any(), any());
+    }
+
+    @Test
+    void levelsPinTheExpectedBlock() throws Exception {
+        assertEquals(100, service.openReadSession(SupplyChainService.ReadLevel.LATEST, 5).getBlockNumber());
+        assertEquals(95, service.openReadSession(SupplyChainService.ReadLevel.CONFIRMED, 5).getBlockNumber());
+        assertEquals(0, service.openReadSession(SupplyChainService.ReadLevel.CONFIRMED, 500).getBlockNumber());
+    }
+
+    @Test
+    void safeLevelUsesTheNodesSafeBlock() throws Exception {
+        EthBlock safe = new EthBlock();
+        EthBlock.Block block = new EthBlock.Block();
+        block.setNumber("0x5a");
+        safe.setResult(block);
+        doReturn(answering(safe)).when(web3j).ethGetBlockByNumber(any(), anyBoolean());
+
+        assertEquals(90, service.openReadSession(SupplyChainService.ReadLevel.SAFE, 0).getBlockNumber());
+    }
+
+    @Test
+    void safeLevelFallsBackToAFixedDepthWhenTheTagIsUnknown() throws Exception {
+        EthBlock unknown = new EthBlock();
+        unknown.setError(new Response.Error(-32602, "invalid block tag"));
+        doReturn(answering(unknown)).when(web3j).ethGetBlockByNumber(any(), anyBoolean());
+
+        assertEquals(100 - properties.getReads().getSafeFallbackConfirmations(),
+                service.openReadSession(SupplyChainService.ReadLevel.SAFE, 0).getBlockNumber());
+    }
+
+    @Test
+    void everyCallOfADetailsReadIsPinnedAndBatched() throws Exception {
+        properties.getReads().setBatchSize(2);
+        List<EthCall> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            records.add(value(new Address(OWNER), new Uint8(i), new Uint256(1_000 + i)));
+        }
+        when(batchRequest.sendAsync()).thenReturn(
+                answered(value(new Bytes32(BATCH), new Address(OWNER), new Uint256(1), new Bytes32(BATCH), new Uint8(1)),
+                        value(new Uint256(3))),
+                answered(records.get(0), records.get(1)),
+                answered(records.get(2)));
+
+        BatchDetailsResponse details = service.openReadSession(SupplyChainService.ReadLevel.CONFIRMED, 4)
+                .getBatchDetails(BATCH);
+
+        assertEquals(96, details.getBlockNumber());
+        assertEquals(BigInteger.valueOf(3), details.getHistoryLength());
+        assertEquals(BigInteger.valueOf(1_002), details.getHistory().get(2).getTimestamp());
+        verify(batchRequest, times(3)).sendAsync();
+        ArgumentCaptor<DefaultBlockParameter> blocks = ArgumentCaptor.forClass(DefaultBlockParameter.class);
+        verify(web3j, atLeastOnce()).ethCall(any(), blocks.capture());
+        assertEquals(5, blocks.getAllValues().size());
+        blocks.getAllValues().forEach(block -> assertEquals("0x60", block.getValue()));
+    }
+
+    @Test
+    void nodeErrorIsCountedAsAnErrorNotARevert() throws Exception {
+        EthCall failed = new EthCall();
+        failed.setError(new Response.Error(-32000, "missing trie node"));
+        when(batchRequest.sendAsync()).thenReturn(answered(failed, value(new Uint256(0))));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.openReadSession(SupplyChainService.ReadLevel.LATEST, 0).getBatchDetails(BATCH));
+
+        assertEquals("Call failed: missing trie node", e.getMessage());
+        assertEquals(1.0, registry.get("medichain.rpc.errors").tag("code", "-32000").counter().count());
+        assertNull(registry.find("medichain.tx.reverts").counter());
+    }
+
+    @Test
+    void revertIsCountedWithItsReason() throws Exception {
+        EthCall reverted = new EthCall();
+        reverted.setResult("0x08c379a0" + FunctionEncoder.encodeConstructor(
+                List.<Type>of(new Utf8String("Batch does not exist"))));
+        when(batchRequest.sendAsync()).thenReturn(answered(reverted, value(new Uint256(0))));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.openReadSession(SupplyChainService.ReadLevel.LATEST, 0).getBatchDetails(BATCH));
+
+        assertEquals("Call reverted: Batch does not exist", e.getMessage());
+        assertEquals(1.0, registry.get("medichain.tx.reverts").tag("reason", "Batch does not exist").counter().count());
+        assertNull(registry.find("medichain.rpc.errors").counter());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Response<?>> Request<?, T> answering(T response) throws IOException {
+        Request<?, T> request = mock(Request.class);
+        when(request.send()).thenReturn(response);
+        return request;
+    }
+
+    private static CompletableFuture<org.web3j.protocol.core.BatchResponse> answered(EthCall... calls) {
+        return CompletableFuture.completedFuture(new org.web3j.protocol.core.BatchResponse(List.of(), List.<Response<?>>of(calls)));
+    }
+
+    private static EthCall value(Type... outputs) {
+        EthCall call = new EthCall();
+        call.setResult("0x" + FunctionEncoder.encodeConstructor(List.of(outputs)));
+        return call;
+    }
+}
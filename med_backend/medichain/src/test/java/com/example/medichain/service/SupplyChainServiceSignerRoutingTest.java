@@ -0,0 +1,136 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.metrics.ChainMetrics;
+import com.example.medichain.model.ChainRole;
+import com.example.medichain.tx.SignerAccount;
+import com.example.medichain.tx.SignerPool;
+import com.example.medichain.tx.TransactionSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+class SupplyChainServiceSignerRoutingTest {
+
+    private static final String CONTRACT = "0x00000000000000000000000000000000000000cc";
+    private static final String ROLE_MANAGER = "0x00000000000000000000000000000000000000dd";
+    private static final byte[] BATCH = new byte[32];
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final TransactionSender transactionSender = mock(TransactionSender.class);
+    private final BlockchainProperties properties = new BlockchainProperties();
+    private final SignerAccount wallet = account("0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+    private final SignerAccount manufacturer = account("0xc87509a1c067bbde78beb793e6fa76530b6382a4c0241e5e4a9ec0a0f44dc0d3");
+    private final SignerAccount distributor = account("0xae6ae8e5ccbfb04590405997ee2d52d2b330726137b875053c36d94e974d162f");
+    private final SignerPool pool = new SignerPool(wallet, List.of(manufacturer, distributor));
+    private SupplyChainService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setSupplyChain(new BlockchainProperties.SupplyChain());
+        properties.getSupplyChain().setContractAddress(CONTRACT);
+        service = new SupplyChainService(
+                web3j, pool, transactionSender, properties, new ChainMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void rolesAreReadFromRoleManagerAndUnassignedAccountsGetNone() throws Exception {
+        // roleManager(), then getRole for the wallet, the manufacturer and the distributor.
+        stubCalls(value(new Address(ROLE_MANAGER)), value(new Uint8(0)), value(new Uint8(0)), value(new Uint8(1)));
+        EthLog none = new EthLog();
+        none.setResult(List.of());
+        EthLog assigned = new EthLog();
+        assigned.setResult(List.of(new EthLog.LogObject()));
+        doReturn(answering(none), answering(assigned)).when(web3j).ethGetLogs(any());
+
+        service.refreshSignerRoles();
+
+        assertEquals(ChainRole.NONE, wallet.getRole());
+        assertEquals(ChainRole.MANUFACTURER, manufacturer.getRole());
+        assertEquals(ChainRole.DISTRIBUTOR, distributor.getRole());
+    }
+
+    @Test
+    void batchIsCreatedByTheRequestersWalletWhenItIsAPooledManufacturer() throws Exception {
+        manufacturer.setRole(ChainRole.MANUFACTURER);
+
+        service.submitCreateBatch(BATCH, BATCH, manufacturer.getAddress().toUpperCase().replace("0X", "0x"));
+
+        verify(transactionSender).send(eq(manufacturer), eq("createBatch"), eq(CONTRACT), anyString());
+    }
+
+    @Test
+    void batchFallsBackToTheConfiguredManufacturerThenTheWallet() throws Exception {
+        distributor.setRole(ChainRole.DISTRIBUTOR);
+        properties.getSupplyChain().setManufacturerAddress(manufacturer.getAddress());
+        service.submitCreateBatch(BATCH, BATCH, distributor.getAddress());
+        verify(transactionSender).send(eq(manufacturer), eq("createBatch"), eq(CONTRACT), anyString());
+
+        properties.getSupplyChain().setManufacturerAddress(null);
+        service.submitCreateBatch(BATCH, BATCH, null);
+        verify(transactionSender).send(eq(wallet), eq("createBatch"), eq(CONTRACT), anyString());
+    }
+
+    @Test
+    void transferIsSignedByThePooledOwner() throws Exception {
+        stubCalls(value(new Bytes32(BATCH), new Address(distributor.getAddress()), new Uint256(1),
+                new Bytes32(BATCH), new Uint8(1)));
+
+        service.submitTransferBatch(BATCH, "0x00000000000000000000000000000000000000aa");
+
+        verify(transactionSender).send(eq(distributor), eq("transferBatch"), eq(CONTRACT), anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubCalls(EthCall first, EthCall... rest) throws IOException {
+        Request<?, EthCall> request = mock(Request.class);
+        when(request.send()).thenReturn(first, rest);
+        doReturn(request).when(web3j).ethCall(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Response<?>> Request<?, T> answering(T response) throws IOException {
+        Request<?, T> request = mock(Request.class);
+        when(request.send()).thenReturn(response);
+        return request;
+    }
+
+    private static EthCall value(Type... outputs) {
+        EthCall call = new EthCall();
+        call.setResult("0x" + FunctionEncoder.encodeConstructor(List.of(outputs)));
+        return call;
+    }
+
+    private static SignerAccount account(String privateKey) {
+        return new SignerAccount(Credentials.create(privateKey), null);
+    }
+}
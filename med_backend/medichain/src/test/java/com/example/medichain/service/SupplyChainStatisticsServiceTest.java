@@ -0,0 +1,190 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.dto.SupplyChainStatsResponse;
+import com.example.medichain.event.SupplyChainEventFolded;
+import com.example.medichain.model.BatchState;
+import com.example.medichain.model.StatisticsSnapshot;
+import com.example.medichain.model.SupplyChainEvent;
+import com.example.medichain.repository.StatisticsSnapshotRepository;
+import com.example.medichain.repository.SupplyChainEventRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+class SupplyChainStatisticsServiceTest {
+
+    private static final String MANUFACTURER = "0x00000000000000000000000000000000000000aa";
+    private static final String DISTRIBUTOR = "0x00000000000000000000000000000000000000bb";
+
+    private final List<SupplyChainEvent> events = new ArrayList<>();
+    private final SupplyChainEventRepository eventRepository = mock(SupplyChainEventRepository.class);
+    private final StatisticsSnapshotRepository snapshotRepository = mock(StatisticsSnapshotRepository.class);
+    private final List<Object> published = new ArrayList<>();
+    private StatisticsSnapshot stored;
+    private SupplyChainEventReplay replay;
+
+    // Stand in for PostgreSQL: the event index and the snapshot table.
+    @BeforeEach
+    void setUp() {
+        when(eventRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(call -> {
+            long afterId = call.getArgument(0);
+            Pageable page = call.getArgument(1);
+            return events.stream().filter(event -> event.getId() > afterId).limit(page.getPageSize()).toList();
+        });
+        when(snapshotRepository.findById(SupplyChainEventReplay.SNAPSHOT)).thenAnswer(call -> Optional.ofNullable(stored));
+        when(snapshotRepository.save(any(StatisticsSnapshot.class))).thenAnswer(call -> stored = call.getArgument(0));
+    }
+
+    @Test
+    void foldsCreationsTransfersAndVerifications() {
+        events.add(created(1, "0x01", 1_000));
+        events.add(created(2, "0x02", 1_000));
+        events.add(transferred(3, "0x01", 4_600, BatchState.IN_DISTRIBUTION));
+        events.add(verified(4, "0x01", true));
+        events.add(verified(5, "0x02", false));
+
+        SupplyChainStatisticsService statistics = start();
+        SupplyChainStatsResponse stats = statistics.getStats();
+
+        assertEquals(2, stats.getTotalBatches());
+        assertEquals(2L, statistics.batchesCreatedBy(MANUFACTURER));
+        assertEquals(1L, stats.getBatchesByState().get("CREATED"));
+        assertEquals(1L, stats.getBatchesByState().get("IN_DISTRIBUTION"));
+        assertEquals(1, stats.getTotalTransfers());
+        assertEquals(3600.0, stats.getMeanSecondsInState().get("CREATED"));
+        assertEquals(2, stats.getVerifications());
+        assertEquals(0.5, stats.getVerificationSuccessRate());
+    }
+
+    @Test
+    void restartResumesFromTheSnapshotWithoutCountingTwice() {
+        events.add(created(1, "0x01", 1_000));
+        events.add(created(2, "0x02", 2_000));
+        events.add(transferred(3, "0x01", 4_600, BatchState.IN_DISTRIBUTION));
+        start();
+        replay.snapshot();
+        assertEquals(3, stored.getLastEventId());
+        int snapshotBytes = stored.getPayload().length;
+
+        // Indexed while the instance was down; only this one is counted on top of the snapshot.
+        events.add(transferred(4, "0x02", 9_200, BatchState.IN_DISTRIBUTION));
+        events.add(created(5, "0x03", 9_300));
+        SupplyChainStatisticsService statistics = start();
+        SupplyChainStatsResponse stats = statistics.getStats();
+
+        assertEquals(3, stats.getTotalBatches());
+        assertEquals(2L, stats.getBatchesByState().get("IN_DISTRIBUTION"));
+        assertEquals(3L, statistics.batchesCreatedBy(MANUFACTURER));
+        assertEquals(2, stats.getTotalTransfers());
+        assertEquals((3_600.0 + 7_200.0) / 2, stats.getMeanSecondsInState().get("CREATED"));
+        assertEquals(5, stats.getLastEventId());
+
+        // Only the counters are stored, so the row does not grow with the number of batches.
+        replay.snapshot();
+        assertEquals(5, stored.getLastEventId());
+        assertEquals(snapshotBytes, stored.getPayload().length);
+    }
+
+    @Test
+    void unreadableSnapshotRebuildsEveryViewFromTheIndex() {
+        events.add(created(1, "0x01", 1_000));
+        events.add(transferred(2, "0x01", 2_000, BatchState.IN_DISTRIBUTION));
+        start();
+        replay.snapshot();
+        stored.setPayload(new byte[] {0, 0, 0, 1, 0, 0, 0, 2, 0});
+
+        clearInvocations(eventRepository);
+        SupplyChainStatsResponse stats = start().getStats();
+
+        verify(eventRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class));
+        assertEquals(1, stats.getTotalBatches());
+        assertEquals(1L, stats.getBatchesByState().get("IN_DISTRIBUTION"));
+        assertEquals(1, stats.getTotalTransfers());
+    }
+
+    @Test
+    void transfersMoveBatchesToTheStateTheChainRecorded() {
+        events.add(created(1, "0x01", 1_000));
+        events.add(transferred(2, "0x01", 2_000, BatchState.IN_DISTRIBUTION));
+        events.add(transferred(3, "0x01", 3_000, BatchState.IN_PHARMACY));
+        events.add(transferred(4, "0x01", 4_000, BatchState.SOLD));
+        // The buyer never got a role, so the contract treats it as a manufacturer.
+        events.add(transferred(5, "0x01", 5_000, BatchState.IN_DISTRIBUTION));
+
+        SupplyChainStatsResponse stats = start().getStats();
+
+        assertEquals(0L, stats.getBatchesByState().get("SOLD"));
+        assertEquals(1L, stats.getBatchesByState().get("IN_DISTRIBUTION"));
+        assertEquals(1_000.0, stats.getMeanSecondsInState().get("SOLD"));
+    }
+
+    @Test
+    void tailFoldsAndRepublishesEventsAnotherInstanceIndexed() {
+        events.add(created(1, "0x01", 1_000));
+        SupplyChainStatisticsService statistics = start();
+
+        // Stored by the indexer on another instance, so nothing was published here.
+        events.add(transferred(2, "0x01", 2_000, BatchState.IN_DISTRIBUTION));
+        events.add(verified(3, "0x01", true));
+        replay.tail();
+        replay.tail();
+
+        assertEquals(1L, statistics.getStats().getBatchesByState().get("IN_DISTRIBUTION"));
+        assertEquals(3, statistics.getStats().getLastEventId());
+        assertEquals(List.of(2L, 3L), published.stream()
+                .map(event -> ((SupplyChainEventFolded) event).event().getId())
+                .toList());
+    }
+
+    private SupplyChainStatisticsService start() {
+        BatchChangeIndex changeIndex = new BatchChangeIndex();
+        SupplyChainStatisticsService statistics = new SupplyChainStatisticsService(changeIndex);
+        replay = new SupplyChainEventReplay(eventRepository, snapshotRepository, List.of(statistics, changeIndex), published::add);
+        replay.replay();
+        return statistics;
+    }
+
+    private static SupplyChainEvent created(long id, String batchId, long timestamp) {
+        SupplyChainEvent event = event(id, SupplyChainEvent.Type.BATCH_CREATED, batchId, timestamp);
+        event.setFromAddress(MANUFACTURER);
+        event.setToAddress(MANUFACTURER);
+        event.setState(BatchState.CREATED);
+        return event;
+    }
+
+    private static SupplyChainEvent transferred(long id, String batchId, long timestamp, BatchState state) {
+        SupplyChainEvent event = event(id, SupplyChainEvent.Type.OWNERSHIP_TRANSFERRED, batchId, timestamp);
+        event.setFromAddress(MANUFACTURER);
+        event.setToAddress(DISTRIBUTOR);
+        event.setState(state);
+        return event;
+    }
+
+    private static SupplyChainEvent verified(long id, String batchId, boolean valid) {
+        SupplyChainEvent event = event(id, SupplyChainEvent.Type.BATCH_VERIFIED, batchId, 5_000);
+        event.setVerifiedValid(valid);
+        return event;
+    }
+
+    private static SupplyChainEvent event(long id, SupplyChainEvent.Type type, String batchId, long timestamp) {
+        SupplyChainEvent event = new SupplyChainEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setBatchId(batchId);
+        event.setBlockNumber(id);
+        event.setBlockTimestamp(timestamp);
+        return event;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.medichain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.MedichainProperties;
+import com.example.medichain.model.User;
+import com.example.medichain.repository.UserRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class UserDirectoryTest {
+
+    private final UserRepository repository = mock(UserRepository.class);
+    private final UserDirectory directory = new UserDirectory(repository, new MedichainProperties());
+
+    @Test
+    void profileReadsAreServedFromMemoryAfterTheFirst() {
+        when(repository.findByUsername("alice"))
+                .thenReturn(Optional.of(user(7L, "alice", "alice@example.com", "Alice")));
+
+        for (int i = 0; i < 1_000; i++) {
+            directory.findByUsername("alice").orElseThrow();
+        }
+
+        verify(repository, times(1)).findByUsername("alice");
+        assertEquals(999, directory.stats().hits());
+        assertEquals(1, directory.stats().misses());
+    }
+
+    @Test
+    void updateEvictsTheCachedUser() {
+        User renamed = user(7L, "alice", "alice@example.com", "Alicia");
+        when(repository.findByUsername("alice"))
+                .thenReturn(Optional.of(user(7L, "alice", "alice@example.com", "Alice")))
+                .thenReturn(Optional.of(renamed));
+        when(repository.save(any(User.class))).thenAnswer(call -> call.getArgument(0));
+        directory.findByUsername("alice").orElseThrow();
+
+        directory.save(renamed);
+
+        assertEquals("Alicia", directory.findByUsername("alice").orElseThrow().getFirstName());
+        verify(repository, times(2)).findByUsername("alice");
+    }
+
+    private static User user(Long id, String username, String mailId, String firstName) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setMailId(mailId);
+        user.setFirstName(firstName);
+        return user;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+
+class FeeOracleQuoteTest {
+
+    @Test
+    void bumpRaisesEveryFeeByAtLeastThePercentage() {
+        FeeOracle.Quote sent = FeeOracle.Quote.dynamic(BigInteger.valueOf(101), BigInteger.valueOf(7));
+        FeeOracle.Quote cheaperMarket = FeeOracle.Quote.dynamic(BigInteger.valueOf(50), BigInteger.ONE);
+
+        FeeOracle.Quote bumped = sent.bump(10, cheaperMarket);
+
+        // Rounded up, so the node's 10% rule holds even for small values.
+        assertEquals(BigInteger.valueOf(112), bumped.maxFeePerGas());
+        assertEquals(BigInteger.valueOf(8), bumped.maxPriorityFeePerGas());
+    }
+
+    @Test
+    void bumpFollowsTheMarketWhenItMovedFurther() {
+        FeeOracle.Quote sent = FeeOracle.Quote.legacy(BigInteger.valueOf(100));
+
+        FeeOracle.Quote bumped = sent.bump(10, FeeOracle.Quote.legacy(BigInteger.valueOf(300)));
+
+        assertEquals(BigInteger.valueOf(300), bumped.gasPrice());
+        assertFalse(bumped.isDynamic());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.config.BlockchainProperties;
+import com.example.medichain.event.ChainHeadReceived;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
+import org.web3j.protocol.core.methods.response.EthFeeHistory;
+import org.web3j.protocol.core.methods.response.EthGasPrice;
+
+class FeeOracleTest {
+
+    private static final String FROM = "0x00000000000000000000000000000000000000aa";
+    private static final String CONTRACT = "0x00000000000000000000000000000000000000cc";
+    private static final BigInteger STATIC_PRICE = BigInteger.valueOf(20_000_000_000L);
+    private static final BigInteger STATIC_LIMIT = BigInteger.valueOf(3_000_000);
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final BlockchainProperties.Fees fees = new BlockchainProperties.Fees();
+    private final FeeOracle oracle = new FeeOracle(web3j, fees, STATIC_PRICE, STATIC_LIMIT);
+
+    @Test
+    void fixedSizeCallsOfOneFunctionShareAnEstimate() throws Exception {
+        doReturn(answering(estimate(100_000))).when(web3j).ethEstimateGas(any());
+
+        assertEquals(BigInteger.valueOf(120_000), oracle.gasLimit(FROM, CONTRACT, "0x11111111" + "00".repeat(64)));
+        assertEquals(BigInteger.valueOf(120_000), oracle.gasLimit(FROM, CONTRACT, "0x11111111" + "ff".repeat(64)));
+
+        verify(web3j, times(1)).ethEstimateGas(any());
+    }
+
+    @Test
+    void dynamicArrayCallsAreEstimatedPerLength() throws Exception {
+        doReturn(answering(estimate(60_000)), answering(estimate(150_000))).when(web3j).ethEstimateGas(any());
+        String oneRole = "0x22222222" + "00".repeat(6 * 32);
+        String threeRoles = "0x22222222" + "00".repeat(10 * 32);
+
+        assertEquals(BigInteger.valueOf(72_000), oracle.gasLimit(FROM, CONTRACT, oneRole));
+        assertEquals(BigInteger.valueOf(180_000), oracle.gasLimit(FROM, CONTRACT, threeRoles));
+        assertEquals(BigInteger.valueOf(72_000), oracle.gasLimit(FROM, CONTRACT, oneRole));
+
+        verify(web3j, times(2)).ethEstimateGas(any());
+    }
+
+    @Test
+    void estimateIsCappedAndFailuresUseTheConfiguredLimitUncached() throws Exception {
+        EthEstimateGas reverted = new EthEstimateGas();
+        reverted.setError(new Response.Error(3, "execution reverted"));
+        doReturn(answering(estimate(2_900_000)), answering(reverted), answering(estimate(50_000)))
+                .when(web3j).ethEstimateGas(any());
+
+        assertEquals(STATIC_LIMIT, oracle.gasLimit(FROM, CONTRACT, "0x33333333"));
+        assertEquals(STATIC_LIMIT, oracle.gasLimit(FROM, CONTRACT, "0x44444444"));
+        assertEquals(BigInteger.valueOf(60_000), oracle.gasLimit(FROM, CONTRACT, "0x44444444"));
+    }
+
+    @Test
+    void staticModeNeverAsksTheNode() {
+        fees.setMode(BlockchainProperties.Fees.Mode.STATIC);
+
+        assertEquals(STATIC_LIMIT, oracle.gasLimit(FROM, CONTRACT, "0x11111111"));
+        assertEquals(FeeOracle.Quote.legacy(STATIC_PRICE), oracle.quote());
+        verify(web3j, never()).ethEstimateGas(any());
+        verify(web3j, never()).ethGasPrice();
+    }
+
+    @Test
+    void dynamicQuoteIsTwiceTheNextBaseFeePlusTheMedianTip() throws Exception {
+        doReturn(answering(feeHistory(List.of("0x64", "0xc8"), List.of("0x1", "0x5", "0x3"))))
+                .when(web3j).ethFeeHistory(anyInt(), any(), anyList());
+
+        FeeOracle.Quote quote = oracle.quote();
+
+        assertTrue(quote.isDynamic());
+        assertEquals(BigInteger.valueOf(3), quote.maxPriorityFeePerGas());
+        assertEquals(BigInteger.valueOf(2 * 200 + 3), quote.maxFeePerGas());
+    }
+
+    @Test
+    void chainWithoutBaseFeeFallsBackToGasPriceForGood() throws Exception {
+        doReturn(answering(feeHistory(List.of(), List.of()))).when(web3j).ethFeeHistory(anyInt(), any(), anyList());
+        doReturn(answering(gasPrice(7))).when(web3j).ethGasPrice();
+
+        assertEquals(FeeOracle.Quote.legacy(BigInteger.valueOf(7)), oracle.quote());
+        oracle.onHead(new ChainHeadReceived(2));
+        assertFalse(oracle.quote().isDynamic());
+
+        verify(web3j, times(1)).ethFeeHistory(anyInt(), any(), anyList());
+        verify(web3j, times(2)).ethGasPrice();
+    }
+
+    @Test
+    void quoteIsCachedUntilTheNextHead() throws Exception {
+        fees.setMode(BlockchainProperties.Fees.Mode.LEGACY);
+        doReturn(answering(gasPrice(7)), answering(gasPrice(9))).when(web3j).ethGasPrice();
+
+        FeeOracle.Quote first = oracle.quote();
+        assertSame(first, oracle.quote());
+        oracle.onHead(new ChainHeadReceived(2));
+
+        assertEquals(BigInteger.valueOf(9), oracle.quote().gasPrice());
+    }
+
+    @Test
+    void sampledFeesAreHeldToTheCeilingAndFailuresUseTheStaticPrice() throws Exception {
+        fees.setMode(BlockchainProperties.Fees.Mode.LEGACY);
+        fees.setMaxGasPrice(BigInteger.valueOf(50));
+        Request<?, EthGasPrice> failing = answering(gasPrice(1));
+        when(failing.send()).thenReturn(gasPrice(80)).thenThrow(new IOException("connection refused"));
+        doReturn(failing).when(web3j).ethGasPrice();
+
+        assertEquals(BigInteger.valueOf(50), oracle.quote().gasPrice());
+        oracle.onHead(new ChainHeadReceived(2));
+        assertEquals(STATIC_PRICE, oracle.quote().gasPrice());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Response<?>> Request<?, T> answering(T response) throws IOException {
+        Request<?, T> request = mock(Request.class);
+        when(request.send()).thenReturn(response);
+        return request;
+    }
+
+    private static EthEstimateGas estimate(long gas) {
+        EthEstimateGas estimate = new EthEstimateGas();
+        estimate.setResult("0x" + Long.toHexString(gas));
+        return estimate;
+    }
+
+    private static EthGasPrice gasPrice(long wei) {
+        EthGasPrice price = new EthGasPrice();
+        price.setResult("0x" + Long.toHexString(wei));
+        return price;
+    }
+
+    private static EthFeeHistory feeHistory(List<String> baseFees, List<String> tips) {
+        EthFeeHistory.FeeHistory history = new EthFeeHistory.FeeHistory();
+        history.setOldestBlock("0x1");
+        history.setBaseFeePerGas(baseFees);
+        history.setReward(tips.stream().map(List::of).toList());
+        EthFeeHistory response = new EthFeeHistory();
+        response.setResult(history);
+        return response;
+    }
+}
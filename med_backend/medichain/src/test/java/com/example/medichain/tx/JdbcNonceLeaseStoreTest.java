@@ -0,0 +1,83 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+// Runs the lease upsert against a real PostgreSQL; skipped where Docker is unavailable.
+@Testcontainers(disabledWithoutDocker = true)
+class JdbcNonceLeaseStoreTest {
+
+    private static final String SENDER = "0x627306090abab3a6e1400e9345bc60c78a8bef57";
+
+    @Container
+    private static final PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        // As Hibernate creates it from NonceLease.
+        jdbcTemplate.execute("drop table if exists nonce_leases");
+        jdbcTemplate.execute(
+                "create table nonce_leases (address varchar(42) primary key, next_nonce bigint not null)");
+    }
+
+    @Test
+    void leasesStartAtTheChainNonceAndNeverMoveBack() {
+        JdbcNonceLeaseStore store = new JdbcNonceLeaseStore(jdbcTemplate);
+
+        assertEquals(5L, store.lease(SENDER, 5L, 4));
+        assertEquals(9L, store.lease(SENDER, 5L, 4));
+        // The chain moved past the table, e.g. another tool sent with the key.
+        assertEquals(20L, store.lease(SENDER, 20L, 2));
+        assertEquals(22L, store.lease(SENDER, 0L, 1));
+        assertEquals(23L, jdbcTemplate.queryForObject(
+                "select next_nonce from nonce_leases where address = ?", Long.class, SENDER));
+    }
+
+    @Test
+    void instancesSharingTheTableNeverReuseANonce() throws Exception {
+        List<NonceAllocator> instances = List.of(
+                new NonceAllocator(new JdbcNonceLeaseStore(jdbcTemplate), address -> 5L, 4),
+                new NonceAllocator(new JdbcNonceLeaseStore(jdbcTemplate), address -> 5L, 4),
+                new NonceAllocator(new JdbcNonceLeaseStore(jdbcTemplate), address -> 5L, 1));
+
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 120; i++) {
+                NonceAllocator allocator = instances.get(i % instances.size());
+                tasks.add(() -> {
+                    seen.add(allocator.next(SENDER));
+                    return null;
+                });
+            }
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(120, seen.size());
+        assertEquals(5L, seen.stream().mapToLong(Long::longValue).min().orElseThrow());
+    }
+}
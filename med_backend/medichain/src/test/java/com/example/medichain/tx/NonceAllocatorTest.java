@@ -0,0 +1,127 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class NonceAllocatorTest {
+
+    private static final String SENDER = "0x627306090abab3a6e1400e9345bc60c78a8bef57";
+    private static final long STALL_MS = 60_000;
+
+    @Test
+    void instancesSharingAStoreNeverReuseANonce() throws Exception {
+        NonceLeaseStore shared = new InMemoryNonceLeaseStore();
+        List<NonceAllocator> instances = List.of(
+                new NonceAllocator(shared, address -> 5L, 4),
+                new NonceAllocator(shared, address -> 5L, 4),
+                new NonceAllocator(shared, address -> 5L, 1));
+
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                NonceAllocator allocator = instances.get(i % instances.size());
+                tasks.add(() -> {
+                    seen.add(allocator.next(SENDER));
+                    return null;
+                });
+            }
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(300, seen.size());
+        assertEquals(5L, seen.stream().mapToLong(Long::longValue).min().orElseThrow());
+    }
+
+    @Test
+    void releasedNonceIsReusedBeforeTheRangeAdvances() throws Exception {
+        NonceAllocator allocator = new NonceAllocator(new InMemoryNonceLeaseStore(), address -> 0L, 10);
+        assertEquals(0L, allocator.next(SENDER));
+        assertEquals(1L, allocator.next(SENDER));
+        allocator.release(SENDER, 0L);
+        assertEquals(0L, allocator.next(SENDER));
+        assertEquals(2L, allocator.next(SENDER));
+    }
+
+    @Test
+    void resetLeasesAgainFromTheChain() throws Exception {
+        long[] chain = {0L};
+        NonceAllocator allocator = new NonceAllocator(new InMemoryNonceLeaseStore(), address -> chain[0], 10);
+        assertEquals(0L, allocator.next(SENDER));
+        chain[0] = 42L;
+        allocator.reset(SENDER);
+        assertEquals(42L, allocator.next(SENDER));
+    }
+
+    @Test
+    void gapLeftByAnotherInstanceIsReportedOnceItStallsLongEnough() throws Exception {
+        NonceLeaseStore shared = new InMemoryNonceLeaseStore();
+        long[] chain = {0L};
+        NonceAllocator dead = new NonceAllocator(shared, address -> chain[0], 1);
+        NonceAllocator live = new NonceAllocator(shared, address -> chain[0], 1);
+        assertEquals(0L, dead.next(SENDER));
+        assertEquals(1L, live.next(SENDER));
+        live.markSent(SENDER, 1L);
+
+        assertTrue(live.stalledGap(SENDER, 100, 0, 5, STALL_MS).isEmpty());
+        assertTrue(live.stalledGap(SENDER, 104, 0, 5, STALL_MS).isEmpty());
+        assertEquals(new NonceAllocator.Gap(0L, 1L), live.stalledGap(SENDER, 105, 0, 5, STALL_MS).orElseThrow());
+        assertTrue(live.stalledGap(SENDER, 106, 0, 5, STALL_MS).isEmpty());
+
+        chain[0] = 2L;
+        assertTrue(live.stalledGap(SENDER, 107, 0, 5, STALL_MS).isEmpty());
+    }
+
+    @Test
+    void gapIsReportedAfterTheTimeBoundWhenNoBlocksAreMined() throws Exception {
+        NonceLeaseStore shared = new InMemoryNonceLeaseStore();
+        NonceAllocator dead = new NonceAllocator(shared, address -> 0L, 1);
+        NonceAllocator live = new NonceAllocator(shared, address -> 0L, 1);
+        dead.next(SENDER);
+        live.markSent(SENDER, live.next(SENDER));
+
+        assertTrue(live.stalledGap(SENDER, 100, 1_000, 5, STALL_MS).isEmpty());
+        assertTrue(live.stalledGap(SENDER, 100, 1_000 + STALL_MS - 1, 5, STALL_MS).isEmpty());
+        assertEquals(new NonceAllocator.Gap(0L, 1L),
+                live.stalledGap(SENDER, 100, 1_000 + STALL_MS, 5, STALL_MS).orElseThrow());
+    }
+
+    @Test
+    void wholeRangeLostWithAnInstanceIsOneGap() throws Exception {
+        NonceLeaseStore shared = new InMemoryNonceLeaseStore();
+        NonceAllocator dead = new NonceAllocator(shared, address -> 0L, 4);
+        NonceAllocator live = new NonceAllocator(shared, address -> 0L, 4);
+        dead.next(SENDER);
+        long first = live.next(SENDER);
+        live.markSent(SENDER, first);
+        live.markSent(SENDER, live.next(SENDER));
+
+        assertTrue(live.stalledGap(SENDER, 100, 0, 1, STALL_MS).isEmpty());
+        assertEquals(new NonceAllocator.Gap(0L, first), live.stalledGap(SENDER, 101, 0, 1, STALL_MS).orElseThrow());
+    }
+
+    @Test
+    void ownUnminedNonceIsNotAGap() throws Exception {
+        NonceAllocator allocator = new NonceAllocator(new InMemoryNonceLeaseStore(), address -> 0L, 10);
+        allocator.markSent(SENDER, allocator.next(SENDER));
+        allocator.markSent(SENDER, allocator.next(SENDER));
+
+        assertTrue(allocator.stalledGap(SENDER, 100, 0, 1, STALL_MS).isEmpty());
+        assertTrue(allocator.stalledGap(SENDER, 200, 2 * STALL_MS, 1, STALL_MS).isEmpty());
+    }
+}
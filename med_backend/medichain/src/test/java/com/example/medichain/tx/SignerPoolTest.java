@@ -0,0 +1,91 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Credentials;
+
+class SignerPoolTest {
+
+    private final SignerAccount wallet = account("0x8f2a55949038a9610f50fb23b5883af3b4ecb3c3bb792cbcefbd1542c692be63");
+    private final SignerAccount manufacturer = account("0xc87509a1c067bbde78beb793e6fa76530b6382a4c0241e5e4a9ec0a0f44dc0d3");
+    private final SignerAccount distributor = account("0xae6ae8e5ccbfb04590405997ee2d52d2b330726137b875053c36d94e974d162f");
+    private final SignerPool pool = new SignerPool(wallet, List.of(manufacturer, distributor, wallet));
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void accountsAreFoundByAddressInAnyCase() {
+        assertSame(manufacturer, pool.forAddress(manufacturer.getAddress().toUpperCase().replace("0X", "0x")).orElseThrow());
+        assertTrue(pool.forAddress(null).isEmpty());
+        assertTrue(pool.forAddress("0x00000000000000000000000000000000000000aa").isEmpty());
+    }
+
+    @Test
+    void walletKeyListedAgainIsPooledOnce() {
+        assertEquals(List.of(wallet, manufacturer, distributor), pool.accounts());
+        assertSame(wallet, pool.defaultAccount());
+    }
+
+    @Test
+    void leastLoadedSkipsAccountsWithQueuedSends() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            wallet.submit(transactionManager -> {
+                release.await();
+                return "0x1";
+            });
+            wallet.submit(transactionManager -> "0x2");
+            manufacturer.submit(transactionManager -> {
+                release.await();
+                return "0x3";
+            });
+            manufacturer.submit(transactionManager -> "0x4");
+
+            assertSame(distributor, pool.leastLoaded());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void sendsOnOneAccountRunInOrderAndCountFailures() throws Exception {
+        StringBuilder order = new StringBuilder();
+        CompletableFuture<String> first = distributor.submit(transactionManager -> {
+            order.append('a');
+            return "0x1";
+        });
+        CompletableFuture<String> failed = distributor.submit(transactionManager -> {
+            order.append('b');
+            throw new IllegalStateException("nonce too low");
+        });
+        CompletableFuture<String> last = distributor.submit(transactionManager -> {
+            order.append('c');
+            return "0x3";
+        });
+
+        assertEquals("0x1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("0x3", last.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, failed::get);
+        assertEquals("abc", order.toString());
+        assertEquals(2, distributor.getSubmitted());
+        assertEquals(1, distributor.getFailed());
+        assertEquals(0, distributor.getQueueDepth());
+    }
+
+    private static SignerAccount account(String privateKey) {
+        return new SignerAccount(Credentials.create(privateKey), null);
+    }
+}
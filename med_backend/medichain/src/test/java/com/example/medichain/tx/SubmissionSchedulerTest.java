@@ -0,0 +1,154 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SubmissionSchedulerTest {
+
+    private final List<String> served = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch gate = new CountDownLatch(1);
+    // Callers block in run(), so each needs its own thread.
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private SubmissionScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        callers.shutdownNow();
+    }
+
+    @Test
+    void higherClassesAreServedFirst() throws Exception {
+        scheduler = new SubmissionScheduler(1, 10, Map.of());
+        holdTheWorker();
+        List<CompletableFuture<String>> results = List.of(
+                enqueue(TxPriority.AUDIT_VERIFY, "a", "verify"),
+                enqueue(TxPriority.REGISTRATION, "a", "create"),
+                enqueue(TxPriority.TRANSFER, "a", "transfer"));
+
+        gate.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("transfer", "create", "verify"), served);
+    }
+
+    @Test
+    void tenantsShareAClassByWeight() throws Exception {
+        scheduler = new SubmissionScheduler(1, 20, Map.of("bulk", 3));
+        holdTheWorker();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(enqueue(TxPriority.REGISTRATION, "bulk", "b"));
+        }
+        results.add(enqueue(TxPriority.REGISTRATION, "clinic", "c"));
+        results.add(enqueue(TxPriority.REGISTRATION, "clinic", "c"));
+
+        gate.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Six bulk registrations queued first still let the clinic in after every three.
+        assertEquals(List.of("b", "b", "b", "c", "b", "b", "b", "c"), served);
+    }
+
+    @Test
+    void fullClassRejectsAtOnceWithoutBlockingOthers() throws Exception {
+        scheduler = new SubmissionScheduler(1, 2, Map.of());
+        holdTheWorker();
+        enqueue(TxPriority.REGISTRATION, "a", "create-1");
+        enqueue(TxPriority.REGISTRATION, "a", "create-2");
+
+        assertThrows(RejectedExecutionException.class,
+                () -> scheduler.run(TxPriority.REGISTRATION, "b", () -> "create-3"));
+        CompletableFuture<String> transfer = enqueue(TxPriority.TRANSFER, "b", "transfer");
+
+        SubmissionScheduler.ClassStatus registrations = scheduler.status().stream()
+                .filter(status -> status.priority() == TxPriority.REGISTRATION)
+                .findFirst().orElseThrow();
+        assertEquals(1, registrations.rejected());
+        assertEquals(2, registrations.depth());
+        gate.countDown();
+        assertEquals("transfer", transfer.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shutdownFailsQueuedSubmissionsAndLetsRunningOnesFinish() throws Exception {
+        SubmissionScheduler scheduler = new SubmissionScheduler(1, 10, Map.of());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch node = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> call(() ->
+                scheduler.run(TxPriority.TRANSFER, "a", () -> {
+                    started.countDown();
+                    node.await();
+                    return "0xrunning";
+                })));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> call(() ->
+                scheduler.run(TxPriority.TRANSFER, "b", () -> "0xqueued")));
+        while (scheduler.status().stream().mapToInt(SubmissionScheduler.ClassStatus::depth).sum() == 0) {
+            Thread.sleep(5);
+        }
+
+        scheduler.shutdown();
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failed.getCause().getCause());
+
+        node.countDown();
+        assertEquals("0xrunning", running.get(5, TimeUnit.SECONDS));
+    }
+
+    // Parks the only worker on the gate so later submissions queue up in a known order.
+    private void holdTheWorker() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture.supplyAsync(() -> call(() -> scheduler.run(TxPriority.TRANSFER, "gate", () -> {
+            started.countDown();
+            gate.await();
+            return "gate";
+        })), callers);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private CompletableFuture<String> enqueue(TxPriority priority, String tenant, String name) throws Exception {
+        int depth = queued();
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> call(() ->
+                scheduler.run(priority, tenant, () -> {
+                    served.add(name);
+                    return name;
+                })), callers);
+        while (queued() == depth) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    private int queued() {
+        return scheduler.status().stream().mapToInt(SubmissionScheduler.ClassStatus::depth).sum();
+    }
+
+    private static String call(Callable<String> callable) {
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
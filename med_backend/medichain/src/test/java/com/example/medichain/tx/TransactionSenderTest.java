@@ -0,0 +1,100 @@
+package com.example.medichain.tx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medichain.metrics.ChainMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+
+class TransactionSenderTest {
+
+    private static final String FROM = "0x00000000000000000000000000000000000000aa";
+    private static final String CONTRACT = "0x00000000000000000000000000000000000000cc";
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final FeeOracle feeOracle = mock(FeeOracle.class);
+    private final SigningTransactionManager transactionManager = mock(SigningTransactionManager.class);
+    private final SignerAccount account = mock(SignerAccount.class);
+    private TransactionSender sender;
+
+    // Runs each submission inline, as the account's single-thread executor would.
+    @BeforeEach
+    void setUp() throws Exception {
+        when(account.getAddress()).thenReturn(FROM);
+        when(account.submit(any())).thenAnswer(call -> {
+            try {
+                return CompletableFuture.completedFuture(
+                        call.<SignerAccount.Send>getArgument(0).send(transactionManager));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        when(feeOracle.quote()).thenReturn(FeeOracle.Quote.dynamic(BigInteger.TEN, BigInteger.ONE));
+        when(feeOracle.gasLimit(any(), any(), any())).thenReturn(BigInteger.valueOf(100_000));
+        EthBlockNumber head = new EthBlockNumber();
+        head.setResult("0x64");
+        doReturn(answering(head)).when(web3j).ethBlockNumber();
+        sender = new TransactionSender(
+                web3j, feeOracle, new ChainMetrics(new SimpleMeterRegistry()), null, 10, 10, 1000, 10);
+    }
+
+    @Test
+    void chainIdFailureLeavesTheNonceUntaken() throws Exception {
+        when(feeOracle.chainId()).thenThrow(new IOException("node unreachable"));
+
+        assertThrows(IOException.class, () -> sender.send(account, "createBatch", CONTRACT, "0x"));
+
+        verify(transactionManager, never()).nextNonce();
+    }
+
+    @Test
+    void nonceIsGivenBackWhenSigningFailsBeforeTheBroadcast() throws Exception {
+        when(feeOracle.chainId()).thenReturn(1337L);
+        when(transactionManager.nextNonce()).thenReturn(BigInteger.valueOf(7));
+        IllegalArgumentException signing = new IllegalArgumentException("bad key");
+        when(transactionManager.signAndSend(any())).thenThrow(signing);
+
+        Exception e = assertThrows(Exception.class, () -> sender.send(account, "createBatch", CONTRACT, "0x"));
+
+        assertSame(signing, e);
+        verify(transactionManager).releaseNonce(BigInteger.valueOf(7));
+    }
+
+    @Test
+    void nonceOfAPossiblyBroadcastTransactionIsKept() throws Exception {
+        when(feeOracle.chainId()).thenReturn(1337L);
+        when(transactionManager.nextNonce()).thenReturn(BigInteger.valueOf(7));
+        when(transactionManager.signAndSend(any())).thenThrow(
+                new SigningTransactionManager.SendOutcomeUnknownException("0xabc", new IOException("reset")));
+
+        SigningTransactionManager.SendOutcomeUnknownException e = assertThrows(
+                SigningTransactionManager.SendOutcomeUnknownException.class,
+                () -> sender.send(account, "createBatch", CONTRACT, "0x"));
+
+        assertEquals("0xabc", e.getTransactionHash());
+        verify(transactionManager, never()).releaseNonce(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Response<?>> Request<?, T> answering(T response) throws IOException {
+        Request<?, T> request = mock(Request.class);
+        when(request.send()).thenReturn(response);
+        return request;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.medichain.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CatalogIndexTest {
+
+    private final CatalogIndex index = CatalogIndex.build(List.of(
+            new CatalogIndex.Entry("med-001", "Paracetamol", "500mg", "Tablet"),
+            new CatalogIndex.Entry("med-003", "Amoxicillin", "500mg", "Capsule"),
+            new CatalogIndex.Entry("med-007", "Amlodipine", "5mg", "Tablet"),
+            new CatalogIndex.Entry("med-021", "Fluconazole", "150mg", "Capsule")));
+
+    @Test
+    void prefixMatchesRankNameHitsFirst() {
+        List<CatalogIndex.Hit> hits = index.search("am");
+
+        assertEquals(List.of("med-007", "med-003"), ids(hits));
+    }
+
+    @Test
+    void toleratesTyposInWholeAndPartialNames() {
+        assertEquals(List.of("med-001"), ids(index.search("paracetmol")));
+        assertEquals(List.of("med-003"), ids(index.search("amoxy")));
+    }
+
+    @Test
+    void everyQueryTermMustMatch() {
+        assertEquals(List.of("med-003"), ids(index.search("500mg capsule")));
+        assertTrue(index.search("paracetamol capsule").isEmpty());
+    }
+
+    private static List<String> ids(List<CatalogIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.entry().id()).toList();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.medichain.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class CursorCodecTest {
+
+    @Test
+    void roundTripsTheLastId() {
+        assertEquals(0L, CursorCodec.decode(CursorCodec.encode(0L)));
+        assertEquals(987_654_321L, CursorCodec.decode(CursorCodec.encode(987_654_321L)));
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertEquals(0L, CursorCodec.decode(null));
+        assertEquals(0L, CursorCodec.decode(" "));
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        String unprefixed = Base64.getUrlEncoder().encodeToString("12".getBytes(StandardCharsets.US_ASCII));
+        String notANumber = Base64.getUrlEncoder().encodeToString("v1:x".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(unprefixed));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(notANumber));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.medichain.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ExpiryIndexTest {
+
+    private static byte[] id(int n) {
+        byte[] id = new byte[32];
+        id[0] = (byte) (n >>> 24);
+        id[1] = (byte) (n >>> 16);
+        id[2] = (byte) (n >>> 8);
+        id[3] = (byte) n;
+        return id;
+    }
+
+    @Test
+    void firesWarningThenExpiryOnce() {
+        ExpiryIndex index = new ExpiryIndex(60, 100);
+        index.track(id(1), 1_000, ExpiryIndex.Stage.NEAR_EXPIRY);
+
+        assertTrue(index.drainDue(899).isEmpty());
+
+        List<ExpiryIndex.Due> warning = index.drainDue(900);
+        assertEquals(1, warning.size());
+        assertEquals(ExpiryIndex.Stage.NEAR_EXPIRY, warning.get(0).stage());
+        assertArrayEquals(id(1), warning.get(0).batchId());
+
+        assertTrue(index.drainDue(999).isEmpty());
+        List<ExpiryIndex.Due> expired = index.drainDue(1_000);
+        assertEquals(1, expired.size());
+        assertEquals(ExpiryIndex.Stage.EXPIRED, expired.get(0).stage());
+
+        assertTrue(index.drainDue(10_000).isEmpty());
+    }
+
+    @Test
+    void retrackingMovesTheDeadline() {
+        ExpiryIndex index = new ExpiryIndex(60, 0);
+        index.track(id(1), 1_000, ExpiryIndex.Stage.EXPIRED);
+        index.track(id(1), 5_000, ExpiryIndex.Stage.EXPIRED);
+
+        assertTrue(index.drainDue(1_000).isEmpty());
+        assertEquals(1, index.drainDue(5_000).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void listsExpiringSoonInDeadlineOrder() {
+        ExpiryIndex index = new ExpiryIndex(3600, 86_400);
+        for (int i = 0; i < 10_000; i++) {
+            index.track(id(i), 1_000_000L + i * 100L, ExpiryIndex.Stage.NEAR_EXPIRY);
+        }
+
+        List<ExpiryIndex.Due> soon = index.expiringBetween(1_000_000L, 1_000_000L + 999L, 100);
+        assertEquals(10, soon.size());
+        assertArrayEquals(id(0), soon.get(0).batchId());
+        assertArrayEquals(id(9), soon.get(9).batchId());
+
+        assertEquals(5, index.expiringBetween(1_000_000L, 2_000_000L, 5).size());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.medichain.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class KeyedRateLimiterTest {
+
+    @Test
+    void keysBeyondTheBoundAreStillLimited() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(2, 3);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("flood-" + i);
+        }
+
+        assertTrue(limiter.tryAcquire("victim"));
+        assertTrue(limiter.tryAcquire("victim"));
+        assertFalse(limiter.tryAcquire("victim"));
+    }
+
+    @Test
+    void leastRecentlyUsedBucketIsDroppedFirst() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 2);
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b"));
+        assertFalse(limiter.tryAcquire("a"));
+
+        // "b" is now the eldest, so tracking "c" drops it and keeps "a" empty.
+        assertTrue(limiter.tryAcquire("c"));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.medichain.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.medichain.util.ScanAnomalyDetector.Anomaly;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ScanAnomalyDetectorTest {
+
+    // Colombo and London, about 8,700 km apart.
+    private static final double[] COLOMBO = {6.93, 79.85};
+    private static final double[] LONDON = {51.51, -0.13};
+
+    @Test
+    void flagsCloneScannedOnTwoContinentsWithinAnHour() {
+        ScanAnomalyDetector detector = new ScanAnomalyDetector(64, 86_400, 8, 900, 1_000, 3);
+        long key = ScanAnomalyDetector.key(new byte[32]);
+
+        assertEquals(Set.of(), detector.scan(key, 1_000, COLOMBO[0], COLOMBO[1], false));
+        Set<Anomaly> anomalies = detector.scan(key, 4_600, LONDON[0], LONDON[1], false);
+
+        assertEquals(Set.of(Anomaly.IMPOSSIBLE_TRAVEL, Anomaly.GEO_SPREAD), anomalies);
+    }
+
+    @Test
+    void flagsBurstsAndRepeatedScansAfterSale() {
+        ScanAnomalyDetector detector = new ScanAnomalyDetector(64, 3_600, 2, 900, 1_000, 1);
+        long key = ScanAnomalyDetector.key(new byte[32]);
+
+        assertEquals(Set.of(), detector.scan(key, 0, Double.NaN, Double.NaN, true));
+        assertEquals(Set.of(Anomaly.SCANNED_AFTER_SALE), detector.scan(key, 10, Double.NaN, Double.NaN, true));
+        assertTrue(detector.scan(key, 20, Double.NaN, Double.NaN, false).contains(Anomaly.SCAN_BURST));
+        // Older scans slide out of the window.
+        assertEquals(Set.of(), detector.scan(key, 10_000, Double.NaN, Double.NaN, false));
+    }
+
+    @Test
+    void staysWithinCapacityByEvictingIdleBatches() {
+        ScanAnomalyDetector detector = new ScanAnomalyDetector(16, 3_600, 8, 900, 1_000, 3);
+        byte[] batchId = new byte[32];
+        for (int i = 0; i < 1_000; i++) {
+            batchId[31] = (byte) i;
+            batchId[30] = (byte) (i >> 8);
+            detector.scan(ScanAnomalyDetector.key(batchId), i, Double.NaN, Double.NaN, false);
+        }
+
+        assertEquals(16, detector.capacity());
+        assertTrue(detector.evictions() >= 1_000 - 16);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.medichain.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.medichain.model.BatchState;
+import org.junit.jupiter.api.Test;
+
+class TransitionLogTest {
+
+    private static final String BATCH = "0x01";
+
+    @Test
+    void answersOwnerAndStateAtAnyBlockOrTime() {
+        TransitionLog log = new TransitionLog();
+        log.created(BATCH, 10, 1_000, "0xmanufacturer");
+        log.transferred(BATCH, 20, 2_000, "0xdistributor", BatchState.IN_DISTRIBUTION);
+        log.transferred(BATCH, 30, 3_000, "0xpharmacy", BatchState.IN_PHARMACY);
+
+        assertNull(log.atBlock(BATCH, 9));
+        assertEquals("0xmanufacturer", log.atBlock(BATCH, 19).owner());
+        assertEquals(BatchState.IN_DISTRIBUTION, log.atBlock(BATCH, 20).state());
+        assertEquals(BatchState.IN_PHARMACY, log.atTimestamp(BATCH, 10_000).state());
+        assertEquals(20, log.atTimestamp(BATCH, 2_999).block());
+        assertNull(log.atTimestamp("0x02", 10_000));
+    }
+
+    @Test
+    void keepsTheRecordedStateRatherThanTheNextInSequence() {
+        TransitionLog log = new TransitionLog();
+        log.created(BATCH, 10, 1_000, "0xmanufacturer");
+        // A manufacturer hands the batch to another manufacturer first; the contract keeps it in distribution.
+        log.transferred(BATCH, 20, 2_000, "0xmanufacturer2", BatchState.IN_DISTRIBUTION);
+        log.transferred(BATCH, 30, 3_000, "0xdistributor", BatchState.IN_DISTRIBUTION);
+        log.transferred(BATCH, 40, 4_000, "0xpharmacy", null);
+
+        assertEquals(BatchState.IN_DISTRIBUTION, log.atBlock(BATCH, 30).state());
+        assertEquals(BatchState.IN_DISTRIBUTION, log.atBlock(BATCH, 40).state());
+        assertEquals("0xpharmacy", log.atBlock(BATCH, 40).owner());
+    }
+}
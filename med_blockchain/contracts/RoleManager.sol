@@ -26,6 +26,16 @@ contract RoleManager {
         emit RoleAssigned(_account, _role);
     }
 
+    // Onboards many accounts in one transaction instead of one assignRole call each.
+    function assignRoles(address[] calldata _accounts, Role[] calldata _roles) external onlyAdmin {
+        require(_accounts.length == _roles.length, "Length mismatch");
+        for (uint256 i = 0; i < _accounts.length; i++) {
+            require(_roles[i] != Role.NONE, "Invalid role");
+            roles[_accounts[i]] = _roles[i];
+            emit RoleAssigned(_accounts[i], _roles[i]);
+        }
+    }
+
     function getRole(address _account) public view returns (Role) {
         return roles[_account];
     }
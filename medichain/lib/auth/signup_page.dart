@@ -31,9 +31,6 @@ class _SignupPageState extends State<SignupPage> {
   bool _obscureConfirmPassword = true;
   String? _errorMessage;
 
-  /// MUST MATCH BACKEND ENUM EXACTLY
-  String _selectedRole = 'END_USER';
-
   @override
   void dispose() {
     _firstNameController.dispose();
@@ -57,7 +54,6 @@ class _SignupPageState extends State<SignupPage> {
     try {
       /// ✅ SPRING BOOT COMPATIBLE PAYLOAD
       final userData = {
-        "role": _selectedRole, // ENUM → END_USER
         "username": _emailController.text.trim(),
         "firstName": _firstNameController.text.trim(),
         "lastName": _lastNameController.text.trim(),
@@ -164,32 +160,6 @@ class _SignupPageState extends State<SignupPage> {
                 ),
               if (_errorMessage != null) const SizedBox(height: 16),
 
-              /// ROLE
-              DropdownButtonFormField<String>(
-                value: _selectedRole,
-                decoration: const InputDecoration(
-                  labelText: 'Role',
-                  border: OutlineInputBorder(),
-                ),
-                items: const [
-                  DropdownMenuItem(
-                    value: 'END_USER',
-                    child: Text('Patient / End User'),
-                  ),
-                  DropdownMenuItem(
-                    value: 'MANUFACTURER',
-                    child: Text('Manufacturer'),
-                  ),
-                  DropdownMenuItem(
-                    value: 'DISTRIBUTOR',
-                    child: Text('Distributor'),
-                  ),
-                  DropdownMenuItem(value: 'PHARMACY', child: Text('Pharmacy')),
-                ],
-                onChanged: (value) => setState(() => _selectedRole = value!),
-              ),
-              const SizedBox(height: 16),
-
               /// NAME
               Row(
                 children: [
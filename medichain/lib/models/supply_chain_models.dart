@@ -68,14 +68,27 @@ class VerifyBatchRequest {
   final String? batchId;
   final String? metadataHash;
   final String? qrPayload;
+  // Where the scan happened; the backend uses it to spot cloned codes.
+  final double? latitude;
+  final double? longitude;
 
-  VerifyBatchRequest({this.batchId, this.metadataHash, this.qrPayload});
+  VerifyBatchRequest({
+    this.batchId,
+    this.metadataHash,
+    this.qrPayload,
+    this.latitude,
+    this.longitude,
+  });
 
   Map<String, dynamic> toJson() {
+    final location = {
+      if (latitude != null) 'latitude': latitude,
+      if (longitude != null) 'longitude': longitude,
+    };
     if (qrPayload != null && qrPayload!.isNotEmpty) {
-      return {'qrPayload': qrPayload};
+      return {'qrPayload': qrPayload, ...location};
     }
-    return {'batchId': batchId, 'metadataHash': metadataHash};
+    return {'batchId': batchId, 'metadataHash': metadataHash, ...location};
   }
 }
 
@@ -162,12 +175,14 @@ class VerifyBatchResponse {
   final SupplyChainReceipt receipt;
   final String? batchId;
   final String? metadataHash;
+  final List<String> anomalies;
 
   VerifyBatchResponse({
     required this.isValid,
     required this.receipt,
     this.batchId,
     this.metadataHash,
+    this.anomalies = const [],
   });
 
   factory VerifyBatchResponse.fromJson(Map<String, dynamic> json) {
@@ -178,8 +193,27 @@ class VerifyBatchResponse {
       ),
       batchId: json['batchId'] ?? json['batch_id'],
       metadataHash: json['metadataHash'] ?? json['metadata_hash'],
+      anomalies: (json['anomalies'] as List<dynamic>? ?? const [])
+          .map((anomaly) => anomaly.toString())
+          .toList(),
     );
   }
+
+  // Why the backend suspects a cloned code, worded for the person holding the pack.
+  static String describeAnomaly(String anomaly) {
+    switch (anomaly) {
+      case 'SCAN_BURST':
+        return 'Scanned far more often than a single pack would be.';
+      case 'IMPOSSIBLE_TRAVEL':
+        return 'Scanned in places too far apart to travel between in time.';
+      case 'GEO_SPREAD':
+        return 'Scanned across a wider area than one distribution route.';
+      case 'SCANNED_AFTER_SALE':
+        return 'Scanned repeatedly after it was sold to a patient.';
+      default:
+        return anomaly;
+    }
+  }
 }
 
 class SupplyChainBatch {
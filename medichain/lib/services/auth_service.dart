@@ -97,7 +97,6 @@ class AuthService {
         'dob': userData['dob'],
         'password': userData['password'],
         'confirmPassword': userData['confirmPassword'],
-        'role': userData['role'],
       });
 
       return response.data['success'] == true;
@@ -2,8 +2,10 @@
 import 'dart:convert';
 
 import 'package:flutter/material.dart';
+import 'package:geolocator/geolocator.dart';
 import 'package:mobile_scanner/mobile_scanner.dart';
 import '../../models/supply_chain_models.dart';
+import '../../services/location_service.dart';
 import '../../services/supply_chain_service.dart';
 import '../supply_chain/transfer_batch_page.dart';
 
@@ -16,6 +18,9 @@ class DistributorScanQRPage extends StatefulWidget {
 
 class _DistributorScanQRPageState extends State<DistributorScanQRPage> {
   final SupplyChainService _supplyChainService = SupplyChainService();
+  final LocationService _locationService = LocationService();
+  static const Duration _positionTimeLimit = Duration(seconds: 3);
+  static const Duration _lastKnownMaxAge = Duration(minutes: 2);
   MobileScannerController cameraController = MobileScannerController();
   bool _isLoading = false;
   String _scannedData = '';
@@ -74,6 +79,13 @@ class _DistributorScanQRPageState extends State<DistributorScanQRPage> {
         return;
       }
 
+      if (response.anomalies.isNotEmpty &&
+          !await _confirmDespiteAnomalies(response.anomalies)) {
+        await _resetScanner();
+        return;
+      }
+      if (!mounted) return;
+
       Navigator.pushReplacement(
         context,
         MaterialPageRoute(
@@ -95,9 +107,14 @@ class _DistributorScanQRPageState extends State<DistributorScanQRPage> {
   }
 
   Future<VerifyBatchResponse> _verifyQrPayload(String code) async {
+    final position = await _scanPosition();
     try {
       return await _supplyChainService.verifyBatch(
-        VerifyBatchRequest(qrPayload: code),
+        VerifyBatchRequest(
+          qrPayload: code,
+          latitude: position?.latitude,
+          longitude: position?.longitude,
+        ),
       );
     } catch (e) {
       if (!_isBadRequest(e)) rethrow;
@@ -107,11 +124,71 @@ class _DistributorScanQRPageState extends State<DistributorScanQRPage> {
       if (batchId == null || metadataHash == null) rethrow;
 
       return await _supplyChainService.verifyBatch(
-        VerifyBatchRequest(batchId: batchId, metadataHash: metadataHash),
+        VerifyBatchRequest(
+          batchId: batchId,
+          metadataHash: metadataHash,
+          latitude: position?.latitude,
+          longitude: position?.longitude,
+        ),
       );
     }
   }
 
+  // The scan is still verified when location is off, denied or slow to fix.
+  // A recent last-known fix is used as is; an old one would look like travel.
+  Future<Position?> _scanPosition() async {
+    try {
+      final lastKnown = await Geolocator.getLastKnownPosition();
+      final fixedAt = lastKnown?.timestamp;
+      if (lastKnown != null &&
+          fixedAt != null &&
+          DateTime.now().difference(fixedAt) < _lastKnownMaxAge) {
+        return lastKnown;
+      }
+      return await _locationService.getCurrentPosition().timeout(
+        _positionTimeLimit,
+      );
+    } catch (_) {
+      return null;
+    }
+  }
+
+  Future<bool> _confirmDespiteAnomalies(List<String> anomalies) async {
+    final proceed = await showDialog<bool>(
+      context: context,
+      barrierDismissible: false,
+      builder: (context) => AlertDialog(
+        title: const Text('Possible Counterfeit'),
+        content: Column(
+          mainAxisSize: MainAxisSize.min,
+          crossAxisAlignment: CrossAxisAlignment.start,
+          children: [
+            const Text('This code has been flagged:'),
+            const SizedBox(height: 8),
+            for (final anomaly in anomalies)
+              Padding(
+                padding: const EdgeInsets.only(top: 4),
+                child: Text(
+                  '• ${VerifyBatchResponse.describeAnomaly(anomaly)}',
+                ),
+              ),
+          ],
+        ),
+        actions: [
+          TextButton(
+            onPressed: () => Navigator.pop(context, false),
+            child: const Text('Scan Again'),
+          ),
+          TextButton(
+            onPressed: () => Navigator.pop(context, true),
+            child: const Text('Continue'),
+          ),
+        ],
+      ),
+    );
+    return proceed ?? false;
+  }
+
   bool _isBadRequest(Object error) {
     final message = error.toString().toLowerCase();
     return message.contains('bad request') || message.contains('400');
@@ -196,12 +196,52 @@ class _VerifyBatchPageState extends State<VerifyBatchPage> {
             ),
             _buildReceiptRow('Gas Used', receipt.gasUsed?.toString() ?? 'N/A'),
             _buildReceiptRow('Status', receipt.status ?? 'N/A'),
+            if (response.anomalies.isNotEmpty) ...[
+              const SizedBox(height: 12),
+              _buildAnomalies(response.anomalies),
+            ],
           ],
         ),
       ),
     );
   }
 
+  Widget _buildAnomalies(List<String> anomalies) {
+    return Container(
+      width: double.infinity,
+      padding: const EdgeInsets.all(12),
+      decoration: BoxDecoration(
+        color: Colors.amber.shade50,
+        borderRadius: BorderRadius.circular(8),
+        border: Border.all(color: Colors.amber.shade300),
+      ),
+      child: Column(
+        crossAxisAlignment: CrossAxisAlignment.start,
+        children: [
+          Row(
+            children: [
+              Icon(Icons.warning_amber, color: Colors.amber.shade800),
+              const SizedBox(width: 8),
+              Text(
+                'Possible counterfeit',
+                style: TextStyle(
+                  fontWeight: FontWeight.bold,
+                  color: Colors.amber.shade900,
+                ),
+              ),
+            ],
+          ),
+          const SizedBox(height: 8),
+          for (final anomaly in anomalies)
+            Padding(
+              padding: const EdgeInsets.only(top: 4),
+              child: Text('• ${VerifyBatchResponse.describeAnomaly(anomaly)}'),
+            ),
+        ],
+      ),
+    );
+  }
+
   Widget _buildReceiptRow(String label, String value) {
     return Padding(
       padding: const EdgeInsets.symmetric(vertical: 6),